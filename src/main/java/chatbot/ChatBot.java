@@ -1,10 +1,30 @@
 package chatbot;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.StringJoiner;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
+import chatbot.command.CommandType;
+import chatbot.completion.Completer;
 import chatbot.command.Parser;
+import chatbot.command.UndoHistory;
 import chatbot.exception.ChatBotException;
+import chatbot.reminder.ReminderScheduler;
+import chatbot.storage.Archive;
 import chatbot.storage.Storage;
+import chatbot.storage.Workspace;
+import chatbot.task.Task;
 import chatbot.task.TaskList;
 import chatbot.ui.Ui;
 
@@ -15,28 +35,143 @@ import chatbot.ui.Ui;
  */
 public class ChatBot {
 
-    private final Storage storage;
-    private TaskList tasks;
+    /** Done deadlines and events that ended this many days ago are moved to the archive on startup. */
+    private static final int AUTO_ARCHIVE_DAYS = 30;
+
+    /** Estimated bytes the loaded task lists may use, unless set with {@code -Dchatbot.listMemoryBudget}. */
+    private static final long DEFAULT_LIST_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private final Workspace workspace;
     private final Ui ui;
+    private final ReminderScheduler reminders;
+    private final Completer completer;
+    private UndoHistory undoHistory = new UndoHistory();
+    private UndoHistory historyAtBegin; // Undo history to go back to on rollback, null unless a transaction is open
 
     /**
      * Constructs a ChatBot instance with the specified storage file path.
      * Loads existing tasks from storage, or initializes an empty task list if loading fails.
+     * Other named lists are kept as files next to it and loaded when first used.
      *
      * @param filePath Path to the file where tasks are stored.
      */
     public ChatBot(String filePath) {
+        this(filePath, Long.getLong("chatbot.listMemoryBudget", DEFAULT_LIST_MEMORY_BUDGET));
+    }
+
+    /**
+     * Constructs a ChatBot instance with the specified storage file path and memory budget for loaded lists.
+     *
+     * @param filePath         Path to the file of the default list, e.g. {@code data/tasks.txt}. Lists are stored
+     *                         compressed if it ends in {@code .gz} or {@code -Dchatbot.compress=true} is set,
+     *                         and as logs or records with {@code -Dchatbot.eventLog=true}
+     *                         or {@code -Dchatbot.records=true}. Archives are split by month with
+     *                         {@code -Dchatbot.partitionArchive=true}.
+     * @param listMemoryBudget Estimated bytes the loaded lists may use before least recently used ones are dropped.
+     */
+    public ChatBot(String filePath, long listMemoryBudget) {
         ui = new Ui();
-        storage = new Storage(filePath);
+        reminders = new ReminderScheduler(ui, Clock.systemDefaultZone());
+        completer = new Completer();
+
+        Path file = Path.of(filePath).toAbsolutePath();
+        String fileName = file.getFileName().toString();
+        boolean isCompressed = Boolean.getBoolean("chatbot.compress");
+        if (fileName.endsWith(Storage.COMPRESSED_EXTENSION)) {
+            isCompressed = true;
+            fileName = fileName.substring(0, fileName.length() - Storage.COMPRESSED_EXTENSION.length());
+        }
+        String defaultList = fileName.endsWith(".txt") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        Workspace.Format format = Boolean.getBoolean("chatbot.eventLog") ? Workspace.Format.EVENT_LOG
+                : Boolean.getBoolean("chatbot.records") ? Workspace.Format.RECORDS
+                : isCompressed ? Workspace.Format.COMPRESSED : Workspace.Format.TEXT;
+        workspace = new Workspace(file.getParent(), listMemoryBudget, format, this::prepareList, this::releaseList);
+        if (Boolean.getBoolean("chatbot.partitionArchive")) {
+            workspace.partitionArchivesByMonth();
+        }
 
         try {
             // Load tasks from storage
-            tasks = new TaskList(storage.load());
+            workspace.use(defaultList);
         } catch (ChatBotException e) {
             // If loading fails, start with an empty task list and show error
-            tasks = new TaskList();
+            workspace.useEmpty(defaultList);
             System.out.println(ui.showLoadingError(e));
         }
+        try {
+            workspace.watchForExternalEdits();
+        } catch (ChatBotException e) {
+            System.out.println(e.getMessage()); // Edits made elsewhere are then overwritten on the next save
+        }
+        tasks().addListener(completer);
+        completer.addAll(tasks());
+        reminders.start();
+    }
+
+    /**
+     * Prepares a list that was just loaded: archives its stale tasks, then schedules its reminders
+     * and lets the task list keep them up to date. Only the current list keeps the completer up to date.
+     */
+    private void prepareList(Workspace.NamedList list) {
+        archiveStaleTasks(list);
+        reminders.scheduleAll(list.getTasks());
+        list.getTasks().addListener(reminders);
+    }
+
+    /**
+     * Cancels the reminders of a list that is dropped from memory.
+     */
+    private void releaseList(Workspace.NamedList list) {
+        for (Task task : list.getTasks().getTasks()) {
+            reminders.taskRemoved(task);
+        }
+    }
+
+    /**
+     * Returns the task list in use.
+     */
+    private TaskList tasks() {
+        return workspace.getCurrent().getTasks();
+    }
+
+    /**
+     * Moves done tasks that ended more than {@value #AUTO_ARCHIVE_DAYS} days ago to the archive,
+     * so that they are no longer loaded, saved or scanned with the active tasks.
+     */
+    private void archiveStaleTasks(Workspace.NamedList list) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(AUTO_ARCHIVE_DAYS);
+        List<Task> staleTasks = list.getTasks().filter(task -> Archive.isStale(task, cutoff)).getTasks();
+        if (staleTasks.isEmpty()) {
+            return;
+        }
+
+        try {
+            list.getArchive().append(staleTasks);
+        } catch (ChatBotException e) {
+            System.out.println(e.getMessage()); // Keep the tasks in the list rather than lose them
+            return;
+        }
+        list.getTasks().removeTasks(task -> Archive.isStale(task, cutoff));
+        list.save();
+    }
+
+    /**
+     * Returns the completer that suggests commands, flags, task numbers and description words while typing.
+     *
+     * @return Completer kept up to date with the task list.
+     */
+    public Completer getCompleter() {
+        return completer;
+    }
+
+    /**
+     * Sets where reminders for due deadlines and starting events are delivered.
+     * The handler is called from a background thread.
+     *
+     * @param reminderHandler Consumer of reminder messages.
+     */
+    public void setReminderHandler(Consumer<String> reminderHandler) {
+        reminders.setReminderHandler(reminderHandler);
     }
 
     /**
@@ -48,16 +183,20 @@ public class ChatBot {
      */
     public void run() {
         System.out.println(ui.showWelcomeMessage());
+        setReminderHandler(System.out::println);
         Scanner scanner = new Scanner(System.in);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
 
         while (true) {
             // Read user input
             String input = scanner.nextLine();
 
             try {
-                // Process input and print chatbot response
-                System.out.println(this.getResponse(input));
-            } catch (ChatBotException e) {
+                // Process input and stream chatbot response to the console
+                this.writeResponse(input, out);
+                out.append(System.lineSeparator());
+                out.flush();
+            } catch (ChatBotException | IOException e) {
                 System.out.println(e.getMessage());
             }
 
@@ -78,20 +217,251 @@ public class ChatBot {
         new ChatBot("data/tasks.txt").run();
     }
 
+    /**
+     * Merges edits that other programs made to the files of loaded lists, then saves the lists that changed.
+     *
+     * @return A line saying what changed for each list that was reloaded, or an empty string.
+     */
+    private String syncWithFiles() {
+        if (isInTransaction()) {
+            return ""; // The file is only brought in step with the list on commit
+        }
+        StringBuilder notes = new StringBuilder();
+        try {
+            Map<String, Storage.Reload> reloads = workspace.reloadExternalEdits();
+            if (reloads.containsKey(workspace.getCurrent().getName())) {
+                undoHistory.clear(); // Undo positions may no longer refer to the same tasks
+            }
+            reloads.forEach((name, reload) -> notes.append(ui.showReloaded(name, reload.added(), reload.removed(),
+                    reload.updated())).append("\n"));
+        } catch (ChatBotException e) {
+            notes.append(e.getMessage()).append("\n");
+        }
+        workspace.saveDirty();
+        return notes.toString();
+    }
+
     /**
      * Generates a response for the user's chat message.
-     * Saves the current task list to storage before processing.
+     * Edits made to the task files by other programs are merged in before processing, and the task lists
+     * that changed are saved to storage straight after, so that the files match the lists between messages.
      *
      * @param input Raw user input string.
      * @return Response message to be shown to the user.
      */
     public String getResponse(String input) throws ChatBotException{
-        // Persist current tasks before handling new input
-        storage.saveToStorage(tasks);
+        return getResponse(input, () -> false);
+    }
 
-        Parser parser = new Parser(input);
+    /**
+     * Generates a response for the user's chat message, stopping early if a long search is cancelled.
+     * Nothing else may use the chatbot until it returns, but the cancellation check may be flipped
+     * from another thread, e.g. when the user sends the next message.
+     * <p>
+     * A message may hold several commands separated by {@code ;} or line breaks. They are applied together:
+     * if one fails, the changes made by the others are undone, and otherwise the list is saved once.
+     * Between {@code begin} and {@code commit}, changes are likewise only saved on commit, and
+     * {@code rollback} undoes them all.
+     *
+     * @param input       Raw user input string.
+     * @param isCancelled Checked while a cancellable command runs (see {@link #isCancellable(String)}).
+     * @return Response message to be shown to the user.
+     * @throws ChatBotException If the input is not a valid command, or the command was cancelled.
+     */
+    public String getResponse(String input, BooleanSupplier isCancelled) throws ChatBotException {
+        List<String> commands = Parser.splitCommands(input);
+        if (commands.size() > 1) {
+            return getGroupResponse(commands, isCancelled);
+        }
+        String notes = syncWithFiles();
+        Parser parser = new Parser(commands.isEmpty() ? input : commands.get(0), undoHistory, isCancelled);
 
         // Parse input and execute command
-        return parser.handleInput(tasks, ui);
+        String response;
+        try {
+            response = switch (parser.getCommandType()) {
+                case BEGIN -> beginTransaction();
+                case COMMIT -> commitTransaction();
+                case ROLLBACK -> rollbackTransaction();
+                case EXIT -> isInTransaction() ? rollbackTransaction() + "\n" + ui.endConversation()
+                        : ui.endConversation();
+                default -> execute(parser);
+            };
+        } finally {
+            // Another program may edit a file once it is no longer in step with its list
+            workspace.saveDirty();
+        }
+        return notes + response;
+    }
+
+    /**
+     * Executes the commands of one message in turn, undoing all their changes if one of them fails.
+     * Listeners hear of the changes at once when they are committed, so the list is saved only once.
+     * Inside an open transaction, the commands become part of it instead.
+     */
+    private String getGroupResponse(List<String> commands, BooleanSupplier isCancelled) throws ChatBotException {
+        String notes = syncWithFiles();
+        TaskList tasks = tasks();
+        boolean isOwnTransaction = !tasks.isInTransaction();
+        if (isOwnTransaction) {
+            tasks.beginTransaction();
+        }
+        int savepoint = tasks.getUncommittedChanges();
+        UndoHistory historyBefore = undoHistory.copy();
+
+        StringJoiner responses = new StringJoiner("\n");
+        boolean isApplied = false;
+        String command = null;
+        try {
+            for (String next : commands) {
+                command = next;
+                responses.add(execute(new Parser(command, undoHistory, isCancelled)));
+            }
+            isApplied = true;
+        } catch (ChatBotException e) {
+            throw new ChatBotException(ui.showCommandsNotApplied(command, e.getMessage()));
+        } finally {
+            if (isApplied) {
+                if (isOwnTransaction) {
+                    tasks.commitTransaction();
+                }
+            } else {
+                if (isOwnTransaction) {
+                    tasks.rollbackTransaction();
+                } else {
+                    tasks.rollbackTo(savepoint);
+                }
+                undoHistory = historyBefore;
+            }
+            workspace.saveDirty();
+        }
+        return notes + responses;
+    }
+
+    /**
+     * Executes a command other than those that open or close transactions.
+     */
+    private String execute(Parser parser) throws ChatBotException {
+        CommandType type = parser.getCommandType();
+        if (isInTransaction() && (type == CommandType.USE_LIST || type == CommandType.ARCHIVE_TASKS)) {
+            throw new ChatBotException("OOPS!!! Please commit or roll back your changes first.");
+        }
+        return switch (type) {
+            case BEGIN, COMMIT, ROLLBACK ->
+                    throw new ChatBotException("OOPS!!! begin, commit and rollback must be sent on their own.");
+            case USE_LIST -> useList(parser.getArguments().get(0));
+            case SHOW_LISTS -> ui.showLists(workspace.getNames(), workspace.getCurrent().getName(),
+                    workspace.getLoadedNames());
+            default -> parser.handleInput(tasks(), ui, workspace.getCurrent().getArchive(),
+                    workspace.getCurrent().getLog());
+        };
+    }
+
+    private boolean isInTransaction() {
+        return tasks().isInTransaction();
+    }
+
+    /**
+     * Opens a transaction on the list in use, remembering the undo history to go back to on rollback.
+     */
+    private String beginTransaction() throws ChatBotException {
+        if (isInTransaction()) {
+            throw new ChatBotException("OOPS!!! A transaction is already open. Commit or roll it back first.");
+        }
+        historyAtBegin = undoHistory.copy();
+        tasks().beginTransaction();
+        return ui.showTransactionBegun();
+    }
+
+    /**
+     * Closes the open transaction. Its changes reach the list's listeners at once, so it is saved only once.
+     */
+    private String commitTransaction() throws ChatBotException {
+        if (!isInTransaction()) {
+            throw new ChatBotException("OOPS!!! There is no transaction to commit.");
+        }
+        int changes = tasks().getUncommittedChanges();
+        tasks().commitTransaction();
+        historyAtBegin = null;
+        return ui.showCommitted(changes);
+    }
+
+    /**
+     * Undoes every change made in the open transaction and closes it.
+     */
+    private String rollbackTransaction() throws ChatBotException {
+        if (!isInTransaction()) {
+            throw new ChatBotException("OOPS!!! There is no transaction to roll back.");
+        }
+        int changes = tasks().getUncommittedChanges();
+        tasks().rollbackTransaction();
+        undoHistory = historyAtBegin; // Undo positions refer to the list as it was when the transaction began
+        historyAtBegin = null;
+        return ui.showRolledBack(changes);
+    }
+
+    /**
+     * Returns whether the message is a command that may take long, such as {@code find /regex}, and can be
+     * cancelled. A GUI can run such commands in the background and cancel them when the next message is sent.
+     * A message of several commands can be cancelled if one of them can.
+     *
+     * @param input Raw user input string.
+     */
+    public boolean isCancellable(String input) {
+        for (String command : Parser.splitCommands(input)) {
+            if (new Parser(command).isCancellable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Switches to the named list and points the completer at its tasks.
+     */
+    private String useList(String name) throws ChatBotException {
+        Workspace.NamedList previous = workspace.getCurrent();
+        Workspace.NamedList list = workspace.use(name);
+        if (list != previous) {
+            undoHistory.clear(); // Undo positions refer to the previous list
+            previous.getTasks().removeListener(completer);
+            completer.clear();
+            completer.addAll(list.getTasks());
+            list.getTasks().addListener(completer);
+        }
+        return ui.showListSwitched(list.getName(), list.getTasks().getTotalTasks());
+    }
+
+    /**
+     * Writes the response to the user's chat message to the given output.
+     * Unlike {@link #getResponse(String)}, a full listing is streamed rather than built into one string.
+     *
+     * @param input Raw user input string.
+     * @param out   Destination of the response.
+     * @throws ChatBotException If the input is not a valid command.
+     * @throws IOException      If writing to {@code out} fails.
+     */
+    public void writeResponse(String input, Appendable out) throws ChatBotException, IOException {
+        Parser parser = new Parser(input);
+        if (parser.getCommandType() != CommandType.LIST_TASKS) {
+            out.append(getResponse(input));
+            return;
+        }
+        out.append(syncWithFiles());
+        parser.writeResponse(tasks(), ui, workspace.getCurrent().getArchive(), out);
+    }
+
+    /**
+     * Returns the task list if the input asks for the full listing, so that a GUI can render it lazily.
+     *
+     * @param input Raw user input string.
+     * @return The current task list, or {@code null} if the input is not the {@code list} command.
+     */
+    public TaskList getListing(String input) {
+        if (new Parser(input).getCommandType() != CommandType.LIST_TASKS) {
+            return null;
+        }
+        syncWithFiles(); // The listing itself shows what changed
+        return tasks();
     }
 }
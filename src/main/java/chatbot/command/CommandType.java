@@ -6,6 +6,8 @@ package chatbot.command;
 public enum CommandType {
     EXIT,           // Ends the chatbot session
     LIST_TASKS,     // Displays all tasks
+    LIST_PAGE,      // Displays one page of tasks
+    QUERY_TASKS,    // Displays tasks matching structured filters
     MARK_TASK,      // Marks a task as complete
     UNMARK_TASK,    // Marks a task as incomplete
     DELETE_TASK,    // Deletes a task
@@ -14,5 +16,22 @@ public enum CommandType {
     ADD_EVENT,      // Adds an "event" task
     SEARCH_TASK,   // Finds tasks matching a keyword
     FIND_FREE_TIMES, // Finds nearest free times
+    LIST_UPCOMING,  // Lists the next undone deadlines and events
+    LIST_OVERDUE,   // Lists undone deadlines that are past due
+    FIND_CONFLICTS, // Lists every pair of overlapping events
+    SHOW_SUMMARY,   // Shows task counts by type, status and date
+    ARCHIVE_TASKS,  // Moves done tasks to the archive
+    LIST_ARCHIVED,  // Displays archived tasks
+    USE_LIST,       // Switches to another named task list
+    SHOW_LISTS,     // Displays the named task lists
+    IMPORT_TASKS,   // Adds the tasks in a CSV or iCalendar file
+    EXPORT_TASKS,   // Writes the tasks to a CSV or iCalendar file
+    UNDO,           // Undoes the most recent change to the task list
+    REDO,           // Redoes the most recently undone change
+    SHOW_HISTORY,   // Shows the recorded changes to a task
+    LIST_AT,        // Displays the tasks as they were at a given time
+    BEGIN,          // Opens a transaction whose changes are saved together
+    COMMIT,         // Saves the changes made in the open transaction
+    ROLLBACK,       // Discards the changes made in the open transaction
     UNKNOWN         // Represents an unrecognized command
 }
\ No newline at end of file
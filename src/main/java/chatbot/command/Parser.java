@@ -1,5 +1,8 @@
 package chatbot.command;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -7,12 +10,18 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import chatbot.exception.ChatBotException;
+import chatbot.storage.Archive;
+import chatbot.storage.TaskLog;
+import chatbot.storage.TaskTransfer;
 import chatbot.task.*;
 import chatbot.ui.Ui;
 
@@ -23,8 +32,34 @@ import chatbot.ui.Ui;
  */
 public class Parser {
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
+    private static final int DEFAULT_UPCOMING_LIMIT = 5;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Command patterns are compiled once, as compiling them for every input cost more than running the command
+    private static final Pattern MARK_PATTERN = Pattern.compile("^mark \\d+");
+    private static final Pattern UNMARK_PATTERN = Pattern.compile("^unmark \\d+");
+    private static final Pattern TODO_PATTERN = Pattern.compile("^todo (.*)");
+    private static final Pattern DEADLINE_PATTERN = Pattern.compile("^deadline (.*) /by (.+?)(?: /every (.+))?$");
+    private static final Pattern EVENT_PATTERN =
+            Pattern.compile("^event (.*) /from (.+) /to (.+?)(?: /every (.+?))?(?: /(check|strict))?$");
+    private static final Pattern DELETE_PATTERN = Pattern.compile("^delete \\d+");
+    private static final Pattern SEARCH_PATTERN = Pattern.compile("^find (.*)");
+    private static final Pattern FREE_TIME_PATTERN = Pattern.compile("^free /duration (.*)");
+    private static final Pattern QUERY_PATTERN = Pattern.compile("^list( /.*)$");
+    private static final Pattern PAGE_PATTERN = Pattern.compile("^list /page (\\d{1,9})(?: /size (\\d{1,9}))?$");
+    private static final Pattern UPCOMING_PATTERN = Pattern.compile("^upcoming(?: (\\d{1,9}))?$");
+    private static final Pattern USE_PATTERN = Pattern.compile("^use (.*)");
+    private static final Pattern TRANSFER_PATTERN = Pattern.compile("^(?:import|export) (.*)");
+    private static final Pattern HISTORY_PATTERN = Pattern.compile("^history (\\d{1,9})$");
+    private static final Pattern LIST_AT_PATTERN = Pattern.compile("^list /at (.+)$");
+    private static final Pattern ARCHIVED_PATTERN = Pattern.compile("^list /archived((?: /.*)?)$");
+    private static final Pattern SEARCH_WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern COMMAND_SEPARATOR = Pattern.compile("[;\\r\\n]");
+    private static final Pattern REGEX_SEARCH_START = Pattern.compile("[ \\t]*find +/regex(?=[ \\t\\r\\n;]|$)");
 
     private final String input;
+    private final UndoHistory history; // Null if commands cannot be undone
+    private final BooleanSupplier isCancelled;
     private CommandType command;
 
     private Matcher todoMatcher;
@@ -32,6 +67,14 @@ public class Parser {
     private Matcher eventMatcher;
     private Matcher searchMatcher;
     private Matcher freeTimeMatcher;
+    private Matcher queryMatcher;
+    private Matcher pageMatcher;
+    private Matcher upcomingMatcher;
+    private Matcher useMatcher;
+    private Matcher transferMatcher;
+    private Matcher historyMatcher;
+    private Matcher listAtMatcher;
+    private Matcher archivedMatcher;
 
     // Used ChatGPT to make Parser constructor adhere to SLAP and write JavaDoc comments for new functions
 
@@ -41,42 +84,50 @@ public class Parser {
      * to extract command arguments.
      */
     public Parser(String input) {
+        this(input, null);
+    }
+
+    /**
+     * Constructs a Parser for the given user input that records how to undo the commands it executes.
+     *
+     * @param input   Raw user input.
+     * @param history History that changes to the task list are recorded in, or {@code null}.
+     */
+    public Parser(String input, UndoHistory history) {
+        this(input, history, () -> false);
+    }
+
+    /**
+     * Constructs a Parser for the given user input whose long-running commands can be cancelled.
+     *
+     * @param input       Raw user input.
+     * @param history     History that changes to the task list are recorded in, or {@code null}.
+     * @param isCancelled Checked while a long search runs, which stops once it returns {@code true}.
+     */
+    public Parser(String input, UndoHistory history, BooleanSupplier isCancelled) {
         this.input = input;
+        this.history = history;
+        this.isCancelled = isCancelled;
 
-        initPatterns();
         compileMatchers();
         determineCommandType();
     }
 
-    /** Regex patterns for matching commands. */
-    private String markRegex;
-    private String unmarkRegex;
-    private String todoRegex;
-    private String deadlineRegex;
-    private String eventRegex;
-    private String deleteRegex;
-    private String searchRegex;
-    private String freeTimeRegex;
-
-    /** Initializes regex patterns for all supported commands. */
-    private void initPatterns() {
-        markRegex = "^mark \\d+";
-        unmarkRegex = "^unmark \\d+";
-        todoRegex = "^todo (.*)";
-        deadlineRegex = "^deadline (.*) /by (.+)";
-        eventRegex = "^event (.*) /from (.+) /to (.+)$";
-        deleteRegex = "^delete \\d+";
-        searchRegex = "^find (.*)";
-        freeTimeRegex = "^free /duration (.*)";
-    }
-
-    /** Compiles regex matchers from the initialized patterns for argument extraction. */
+    /** Compiles the matchers of the command patterns against the input, for argument extraction. */
     private void compileMatchers() {
-        this.todoMatcher = Pattern.compile(todoRegex).matcher(input);
-        this.deadlineMatcher = Pattern.compile(deadlineRegex).matcher(input);
-        this.eventMatcher = Pattern.compile(eventRegex).matcher(input);
-        this.searchMatcher = Pattern.compile(searchRegex).matcher(input);
-        this.freeTimeMatcher = Pattern.compile(freeTimeRegex).matcher(input);
+        this.todoMatcher = TODO_PATTERN.matcher(input);
+        this.deadlineMatcher = DEADLINE_PATTERN.matcher(input);
+        this.eventMatcher = EVENT_PATTERN.matcher(input);
+        this.searchMatcher = SEARCH_PATTERN.matcher(input);
+        this.freeTimeMatcher = FREE_TIME_PATTERN.matcher(input);
+        this.queryMatcher = QUERY_PATTERN.matcher(input);
+        this.pageMatcher = PAGE_PATTERN.matcher(input);
+        this.upcomingMatcher = UPCOMING_PATTERN.matcher(input);
+        this.useMatcher = USE_PATTERN.matcher(input);
+        this.transferMatcher = TRANSFER_PATTERN.matcher(input);
+        this.historyMatcher = HISTORY_PATTERN.matcher(input);
+        this.listAtMatcher = LIST_AT_PATTERN.matcher(input);
+        this.archivedMatcher = ARCHIVED_PATTERN.matcher(input);
     }
 
     /**
@@ -89,11 +140,21 @@ public class Parser {
             this.command = CommandType.EXIT;
         } else if (input.equals("list")) {
             this.command = CommandType.LIST_TASKS;
-        } else if (input.matches(markRegex)) {
+        } else if (archivedMatcher.matches()) {
+            this.command = CommandType.LIST_ARCHIVED;
+        } else if (input.equals("archive")) {
+            this.command = CommandType.ARCHIVE_TASKS;
+        } else if (listAtMatcher.matches()) {
+            this.command = CommandType.LIST_AT;
+        } else if (pageMatcher.matches()) {
+            this.command = CommandType.LIST_PAGE;
+        } else if (queryMatcher.matches()) {
+            this.command = CommandType.QUERY_TASKS;
+        } else if (MARK_PATTERN.matcher(input).matches()) {
             this.command = CommandType.MARK_TASK;
-        } else if (input.matches(unmarkRegex)) {
+        } else if (UNMARK_PATTERN.matcher(input).matches()) {
             this.command = CommandType.UNMARK_TASK;
-        } else if (input.matches(deleteRegex)) {
+        } else if (DELETE_PATTERN.matcher(input).matches()) {
             this.command = CommandType.DELETE_TASK;
         } else if (todoMatcher.matches()) {
             this.command = CommandType.ADD_TODO;
@@ -105,6 +166,32 @@ public class Parser {
             this.command = CommandType.SEARCH_TASK;
         } else if (freeTimeMatcher.matches()) {
             this.command = CommandType.FIND_FREE_TIMES;
+        } else if (upcomingMatcher.matches()) {
+            this.command = CommandType.LIST_UPCOMING;
+        } else if (input.equals("overdue")) {
+            this.command = CommandType.LIST_OVERDUE;
+        } else if (input.equals("conflicts")) {
+            this.command = CommandType.FIND_CONFLICTS;
+        } else if (input.equals("undo")) {
+            this.command = CommandType.UNDO;
+        } else if (input.equals("redo")) {
+            this.command = CommandType.REDO;
+        } else if (input.equals("summary")) {
+            this.command = CommandType.SHOW_SUMMARY;
+        } else if (input.equals("begin")) {
+            this.command = CommandType.BEGIN;
+        } else if (input.equals("commit")) {
+            this.command = CommandType.COMMIT;
+        } else if (input.equals("rollback")) {
+            this.command = CommandType.ROLLBACK;
+        } else if (useMatcher.matches()) {
+            this.command = CommandType.USE_LIST;
+        } else if (input.equals("lists")) {
+            this.command = CommandType.SHOW_LISTS;
+        } else if (historyMatcher.matches()) {
+            this.command = CommandType.SHOW_HISTORY;
+        } else if (transferMatcher.matches()) {
+            this.command = input.startsWith("import") ? CommandType.IMPORT_TASKS : CommandType.EXPORT_TASKS;
         } else {
             this.command = CommandType.UNKNOWN;
         }
@@ -118,18 +205,18 @@ public class Parser {
      * starting from the provided reference time.
      *
      * @param identity Reference time.
-     * @param tasks    List of tasks (must be sorted).
+     * @param events   Events sorted by start time; only consumed up to the free slot.
      * @param hours    Duration of free time needed.
      * @return Start time of the available free slot.
      */
-    public static LocalDateTime getStartOfFreeTime(LocalDateTime identity, TaskList tasks, int hours) {
+    public static LocalDateTime getStartOfFreeTime(LocalDateTime identity, Iterator<Event> events, int hours) {
         LocalDateTime result = identity;
-        for (Task t : tasks.getTasks()) {
-            Event event = (Event) t;
+        while (events.hasNext()) {
+            Event event = events.next();
             if (!event.getFrom().minusHours(hours).isBefore(result)) {
                 break;
-            } else {
-                result = event.getTo();
+            } else if (event.getTo().isAfter(result)) {
+                result = event.getTo(); // An event inside an earlier one does not move the slot back
             }
         }
         return result;
@@ -144,27 +231,219 @@ public class Parser {
      * @throws ChatBotException If the command type is unknown or arguments are invalid.
      */
     public String handleInput(TaskList tasks, Ui ui) throws ChatBotException {
+        return this.handleInput(tasks, ui, null);
+    }
+
+    /**
+     * Executes a chatbot command, including commands that move tasks to or read from the archive.
+     *
+     * @param tasks   Current task list containing all stored tasks.
+     * @param ui      UI handler used to generate user-facing responses.
+     * @param archive Archive of completed tasks, or {@code null} if archiving is not available.
+     * @return A response string to be displayed to the user.
+     * @throws ChatBotException If the command type is unknown or arguments are invalid.
+     */
+    public String handleInput(TaskList tasks, Ui ui, Archive archive) throws ChatBotException {
+        return this.handleInput(tasks, ui, archive, null);
+    }
+
+    /**
+     * Executes a chatbot command, including commands that read the archive or the history of the task list.
+     *
+     * @param tasks   Current task list containing all stored tasks.
+     * @param ui      UI handler used to generate user-facing responses.
+     * @param archive Archive of completed tasks, or {@code null} if archiving is not available.
+     * @param log     Log of changes to the task list, or {@code null} if the list is not event-sourced.
+     * @return A response string to be displayed to the user.
+     * @throws ChatBotException If the command type is unknown or arguments are invalid.
+     */
+    public String handleInput(TaskList tasks, Ui ui, Archive archive, TaskLog log) throws ChatBotException {
         CommandType commandType = this.getCommandType();
 
         return switch (commandType) {
             case EXIT -> ui.endConversation();
             case LIST_TASKS -> ui.listTasks(tasks);
+            case LIST_PAGE -> handleListPage(tasks, ui);
+            case QUERY_TASKS -> handleQueryTasks(tasks, ui);
             case MARK_TASK -> handleMarkTask(tasks, ui);
             case UNMARK_TASK -> handleUnmarkTask(tasks, ui);
             case DELETE_TASK -> handleDeleteTask(tasks, ui);
             case ADD_TODO, ADD_DEADLINE, ADD_EVENT -> handleAddTask(tasks, ui, commandType);
-            case SEARCH_TASK -> handleSearchTask(tasks, ui);
+            case SEARCH_TASK -> handleSearchTask(tasks, ui, archive);
             case FIND_FREE_TIMES -> handleFindFreeTimes(tasks, ui);
+            case LIST_UPCOMING -> handleListUpcoming(tasks, ui);
+            case LIST_OVERDUE -> ui.showOverdue(tasks.getOverdue(currentDateTime()));
+            case FIND_CONFLICTS -> ui.showConflicts(tasks.getConflictingPairs());
+            case SHOW_SUMMARY -> ui.showSummary(tasks.getSummary(currentDateTime()));
+            case ARCHIVE_TASKS -> handleArchiveTasks(tasks, ui, requireArchive(archive));
+            case LIST_ARCHIVED -> handleListArchived(ui, requireArchive(archive));
+            case UNDO -> ui.showUndone(requireHistory().undo(tasks));
+            case REDO -> ui.showRedone(requireHistory().redo(tasks));
+            case SHOW_HISTORY -> handleShowHistory(tasks, ui, requireLog(log));
+            case LIST_AT -> handleListAt(ui, requireLog(log));
+            case IMPORT_TASKS -> handleImportTasks(tasks, ui);
+            case EXPORT_TASKS -> handleExportTasks(tasks, ui);
+            case USE_LIST, SHOW_LISTS -> throw new ChatBotException("OOPS!!! There are no other task lists here.");
+            case BEGIN, COMMIT, ROLLBACK -> throw new ChatBotException("OOPS!!! Transactions are not available here.");
             default -> throw new ChatBotException("OOPS!!! I don’t know what that means :-(");
         };
     }
 
+    /**
+     * Executes a chatbot command and writes its response to the given output.
+     * A full listing is streamed task by task rather than built into one string first,
+     * so its memory use does not grow with the size of the list.
+     *
+     * @param tasks Current task list containing all stored tasks.
+     * @param ui      UI handler used to generate user-facing responses.
+     * @param archive Archive of completed tasks, or {@code null} if archiving is not available.
+     * @param out     Destination of the response, e.g. a buffered console writer.
+     * @throws ChatBotException If the command type is unknown or arguments are invalid.
+     * @throws IOException      If writing to {@code out} fails.
+     */
+    public void writeResponse(TaskList tasks, Ui ui, Archive archive, Appendable out)
+            throws ChatBotException, IOException {
+        if (this.getCommandType() == CommandType.LIST_TASKS) {
+            ui.writeTaskList(tasks, out);
+        } else {
+            out.append(this.handleInput(tasks, ui, archive));
+        }
+    }
+
+    /**
+     * Moves every done task from the task list to the end of the archive.
+     */
+    private String handleArchiveTasks(TaskList tasks, Ui ui, Archive archive) throws ChatBotException {
+        // Write the archive first, so a failed write leaves every task in the list
+        List<Task> doneTasks = tasks.filter(Task::isDone).getTasks();
+        archive.append(doneTasks);
+        tasks.removeTasks(Task::isDone);
+        clearUndoHistory(); // Archived tasks cannot be put back
+        return ui.showArchived(doneTasks.size(), tasks.getTotalTasks());
+    }
+
+    /**
+     * Lists the archived tasks, or only those matching filters such as {@code list /archived /after 1/1/2025 0000}.
+     * A date range only reads the part of the archive that may hold tasks in it.
+     */
+    private String handleListArchived(Ui ui, Archive archive) throws ChatBotException {
+        List<String> flags = this.getArguments();
+        if (flags.isEmpty()) {
+            return ui.showArchivedTasks(archive.getTasks());
+        }
+        TaskQuery query = buildQuery(flags);
+        return ui.showQueryResult(archive.getTasksBetween(query.getAfter(), query.getBefore()).query(query));
+    }
+
+    /**
+     * Adds every task in a CSV or iCalendar file to the end of the task list in a single bulk insert.
+     */
+    private String handleImportTasks(TaskList tasks, Ui ui) throws ChatBotException {
+        TaskTransfer.Imported imported = TaskTransfer.importFrom(parsePath(this.getArguments().get(0)));
+        int position = tasks.getTotalTasks();
+        tasks.addTasks(imported.tasks());
+        recordUndo(new UndoHistory.Remove(position, imported.tasks().size()));
+        return ui.showImported(imported.tasks().size(), imported.skipped(), tasks.getTotalTasks());
+    }
+
+    /**
+     * Writes every task in the list to a CSV or iCalendar file.
+     */
+    private String handleExportTasks(TaskList tasks, Ui ui) throws ChatBotException {
+        String file = this.getArguments().get(0);
+        TaskTransfer.exportTo(parsePath(file), tasks);
+        return ui.showExported(tasks.getTotalTasks(), file);
+    }
+
+    private static Path parsePath(String file) throws ChatBotException {
+        try {
+            return Path.of(file);
+        } catch (InvalidPathException e) {
+            throw new ChatBotException("OOPS!!! " + file + " is not a valid file name.");
+        }
+    }
+
+    /**
+     * Shows every recorded change to one task, oldest first.
+     */
+    private String handleShowHistory(TaskList tasks, Ui ui, TaskLog log) throws ChatBotException {
+        int taskNumber = Integer.parseInt(this.getArguments().get(0));
+        if (taskNumber < 1 || taskNumber > tasks.getTotalTasks()) {
+            throw new ChatBotException("OOPS!!! The task number is invalid.");
+        }
+        return ui.showHistory(taskNumber, log.getHistory(tasks.getSpecificTask(taskNumber - 1)));
+    }
+
+    /**
+     * Lists the tasks as they were at the given time, rebuilt from the task log.
+     */
+    private String handleListAt(Ui ui, TaskLog log) throws ChatBotException {
+        LocalDateTime at = parseDateTime(this.getArguments().get(0));
+        return ui.showTasksAt(at, log.getTasksAt(at));
+    }
+
+    private UndoHistory requireHistory() throws ChatBotException {
+        if (history == null) {
+            throw new ChatBotException("OOPS!!! Commands cannot be undone here.");
+        }
+        return history;
+    }
+
+    /**
+     * Records how to undo the command being executed, if commands can be undone.
+     */
+    private void recordUndo(UndoHistory.Operation inverse) {
+        if (history != null) {
+            history.record(input, inverse);
+        }
+    }
+
+    private void clearUndoHistory() {
+        if (history != null) {
+            history.clear();
+        }
+    }
+
+    private static TaskLog requireLog(TaskLog log) throws ChatBotException {
+        if (log == null) {
+            throw new ChatBotException("OOPS!!! Task history is only kept when tasks are stored as an event log.");
+        }
+        return log;
+    }
+
+    private static Archive requireArchive(Archive archive) throws ChatBotException {
+        if (archive == null) {
+            throw new ChatBotException("OOPS!!! There is no archive for this task list.");
+        }
+        return archive;
+    }
+
+    /**
+     * Lists one page of tasks, {@value #DEFAULT_PAGE_SIZE} per page unless a size is given.
+     */
+    private String handleListPage(TaskList tasks, Ui ui) throws ChatBotException {
+        List<String> args = this.getArguments();
+        int page = Integer.parseInt(args.get(0));
+        int size = args.size() > 1 ? Integer.parseInt(args.get(1)) : DEFAULT_PAGE_SIZE;
+
+        if (page <= 0 || size <= 0) {
+            throw new ChatBotException("OOPS!!! Page number and page size must be greater than 0.");
+        }
+        int totalPages = (tasks.getTotalTasks() + size - 1) / size;
+        if (page > totalPages && tasks.getTotalTasks() > 0) {
+            throw new ChatBotException("OOPS!!! There are only " + totalPages + " page(s) of tasks.");
+        }
+        return ui.showPage(tasks, page, size);
+    }
+
     /**
      * Marks a task as done and returns a confirmation message.
      */
     private String handleMarkTask(TaskList tasks, Ui ui) throws ChatBotException {
-        Task task = this.getTask(tasks);
-        task.markAsDone();
+        int position = this.getTaskPosition(tasks);
+        Task task = tasks.getSpecificTask(position);
+        recordUndo(new UndoHistory.Mark(position, task.isDone()));
+        tasks.markTask(position);
         assert task.getStatusIcon().equals("X");
         return ui.showMarkedAsDone(task);
     }
@@ -173,8 +452,10 @@ public class Parser {
      * Unmarks a task (sets it back to not done).
      */
     private String handleUnmarkTask(TaskList tasks, Ui ui) throws ChatBotException {
-        Task task = this.getTask(tasks);
-        task.markAsUndone();
+        int position = this.getTaskPosition(tasks);
+        Task task = tasks.getSpecificTask(position);
+        recordUndo(new UndoHistory.Mark(position, task.isDone()));
+        tasks.unmarkTask(position);
         assert task.getStatusIcon().equals(" ");
         return ui.showMarkedAsUndone(task);
     }
@@ -184,8 +465,9 @@ public class Parser {
      */
     private String handleDeleteTask(TaskList tasks, Ui ui) throws ChatBotException {
         int initial = tasks.getTotalTasks();
-        Task task = this.getTask(tasks);
-        tasks.deleteTask(task);
+        int position = this.getTaskPosition(tasks);
+        Task task = tasks.removeRange(position, position + 1).get(0);
+        recordUndo(new UndoHistory.Insert(position, List.of(task)));
         validateTaskListChange(initial, tasks.getTotalTasks(), -1);
         return ui.showDeleted(task, tasks.getTotalTasks());
     }
@@ -195,10 +477,22 @@ public class Parser {
      */
     private String handleAddTask(TaskList tasks, Ui ui, CommandType commandType) throws ChatBotException {
         int initial = tasks.getTotalTasks();
-        Task addedTask = createTaskFromArgs(commandType, this.getArguments());
+        List<String> args = this.getArguments();
+        Task addedTask = createTaskFromArgs(commandType, args);
+
+        // Events can opt into an overlap check with /check (warn) or /strict (reject)
+        String conflictMode = commandType == CommandType.ADD_EVENT && !args.get(4).isEmpty() ? args.get(4) : null;
+        List<Event> conflicts = conflictMode == null ? List.of() : tasks.getConflicts((Event) addedTask);
+        if (conflictMode != null && conflictMode.equals("strict") && !conflicts.isEmpty()) {
+            throw new ChatBotException(ui.showConflictRejection(conflicts));
+        }
 
         tasks.addTask(addedTask);
         validateTaskListChange(initial, tasks.getTotalTasks(), +1);
+        recordUndo(new UndoHistory.Remove(initial, 1));
+        if (!conflicts.isEmpty()) {
+            return ui.showAddedTask(addedTask, tasks.getTotalTasks()) + ui.showConflictWarning(conflicts);
+        }
         return ui.showAddedTask(addedTask, tasks.getTotalTasks());
     }
 
@@ -208,27 +502,172 @@ public class Parser {
     private Task createTaskFromArgs(CommandType commandType, List<String> args) throws ChatBotException {
         return switch (commandType) {
             case ADD_TODO -> new Todo(args.get(0));
-            case ADD_DEADLINE -> new Deadline(args.get(0), args.get(1));
-            case ADD_EVENT -> new Event(args.get(0), args.get(1), args.get(2));
+            case ADD_DEADLINE -> new Deadline(args.get(0), args.get(1), parseRecurrence(args.get(2)));
+            case ADD_EVENT -> new Event(args.get(0), args.get(1), args.get(2), parseRecurrence(args.get(3)));
             default -> throw new ChatBotException("Invalid add command.");
         };
     }
 
+    /**
+     * Parses the text after {@code /every}, or returns {@code null} for a one-off task.
+     */
+    private static Recurrence parseRecurrence(String spec) throws ChatBotException {
+        return spec.isEmpty() ? null : Recurrence.parse(spec);
+    }
+
     /**
      * Searches for tasks matching a given keyword.
      */
-    private String handleSearchTask(TaskList tasks, Ui ui) throws ChatBotException {
+    private String handleSearchTask(TaskList tasks, Ui ui, Archive archive) throws ChatBotException {
         List<String> args = this.getArguments();
         int initial = tasks.getTotalTasks();
 
-        String regex = "\\b" + args.get(0) + "\\b";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        // "/all term" also searches archived tasks, which loads the archive on first use
+        String term = args.get(0);
+        if (term.startsWith("/all ")) {
+            Pattern pattern = getSearchPattern(term.substring("/all ".length()).trim());
+            TaskList archived = requireArchive(archive).getTasks();
+            return ui.showFindAllResult(tasks.filter(task -> pattern.matcher(task.toString()).find()),
+                    archived.filter(task -> pattern.matcher(task.toString()).find()));
+        }
+
+        // "/regex pattern" matches anywhere in the task text, which no index can answer, so it scans in parallel
+        if (isRegexSearch(term)) {
+            return ui.showFindResult(findByRegex(tasks, term.substring("/regex".length()).trim()));
+        }
+
+        // "~term" tolerates typos and "term*" matches word prefixes, both answered from the word index
+        if (term.startsWith("~")) {
+            return ui.showFindResult(tasks.findSimilar(parseSearchWord(term.substring(1))));
+        } else if (term.endsWith("*")) {
+            return ui.showFindResult(tasks.findByPrefix(parseSearchWord(term.substring(0, term.length() - 1))));
+        }
+
+        Pattern pattern = getSearchPattern(term);
         TaskList filteredTaskList = tasks.filter(task -> pattern.matcher(task.toString()).find());
 
         assert filteredTaskList.getTotalTasks() <= initial;
         return ui.showFindResult(filteredTaskList);
     }
 
+    private static boolean isRegexSearch(String term) {
+        return term.equals("/regex") || term.startsWith("/regex ");
+    }
+
+    /**
+     * Scans every task for a match of the regular expression, stopping if the command is cancelled.
+     */
+    private TaskList findByRegex(TaskList tasks, String regex) throws ChatBotException {
+        if (regex.isEmpty()) {
+            throw new ChatBotException("OOPS!!! You need to enter a pattern to search for.");
+        }
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new ChatBotException("OOPS!!! That is not a valid pattern: " + e.getDescription());
+        }
+        try {
+            return tasks.findMatching(pattern, isCancelled);
+        } catch (CancellationException e) {
+            throw new ChatBotException("OOPS!!! The search was stopped before it finished.");
+        }
+    }
+
+    /**
+     * Returns the case-insensitive whole-word pattern used by a plain {@code find}.
+     */
+    private static Pattern getSearchPattern(String keyword) {
+        String regex = "\\b" + keyword + "\\b";
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Checks that a fuzzy or prefix search term is a single word, and returns it.
+     */
+    private static String parseSearchWord(String term) throws ChatBotException {
+        String word = term.trim();
+        if (word.isEmpty() || !SEARCH_WORD_PATTERN.matcher(word).matches()) {
+            throw new ChatBotException("OOPS!!! Fuzzy and prefix search take a single word of letters and digits.");
+        }
+        return word;
+    }
+
+    /**
+     * Lists the tasks matching structured filters such as
+     * {@code list /type D /done no /before 1/1/2026 0000 /match report /sort date}.
+     */
+    private String handleQueryTasks(TaskList tasks, Ui ui) throws ChatBotException {
+        TaskQuery query = buildQuery(this.getArguments());
+        return ui.showQueryResult(tasks.query(query));
+    }
+
+    /**
+     * Builds a {@link TaskQuery} from {@code /flag value} pairs.
+     *
+     * @param flags Flags of the query, each in the form {@code name value}.
+     * @return The query described by the flags.
+     * @throws ChatBotException If a flag is unknown or has an invalid value.
+     */
+    private TaskQuery buildQuery(List<String> flags) throws ChatBotException {
+        TaskQuery query = new TaskQuery();
+
+        for (String flag : flags) {
+            String[] parts = flag.split(" ", 2);
+            String value = parts.length < 2 ? "" : parts[1].trim();
+            if (value.isEmpty()) {
+                throw new ChatBotException("OOPS!!! /" + parts[0] + " needs a value.");
+            }
+
+            switch (parts[0]) {
+                case "type" -> query.ofType(parseTaskType(value));
+                case "done" -> query.withStatus(parseYesNo(value));
+                case "before" -> query.before(parseDateTime(value));
+                case "after" -> query.after(parseDateTime(value));
+                case "match" -> {
+                    if (!TaskQuery.hasWord(value)) {
+                        throw new ChatBotException("OOPS!!! /match needs a word with letters or digits.");
+                    }
+                    query.matching(value);
+                }
+                case "sort" -> query.sortedBy(parseSortKey(value));
+                default -> throw new ChatBotException("OOPS!!! Unknown list filter: /" + parts[0]);
+            }
+        }
+        return query;
+    }
+
+    private static Class<? extends Task> parseTaskType(String value) throws ChatBotException {
+        return switch (value.toUpperCase()) {
+            case "T", "TODO" -> Todo.class;
+            case "D", "DEADLINE" -> Deadline.class;
+            case "E", "EVENT" -> Event.class;
+            default -> throw new ChatBotException("OOPS!!! Task type must be T, D or E.");
+        };
+    }
+
+    private static boolean parseYesNo(String value) throws ChatBotException {
+        return switch (value.toLowerCase()) {
+            case "yes", "y", "true" -> true;
+            case "no", "n", "false" -> false;
+            default -> throw new ChatBotException("OOPS!!! /done must be yes or no.");
+        };
+    }
+
+    private static TaskQuery.SortKey parseSortKey(String value) throws ChatBotException {
+        return switch (value.toLowerCase()) {
+            case "date", "by", "from" -> TaskQuery.SortKey.DATE;
+            case "description", "name" -> TaskQuery.SortKey.DESCRIPTION;
+            case "type" -> TaskQuery.SortKey.TYPE;
+            case "status", "done" -> TaskQuery.SortKey.STATUS;
+            default -> throw new ChatBotException("OOPS!!! Tasks can be sorted by date, description, type or status.");
+        };
+    }
+
+    private static LocalDateTime parseDateTime(String value) throws ChatBotException {
+        return DateParser.parse(value);
+    }
+
     /**
      * Finds and returns the nearest available free time slot of a given duration.
      *
@@ -245,40 +684,36 @@ public class Parser {
             throw new ChatBotException("OOPS!!! Duration must be greater than 0.");
         }
 
-        Instant nearestMin = Instant.now().truncatedTo(ChronoUnit.MINUTES);
-        LocalDateTime nowDateTime = nearestMin.atZone(ZoneId.systemDefault()).toLocalDateTime();
-
-        TaskList sortedEvents = getSortedFutureEvents(tasks, nowDateTime);
+        LocalDateTime nowDateTime = currentDateTime();
 
-        LocalDateTime startDateTime;
-        LocalDateTime endDateTime;
-
-        if (sortedEvents.getTotalTasks() == 0) {
-            // If no events, free time starts immediately
-            startDateTime = nowDateTime;
-            endDateTime = nowDateTime.plusHours(hours);
-        } else {
-            // Otherwise calculate next available slot
-            startDateTime = Parser.getStartOfFreeTime(nowDateTime, sortedEvents, hours);
-            endDateTime = startDateTime.plusHours(hours);
-        }
+        // Occurrences of repeating events are generated lazily, only up to the free slot
+        Iterator<Event> sortedEvents = tasks.getEventsStartingAfter(nowDateTime);
+        LocalDateTime startDateTime = Parser.getStartOfFreeTime(nowDateTime, sortedEvents, hours);
+        LocalDateTime endDateTime = startDateTime.plusHours(hours);
 
         assert !startDateTime.isBefore(nowDateTime);
         return formatFreeTimeRange(startDateTime, endDateTime, ui);
     }
 
     /**
-     * Retrieves all future events starting after the given reference time,
-     * and returns them sorted by their start time.
-     *
-     * @param tasks      Task list containing events.
-     * @param reference  The current date-time used as a cutoff for filtering.
-     * @return A TaskList of events occurring after the reference time, sorted chronologically.
+     * Lists the next undone deadlines and events, {@value #DEFAULT_UPCOMING_LIMIT} unless a count is given.
      */
-    private TaskList getSortedFutureEvents(TaskList tasks, LocalDateTime reference) {
-        TaskList futureEvents = tasks.filter(task ->
-                task instanceof Event && ((Event) task).getFrom().isAfter(reference));
-        return futureEvents.sort(Comparator.comparing(task -> ((Event) task).getFrom()));
+    private String handleListUpcoming(TaskList tasks, Ui ui) throws ChatBotException {
+        List<String> args = this.getArguments();
+        int limit = args.isEmpty() ? DEFAULT_UPCOMING_LIMIT : Integer.parseInt(args.get(0));
+
+        if (limit <= 0) {
+            throw new ChatBotException("OOPS!!! Number of upcoming tasks must be greater than 0.");
+        }
+        return ui.showUpcoming(tasks.getUpcoming(currentDateTime(), limit));
+    }
+
+    /**
+     * Returns the current date-time truncated to the minute, matching the precision of task dates.
+     */
+    private static LocalDateTime currentDateTime() {
+        Instant nearestMin = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        return nearestMin.atZone(ZoneId.systemDefault()).toLocalDateTime();
     }
 
     /**
@@ -306,6 +741,53 @@ public class Parser {
     }
 
 
+    /**
+     * Returns whether the command may run long enough to be worth running in the background,
+     * where it can be cancelled through the check given to the constructor.
+     */
+    public boolean isCancellable() {
+        return command == CommandType.SEARCH_TASK && isRegexSearch(searchMatcher.group(1).trim());
+    }
+
+    /**
+     * Splits a message holding several commands, separated by {@code ;} or line breaks, into the commands.
+     * A message without separators is returned as it is; otherwise each command is trimmed and empty ones dropped.
+     * <p>
+     * {@code \;} stands for a {@code ;} that is part of a command. A {@code find /regex} command takes the rest of
+     * its line as it is, since a pattern may hold both {@code ;} and backslashes.
+     *
+     * @param input Raw user input.
+     * @return Commands in the order given.
+     */
+    public static List<String> splitCommands(String input) {
+        if (!COMMAND_SEPARATOR.matcher(input).find()) {
+            return List.of(input);
+        }
+        List<String> commands = new ArrayList<>();
+        Matcher regexSearch = REGEX_SEARCH_START.matcher(input);
+        int i = 0;
+        while (i < input.length()) {
+            boolean isRegexSearch = regexSearch.region(i, input.length()).lookingAt();
+            StringBuilder command = new StringBuilder();
+            while (i < input.length() && !isCommandEnd(input.charAt(i), isRegexSearch)) {
+                if (!isRegexSearch && input.startsWith("\\;", i)) {
+                    i++; // Drop the backslash of an escaped separator
+                }
+                command.append(input.charAt(i));
+                i++;
+            }
+            i++; // Past the separator
+            if (!command.toString().isBlank()) {
+                commands.add(command.toString().trim());
+            }
+        }
+        return commands;
+    }
+
+    private static boolean isCommandEnd(char c, boolean isRegexSearch) {
+        return c == '\r' || c == '\n' || c == ';' && !isRegexSearch;
+    }
+
     /**
      * Returns the detected command type.
      *
@@ -323,6 +805,13 @@ public class Parser {
      * @throws ChatBotException If the index is missing, invalid, or out of bounds.
      */
     public Task getTask(TaskList tasks) throws ChatBotException {
+        return tasks.getSpecificTask(this.getTaskPosition(tasks));
+    }
+
+    /**
+     * Returns the zero-based position of the task whose number is given in the input.
+     */
+    private int getTaskPosition(TaskList tasks) throws ChatBotException {
         String[] parts = input.split(" ");
         if (parts.length < 2) {
             throw new ChatBotException("OOPS!!! You need to specify a task number.");
@@ -339,7 +828,7 @@ public class Parser {
             throw new ChatBotException("OOPS!!! Task does not exist.");
         }
 
-        return tasks.getSpecificTask(taskIndex - 1);
+        return taskIndex - 1;
     }
 
     /**
@@ -367,7 +856,8 @@ public class Parser {
                     throw new ChatBotException("OOPS!!! Deadline description cannot be empty.");
                 }
                 String by = this.deadlineMatcher.group(2).trim();
-                Collections.addAll(args, description, by);
+                String deadlineRepeats = this.deadlineMatcher.group(3);
+                Collections.addAll(args, description, by, deadlineRepeats == null ? "" : deadlineRepeats.trim());
                 break;
 
             case ADD_EVENT:
@@ -377,7 +867,10 @@ public class Parser {
                 }
                 String from = this.eventMatcher.group(2).trim();
                 String to = this.eventMatcher.group(3).trim();
-                Collections.addAll(args, description, from, to);
+                String eventRepeats = this.eventMatcher.group(4);
+                String conflictMode = this.eventMatcher.group(5);
+                Collections.addAll(args, description, from, to, eventRepeats == null ? "" : eventRepeats.trim(),
+                        conflictMode == null ? "" : conflictMode);
                 break;
 
             case SEARCH_TASK:
@@ -388,6 +881,52 @@ public class Parser {
                 args.add(searchTerm);
                 break;
 
+            case LIST_UPCOMING:
+                if (this.upcomingMatcher.group(1) != null) {
+                    args.add(this.upcomingMatcher.group(1));
+                }
+                break;
+
+            case LIST_PAGE:
+                args.add(this.pageMatcher.group(1));
+                if (this.pageMatcher.group(2) != null) {
+                    args.add(this.pageMatcher.group(2));
+                }
+                break;
+
+            case QUERY_TASKS:
+                addFlags(this.queryMatcher.group(1), args);
+                break;
+
+            case LIST_ARCHIVED:
+                addFlags(this.archivedMatcher.group(1), args);
+                break;
+
+            case IMPORT_TASKS:
+            case EXPORT_TASKS:
+                String file = this.transferMatcher.group(1).trim();
+                if (file.isEmpty()) {
+                    throw new ChatBotException("OOPS!!! You need to enter a file name.");
+                }
+                args.add(file);
+                break;
+
+            case SHOW_HISTORY:
+                args.add(this.historyMatcher.group(1));
+                break;
+
+            case LIST_AT:
+                args.add(this.listAtMatcher.group(1).trim());
+                break;
+
+            case USE_LIST:
+                String name = this.useMatcher.group(1).trim();
+                if (name.isEmpty()) {
+                    throw new ChatBotException("OOPS!!! You need to enter the name of a list.");
+                }
+                args.add(name);
+                break;
+
             case FIND_FREE_TIMES:
                 String hours = this.freeTimeMatcher.group(1).trim();
                 if (hours.isEmpty()) {
@@ -401,4 +940,15 @@ public class Parser {
         }
         return args;
     }
+
+    /**
+     * Adds each {@code /name value} flag in the text to the arguments, without its slash.
+     */
+    private static void addFlags(String text, List<String> args) {
+        for (String flag : text.split(" /")) {
+            if (!flag.isBlank()) {
+                args.add(flag.trim());
+            }
+        }
+    }
 }
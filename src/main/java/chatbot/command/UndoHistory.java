@@ -0,0 +1,172 @@
+package chatbot.command;
+
+import java.util.Arrays;
+import java.util.List;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+
+/**
+ * Remembers how to undo and redo the most recent commands that changed the task list.
+ * <p>
+ * Rather than copying the list, each command is recorded as its inverse operation, e.g. an added task
+ * as removing it from its position. Undoing an operation returns the operation that redoes it, so the
+ * history only ever holds the affected tasks and positions: undoing a command that changed k tasks
+ * takes O(k) time and memory, however long the list is. The history is a ring buffer of fixed
+ * capacity, so the oldest commands are forgotten once it is full.
+ * <p>
+ * Positions are only valid while every change to the list goes through the history, so commands
+ * that change the list without recording an inverse must {@link #clear()} it.
+ */
+public class UndoHistory {
+
+    /** Default number of commands that can be undone. */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Represents a change to a task list that, when applied, returns the change that reverses it.
+     */
+    sealed interface Operation {
+        Operation apply(TaskList tasks);
+    }
+
+    /**
+     * Inserts tasks at a position; reversed by removing them again.
+     */
+    record Insert(int position, List<Task> inserted) implements Operation {
+        @Override
+        public Operation apply(TaskList tasks) {
+            tasks.insertTasks(position, inserted);
+            return new Remove(position, inserted.size());
+        }
+    }
+
+    /**
+     * Removes a run of tasks starting at a position; reversed by inserting them again.
+     */
+    record Remove(int position, int count) implements Operation {
+        @Override
+        public Operation apply(TaskList tasks) {
+            return new Insert(position, tasks.removeRange(position, position + count));
+        }
+    }
+
+    /**
+     * Marks the task at a position as done or not done; reversed by restoring its previous status.
+     */
+    record Mark(int position, boolean isDone) implements Operation {
+        @Override
+        public Operation apply(TaskList tasks) {
+            Task task = tasks.getSpecificTask(position);
+            boolean wasDone = task.isDone();
+            if (isDone) {
+                tasks.markTask(position);
+            } else {
+                tasks.unmarkTask(position);
+            }
+            return new Mark(position, wasDone);
+        }
+    }
+
+    private record Entry(String command, Operation operation) {
+    }
+
+    private final Entry[] entries;
+    private int newest = -1;    // Slot of the most recent command that can be undone
+    private int undoable = 0;   // Commands that can be undone, ending at newest
+    private int redoable = 0;   // Undone commands that can be redone, following newest
+
+    /**
+     * Constructs an UndoHistory that remembers up to {@value #DEFAULT_CAPACITY} commands.
+     */
+    public UndoHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an UndoHistory that remembers up to the given number of commands.
+     *
+     * @param capacity Maximum number of commands that can be undone.
+     */
+    public UndoHistory(int capacity) {
+        this.entries = new Entry[capacity];
+    }
+
+    /**
+     * Records a command that was just executed, together with the operation that undoes it.
+     * Commands that were undone can no longer be redone afterwards.
+     *
+     * @param command Input of the command.
+     * @param inverse Operation that undoes the command.
+     */
+    void record(String command, Operation inverse) {
+        newest = (newest + 1) % entries.length;
+        entries[newest] = new Entry(command, inverse);
+        undoable = Math.min(undoable + 1, entries.length);
+        redoable = 0;
+    }
+
+    /**
+     * Undoes the most recent command that has not been undone yet.
+     *
+     * @param tasks Task list the command changed.
+     * @return Input of the undone command.
+     * @throws ChatBotException If there is nothing to undo.
+     */
+    public String undo(TaskList tasks) throws ChatBotException {
+        if (undoable == 0) {
+            throw new ChatBotException("OOPS!!! There is nothing to undo.");
+        }
+        Entry entry = entries[newest];
+        entries[newest] = new Entry(entry.command(), entry.operation().apply(tasks));
+        newest = (newest - 1 + entries.length) % entries.length;
+        undoable--;
+        redoable++;
+        return entry.command();
+    }
+
+    /**
+     * Redoes the most recently undone command.
+     *
+     * @param tasks Task list the command changed.
+     * @return Input of the redone command.
+     * @throws ChatBotException If there is nothing to redo.
+     */
+    public String redo(TaskList tasks) throws ChatBotException {
+        if (redoable == 0) {
+            throw new ChatBotException("OOPS!!! There is nothing to redo.");
+        }
+        newest = (newest + 1) % entries.length;
+        Entry entry = entries[newest];
+        entries[newest] = new Entry(entry.command(), entry.operation().apply(tasks));
+        undoable++;
+        redoable--;
+        return entry.command();
+    }
+
+    /**
+     * Returns a copy of the history, e.g. to go back to once the changes made since are rolled back.
+     * Recorded operations are never changed in place, so the copy shares them and takes O(capacity) time.
+     *
+     * @return History that undoes and redoes the same commands as this one does now.
+     */
+    public UndoHistory copy() {
+        UndoHistory copy = new UndoHistory(entries.length);
+        System.arraycopy(entries, 0, copy.entries, 0, entries.length);
+        copy.newest = newest;
+        copy.undoable = undoable;
+        copy.redoable = redoable;
+        return copy;
+    }
+
+    /**
+     * Forgets every command, e.g. after the list changed in a way that was not recorded.
+     */
+    public void clear() {
+        Arrays.fill(entries, null);
+        newest = -1;
+        undoable = 0;
+        redoable = 0;
+    }
+}
@@ -0,0 +1,147 @@
+package chatbot.completion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+import chatbot.task.TaskListener;
+
+/**
+ * Suggests completions for the word being typed in a command: command keywords, flags such as
+ * {@code /by}, task numbers, and words from task descriptions.
+ * <p>
+ * Description words are kept in a {@link Trie}. As a {@link TaskListener}, the completer adds and
+ * removes the words of single tasks as they are added and deleted, so it never rebuilds the trie.
+ * All methods are synchronized, so suggestions can be looked up on a background thread while the
+ * task list changes on another.
+ */
+public class Completer implements TaskListener {
+
+    private static final List<String> COMMANDS = List.of("archive", "begin", "bye", "commit", "conflicts", "deadline",
+            "delete", "event", "export", "find", "free", "history", "import", "list", "lists", "mark", "overdue",
+            "redo", "rollback", "summary", "todo", "undo", "unmark", "upcoming", "use");
+
+    private static final Map<String, List<String>> FLAGS = Map.of(
+            "deadline", List.of("/by", "/every", "/until", "/count"),
+            "event", List.of("/from", "/to", "/every", "/until", "/count", "/check", "/strict"),
+            "find", List.of("/all", "/regex"),
+            "free", List.of("/duration"),
+            "list", List.of("/type", "/done", "/before", "/after", "/match", "/sort", "/page", "/size",
+                    "/archived"));
+
+    private static final List<String> NUMBERED_COMMANDS = List.of("mark", "unmark", "delete", "history");
+
+    private Trie words = new Trie();
+    private int totalTasks = 0;
+
+    /**
+     * Adds the words of every task in the list.
+     * Used once after loading; later changes arrive through the {@link TaskListener} callbacks.
+     *
+     * @param tasks Task list to take words from.
+     */
+    public synchronized void addAll(TaskList tasks) {
+        for (Task task : tasks.getTasks()) {
+            taskAdded(task);
+        }
+    }
+
+    /**
+     * Forgets every task, e.g. before switching to another task list.
+     */
+    public synchronized void clear() {
+        words = new Trie();
+        totalTasks = 0;
+    }
+
+    /**
+     * Returns completions for the last word of the given input, best first.
+     * The first word completes to a command, a word starting with {@code /} to a flag of that command,
+     * the word after {@code mark}, {@code unmark}, {@code delete} or {@code history} to a task number,
+     * and any other word to a word from a task description.
+     *
+     * @param input Text typed so far.
+     * @param limit Maximum number of completions to return.
+     * @return Completions of the last word, each a whole word.
+     */
+    public synchronized List<String> suggest(String input, int limit) {
+        int lastSpace = input.lastIndexOf(' ');
+        String prefix = input.substring(lastSpace + 1);
+        if (lastSpace < 0) {
+            return startingWith(COMMANDS, prefix, limit);
+        }
+
+        String command = input.substring(0, input.indexOf(' '));
+        if (prefix.startsWith("/")) {
+            return startingWith(FLAGS.getOrDefault(command, List.of()), prefix, limit);
+        } else if (NUMBERED_COMMANDS.contains(command) && lastSpace == command.length()) {
+            return taskNumbers(prefix, limit);
+        } else if (prefix.isEmpty()) {
+            return List.of(); // Every description word would match
+        }
+        return words.complete(prefix.toLowerCase(), limit);
+    }
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        totalTasks++;
+        for (String word : task.getWords()) {
+            words.add(word);
+        }
+    }
+
+    @Override
+    public synchronized void tasksAdded(List<Task> added) {
+        for (Task task : added) { // Takes the lock once for the whole batch
+            taskAdded(task);
+        }
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        totalTasks--;
+        for (String word : task.getWords()) {
+            words.remove(word);
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        // Marking and unmarking does not change any words
+    }
+
+    private static List<String> startingWith(List<String> candidates, String prefix, int limit) {
+        List<String> matches = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix) && matches.size() < limit) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the existing task numbers starting with the given digits, smallest first.
+     */
+    private List<String> taskNumbers(String prefix, int limit) {
+        List<String> numbers = new ArrayList<>();
+        if (!prefix.matches("\\d{0,9}") || prefix.startsWith("0")) {
+            return numbers;
+        }
+
+        // Numbers starting with the prefix are the prefix itself, then the ranges prefix0-prefix9, prefix00-prefix99...
+        long first = prefix.isEmpty() ? 1 : Long.parseLong(prefix);
+        long span = prefix.isEmpty() ? 9 : 1;
+        while (first <= totalTasks && numbers.size() < limit) {
+            for (long number = first; number < first + span && number <= totalTasks && numbers.size() < limit;
+                    number++) {
+                numbers.add(Long.toString(number));
+            }
+            first *= 10;
+            span *= 10;
+        }
+        return numbers;
+    }
+}
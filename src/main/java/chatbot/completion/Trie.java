@@ -0,0 +1,98 @@
+package chatbot.completion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A prefix tree of words, each counted by how many times it was added.
+ * <p>
+ * Words can be added and removed one at a time, and branches are pruned as soon as their last word
+ * is removed, so every node leads to at least one word. Completing a prefix therefore walks down the
+ * prefix and then visits at most {@code limit} words' worth of nodes, however many words are stored.
+ * <p>
+ * This class is not thread-safe; callers are expected to synchronize access.
+ */
+public class Trie {
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>(); // Sorted, so completions are alphabetical
+        private int count = 0; // Number of times the word ending here was added
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Adds one occurrence of a word.
+     *
+     * @param word Word to add.
+     */
+    public void add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+        }
+        node.count++;
+    }
+
+    /**
+     * Removes one occurrence of a word. Does nothing if the word is not in the trie.
+     *
+     * @param word Word to remove.
+     */
+    public void remove(String word) {
+        remove(root, word, 0);
+    }
+
+    /**
+     * Returns whether the subtree below the node became empty and can be unlinked.
+     */
+    private static boolean remove(Node node, String word, int depth) {
+        if (depth == word.length()) {
+            if (node.count > 0) {
+                node.count--;
+            }
+        } else {
+            Node child = node.children.get(word.charAt(depth));
+            if (child != null && remove(child, word, depth + 1)) {
+                node.children.remove(word.charAt(depth));
+            }
+        }
+        return node.count == 0 && node.children.isEmpty();
+    }
+
+    /**
+     * Returns up to {@code limit} words starting with the given prefix, in alphabetical order.
+     *
+     * @param prefix Start of the words to return.
+     * @param limit  Maximum number of words to return.
+     * @return Matching words, possibly including the prefix itself.
+     */
+    public List<String> complete(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+
+        List<String> words = new ArrayList<>();
+        if (node != null) {
+            collect(node, new StringBuilder(prefix), limit, words);
+        }
+        return words;
+    }
+
+    private static void collect(Node node, StringBuilder word, int limit, List<String> words) {
+        if (node.count > 0 && words.size() < limit) {
+            words.add(word.toString());
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (words.size() >= limit) {
+                return;
+            }
+            word.append(child.getKey());
+            collect(child.getValue(), word, limit, words);
+            word.setLength(word.length() - 1);
+        }
+    }
+}
@@ -2,15 +2,33 @@ package chatbot.gui;
 
 import chatbot.ChatBot;
 import chatbot.exception.ChatBotException;
+import chatbot.task.TaskList;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
 
 /**
  * Controller for the main GUI.
@@ -26,6 +44,40 @@ public class MainWindow extends AnchorPane {
     private Button sendButton;
 
     private ChatBot chatbot;
+    private TaskListView liveListing; // Latest listing of the whole list, kept up to date as it changes
+
+    // Listings longer than this are shown in a virtualized list instead of a single label
+    private static final int LARGE_LISTING = 100;
+
+    // Suggestions are looked up once typing pauses for this long, on a background thread
+    private static final long SUGGESTION_DELAY_MILLIS = 120;
+    private static final int MAX_SUGGESTIONS = 8;
+
+    // A text field drops line breaks, so pasted lines are kept apart as separate commands instead
+    private static final Pattern LINE_BREAKS = Pattern.compile("\\R+");
+
+    private final ContextMenu suggestions = new ContextMenu();
+    private final ScheduledExecutorService suggester = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autocomplete");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingSuggestion;
+
+    // Long searches run in the background, so the window stays responsive and the next message can stop them
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<Reply> runningSearch; // Null unless a search is running or its reply is not shown
+    private AtomicBoolean isSearchCancelled;
+
+    /**
+     * Represents a chatbot response to show.
+     */
+    private record Reply(String text, boolean isError) {
+    }
 
     // Images for the user and the chatbot
     private final Image userImage = new Image(Objects.requireNonNull(this.getClass().getResourceAsStream("/images/User.png")));
@@ -40,6 +92,10 @@ public class MainWindow extends AnchorPane {
         scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
         ChatBotResponse welcomeMessage = ChatBotResponse.getChatBotResponse("Hello! I am ChatBot! How can I assist you today?", chatbotImage);
         dialogContainer.getChildren().add(welcomeMessage);
+        userInput.setTextFormatter(new TextFormatter<>(change -> {
+            change.setText(LINE_BREAKS.matcher(change.getText()).replaceAll("; "));
+            return change;
+        }));
     }
 
     /**
@@ -49,6 +105,55 @@ public class MainWindow extends AnchorPane {
      */
     public void setChatBot(ChatBot chatbot) {
         this.chatbot = chatbot;
+
+        // Reminders arrive on a background thread, so hop onto the FX thread before touching the transcript
+        chatbot.setReminderHandler(message -> Platform.runLater(() -> dialogContainer.getChildren().add(
+                ChatBotResponse.getChatBotResponse(message, chatbotImage))));
+        userInput.textProperty().addListener((observable, oldText, newText) -> scheduleSuggestions(newText));
+    }
+
+    /**
+     * Looks up completions for the given input once typing pauses, replacing any lookup still waiting.
+     * The lookup runs on a background thread, so the FX thread only ever updates the suggestion menu.
+     */
+    private void scheduleSuggestions(String text) {
+        if (pendingSuggestion != null) {
+            pendingSuggestion.cancel(false);
+        }
+        if (text.isEmpty()) {
+            suggestions.hide();
+            return;
+        }
+
+        pendingSuggestion = suggester.schedule(() -> {
+            List<String> completions = chatbot.getCompleter().suggest(text, MAX_SUGGESTIONS);
+            Platform.runLater(() -> showSuggestions(text, completions));
+        }, SUGGESTION_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Shows completions below the input field, unless the user has typed on since they were looked up.
+     */
+    private void showSuggestions(String text, List<String> completions) {
+        if (!text.equals(userInput.getText()) || completions.isEmpty()) {
+            suggestions.hide();
+            return;
+        }
+
+        String typed = text.substring(0, text.lastIndexOf(' ') + 1);
+        List<MenuItem> items = new ArrayList<>();
+        for (String completion : completions) {
+            MenuItem item = new MenuItem(completion);
+            item.setOnAction(event -> {
+                userInput.setText(typed + completion + " ");
+                userInput.end();
+            });
+            items.add(item);
+        }
+        suggestions.getItems().setAll(items);
+        if (!suggestions.isShowing()) {
+            suggestions.show(userInput, Side.BOTTOM, 0, 0);
+        }
     }
 
     /**
@@ -58,22 +163,86 @@ public class MainWindow extends AnchorPane {
     @FXML
     private void handleUserInput() {
         String inputText = userInput.getText();                  // Get user input
+        stopRunningSearch();
 
         // Add user dialog to the container
         dialogContainer.getChildren().add(
                 DialogBox.getUserDialog(inputText, userImage)
         );
 
+        TaskList listing = chatbot.getListing(inputText);
+        if (listing != null && listing.getTotalTasks() > LARGE_LISTING) {
+            // Only the newest listing follows the list; earlier ones stay as they were when shown
+            if (liveListing != null) {
+                liveListing.stopFollowing();
+            }
+            liveListing = TaskListView.getTaskListView(listing);
+            liveListing.follow(listing);
+            dialogContainer.getChildren().add(liveListing);
+            userInput.clear();
+            return;
+        }
+
+        if (chatbot.isCancellable(inputText)) {
+            startSearch(inputText);
+        } else {
+            showReply(respond(inputText, () -> false));
+        }
+        userInput.clear(); // Clear input field for next message
+        suggestions.hide();
+    }
+
+    /**
+     * Gets the chatbot's response to a message, turning a failed command into an error reply.
+     */
+    private Reply respond(String inputText, BooleanSupplier isCancelled) {
         try {
-            String response = chatbot.getResponse(inputText); // may throw ChatBotException
-            dialogContainer.getChildren().add(
-                    ChatBotResponse.getChatBotResponse(response, chatbotImage)
-            );
+            return new Reply(chatbot.getResponse(inputText, isCancelled), false); // may throw ChatBotException
         } catch (ChatBotException e) {
-            dialogContainer.getChildren().add(
-                    ChatBotResponse.getErrorResponse("Error: " + e.getMessage(), chatbotImage)
-            );
+            return new Reply("Error: " + e.getMessage(), true);
         }
-        userInput.clear(); // Clear input field for next message
+    }
+
+    private void showReply(Reply reply) {
+        dialogContainer.getChildren().add(reply.isError()
+                ? ChatBotResponse.getErrorResponse(reply.text(), chatbotImage)
+                : ChatBotResponse.getChatBotResponse(reply.text(), chatbotImage));
+    }
+
+    /**
+     * Runs a long search in the background and shows its reply once it is done, unless another message
+     * has been sent by then.
+     */
+    private void startSearch(String inputText) {
+        AtomicBoolean isCancelled = new AtomicBoolean(false);
+        CompletableFuture<Reply> search = CompletableFuture.supplyAsync(() -> respond(inputText, isCancelled::get),
+                searcher);
+        isSearchCancelled = isCancelled;
+        runningSearch = search;
+        search.thenAccept(reply -> Platform.runLater(() -> {
+            if (runningSearch == search) {
+                runningSearch = null;
+                showReply(reply);
+            }
+        }));
+    }
+
+    /**
+     * Cancels the running search, if any, and shows its reply before anything else is done with the chatbot.
+     * The search checks for cancellation often, so this only waits briefly.
+     */
+    private void stopRunningSearch() {
+        if (runningSearch == null) {
+            return;
+        }
+        isSearchCancelled.set(true);
+        try {
+            showReply(runningSearch.get());
+        } catch (ExecutionException e) {
+            showReply(new Reply("Error: " + e.getCause().getMessage(), true));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        runningSearch = null;
     }
 }
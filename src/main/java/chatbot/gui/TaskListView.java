@@ -0,0 +1,105 @@
+package chatbot.gui;
+
+import chatbot.task.Task;
+import chatbot.task.TaskChange;
+import chatbot.task.TaskList;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Represents a scrollable view of a large task listing.
+ * Only the rows that are visible are turned into text and laid out, so showing tens of thousands
+ * of tasks costs about as much as showing one screenful, unlike a single label holding the whole list.
+ * A view can also follow later changes to its list, applying each one to the rows instead of rebuilding them.
+ */
+public class TaskListView extends ListView<Task> {
+
+    private static final double ROW_HEIGHT = 24;
+    private static final double VIEW_HEIGHT = 320;
+
+    private Flow.Subscription following; // Subscription to the list's changes, or null for a fixed snapshot
+
+    /**
+     * Constructs a TaskListView showing a snapshot of the given tasks.
+     *
+     * @param tasks The tasks to show, numbered by their position in the list.
+     */
+    private TaskListView(TaskList tasks) {
+        super(FXCollections.observableArrayList(tasks.getTasks())); // Copies references only
+
+        // A fixed row height lets the view work out which rows are visible without measuring any
+        this.setFixedCellSize(ROW_HEIGHT);
+        this.setPrefHeight(VIEW_HEIGHT);
+        this.setMaxWidth(360);
+        this.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(Task task, boolean isEmpty) {
+                super.updateItem(task, isEmpty);
+                this.setText(isEmpty || task == null ? null : (this.getIndex() + 1) + "." + task);
+            }
+        });
+    }
+
+    /**
+     * Creates a view of the given tasks.
+     *
+     * @param tasks The tasks to show.
+     * @return TaskListView instance.
+     */
+    public static TaskListView getTaskListView(TaskList tasks) {
+        return new TaskListView(tasks);
+    }
+
+    /**
+     * Keeps the view in step with later changes to the list it was created from.
+     * Each batch of changes is applied on the FX thread, at a cost proportional to the changes,
+     * and the next batch is only requested once the previous one has been shown.
+     *
+     * @param tasks The list this view was created from, before any other change was made to it.
+     */
+    public void follow(TaskList tasks) {
+        tasks.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                Platform.runLater(() -> following = subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(List<TaskChange> changes) {
+                Platform.runLater(() -> {
+                    for (TaskChange change : changes) {
+                        change.applyTo(getItems());
+                    }
+                    if (following != null) {
+                        following.request(1);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                // The stream of a task list never fails or ends, so there is nothing to do
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    /**
+     * Stops following changes, leaving the view showing the list as it last was.
+     */
+    public void stopFollowing() {
+        if (following != null) {
+            following.cancel();
+            following = null;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package chatbot.load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import chatbot.ChatBot;
+import chatbot.command.CommandType;
+import chatbot.command.Parser;
+import chatbot.exception.ChatBotException;
+
+/**
+ * Replays a stream of commands through {@link ChatBot#getResponse(String)} and reports throughput, latency
+ * percentiles by command and garbage collection, so that load seen in use can be reproduced locally.
+ * <p>
+ * A workload is a directory holding a task file ({@code tasks.txt}) and commands ({@code input.txt}), which
+ * {@link WorkloadGenerator} can write. As in {@code text-ui-test}, the responses are checked against
+ * {@code EXPECTED.TXT} in the same directory while replaying; if there is none yet, the responses of the run
+ * are written to it instead, to check later runs against. Responses to {@code free} depend on the current
+ * time, so they are only checked for not being errors. The chatbot runs on a copy of the task file, so every
+ * replay starts from the same tasks.
+ * <p>
+ * Usage:
+ * <pre>
+ * LoadDriver generate DIR [--tasks N] [--commands N] [--mix add=25,find=20,...] [--seed N]
+ * LoadDriver replay DIR [--warmup N] [--record]
+ * LoadDriver run DIR [generate options] [--warmup N]
+ * LoadDriver storage DIR [--tasks N] [--seed N] [--runs N] [--link MBPS,...]
+ * </pre>
+ * {@code run} generates a workload unless the directory already holds one, then replays it.
+ * {@code storage} measures saving and loading a task file in {@code DIR} instead, plain and compressed
+ * (see {@link StorageBenchmark}).
+ */
+public class LoadDriver {
+
+    /** Line that separates the responses in {@code EXPECTED.TXT}. */
+    static final String SEPARATOR = "------------------------------------";
+
+    private static final String TASKS_FILE = "tasks.txt";
+    private static final String COMMANDS_FILE = "input.txt";
+    private static final String EXPECTED_FILE = "EXPECTED.TXT";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final int MISMATCHES_SHOWN = 5;
+
+    /**
+     * Represents the measurements of one replay.
+     *
+     * @param commands   Commands measured, i.e. replayed after the warmup.
+     * @param nanos      Wall-clock time taken by the measured commands.
+     * @param latencies  Time taken by each measured command, by command type.
+     * @param checked    Responses compared with the expected ones.
+     * @param unchecked  Responses that depend on the time, so were only checked for not being errors.
+     * @param mismatches Descriptions of the responses that differed from the expected ones.
+     * @param gcCounts   Collections by each garbage collector during the measured commands.
+     * @param gcMillis   Time spent by each garbage collector during the measured commands.
+     */
+    record Result(int commands, long nanos, Map<CommandType, long[]> latencies, int checked, int unchecked,
+            List<String> mismatches, Map<String, Long> gcCounts, Map<String, Long> gcMillis) {
+    }
+
+    private LoadDriver() {
+    }
+
+    /**
+     * Runs the load driver; see the class description for its arguments.
+     * Exits with status 1 if a response did not match, and 2 if the arguments are invalid.
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length < 2) {
+                throw new ChatBotException("Usage: LoadDriver generate|replay|run|storage DIR [options]");
+            }
+            Path directory = Path.of(args[1]);
+            Options options = Options.parse(Arrays.copyOfRange(args, 2, args.length));
+            if (args[0].equals("storage")) {
+                System.out.println(StorageBenchmark.report(StorageBenchmark.measure(directory, options.tasks,
+                        options.runs, options.seed), options.tasks, options.runs, options.linkSpeeds));
+                return;
+            }
+            boolean hasWorkload = Files.exists(directory.resolve(COMMANDS_FILE));
+            if (args[0].equals("generate") || args[0].equals("run") && !hasWorkload) {
+                generate(directory, options);
+            } else if (!args[0].equals("replay") && !args[0].equals("run")) {
+                throw new ChatBotException("Unknown mode: " + args[0]);
+            }
+            if (args[0].equals("generate")) {
+                return;
+            }
+
+            Result result = replay(directory, options.warmup, options.isRecording);
+            System.out.println(report(result));
+            System.exit(result.mismatches().isEmpty() ? 0 : 1);
+        } catch (ChatBotException | IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Writes a workload to the directory.
+     */
+    private static void generate(Path directory, Options options) throws ChatBotException, IOException {
+        Files.createDirectories(directory);
+        new WorkloadGenerator(options.seed, options.mix).generate(directory.resolve(TASKS_FILE),
+                directory.resolve(COMMANDS_FILE), options.tasks, options.commands);
+        Files.deleteIfExists(directory.resolve(EXPECTED_FILE)); // Responses to earlier workloads no longer apply
+        System.out.println("Generated " + options.tasks + " tasks and " + options.commands + " commands in "
+                + directory);
+    }
+
+    /**
+     * Replays the workload in the directory on a fresh copy of its task file.
+     *
+     * @param directory   Directory of the workload.
+     * @param warmup      Number of commands at the start that are checked but not measured.
+     * @param isRecording Whether to write the responses to {@code EXPECTED.TXT} instead of checking them.
+     * @return The measurements of the replay.
+     * @throws IOException If the workload cannot be read or the responses cannot be written.
+     */
+    static Result replay(Path directory, int warmup, boolean isRecording) throws IOException {
+        List<String> commands = Files.readAllLines(directory.resolve(COMMANDS_FILE), Charset.defaultCharset());
+        int measuredFrom = Math.max(0, Math.min(warmup, commands.size() - 1)); // Always measures the last command
+        Path expectedFile = directory.resolve(EXPECTED_FILE);
+        List<String> expected = isRecording || !Files.exists(expectedFile) ? null : readResponses(expectedFile);
+        if (expected != null && expected.size() != commands.size()) {
+            throw new IOException(EXPECTED_FILE + " has " + expected.size() + " responses for "
+                    + commands.size() + " commands");
+        }
+
+        Path data = Files.createTempDirectory("chatbot-load");
+        Files.copy(directory.resolve(TASKS_FILE), data.resolve(TASKS_FILE), StandardCopyOption.REPLACE_EXISTING);
+        ChatBot chatbot = new ChatBot(data.resolve(TASKS_FILE).toString());
+
+        Map<CommandType, List<Long>> latencies = new EnumMap<>(CommandType.class);
+        List<String> responses = new ArrayList<>(commands.size());
+        List<String> mismatches = new ArrayList<>();
+        int checked = 0;
+        int unchecked = 0;
+        Map<String, Long> gcCountsBefore = new LinkedHashMap<>();
+        Map<String, Long> gcMillisBefore = new LinkedHashMap<>();
+        long start = 0;
+
+        for (int i = 0; i < commands.size(); i++) {
+            if (i == measuredFrom) {
+                readGarbageCollectors(gcCountsBefore, gcMillisBefore);
+                start = System.nanoTime();
+            }
+            String command = commands.get(i);
+            CommandType type = new Parser(command).getCommandType();
+
+            long before = System.nanoTime();
+            String response;
+            try {
+                response = chatbot.getResponse(command);
+            } catch (ChatBotException e) {
+                response = e.getMessage();
+            }
+            long took = System.nanoTime() - before;
+            if (i >= measuredFrom) {
+                latencies.computeIfAbsent(type, key -> new ArrayList<>()).add(took);
+            }
+
+            responses.add(response);
+            if (type == CommandType.FIND_FREE_TIMES) {
+                unchecked++;
+                if (response.startsWith("OOPS")) {
+                    mismatches.add(describeMismatch(i, command, "a free time slot", response));
+                }
+            } else if (expected != null) {
+                checked++;
+                if (!response.equals(expected.get(i))) {
+                    mismatches.add(describeMismatch(i, command, expected.get(i), response));
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        deleteQuietly(data);
+
+        Map<String, Long> gcCounts = new LinkedHashMap<>();
+        Map<String, Long> gcMillis = new LinkedHashMap<>();
+        readGarbageCollectors(gcCounts, gcMillis);
+        gcCounts.replaceAll((name, count) -> count - gcCountsBefore.getOrDefault(name, 0L));
+        gcMillis.replaceAll((name, millis) -> millis - gcMillisBefore.getOrDefault(name, 0L));
+
+        if (expected == null) {
+            writeResponses(expectedFile, responses);
+        }
+        Map<CommandType, long[]> sorted = new EnumMap<>(CommandType.class);
+        latencies.forEach((type, times) -> sorted.put(type, times.stream().mapToLong(Long::longValue).sorted()
+                .toArray()));
+        return new Result(commands.size() - measuredFrom, nanos, sorted, checked, unchecked, mismatches,
+                gcCounts, gcMillis);
+    }
+
+    /**
+     * Formats the measurements of a replay as a table of latencies followed by totals.
+     */
+    static String report(Result result) {
+        StringBuilder report = new StringBuilder();
+        double seconds = result.nanos() / 1e9;
+        report.append(String.format("Replayed %d command(s) in %.2f s: %.0f command(s)/s%n", result.commands(),
+                seconds, seconds == 0 ? 0 : result.commands() / seconds));
+
+        report.append(String.format("%-16s %8s", "Latency (ms)", "count"));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" %8s", "p" + (percentile == (int) percentile
+                    ? String.valueOf((int) percentile) : String.valueOf(percentile))));
+        }
+        report.append(String.format(" %8s%n", "max"));
+        long[] all = result.latencies().values().stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        appendLatencies(report, "all", all);
+        result.latencies().forEach((type, times) -> appendLatencies(report, type.name(), times));
+
+        result.gcCounts().forEach((name, count) -> report.append(String.format("GC %s: %d collection(s), %d ms%n",
+                name, count, result.gcMillis().get(name))));
+        if (result.checked() == 0) {
+            report.append("Recorded the responses in " + EXPECTED_FILE + " to check later runs against");
+        } else {
+            report.append(String.format("Checked %d response(s) against %s: %d mismatch(es)", result.checked(),
+                    EXPECTED_FILE, result.mismatches().size()));
+        }
+        report.append(String.format(" (%d time-dependent response(s) only checked for errors)",
+                result.unchecked()));
+        result.mismatches().stream().limit(MISMATCHES_SHOWN).forEach(mismatch -> report.append("\n")
+                .append(mismatch));
+        return report.toString();
+    }
+
+    private static void appendLatencies(StringBuilder report, String name, long[] sortedNanos) {
+        if (sortedNanos.length == 0) {
+            return;
+        }
+        report.append(String.format("%-16s %8d", name, sortedNanos.length));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" %8.3f", percentileOf(sortedNanos, percentile) / 1e6));
+        }
+        report.append(String.format(" %8.3f%n", sortedNanos[sortedNanos.length - 1] / 1e6));
+    }
+
+    /**
+     * Returns the nearest-rank percentile of sorted values.
+     */
+    static long percentileOf(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static void readGarbageCollectors(Map<String, Long> counts, Map<String, Long> millis) {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            counts.put(collector.getName(), Math.max(0, collector.getCollectionCount()));
+            millis.put(collector.getName(), Math.max(0, collector.getCollectionTime()));
+        }
+    }
+
+    private static void deleteQuietly(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            // Left in the temporary directory
+        }
+    }
+
+    private static String describeMismatch(int index, String command, String expected, String actual) {
+        return "Command " + (index + 1) + " (" + command + ") expected:\n" + expected + "\nbut was:\n" + actual;
+    }
+
+    /**
+     * Reads responses written by {@link #writeResponses}, each followed by a separator line.
+     */
+    static List<String> readResponses(Path file) throws IOException {
+        List<String> responses = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, Charset.defaultCharset())) {
+            if (line.equals(SEPARATOR)) {
+                responses.add(String.join("\n", lines));
+                lines.clear();
+            } else {
+                lines.add(line);
+            }
+        }
+        return responses;
+    }
+
+    private static void writeResponses(Path file, List<String> responses) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, Charset.defaultCharset())) {
+            for (String response : responses) {
+                writer.write(response);
+                writer.write("\n" + SEPARATOR + "\n");
+            }
+        }
+    }
+
+    /**
+     * Represents the options given after the directory.
+     */
+    private static final class Options {
+        private int tasks = 2000;
+        private int commands = 10000;
+        private long seed = 1;
+        private Map<String, Integer> mix = WorkloadGenerator.DEFAULT_MIX;
+        private int warmup = 0;
+        private boolean isRecording = false;
+        private int runs = 8;
+        private double[] linkSpeeds = {};
+
+        private static Options parse(String[] args) throws ChatBotException {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String flag = args[i];
+                if (flag.equals("--record")) {
+                    options.isRecording = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new ChatBotException(flag + " needs a value");
+                }
+                String value = args[++i];
+                try {
+                    switch (flag) {
+                        case "--tasks" -> options.tasks = Integer.parseInt(value);
+                        case "--commands" -> options.commands = Integer.parseInt(value);
+                        case "--seed" -> options.seed = Long.parseLong(value);
+                        case "--warmup" -> options.warmup = Integer.parseInt(value);
+                        case "--mix" -> options.mix = WorkloadGenerator.parseMix(value);
+                        case "--runs" -> options.runs = Integer.parseInt(value);
+                        case "--link" -> options.linkSpeeds = Arrays.stream(value.split(","))
+                                .mapToDouble(Double::parseDouble).toArray();
+                        default -> throw new ChatBotException("Unknown option: " + flag);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new ChatBotException(flag + " needs a number");
+                }
+            }
+            if (options.runs < 1) {
+                throw new ChatBotException("--runs needs a positive number");
+            }
+            return options;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package chatbot.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import chatbot.exception.ChatBotException;
+import chatbot.storage.Storage;
+import chatbot.task.TaskList;
+
+/**
+ * Measures saving and loading a task file kept plain and block-compressed, to weigh the smaller file
+ * against the time spent compressing it.
+ * <p>
+ * The tasks come from {@link WorkloadGenerator}. Each form of the file is saved and loaded several times in
+ * the given directory and the fastest run is kept. The pre-parsed cache is deleted before every load, so that
+ * the file itself is read and parsed. Pointing the directory at a network home directory measures that mount;
+ * without one, the report can also model loading over a link of a given speed as the local load time plus
+ * sending the file at that speed.
+ */
+final class StorageBenchmark {
+
+    /** Task files measured, plain and compressed. */
+    static final List<String> FILE_NAMES = List.of("tasks.txt", "tasks.txt" + Storage.COMPRESSED_EXTENSION);
+
+    private static final String CACHE_EXTENSION = ".cache";
+
+    /**
+     * Represents the fastest save and load of one form of the task file.
+     *
+     * @param fileName  Name of the task file.
+     * @param bytes     Size of the saved file.
+     * @param saveNanos Time taken by the fastest save.
+     * @param loadNanos Time taken by the fastest load.
+     */
+    record Measurement(String fileName, long bytes, long saveNanos, long loadNanos) {
+        /**
+         * Returns the load time modelled for a link of the given speed: the local load time plus sending the file.
+         */
+        long loadNanosOver(double megabitsPerSecond) {
+            return loadNanos + (long) (bytes * 8 / megabitsPerSecond * 1e3);
+        }
+    }
+
+    private StorageBenchmark() {
+    }
+
+    /**
+     * Generates a task list and measures saving and loading it in each form of the task file.
+     *
+     * @param directory Directory the task files are written to, e.g. on the drive to measure.
+     * @param taskCount Number of tasks in the list.
+     * @param runs      Number of times each file is saved and loaded.
+     * @param seed      Seed of the generated tasks.
+     * @return The measurements, in the order of {@link #FILE_NAMES}.
+     * @throws IOException      If a file cannot be written or loads fewer tasks than were saved.
+     * @throws ChatBotException If the generated tasks cannot be read back.
+     */
+    static List<Measurement> measure(Path directory, int taskCount, int runs, long seed)
+            throws IOException, ChatBotException {
+        Files.createDirectories(directory);
+        Path source = directory.resolve("source.txt");
+        Path commands = Files.createTempFile("chatbot-benchmark", ".txt");
+        new WorkloadGenerator(seed, WorkloadGenerator.DEFAULT_MIX).generate(source, commands, taskCount, 0);
+        Files.delete(commands);
+        TaskList tasks = new TaskList(new Storage(source.toString()).load());
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (String fileName : FILE_NAMES) {
+            Path file = directory.resolve(fileName);
+            long saveNanos = Long.MAX_VALUE;
+            long loadNanos = Long.MAX_VALUE;
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                new Storage(file.toString()).saveToStorage(tasks);
+                saveNanos = Math.min(saveNanos, System.nanoTime() - start);
+
+                deleteCaches(directory);
+                start = System.nanoTime();
+                int loaded = new Storage(file.toString()).load().size();
+                loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+                if (loaded != taskCount) {
+                    throw new IOException(fileName + " loaded " + loaded + " of " + taskCount + " tasks");
+                }
+            }
+            measurements.add(new Measurement(fileName, Files.size(file), saveNanos, loadNanos));
+        }
+        return measurements;
+    }
+
+    /**
+     * Formats the measurements as a table, followed by the load times modelled for each link speed.
+     */
+    static String report(List<Measurement> measurements, int taskCount, int runs, double[] linkSpeeds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Saved and loaded %d task(s), fastest of %d run(s), cache deleted before "
+                + "each load%n", taskCount, runs));
+        report.append(String.format("%-16s %10s %10s %10s%n", "File", "size (KB)", "save (ms)", "load (ms)"));
+        for (Measurement measurement : measurements) {
+            report.append(String.format("%-16s %10d %10.0f %10.0f%n", measurement.fileName(),
+                    measurement.bytes() / 1024, measurement.saveNanos() / 1e6, measurement.loadNanos() / 1e6));
+        }
+        for (double speed : linkSpeeds) {
+            List<String> loads = new ArrayList<>();
+            for (Measurement measurement : measurements) {
+                loads.add(String.format("%s %.0f ms", measurement.fileName(), measurement.loadNanosOver(speed) / 1e6));
+            }
+            report.append(String.format("Modelled load over %s Mb/s: %s%n", speed == (long) speed
+                    ? String.valueOf((long) speed) : String.valueOf(speed), String.join(", ", loads)));
+        }
+        return report.toString().stripTrailing();
+    }
+
+    private static void deleteCaches(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(CACHE_EXTENSION)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package chatbot.load;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.Todo;
+
+/**
+ * Generates a task file and a stream of commands to replay against it, at a given scale and mix of commands.
+ * <p>
+ * The same seed always gives the same files. Descriptions are drawn from a small vocabulary in which a few words
+ * are far more common than the rest, as in real lists, so searches find anything from a handful of tasks to a
+ * large share of them. Every date is in the year {@value #BASE_YEAR} or after, so no task is overdue or archived
+ * as stale whenever the workload is replayed, and the responses to every command except {@code free} are the
+ * same on every run. Task numbers in the commands always refer to existing tasks.
+ */
+public class WorkloadGenerator {
+
+    /** Year of the earliest generated date. */
+    static final int BASE_YEAR = 2100;
+
+    /** Weights of the kinds of commands generated when none are given. */
+    public static final Map<String, Integer> DEFAULT_MIX = defaultMix();
+
+    private static final String[] WORDS = {"report", "meeting", "review", "book", "email", "call", "project",
+        "lunch", "gym", "budget", "slides", "invoice", "dentist", "groceries", "plan", "draft", "team", "client",
+        "release", "notes", "exam", "lecture", "tutorial", "homework", "rent", "flight", "hotel", "visa", "garden",
+        "laundry", "taxes", "backup", "server", "deploy", "interview", "birthday", "gift", "parcel", "bank",
+        "insurance"};
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
+    private static final int DAYS_SPANNED = 730;
+
+    private final Random random;
+    private final Map<String, Integer> mix;
+    private int totalWeight = 0;
+    private int size = 0; // Tasks in the list after the commands generated so far
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed Seed of the random choices, so that runs can be repeated.
+     * @param mix  Relative weight of each kind of command: {@code add}, {@code mark}, {@code unmark},
+     *             {@code delete}, {@code find}, {@code free}, {@code list}, {@code upcoming} and {@code query}.
+     * @throws ChatBotException If the mix names an unknown kind of command or has no positive weight.
+     */
+    public WorkloadGenerator(long seed, Map<String, Integer> mix) throws ChatBotException {
+        this.random = new Random(seed);
+        this.mix = new LinkedHashMap<>(mix);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!DEFAULT_MIX.containsKey(entry.getKey()) || entry.getValue() < 0) {
+                throw new ChatBotException("OOPS!!! Unknown command kind or weight in the mix: " + entry.getKey());
+            }
+            totalWeight += entry.getValue();
+        }
+        if (totalWeight == 0) {
+            throw new ChatBotException("OOPS!!! The command mix needs at least one positive weight.");
+        }
+    }
+
+    /**
+     * Parses a mix such as {@code add=30,find=20,list=5}. Kinds that are left out are not generated.
+     *
+     * @param spec Comma-separated {@code kind=weight} pairs.
+     * @return Weight of each kind, in the order given.
+     * @throws ChatBotException If a pair is not of that form.
+     */
+    public static Map<String, Integer> parseMix(String spec) throws ChatBotException {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.trim().split("=");
+            try {
+                mix.put(parts[0], Integer.parseInt(parts[1]));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new ChatBotException("OOPS!!! The command mix must look like add=30,find=20: " + pair);
+            }
+        }
+        return mix;
+    }
+
+    /**
+     * Writes a task file of the given number of tasks, followed by a file of commands, one per line.
+     *
+     * @param tasksFile    Task file to write, in the format the chatbot stores tasks in.
+     * @param commandsFile File of commands to write.
+     * @param taskCount    Number of tasks in the task file.
+     * @param commandCount Number of commands, not counting the {@code bye} that ends them.
+     * @throws IOException If a file cannot be written.
+     */
+    public void generate(Path tasksFile, Path commandsFile, int taskCount, int commandCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(tasksFile, Charset.defaultCharset())) {
+            for (int i = 0; i < taskCount; i++) {
+                writer.write(nextTask().toString());
+                writer.write(System.lineSeparator());
+            }
+        }
+        size = taskCount;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(commandsFile, Charset.defaultCharset())) {
+            for (int i = 0; i < commandCount; i++) {
+                writer.write(nextCommand());
+                writer.write(System.lineSeparator());
+            }
+            writer.write("bye");
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    private Task nextTask() {
+        String description = nextDescription();
+        LocalDateTime date = nextDate();
+        Task task = switch (random.nextInt(3)) {
+            case 0 -> new Todo(description);
+            case 1 -> new Deadline(description, date, nextRecurrence());
+            default -> new Event(description, date, date.plusHours(1 + random.nextInt(3)), nextRecurrence());
+        };
+        if (random.nextInt(4) == 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private Recurrence nextRecurrence() {
+        if (random.nextInt(20) != 0) {
+            return null;
+        }
+        Recurrence.Frequency[] frequencies = Recurrence.Frequency.values();
+        return new Recurrence(frequencies[random.nextInt(frequencies.length)], null, 5 + random.nextInt(20));
+    }
+
+    /**
+     * Returns the next command, keeping track of how many tasks the list will have after it.
+     */
+    private String nextCommand() {
+        String kind = nextKind();
+        if (size == 0 && (kind.equals("mark") || kind.equals("unmark") || kind.equals("delete"))) {
+            kind = "add"; // Nothing to change yet
+        }
+
+        return switch (kind) {
+            case "add" -> {
+                size++;
+                yield nextAddCommand();
+            }
+            case "mark", "unmark" -> kind + " " + (1 + random.nextInt(size));
+            case "delete" -> "delete " + (1 + random.nextInt(size--));
+            case "find" -> random.nextInt(4) == 0 ? "find " + nextWord().substring(0, 3) + "*" : "find " + nextWord();
+            case "free" -> "free /duration " + (1 + random.nextInt(8));
+            case "list" -> "list /page " + (1 + random.nextInt(Math.max(1, (size + 19) / 20)));
+            case "upcoming" -> "upcoming " + (1 + random.nextInt(10));
+            default -> nextQuery();
+        };
+    }
+
+    private String nextQuery() {
+        LocalDateTime from = nextDate();
+        return "list /type " + (random.nextBoolean() ? "D" : "E") + " /done no /after " + from.format(INPUT_FORMAT)
+                + " /before " + from.plusDays(7).format(INPUT_FORMAT);
+    }
+
+    private String nextAddCommand() {
+        String description = nextDescription();
+        LocalDateTime date = nextDate();
+        return switch (random.nextInt(3)) {
+            case 0 -> "todo " + description;
+            case 1 -> "deadline " + description + " /by " + date.format(INPUT_FORMAT);
+            default -> "event " + description + " /from " + date.format(INPUT_FORMAT) + " /to "
+                    + date.plusHours(1 + random.nextInt(3)).format(INPUT_FORMAT);
+        };
+    }
+
+    private String nextKind() {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new AssertionError("Weights add up to " + totalWeight);
+    }
+
+    private String nextDescription() {
+        int wordCount = 2 + random.nextInt(3);
+        List<String> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            words.add(nextWord());
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Returns a word of the vocabulary, the first words being far more likely than the last.
+     */
+    private String nextWord() {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return WORDS[(int) (skewed * WORDS.length)];
+    }
+
+    private LocalDateTime nextDate() {
+        return LocalDateTime.of(BASE_YEAR, 1, 1, 8, 0).plusDays(random.nextInt(DAYS_SPANNED))
+                .plusMinutes(30L * random.nextInt(24));
+    }
+
+    private static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("add", 25);
+        mix.put("mark", 15);
+        mix.put("unmark", 5);
+        mix.put("delete", 5);
+        mix.put("find", 20);
+        mix.put("free", 10);
+        mix.put("list", 10);
+        mix.put("upcoming", 5);
+        mix.put("query", 5);
+        return Collections.unmodifiableMap(mix); // Keeps the order, so the same seed gives the same commands
+    }
+}
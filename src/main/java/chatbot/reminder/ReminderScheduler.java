@@ -0,0 +1,229 @@
+package chatbot.reminder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+import chatbot.task.TaskListener;
+import chatbot.ui.Ui;
+
+/**
+ * Sends a reminder when an undone {@link Deadline} falls due or an undone {@link Event} starts.
+ * <p>
+ * Every pending reminder is a timer in a {@link TimingWheel}, which is advanced once per second
+ * by a background thread. As a {@link TaskListener}, the scheduler adds and cancels single timers
+ * when tasks are added, marked, unmarked or deleted, so it never has to scan the task list again
+ * after the initial {@link #scheduleAll(TaskList)}.
+ * <p>
+ * A repeating task only ever has one timer, for its next occurrence. When that reminder is delivered,
+ * the timer for the following occurrence is scheduled, so unbounded series cost nothing up front.
+ */
+public class ReminderScheduler implements TaskListener {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final Ui ui;
+    private final Clock clock;
+    private final TimingWheel<Reminder> wheel;
+    private final Map<Task, TimingWheel.Timer<Reminder>> timers = new IdentityHashMap<>();
+    private ScheduledExecutorService ticker;
+    private volatile Consumer<String> reminderHandler = message -> { };
+
+    /**
+     * Represents a pending reminder for the occurrence of a task that is due or starts at {@code dueAt}.
+     */
+    private record Reminder(Task task, LocalDateTime dueAt) {
+    }
+
+    /**
+     * Constructs a ReminderScheduler that reads the current time from the given clock.
+     *
+     * @param ui    UI handler used to format reminder messages.
+     * @param clock Clock used to decide when reminders are due.
+     */
+    public ReminderScheduler(Ui ui, Clock clock) {
+        this.ui = ui;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(currentTick());
+    }
+
+    /**
+     * Sets where reminder messages are delivered, e.g. the console or the GUI transcript.
+     * The handler is called on the scheduler's background thread.
+     *
+     * @param reminderHandler Consumer of formatted reminder messages.
+     */
+    public void setReminderHandler(Consumer<String> reminderHandler) {
+        this.reminderHandler = reminderHandler;
+    }
+
+    /**
+     * Schedules reminders for every pending task in the list.
+     * Used once after loading; later changes arrive through the {@link TaskListener} callbacks.
+     *
+     * @param tasks Task list to schedule reminders for.
+     */
+    public synchronized void scheduleAll(TaskList tasks) {
+        for (Task task : tasks.getTasks()) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Starts the background thread that advances the wheel once per tick.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-scheduler");
+            thread.setDaemon(true); // Never keep the application alive just for reminders
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background thread. Pending reminders are kept.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time and delivers every reminder that came due.
+     */
+    public void tick() {
+        List<Task> dueOccurrences = new ArrayList<>();
+        synchronized (this) {
+            for (Reminder reminder : wheel.advanceTo(currentTick())) {
+                timers.remove(reminder.task());
+                dueOccurrences.add(getOccurrence(reminder));
+                scheduleAfter(reminder.task(), reminder.dueAt());
+            }
+        }
+
+        for (Task occurrence : dueOccurrences) {
+            reminderHandler.accept(ui.showReminder(occurrence));
+        }
+    }
+
+    /** Returns the number of reminders waiting to be delivered. */
+    public synchronized int getPendingCount() {
+        return wheel.size();
+    }
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        schedule(task);
+    }
+
+    @Override
+    public synchronized void tasksAdded(List<Task> added) {
+        for (Task task : added) {
+            schedule(task);
+        }
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        cancel(task);
+    }
+
+    @Override
+    public synchronized void taskUpdated(Task task) {
+        cancel(task);
+        schedule(task);
+    }
+
+    /**
+     * Adds a timer for the task if it is undone and its due or start time is still ahead.
+     * For a repeating task, the timer is for its next occurrence.
+     */
+    private void schedule(Task task) {
+        scheduleAfter(task, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Adds a timer for the first occurrence of an undone task that is due or starts after {@code after}.
+     * A one-off task has a single occurrence.
+     */
+    private void scheduleAfter(Task task, LocalDateTime after) {
+        LocalDateTime dueAt = getReminderTime(task);
+        Recurrence recurrence = getRecurrence(task);
+        if (dueAt == null || task.isDone()) {
+            return;
+        }
+        if (recurrence != null) {
+            Iterator<LocalDateTime> next = recurrence.occurrencesFrom(dueAt, after.plusNanos(1));
+            if (!next.hasNext()) {
+                return; // The series is over
+            }
+            dueAt = next.next();
+        }
+
+        long dueTick = dueAt.atZone(clock.getZone()).toInstant().toEpochMilli() / TICK_MILLIS;
+        if (dueTick > wheel.getCurrentTick()) {
+            timers.put(task, wheel.schedule(dueTick, new Reminder(task, dueAt)));
+        }
+    }
+
+    private void cancel(Task task) {
+        TimingWheel.Timer<Reminder> timer = timers.remove(task);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private static LocalDateTime getReminderTime(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFrom();
+        }
+        return null;
+    }
+
+    private static Recurrence getRecurrence(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getRecurrence();
+        } else if (task instanceof Event) {
+            return ((Event) task).getRecurrence();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the task to show in a reminder: the task itself, or a one-off copy of the occurrence that is due.
+     */
+    private static Task getOccurrence(Reminder reminder) {
+        Task task = reminder.task();
+        if (getRecurrence(task) == null) {
+            return task;
+        }
+        return task instanceof Deadline
+                ? ((Deadline) task).getOccurrence(reminder.dueAt())
+                : ((Event) task).getOccurrence(reminder.dueAt());
+    }
+
+    private long currentTick() {
+        return clock.millis() / TICK_MILLIS;
+    }
+}
@@ -0,0 +1,240 @@
+package chatbot.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel that holds timers keyed by an absolute tick.
+ * <p>
+ * Each level has {@value #SLOTS} slots and every slot of a level spans {@value #SLOTS} times
+ * as many ticks as a slot of the level below. Timers are kept in doubly linked slot lists,
+ * so scheduling and cancelling a timer are O(1). When a lower level wraps around, the next
+ * slot of the level above is cascaded down, which means a timer is only touched a handful of
+ * times between being scheduled and expiring, no matter how many other timers are pending.
+ * Timers further away than the top level can hold are parked in its last slot and are
+ * re-placed every time that slot is cascaded.
+ * <p>
+ * This class is not thread-safe; callers are expected to synchronize access.
+ *
+ * @param <T> Type of the item carried by each timer.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    private final Timer<T>[][] wheels;
+    private final int[] levelSizes = new int[LEVELS];
+    private final List<T> expiredOnSchedule = new ArrayList<>();
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * Represents a pending timer in the wheel.
+     *
+     * @param <T> Type of the item carried by the timer.
+     */
+    public static class Timer<T> {
+        private final T item;
+        private final long deadline;
+        private int level;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        /** Returns the item carried by this timer. */
+        public T getItem() {
+            return item;
+        }
+
+        /** Returns the tick at which this timer expires. */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        private boolean isLinked() {
+            return prev != null;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    /**
+     * Constructs an empty timing wheel positioned at the given tick.
+     *
+     * @param startTick Tick the wheel starts at; timers at or before it expire on the next advance.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.wheels = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+
+        // Each slot is a circular list with a sentinel head, so unlinking never needs to know the slot
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer<T> head = new Timer<>(null, Long.MIN_VALUE);
+                head.prev = head;
+                head.next = head;
+                wheels[level][slot] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedules an item to expire at the given tick.
+     *
+     * @param deadline Absolute tick at which the item expires.
+     * @param item     Item to return from {@link #advanceTo(long)} once expired.
+     * @return Handle that can be passed to {@link #cancel(Timer)}.
+     */
+    public Timer<T> schedule(long deadline, T item) {
+        Timer<T> timer = new Timer<>(item, deadline);
+        size++;
+        place(timer);
+        return timer;
+    }
+
+    /**
+     * Cancels a pending timer. Does nothing if the timer already expired or was cancelled.
+     *
+     * @param timer Handle returned by {@link #schedule(long, Object)}.
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.isLinked()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the wheel forward to the given tick and returns the items of every timer that expired,
+     * in deadline order.
+     *
+     * @param tick Tick to advance to; ticks in the past are ignored.
+     * @return Expired items.
+     */
+    public List<T> advanceTo(long tick) {
+        List<T> expired = new ArrayList<>(expiredOnSchedule);
+        expiredOnSchedule.clear();
+
+        while (currentTick < tick && size > 0) {
+            currentTick = nextTickToVisit(tick);
+            cascade();
+            drain(wheels[0][(int) (currentTick & SLOT_MASK)], expired);
+        }
+        // With no timers left there is nothing to cascade, so jump straight to the target
+        currentTick = Math.max(currentTick, tick);
+        return expired;
+    }
+
+    /** Returns the number of pending timers. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the tick the wheel is currently at. */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the next tick that can expire or cascade a timer, capped at the target tick.
+     * While the lower levels are empty only the boundaries of the lowest occupied level matter,
+     * so long idle stretches are crossed in at most {@value #SLOTS} steps per level.
+     */
+    private long nextTickToVisit(long target) {
+        int level = 0;
+        while (level < LEVELS - 1 && levelSizes[level] == 0) {
+            level++;
+        }
+
+        int shift = SLOT_BITS * level;
+        long next = level == 0 ? currentTick + 1 : ((currentTick >>> shift) + 1) << shift;
+        return Math.min(next, target);
+    }
+
+    /**
+     * Re-places the timers of every higher-level slot that starts at the current tick.
+     * Higher levels go first so that timers cascaded into a lower level's current slot
+     * are cascaded again in the same tick.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+
+            Timer<T> head = wheels[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                unlink(timer);
+                if (timer.deadline == currentTick) {
+                    link(0, (int) (currentTick & SLOT_MASK), timer); // drained later in this tick
+                } else {
+                    place(timer);
+                }
+            }
+        }
+    }
+
+    private void drain(Timer<T> head, List<T> expired) {
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            unlink(timer);
+            size--;
+            expired.add(timer.item);
+        }
+    }
+
+    /**
+     * Links a timer into the lowest level whose range covers its remaining delay.
+     */
+    private void place(Timer<T> timer) {
+        long delay = timer.deadline - currentTick;
+        if (delay <= 0) {
+            size--;
+            expiredOnSchedule.add(timer.item);
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        int shift = SLOT_BITS * level;
+        long target = timer.deadline;
+        if (delay >= 1L << (SLOT_BITS * LEVELS)) {
+            // Beyond the top level: park in the furthest slot and re-place when it is cascaded
+            target = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        link(level, (int) ((target >>> shift) & SLOT_MASK), timer);
+    }
+
+    private void link(int level, int slot, Timer<T> timer) {
+        Timer<T> head = wheels[level][slot];
+        timer.level = level;
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+        levelSizes[level]++;
+    }
+
+    private void unlink(Timer<T> timer) {
+        levelSizes[timer.level]--;
+        timer.unlink();
+    }
+}
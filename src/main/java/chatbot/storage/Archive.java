@@ -0,0 +1,193 @@
+package chatbot.storage;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+
+/**
+ * Handles the append-only archive of completed tasks that were moved out of the main task list.
+ * <p>
+ * Archiving only appends lines to the archive file, so it never rewrites what is already there.
+ * The archive is read from disk the first time it is needed, e.g. by {@code list /archived},
+ * and kept in memory after that, so sessions that never look at old tasks never load them.
+ * The archive of a compressed task file is compressed too, and every append adds compressed
+ * blocks to its end (see {@link BlockGzip}). An archive can also be split into one file per month
+ * (see {@link #forTasksFile(String, boolean)}), so that date range lookups read only the months they need.
+ */
+public class Archive {
+
+    private final String filePath;
+    private final boolean isCompressed;
+    private TaskList archived; // Loaded on first use
+
+    /**
+     * Constructs an Archive stored at the given file path. The file is created on the first append.
+     *
+     * @param filePath Path to the archive file.
+     */
+    public Archive(String filePath) {
+        this.filePath = filePath;
+        this.isCompressed = filePath.endsWith(Storage.COMPRESSED_EXTENSION);
+    }
+
+    /**
+     * Returns the archive that belongs to a task file, e.g. {@code data/tasks.archive.txt} for {@code data/tasks.txt}
+     * and {@code data/tasks.archive.txt.gz} for {@code data/tasks.txt.gz}.
+     *
+     * @param tasksFilePath Path to the file of the main task list.
+     * @return Archive stored next to the task file.
+     */
+    public static Archive forTasksFile(String tasksFilePath) {
+        if (tasksFilePath.endsWith(Storage.COMPRESSED_EXTENSION)) {
+            String uncompressedPath = tasksFilePath.substring(0,
+                    tasksFilePath.length() - Storage.COMPRESSED_EXTENSION.length());
+            return new Archive(forTasksFile(uncompressedPath).filePath + Storage.COMPRESSED_EXTENSION);
+        }
+        int extension = tasksFilePath.lastIndexOf('.');
+        int directory = Math.max(tasksFilePath.lastIndexOf('/'), tasksFilePath.lastIndexOf(File.separatorChar));
+        if (extension <= directory) {
+            return new Archive(tasksFilePath + ".archive");
+        }
+        return new Archive(tasksFilePath.substring(0, extension) + ".archive" + tasksFilePath.substring(extension));
+    }
+
+    /**
+     * Returns the archive that belongs to a task file, kept either in a single file as by
+     * {@link #forTasksFile(String)} or split into one file per month next to it, e.g. in {@code data/tasks.archive}.
+     *
+     * @param tasksFilePath Path to the file of the main task list.
+     * @param isPartitioned Whether the archive is split by month; an existing single file is then split on first use.
+     * @return Archive stored next to the task file.
+     */
+    public static Archive forTasksFile(String tasksFilePath, boolean isPartitioned) {
+        Archive archive = forTasksFile(tasksFilePath);
+        return isPartitioned ? new PartitionedArchive(archive.filePath) : archive;
+    }
+
+    /**
+     * Returns whether a task is done and entirely in the past, i.e. a one-off deadline due or
+     * a one-off event ended before the cutoff. Such tasks are archived automatically.
+     * Todos and repeating tasks have no last date, so they are only archived by the {@code archive} command.
+     *
+     * @param task   Task to check.
+     * @param cutoff Time the task must have ended before.
+     */
+    public static boolean isStale(Task task, LocalDateTime cutoff) {
+        if (!task.isDone()) {
+            return false;
+        } else if (task instanceof Deadline && ((Deadline) task).getRecurrence() == null) {
+            return ((Deadline) task).getBy().isBefore(cutoff);
+        } else if (task instanceof Event && ((Event) task).getRecurrence() == null) {
+            return ((Event) task).getTo().isBefore(cutoff);
+        }
+        return false;
+    }
+
+    /**
+     * Appends tasks to the end of the archive file.
+     *
+     * @param tasks Tasks that were removed from the main list.
+     * @throws ChatBotException If the archive file cannot be written.
+     */
+    public void append(List<Task> tasks) throws ChatBotException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        File file = new File(this.filePath);
+        try (Writer writer = new OutputStreamWriter(openForAppending(file), Charset.defaultCharset())) {
+            for (Task task : tasks) {
+                writer.write(task + System.lineSeparator());
+            }
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not write to the archive: " + e.getMessage());
+        }
+
+        if (this.archived != null) {
+            for (Task task : tasks) {
+                this.archived.addTask(task);
+            }
+        }
+    }
+
+    /**
+     * Returns every archived task, oldest first, reading the archive file on the first call.
+     *
+     * @return Archived tasks.
+     * @throws ChatBotException If the archive file cannot be read or contains an invalid line.
+     */
+    public TaskList getTasks() throws ChatBotException {
+        if (this.archived != null) {
+            return this.archived;
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        File file = new File(this.filePath);
+        if (file.exists() && isCompressed) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                tasks.addAll(BlockGzip.readLines(in, Charset.defaultCharset(), Storage::parseTask));
+            } catch (IOException e) {
+                throw new ChatBotException("OOPS!!! Could not read the archive: " + e.getMessage());
+            }
+        } else if (file.exists()) {
+            try (Scanner reader = new Scanner(file)) {
+                while (reader.hasNextLine()) {
+                    String line = reader.nextLine().trim();
+                    if (!line.isEmpty()) {
+                        tasks.add(Storage.parseTask(line));
+                    }
+                }
+            } catch (IOException e) {
+                throw new ChatBotException("OOPS!!! Could not read the archive: " + e.getMessage());
+            }
+        }
+        this.archived = new TaskList(tasks);
+        return this.archived;
+    }
+
+    /**
+     * Returns the archived tasks that may have a date strictly between the bounds, which include every task with
+     * such a date and possibly others, for the caller to filter. A single archive file is read as a whole.
+     *
+     * @param after  Exclusive lower bound, or {@code null} for none.
+     * @param before Exclusive upper bound, or {@code null} for none.
+     * @return Archived tasks to look for the tasks in the range among.
+     * @throws ChatBotException If the archive cannot be read or contains an invalid line.
+     */
+    public TaskList getTasksBetween(LocalDateTime after, LocalDateTime before) throws ChatBotException {
+        return getTasks();
+    }
+
+    /**
+     * Returns whether the archive file has been read into memory.
+     */
+    boolean isLoaded() {
+        return this.archived != null;
+    }
+
+    String getFilePath() {
+        return this.filePath;
+    }
+
+    private OutputStream openForAppending(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file, true);
+        return isCompressed ? BlockGzip.newOutputStream(out) : out;
+    }
+}
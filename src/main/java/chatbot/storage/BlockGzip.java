@@ -0,0 +1,391 @@
+package chatbot.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import chatbot.exception.ChatBotException;
+
+/**
+ * Reads and writes gzip files made of independently compressed blocks of whole lines.
+ * <p>
+ * Each block is a complete gzip member, and a gzip file may hold any number of members one after another,
+ * so the files are ordinary {@code .gz} files that {@code gunzip} and {@link GZIPInputStream} read as they are.
+ * Like BGZF, the format used for genome data, every member records its own compressed size in an extra
+ * header field. A reader can therefore cut the file into blocks without inflating them, and inflate and
+ * parse the blocks in parallel. Since blocks end at line breaks, every block parses on its own.
+ * Appending to a file only adds blocks, so append-only files such as archives are never rewritten.
+ */
+final class BlockGzip {
+
+    /** Uncompressed bytes a block is filled to before it is compressed, unless a single line is longer. */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    /** Uncompressed bytes a block holds at most; a longer line cannot be written. */
+    static final int MAX_BLOCK_SIZE = 256 * BLOCK_SIZE;
+
+    private static final int HEADER_SIZE = 20;
+    private static final int TRAILER_SIZE = 8;
+    private static final byte FLAG_EXTRA = 4;
+    private static final short EXTRA_SIZE = 8;
+    private static final byte[] SUBFIELD_ID = {'C', 'B'}; // Subfield holding the member size
+    private static final int MAX_BLOCKS_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+    /** Size of the largest member the writer can produce, by zlib's bound on deflated data. */
+    private static final int MAX_MEMBER_SIZE = HEADER_SIZE + MAX_BLOCK_SIZE + (MAX_BLOCK_SIZE >> 12)
+            + (MAX_BLOCK_SIZE >> 14) + (MAX_BLOCK_SIZE >> 25) + 13 + TRAILER_SIZE;
+
+    /**
+     * Parses one trimmed, non-empty line of a file.
+     *
+     * @param <T> Type of the parsed value.
+     */
+    @FunctionalInterface
+    interface LineParser<T> {
+        T parse(String line) throws ChatBotException;
+    }
+
+    private BlockGzip() {
+    }
+
+    /**
+     * Returns a stream that compresses what is written to it into blocks of whole lines.
+     * Closing it writes the last block and closes the underlying stream. Nothing written is
+     * readable before then, and a file that is closed with nothing written still holds one empty
+     * block, so that it is a valid gzip file.
+     * Writing a line longer than {@value #MAX_BLOCK_SIZE} bytes fails with an {@link IOException}.
+     *
+     * @param out Stream the compressed blocks are written to, e.g. a file opened for appending.
+     */
+    static OutputStream newOutputStream(OutputStream out) {
+        return new BlockOutputStream(out);
+    }
+
+    /**
+     * Reads every line of a compressed file, and parses the lines that are not blank.
+     * <p>
+     * Blocks are read one after another on the calling thread and inflated and parsed on the common
+     * fork/join pool, with only a bounded number of blocks in flight. Gzip files that were not written
+     * in blocks, e.g. by {@code gzip}, are read on the calling thread instead.
+     *
+     * @param in      Compressed file, positioned at its start.
+     * @param charset Charset the text was encoded in.
+     * @param parser  Parser for a trimmed, non-empty line.
+     * @param <T>     Type of the parsed values.
+     * @return The parsed values, in file order.
+     * @throws IOException      If the file cannot be read or is not a valid gzip file.
+     * @throws ChatBotException If the parser rejects a line.
+     */
+    static <T> List<T> readLines(InputStream in, Charset charset, LineParser<T> parser)
+            throws IOException, ChatBotException {
+        List<T> values = new ArrayList<>();
+        Deque<CompletableFuture<List<T>>> inFlight = new ArrayDeque<>();
+        try {
+            byte[] header = new byte[HEADER_SIZE];
+            boolean isFirstBlock = true;
+            for (int read = in.readNBytes(header, 0, HEADER_SIZE); read > 0;
+                    read = in.readNBytes(header, 0, HEADER_SIZE)) {
+                int memberSize = read == HEADER_SIZE ? memberSizeOf(header) : -1;
+                if (memberSize < 0) {
+                    if (isFirstBlock) {
+                        // Not written in blocks: start again with a reader for any gzip file
+                        return parseText(new GZIPInputStream(new ConcatenatedInputStream(header, read, in)),
+                                charset, parser);
+                    }
+                    throw new IOException("Corrupt block in compressed file");
+                }
+
+                byte[] member = Arrays.copyOf(header, memberSize);
+                if (in.readNBytes(member, HEADER_SIZE, memberSize - HEADER_SIZE) != memberSize - HEADER_SIZE) {
+                    throw new EOFException("Compressed file ends in the middle of a block");
+                }
+                inFlight.add(CompletableFuture.supplyAsync(() -> parseBlock(member, charset, parser)));
+                isFirstBlock = false;
+                if (inFlight.size() > MAX_BLOCKS_IN_FLIGHT) {
+                    values.addAll(inFlight.remove().join());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                values.addAll(inFlight.remove().join());
+            }
+        } catch (CompletionException e) {
+            inFlight.forEach(block -> block.cancel(false));
+            if (e.getCause() instanceof BlockException blockException) {
+                blockException.rethrow();
+            }
+            throw e;
+        } catch (IOException e) {
+            inFlight.forEach(block -> block.cancel(false));
+            throw e;
+        }
+        return values;
+    }
+
+    /**
+     * Inflates a whole compressed file, whether or not it was written in blocks.
+     *
+     * @param compressed Contents of the file.
+     * @return The uncompressed contents.
+     * @throws IOException If the contents are not a valid gzip file.
+     */
+    static byte[] inflate(byte[] compressed) throws IOException {
+        if (compressed.length == 0) {
+            return compressed;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Returns the size of the member that starts with the given header, or -1 if the header
+     * is not that of a block written by this class.
+     *
+     * @throws IOException If the header is that of a block, but of a size the writer cannot produce.
+     */
+    private static int memberSizeOf(byte[] header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        boolean isBlock = (buffer.get(0) & 0xff) == 0x1f && (buffer.get(1) & 0xff) == 0x8b
+                && buffer.get(2) == Deflater.DEFLATED && buffer.get(3) == FLAG_EXTRA
+                && buffer.getShort(10) == EXTRA_SIZE && buffer.get(12) == SUBFIELD_ID[0]
+                && buffer.get(13) == SUBFIELD_ID[1] && buffer.getShort(14) == Integer.BYTES;
+        if (!isBlock) {
+            return -1;
+        }
+        int size = buffer.getInt(16);
+        if (size < HEADER_SIZE + TRAILER_SIZE || size > MAX_MEMBER_SIZE) {
+            throw new IOException("Corrupt block in compressed file");
+        }
+        return size;
+    }
+
+    private static <T> List<T> parseBlock(byte[] member, Charset charset, LineParser<T> parser) {
+        ByteBuffer trailer = ByteBuffer.wrap(member, member.length - TRAILER_SIZE, TRAILER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int expectedCrc = trailer.getInt();
+        int textSize = trailer.getInt();
+        if (textSize < 0 || textSize > MAX_BLOCK_SIZE) {
+            throw new BlockException(new IOException("Corrupt block in compressed file"));
+        }
+        byte[] text = new byte[textSize];
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(member, HEADER_SIZE, member.length - HEADER_SIZE - TRAILER_SIZE);
+            int inflated = 0;
+            while (inflated < text.length && !inflater.finished()) {
+                int count = inflater.inflate(text, inflated, text.length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(text, 0, inflated);
+            if (inflated != text.length || (int) crc.getValue() != expectedCrc) {
+                throw new BlockException(new IOException("Corrupt block in compressed file"));
+            }
+            return parseText(new String(text, charset), parser);
+        } catch (DataFormatException e) {
+            throw new BlockException(new IOException("Corrupt block in compressed file: " + e.getMessage()));
+        } catch (ChatBotException e) {
+            throw new BlockException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static <T> List<T> parseText(InputStream in, Charset charset, LineParser<T> parser)
+            throws IOException, ChatBotException {
+        try (in) {
+            return parseText(new String(in.readAllBytes(), charset), parser);
+        }
+    }
+
+    private static <T> List<T> parseText(String text, LineParser<T> parser) throws ChatBotException {
+        List<T> values = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                values.add(parser.parse(trimmed));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Carries a checked exception out of a block parsed on another thread.
+     */
+    private static final class BlockException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private BlockException(Exception cause) {
+            super(cause);
+        }
+
+        private void rethrow() throws IOException, ChatBotException {
+            if (getCause() instanceof ChatBotException chatBotException) {
+                throw chatBotException;
+            }
+            throw (IOException) getCause();
+        }
+    }
+
+    /**
+     * Puts bytes that were already read back in front of the rest of a stream.
+     */
+    private static final class ConcatenatedInputStream extends InputStream {
+        private final byte[] head;
+        private final int headLength;
+        private final InputStream rest;
+        private int position = 0;
+
+        private ConcatenatedInputStream(byte[] head, int headLength, InputStream rest) {
+            this.head = head;
+            this.headLength = headLength;
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return position < headLength ? head[position++] & 0xff : rest.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position < headLength) {
+                int count = Math.min(length, headLength - position);
+                System.arraycopy(head, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+            return rest.read(buffer, offset, length);
+        }
+    }
+
+    /**
+     * Collects written bytes and compresses them a block at a time, each block ending at a line break.
+     */
+    private static final class BlockOutputStream extends FilterOutputStream {
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final CRC32 crc = new CRC32();
+        private final ByteArrayOutputStream member = new ByteArrayOutputStream();
+        private byte[] buffer = new byte[BLOCK_SIZE];
+        private byte[] deflated = new byte[BLOCK_SIZE];
+        private int length = 0;
+        private boolean hasWrittenBlock = false;
+        private boolean isClosed = false;
+
+        private BlockOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            while (count > 0) {
+                if (length == buffer.length) {
+                    writeFullBlock();
+                }
+                int copied = Math.min(count, buffer.length - length);
+                System.arraycopy(bytes, offset, buffer, length, copied);
+                length += copied;
+                offset += copied;
+                count -= copied;
+            }
+        }
+
+        /**
+         * Compresses the buffered lines up to the last line break, or makes room for a longer line.
+         *
+         * @throws IOException If a line is longer than {@value #MAX_BLOCK_SIZE} bytes.
+         */
+        private void writeFullBlock() throws IOException {
+            int end = length;
+            while (end > 0 && buffer[end - 1] != '\n') {
+                end--;
+            }
+            if (end == 0) {
+                if (buffer.length >= MAX_BLOCK_SIZE) {
+                    throw new IOException("A line longer than " + MAX_BLOCK_SIZE + " bytes cannot be compressed");
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2); // A line longer than a block
+                return;
+            }
+            writeBlock(end);
+            System.arraycopy(buffer, end, buffer, 0, length - end);
+            length -= end;
+        }
+
+        private void writeBlock(int end) throws IOException {
+            deflater.reset();
+            deflater.setInput(buffer, 0, end);
+            deflater.finish();
+            member.reset();
+            while (!deflater.finished()) {
+                int count = deflater.deflate(deflated);
+                member.write(deflated, 0, count);
+            }
+            crc.reset();
+            crc.update(buffer, 0, end);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put((byte) 0x1f).put((byte) 0x8b).put((byte) Deflater.DEFLATED).put(FLAG_EXTRA);
+            header.putInt(0).put((byte) 0).put((byte) 0xff); // No modification time, unknown OS
+            header.putShort(EXTRA_SIZE).put(SUBFIELD_ID).putShort((short) Integer.BYTES);
+            header.putInt(HEADER_SIZE + member.size() + TRAILER_SIZE);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt((int) crc.getValue()).putInt(end);
+
+            out.write(header.array());
+            member.writeTo(out);
+            out.write(trailer.array());
+            hasWrittenBlock = true;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush(); // Blocks are only cut when full, so that flushing does not shrink them
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            try {
+                if (length > 0 || !hasWrittenBlock) {
+                    writeBlock(length);
+                }
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+    }
+}
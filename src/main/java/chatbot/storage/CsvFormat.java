@@ -0,0 +1,201 @@
+package chatbot.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.DateParser;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.Todo;
+
+/**
+ * Reads and writes tasks as comma-separated values, one task per row:
+ * <pre>
+ * type,description,done,start,end,repeats
+ * T,read book,no,,,
+ * D,return book,yes,2025-11-01T09:00,,every week
+ * E,project meeting,no,2025-12-02T16:00,2025-12-02T18:00,
+ * </pre>
+ * The start is the deadline of a deadline or the start of an event, in ISO-8601 form.
+ * Fields containing commas, quotes or line breaks are quoted, with quotes doubled.
+ */
+class CsvFormat implements RecordFormat {
+
+    private static final String HEADER = "type,description,done,start,end,repeats";
+
+    @Override
+    public String readRecord(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && (line.isBlank() || line.startsWith("type,")));
+        if (line == null) {
+            return null;
+        }
+
+        // A quoted field may span several lines, so keep reading until every quote is closed
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0 && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+        }
+        return record.toString();
+    }
+
+    @Override
+    public Task parse(String record) throws ChatBotException {
+        List<String> fields = split(record);
+        if (fields.size() < 3) {
+            throw new ChatBotException("OOPS!!! A CSV row needs at least a type, description and done column.");
+        }
+        String description = fields.get(1).replace('\n', ' ').trim();
+        if (description.isEmpty()) {
+            throw new ChatBotException("OOPS!!! A task description cannot be empty.");
+        }
+
+        Task task = switch (fields.get(0).trim().toUpperCase()) {
+            case "T", "TODO" -> new Todo(description);
+            case "D", "DEADLINE" -> newDeadline(description, parseDate(field(fields, 3)),
+                    parseRecurrence(field(fields, 5)));
+            case "E", "EVENT" -> newEvent(description, parseDate(field(fields, 3)), parseDate(field(fields, 4)),
+                    parseRecurrence(field(fields, 5)));
+            default -> throw new ChatBotException("OOPS!!! Task type must be T, D or E.");
+        };
+        if (isYes(fields.get(2))) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+        out.write(System.lineSeparator());
+    }
+
+    @Override
+    public void write(Task task, Writer out) throws IOException {
+        String type = "T";
+        String start = "";
+        String end = "";
+        Recurrence recurrence = null;
+        if (task instanceof Deadline deadline) {
+            type = "D";
+            start = deadline.getBy().toString();
+            recurrence = deadline.getRecurrence();
+        } else if (task instanceof Event event) {
+            type = "E";
+            start = event.getFrom().toString();
+            end = event.getTo().toString();
+            recurrence = event.getRecurrence();
+        }
+
+        out.write(type);
+        out.write(',');
+        out.write(quote(task.getDescription()));
+        out.write(task.isDone() ? ",yes," : ",no,");
+        out.write(start);
+        out.write(',');
+        out.write(end);
+        out.write(',');
+        out.write(recurrence == null ? "" : quote(recurrence.toString()));
+        out.write(System.lineSeparator());
+    }
+
+    @Override
+    public void writeFooter(Writer out) {
+        // A CSV file ends with its last row
+    }
+
+    private static Deadline newDeadline(String description, LocalDateTime by, Recurrence recurrence)
+            throws ChatBotException {
+        if (recurrence != null && recurrence.endsBefore(by)) {
+            throw new ChatBotException("OOPS!!! A repeating deadline cannot stop before its first deadline.");
+        }
+        return new Deadline(description, by, recurrence);
+    }
+
+    private static Event newEvent(String description, LocalDateTime from, LocalDateTime to, Recurrence recurrence)
+            throws ChatBotException {
+        if (from.isAfter(to)) {
+            throw new ChatBotException("OOPS!!! An event cannot end before it starts.");
+        } else if (recurrence != null && recurrence.endsBefore(from)) {
+            throw new ChatBotException("OOPS!!! A repeating event cannot stop before it first starts.");
+        }
+        return new Event(description, from, to, recurrence);
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static boolean isYes(String value) {
+        return switch (value.trim().toLowerCase()) {
+            case "yes", "y", "true", "x", "1" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Parses an ISO-8601 date and time, or a date alone, which means the start of that day.
+     */
+    private static LocalDateTime parseDate(String value) throws ChatBotException {
+        try {
+            return DateParser.parse(value);
+        } catch (ChatBotException e) {
+            throw new ChatBotException("OOPS!!! Dates in CSV files must look like 2025-12-02T16:00.");
+        }
+    }
+
+    private static Recurrence parseRecurrence(String value) throws ChatBotException {
+        return value.isEmpty() ? null : Recurrence.convertToRecurrence(value);
+    }
+
+    /**
+     * Splits a row into its fields, removing the quotes around quoted fields.
+     */
+    private static List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (isQuoted && c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                field.append('"'); // Doubled quote inside a quoted field
+                i++;
+            } else if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == ',' && !isQuoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+}
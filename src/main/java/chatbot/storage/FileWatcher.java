@@ -0,0 +1,84 @@
+package chatbot.storage;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Notes which files in a directory are created or modified, by this program or any other.
+ * <p>
+ * A background thread collects the names of changed files from a {@link WatchService}. Nothing is
+ * read or reloaded on that thread: the thread that owns the task lists asks whether a file changed
+ * when it is safe to act on it, so task lists are never touched from two threads.
+ */
+class FileWatcher implements AutoCloseable {
+
+    private final WatchService service;
+    private final Set<Path> changed = ConcurrentHashMap.newKeySet(); // File names relative to the directory
+    private volatile boolean hasOverflowed = false;
+
+    /**
+     * Starts watching a directory.
+     *
+     * @param directory Directory to watch; files in subdirectories are not watched.
+     * @throws IOException If the directory cannot be watched.
+     */
+    FileWatcher(Path directory) throws IOException {
+        this.service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::collectChanges, "file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void collectChanges() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        hasOverflowed = true; // Too many events; some changes were not reported
+                    } else {
+                        changed.add((Path) event.context());
+                    }
+                }
+                if (!key.reset()) {
+                    return; // The directory is gone
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by close()
+        }
+    }
+
+    /**
+     * Returns whether a file was created or modified since this was last asked about it.
+     *
+     * @param file File in the watched directory.
+     */
+    boolean takeChanged(Path file) {
+        return changed.remove(file.getFileName());
+    }
+
+    /**
+     * Returns whether changes may have been missed since this was last asked, in which case every file
+     * should be treated as changed.
+     */
+    boolean takeOverflow() {
+        boolean overflowed = hasOverflowed;
+        hasOverflowed = false;
+        return overflowed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+}
@@ -0,0 +1,388 @@
+package chatbot.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.Todo;
+
+/**
+ * Reads and writes tasks as iCalendar ({@code .ics}) entries.
+ * <p>
+ * Events become {@code VEVENT}s, and todos and deadlines become {@code VTODO}s, with a {@code DUE} time
+ * for deadlines. Calendars have no status for events, so done events carry the private property
+ * {@code X-CHATBOT-DONE:TRUE}, which other programs ignore. Daily, weekly and monthly repeats are written
+ * as {@code RRULE}s. Times are written without a time zone, i.e. as local times, and times read with a UTC
+ * or {@code TZID} zone are converted to the local time zone. Only the {@code VEVENT} and {@code VTODO}
+ * entries of a calendar are read; anything else, such as time zone definitions and alarms, is skipped.
+ */
+class IcsFormat implements RecordFormat {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int MAX_LINE_BYTES = 75;
+    private static final String DONE_EVENT_PROPERTY = "X-CHATBOT-DONE";
+
+    private String nextLine; // Line read ahead to find out whether the previous line continues on it
+    private String timestamp; // DTSTAMP of every exported entry
+
+    @Override
+    public String readRecord(BufferedReader reader) throws IOException {
+        String line = readUnfolded(reader);
+        while (line != null && !line.equalsIgnoreCase("BEGIN:VEVENT") && !line.equalsIgnoreCase("BEGIN:VTODO")) {
+            line = readUnfolded(reader);
+        }
+        if (line == null) {
+            return null;
+        }
+
+        String end = "END:" + line.substring("BEGIN:".length());
+        StringBuilder record = new StringBuilder(line);
+        while ((line = readUnfolded(reader)) != null) {
+            record.append('\n').append(line);
+            if (line.equalsIgnoreCase(end)) {
+                break;
+            }
+        }
+        return record.toString();
+    }
+
+    /**
+     * Reads the next content line, joining the lines it was folded onto, which start with a space or tab.
+     */
+    private String readUnfolded(BufferedReader reader) throws IOException {
+        String line = nextLine != null ? nextLine : reader.readLine();
+        nextLine = null;
+        if (line == null) {
+            return null;
+        }
+
+        StringBuilder unfolded = new StringBuilder(line);
+        String following;
+        while ((following = reader.readLine()) != null && !following.isEmpty()
+                && (following.charAt(0) == ' ' || following.charAt(0) == '\t')) {
+            unfolded.append(following, 1, following.length());
+        }
+        nextLine = following;
+        return unfolded.toString();
+    }
+
+    @Override
+    public Task parse(String record) throws ChatBotException {
+        String[] lines = record.split("\n");
+        boolean isEvent = lines[0].equalsIgnoreCase("BEGIN:VEVENT");
+
+        // Properties of the entry itself, skipping nested components such as alarms
+        Map<String, Property> properties = new HashMap<>();
+        int depth = 0;
+        for (int i = 1; i < lines.length; i++) {
+            String upper = lines[i].toUpperCase(Locale.ROOT);
+            if (upper.startsWith("BEGIN:")) {
+                depth++;
+            } else if (upper.startsWith("END:")) {
+                depth--;
+            } else if (depth == 0) {
+                Property property = Property.parse(lines[i]);
+                properties.putIfAbsent(property.name, property);
+            }
+        }
+
+        Property summary = properties.get("SUMMARY");
+        String description = summary == null ? "" : unescape(summary.value).trim();
+        if (description.isEmpty()) {
+            throw new ChatBotException("OOPS!!! A calendar entry needs a SUMMARY to become a task.");
+        }
+        return isEvent ? parseEvent(description, properties) : parseTodo(description, properties);
+    }
+
+    private static Event parseEvent(String description, Map<String, Property> properties) throws ChatBotException {
+        Property start = properties.get("DTSTART");
+        if (start == null) {
+            throw new ChatBotException("OOPS!!! A calendar event needs a DTSTART.");
+        }
+        LocalDateTime from = parseDateTime(start);
+        LocalDateTime to;
+        if (properties.containsKey("DTEND")) {
+            to = parseDateTime(properties.get("DTEND"));
+        } else if (properties.containsKey("DURATION")) {
+            to = from.plus(parseDuration(properties.get("DURATION").value));
+        } else {
+            to = start.isDate() ? from.plusDays(1) : from; // A date alone lasts the whole day
+        }
+        if (from.isAfter(to)) {
+            throw new ChatBotException("OOPS!!! An event cannot end before it starts.");
+        }
+
+        Recurrence recurrence = parseRule(properties.get("RRULE"), from);
+        Event event = new Event(description, from, to, recurrence);
+        Property done = properties.get(DONE_EVENT_PROPERTY);
+        if (done != null && done.value.trim().equalsIgnoreCase("TRUE")) {
+            event.markAsDone();
+        }
+        return event;
+    }
+
+    private static Task parseTodo(String description, Map<String, Property> properties) throws ChatBotException {
+        Property due = properties.get("DUE");
+        Task task;
+        if (due == null) {
+            task = new Todo(description);
+        } else {
+            LocalDateTime by = parseDateTime(due);
+            task = new Deadline(description, by, parseRule(properties.get("RRULE"), by));
+        }
+        Property status = properties.get("STATUS");
+        if ((status != null && status.value.equalsIgnoreCase("COMPLETED")) || properties.containsKey("COMPLETED")) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Converts a date or date-time value to a local time. A date alone is the start of that day.
+     */
+    private static LocalDateTime parseDateTime(Property property) throws ChatBotException {
+        String value = property.value.trim();
+        try {
+            if (property.isDate()) {
+                return LocalDate.parse(value, DATE).atStartOfDay();
+            } else if (value.endsWith("Z")) {
+                return LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME)
+                        .atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+
+            LocalDateTime time = LocalDateTime.parse(value, DATE_TIME);
+            String zone = property.params.get("TZID");
+            if (zone == null) {
+                return time; // A floating time is already local
+            }
+            try {
+                return time.atZone(ZoneId.of(zone)).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeException e) {
+                return time; // Zone names that Java does not know, e.g. Windows ones, are read as local
+            }
+        } catch (DateTimeException e) {
+            throw new ChatBotException("OOPS!!! Could not read the calendar time " + value + ".");
+        }
+    }
+
+    private static Duration parseDuration(String value) throws ChatBotException {
+        try {
+            if (value.matches("P\\d+W")) {
+                return Duration.ofDays(7 * Long.parseLong(value.substring(1, value.length() - 1)));
+            }
+            return Duration.parse(value);
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new ChatBotException("OOPS!!! Could not read the calendar duration " + value + ".");
+        }
+    }
+
+    /**
+     * Converts an {@code RRULE} into a recurrence. Only rules that repeat every day, week or month
+     * on the day of the first occurrence can be represented.
+     */
+    private static Recurrence parseRule(Property rule, LocalDateTime first) throws ChatBotException {
+        if (rule == null) {
+            return null;
+        }
+
+        Recurrence.Frequency frequency = null;
+        LocalDateTime until = null;
+        int count = 0;
+        for (String part : rule.value.split(";")) {
+            String[] keyValue = part.split("=", 2);
+            String value = keyValue.length == 2 ? keyValue[1] : "";
+            switch (keyValue[0].toUpperCase(Locale.ROOT)) {
+                case "FREQ" -> frequency = switch (value.toUpperCase(Locale.ROOT)) {
+                    case "DAILY" -> Recurrence.Frequency.DAILY;
+                    case "WEEKLY" -> Recurrence.Frequency.WEEKLY;
+                    case "MONTHLY" -> Recurrence.Frequency.MONTHLY;
+                    default -> throw unsupportedRule();
+                };
+                case "UNTIL" -> until = value.length() == 8
+                        ? LocalDate.parse(value, DATE).atTime(23, 59) // The whole last day is included
+                        : parseDateTime(new Property("UNTIL", Map.of(), value));
+                case "COUNT" -> {
+                    count = Integer.parseInt(value);
+                    if (count <= 0) {
+                        throw unsupportedRule();
+                    }
+                }
+                case "INTERVAL" -> {
+                    if (!value.equals("1")) {
+                        throw unsupportedRule();
+                    }
+                }
+                case "BYDAY" -> {
+                    if (!value.equalsIgnoreCase(first.getDayOfWeek().toString().substring(0, 2))) {
+                        throw unsupportedRule();
+                    }
+                }
+                case "BYMONTHDAY" -> {
+                    if (Integer.parseInt(value) != first.getDayOfMonth()) {
+                        throw unsupportedRule();
+                    }
+                }
+                case "WKST" -> {
+                    // The first day of the week does not matter without several days per week
+                }
+                default -> throw unsupportedRule();
+            }
+        }
+
+        if (frequency == null) {
+            throw unsupportedRule();
+        }
+        Recurrence recurrence = new Recurrence(frequency, until, count);
+        if (recurrence.endsBefore(first)) {
+            throw new ChatBotException("OOPS!!! A repeating task cannot stop before it first starts.");
+        }
+        return recurrence;
+    }
+
+    private static ChatBotException unsupportedRule() {
+        return new ChatBotException("OOPS!!! Only tasks repeating every day, week or month can be imported.");
+    }
+
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        timestamp = LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+        writeLine(out, "BEGIN:VCALENDAR");
+        writeLine(out, "VERSION:2.0");
+        writeLine(out, "PRODID:-//ChatBot//Tasks//EN");
+    }
+
+    @Override
+    public void write(Task task, Writer out) throws IOException {
+        String component = task instanceof Event ? "VEVENT" : "VTODO";
+        writeLine(out, "BEGIN:" + component);
+        writeLine(out, "UID:" + UUID.randomUUID() + "@chatbot");
+        writeLine(out, "DTSTAMP:" + timestamp);
+        writeLine(out, "SUMMARY:" + escape(task.getDescription()));
+
+        Recurrence recurrence = null;
+        if (task instanceof Event event) {
+            writeLine(out, "DTSTART:" + event.getFrom().format(DATE_TIME));
+            writeLine(out, "DTEND:" + event.getTo().format(DATE_TIME));
+            recurrence = event.getRecurrence();
+        } else if (task instanceof Deadline deadline) {
+            writeLine(out, "DUE:" + deadline.getBy().format(DATE_TIME));
+            recurrence = deadline.getRecurrence();
+        }
+        if (recurrence != null) {
+            writeLine(out, "RRULE:" + formatRule(recurrence));
+        }
+        if (task.isDone()) {
+            writeLine(out, task instanceof Event ? DONE_EVENT_PROPERTY + ":TRUE" : "STATUS:COMPLETED");
+        }
+        writeLine(out, "END:" + component);
+    }
+
+    @Override
+    public void writeFooter(Writer out) throws IOException {
+        writeLine(out, "END:VCALENDAR");
+    }
+
+    private static String formatRule(Recurrence recurrence) {
+        StringBuilder rule = new StringBuilder("FREQ=").append(recurrence.getFrequency());
+        if (recurrence.getUntil() != null) {
+            rule.append(";UNTIL=").append(recurrence.getUntil().format(DATE_TIME));
+        }
+        if (recurrence.getCount() != 0) {
+            rule.append(";COUNT=").append(recurrence.getCount());
+        }
+        return rule.toString();
+    }
+
+    /**
+     * Writes a content line, folding it onto continuation lines so that no line exceeds 75 bytes.
+     */
+    private static void writeLine(Writer out, String line) throws IOException {
+        int lineBytes = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int bytes = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (lineBytes + bytes > MAX_LINE_BYTES) {
+                out.write("\r\n ");
+                lineBytes = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            lineBytes += bytes;
+            i += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,");
+    }
+
+    /**
+     * Undoes iCalendar text escaping. Line breaks become spaces, since a task description is a single line.
+     */
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? ' ' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * A content line such as {@code DTSTART;TZID=Europe/Berlin:20251202T160000}.
+     */
+    private record Property(String name, Map<String, String> params, String value) {
+
+        private static Property parse(String line) {
+            // The value starts after the first colon that is not inside a quoted parameter value
+            int colon = -1;
+            boolean isQuoted = false;
+            for (int i = 0; i < line.length() && colon < 0; i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if (c == ':' && !isQuoted) {
+                    colon = i;
+                }
+            }
+            String head = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+
+            String[] parts = head.split(";");
+            Map<String, String> params = new HashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                String[] keyValue = parts[i].split("=", 2);
+                if (keyValue.length == 2) {
+                    params.put(keyValue[0].toUpperCase(Locale.ROOT), keyValue[1].replace("\"", ""));
+                }
+            }
+            return new Property(parts[0].toUpperCase(Locale.ROOT), params, value);
+        }
+
+        private boolean isDate() {
+            return "DATE".equalsIgnoreCase(params.get("VALUE")) || value.trim().length() == 8;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package chatbot.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the lines that differ between two versions of a text file.
+ * <p>
+ * Lines that are the same at the start and end of both versions are skipped first, which leaves
+ * only the region around the edits in a typical sync. The rest is compared with Myers' algorithm,
+ * which takes O((n + m) d) time for d inserted and deleted lines. If the versions differ in more
+ * than {@value #MAX_EDITS} lines, the whole differing region is reported as replaced instead.
+ */
+final class LineDiff {
+
+    /** Number of inserted and deleted lines beyond which the differing region is replaced as a whole. */
+    static final int MAX_EDITS = 2000;
+
+    /**
+     * Represents a run of old lines replaced by new lines.
+     *
+     * @param position Position of the first replaced line in the old version.
+     * @param deleted  Number of old lines removed.
+     * @param inserted New lines put in their place, in order.
+     */
+    record Edit(int position, int deleted, List<String> inserted) {
+    }
+
+    private LineDiff() {
+    }
+
+    /**
+     * Returns the edits that turn the old lines into the new lines, in increasing order of position.
+     * The edits do not overlap, and each position refers to the old version.
+     *
+     * @param before Old version.
+     * @param after  New version.
+     */
+    static List<Edit> diff(List<String> before, List<String> after) {
+        int start = 0;
+        while (start < before.size() && start < after.size() && before.get(start).equals(after.get(start))) {
+            start++;
+        }
+        int beforeEnd = before.size();
+        int afterEnd = after.size();
+        while (beforeEnd > start && afterEnd > start && before.get(beforeEnd - 1).equals(after.get(afterEnd - 1))) {
+            beforeEnd--;
+            afterEnd--;
+        }
+
+        List<String> a = before.subList(start, beforeEnd);
+        List<String> b = after.subList(start, afterEnd);
+        if (a.isEmpty() && b.isEmpty()) {
+            return List.of();
+        }
+        List<Edit> edits = shortestEdits(a, b);
+        if (edits == null) {
+            return List.of(new Edit(start, a.size(), new ArrayList<>(b)));
+        }
+
+        List<Edit> shifted = new ArrayList<>(edits.size());
+        for (Edit edit : edits) {
+            shifted.add(new Edit(edit.position() + start, edit.deleted(), edit.inserted()));
+        }
+        return shifted;
+    }
+
+    /**
+     * Finds a shortest edit script with Myers' greedy algorithm.
+     *
+     * @return The edits, or {@code null} if more than {@value #MAX_EDITS} lines differ.
+     */
+    private static List<Edit> shortestEdits(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int max = Math.min(n + m, MAX_EDITS);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3]; // Furthest x reached on each diagonal k = x - y, at offset + k
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= max; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                boolean isDown = k == -d || k != d && v[offset + k - 1] < v[offset + k + 1];
+                int x = isDown ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, offset, a, b);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Walks back from the end through the recorded steps, turning each one into an inserted or deleted line,
+     * and joins adjacent ones into edits.
+     */
+    private static List<Edit> backtrack(List<int[]> trace, int offset, List<String> a, List<String> b) {
+        List<Edit> edits = new ArrayList<>();
+        int x = a.size();
+        int y = b.size();
+
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            boolean isDown = k == -d || k != d && v[offset + k - 1] < v[offset + k + 1];
+            int previousK = isDown ? k + 1 : k - 1;
+            int previousX = v[offset + previousK];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x--;
+                y--;
+            }
+
+            Edit last = edits.isEmpty() ? null : edits.get(edits.size() - 1);
+            if (isDown) { // b[previousY] was inserted before a[previousX]
+                if (last != null && last.position() == previousX) {
+                    last.inserted().add(b.get(previousY));
+                } else {
+                    edits.add(new Edit(previousX, 0, new ArrayList<>(List.of(b.get(previousY)))));
+                }
+            } else { // a[previousX] was deleted
+                if (last != null && last.position() == previousX + 1) {
+                    edits.set(edits.size() - 1, new Edit(previousX, last.deleted() + 1, last.inserted()));
+                } else {
+                    edits.add(new Edit(previousX, 1, new ArrayList<>()));
+                }
+            }
+            x = previousX;
+            y = previousY;
+        }
+
+        // Edits were found from the end backwards, and so were the lines inserted by each
+        Collections.reverse(edits);
+        for (Edit edit : edits) {
+            Collections.reverse(edit.inserted());
+        }
+        return edits;
+    }
+}
@@ -0,0 +1,283 @@
+package chatbot.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+
+/**
+ * An archive split into one segment file per month, e.g. {@code data/tasks.archive/2025-11.txt} for the
+ * deadlines due and events starting in November 2025, so that looking up archived tasks in a date range
+ * only reads the months it overlaps.
+ * <p>
+ * Repeating tasks are kept in a {@code recurring} segment, which every date range may overlap, and todos in
+ * an {@code undated} segment, which no date range overlaps. A manifest ({@code manifest.txt}) lists every
+ * segment with the earliest and latest date in it and its number of tasks, so segments are picked without
+ * opening them. The manifest is written before the segments it describes, so if saving stops halfway,
+ * it describes at least what is in each segment.
+ * <p>
+ * Each segment is an {@link Archive} of its own, read on first use and kept in memory after that.
+ * A single archive file from before the archive was partitioned is split into segments when first used.
+ */
+class PartitionedArchive extends Archive {
+
+    /** Name of the file that lists the segments. */
+    static final String MANIFEST = "manifest.txt";
+
+    private static final String RECURRING = "recurring";
+    private static final String UNDATED = "undated";
+    private static final String NO_DATE = "-";
+
+    private final Path directory;
+    private final String segmentExtension;
+    private TreeMap<String, Segment> segments; // By name, so months are in order; read on first use
+
+    /**
+     * Represents a segment file and the range of dates in it.
+     */
+    private static final class Segment {
+        private final Archive file;
+        private LocalDateTime first; // Null for the undated segment
+        private LocalDateTime last;  // Null for the undated and recurring segments, which have no end
+        private int count;
+
+        private Segment(Archive file, LocalDateTime first, LocalDateTime last, int count) {
+            this.file = file;
+            this.first = first;
+            this.last = last;
+            this.count = count;
+        }
+
+        /**
+         * Returns whether any task in the segment may have a date strictly between the bounds.
+         */
+        private boolean overlaps(LocalDateTime after, LocalDateTime before) {
+            return first != null && (before == null || first.isBefore(before))
+                    && (last == null || after == null || last.isAfter(after));
+        }
+    }
+
+    /**
+     * Constructs a PartitionedArchive in place of the single archive file at the given path. Its segments are
+     * kept in a directory named after that file, e.g. {@code data/tasks.archive} for
+     * {@code data/tasks.archive.txt} and {@code data/tasks.archive.gz} for {@code data/tasks.archive.txt.gz}.
+     *
+     * @param filePath Path to the single archive file, which is split into segments if it exists.
+     */
+    PartitionedArchive(String filePath) {
+        super(filePath);
+        boolean isCompressed = filePath.endsWith(Storage.COMPRESSED_EXTENSION);
+        String uncompressedPath = isCompressed
+                ? filePath.substring(0, filePath.length() - Storage.COMPRESSED_EXTENSION.length()) : filePath;
+        String base = uncompressedPath.endsWith(".txt")
+                ? uncompressedPath.substring(0, uncompressedPath.length() - 4) : uncompressedPath + ".d";
+        this.directory = Path.of(base + (isCompressed ? Storage.COMPRESSED_EXTENSION : ""));
+        this.segmentExtension = ".txt" + (isCompressed ? Storage.COMPRESSED_EXTENSION : "");
+    }
+
+    /**
+     * Appends tasks to the ends of the segments they belong in, creating segments as needed.
+     */
+    @Override
+    public void append(List<Task> tasks) throws ChatBotException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        readManifest();
+        appendToSegments(tasks);
+    }
+
+    /**
+     * Returns every archived task, month by month, then repeating tasks, then todos.
+     * Tasks of the same segment are oldest first. Every segment is read on the first call.
+     */
+    @Override
+    public TaskList getTasks() throws ChatBotException {
+        return getTasks(null, null, true);
+    }
+
+    /**
+     * Returns the tasks of the segments that may hold tasks in the date range, reading only those segments.
+     */
+    @Override
+    public TaskList getTasksBetween(LocalDateTime after, LocalDateTime before) throws ChatBotException {
+        return getTasks(after, before, false);
+    }
+
+    /**
+     * Returns the names of the segments read from disk so far, in order.
+     */
+    List<String> getLoadedSegments() {
+        List<String> names = new ArrayList<>();
+        if (segments != null) {
+            segments.forEach((name, segment) -> {
+                if (segment.file.isLoaded()) {
+                    names.add(name);
+                }
+            });
+        }
+        return names;
+    }
+
+    private TaskList getTasks(LocalDateTime after, LocalDateTime before, boolean isAll) throws ChatBotException {
+        readManifest();
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (isAll || segment.overlaps(after, before)) {
+                tasks.addAll(segment.file.getTasks().getTasks());
+            }
+        }
+        return new TaskList(tasks);
+    }
+
+    private void appendToSegments(List<Task> tasks) throws ChatBotException {
+        Map<String, List<Task>> bySegment = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            bySegment.computeIfAbsent(segmentOf(task), name -> new ArrayList<>()).add(task);
+        }
+
+        for (Map.Entry<String, List<Task>> entry : bySegment.entrySet()) {
+            Segment segment = segments.computeIfAbsent(entry.getKey(),
+                    name -> new Segment(segmentFile(name), null, null, 0));
+            for (Task task : entry.getValue()) {
+                widen(segment, entry.getKey(), task);
+            }
+        }
+        writeManifest();
+        for (Map.Entry<String, List<Task>> entry : bySegment.entrySet()) {
+            segments.get(entry.getKey()).file.append(entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the name of the segment a task belongs in: the month of a one-off deadline or event,
+     * {@value #RECURRING} for a repeating one, and {@value #UNDATED} for a todo.
+     */
+    private static String segmentOf(Task task) {
+        LocalDateTime date = dateOf(task);
+        if (date == null) {
+            return UNDATED;
+        } else if (isRecurring(task)) {
+            return RECURRING;
+        }
+        return String.format("%04d-%02d", date.getYear(), date.getMonthValue());
+    }
+
+    private static void widen(Segment segment, String name, Task task) {
+        LocalDateTime date = dateOf(task);
+        segment.count++;
+        if (date == null) {
+            return;
+        }
+        if (segment.first == null || date.isBefore(segment.first)) {
+            segment.first = date;
+        }
+        if (!name.equals(RECURRING) && (segment.last == null || date.isAfter(segment.last))) {
+            segment.last = date;
+        }
+    }
+
+    private static LocalDateTime dateOf(Task task) {
+        if (task instanceof Deadline deadline) {
+            return deadline.getBy();
+        } else if (task instanceof Event event) {
+            return event.getFrom();
+        }
+        return null;
+    }
+
+    private static boolean isRecurring(Task task) {
+        return task instanceof Deadline deadline ? deadline.getRecurrence() != null
+                : task instanceof Event event && event.getRecurrence() != null;
+    }
+
+    private Archive segmentFile(String name) {
+        return new Archive(directory.resolve(name + segmentExtension).toString());
+    }
+
+    /**
+     * Reads the manifest on first use. Without one, the single archive file, if any, is split into segments.
+     */
+    private void readManifest() throws ChatBotException {
+        if (segments != null) {
+            return;
+        }
+
+        segments = new TreeMap<>();
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            splitSingleFile();
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(manifest, Charset.defaultCharset())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(" \\| ");
+                segments.put(fields[0], new Segment(segmentFile(fields[0]), parseDate(fields[1]),
+                        parseDate(fields[2]), Integer.parseInt(fields[3])));
+            }
+        } catch (IOException | RuntimeException e) {
+            segments = null;
+            throw new ChatBotException("OOPS!!! Could not read the archive manifest: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the tasks of the archive file from before partitioning into segments, then deletes that file.
+     */
+    private void splitSingleFile() throws ChatBotException {
+        List<Task> tasks = super.getTasks().getTasks();
+        if (tasks.isEmpty()) {
+            return;
+        }
+        appendToSegments(tasks);
+        try {
+            Files.deleteIfExists(Path.of(getFilePath()));
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not remove the old archive: " + e.getMessage());
+        }
+    }
+
+    private void writeManifest() throws ChatBotException {
+        Path manifest = directory.resolve(MANIFEST);
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, Charset.defaultCharset())) {
+                for (Map.Entry<String, Segment> entry : segments.entrySet()) {
+                    Segment segment = entry.getValue();
+                    writer.write(entry.getKey() + " | " + formatDate(segment.first) + " | "
+                            + formatDate(segment.last) + " | " + segment.count + System.lineSeparator());
+                }
+            }
+            Files.move(temporary, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not write to the archive: " + e.getMessage());
+        }
+    }
+
+    private static String formatDate(LocalDateTime date) {
+        return date == null ? NO_DATE : date.toString();
+    }
+
+    private static LocalDateTime parseDate(String field) throws DateTimeParseException {
+        return field.equals(NO_DATE) ? null : LocalDateTime.parse(field);
+    }
+}
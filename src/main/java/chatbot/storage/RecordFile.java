@@ -0,0 +1,604 @@
+package chatbot.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.TaskChange;
+import chatbot.task.TaskList;
+import chatbot.task.TaskListener;
+import chatbot.task.Todo;
+
+/**
+ * Stores a task list as fixed-width records that are updated in place, such as {@code data/tasks.records}
+ * for {@code data/tasks.txt}, so that saving a change only writes the bytes that changed.
+ * <p>
+ * Every task has a record of {@value #RECORD_SIZE} bytes holding its status, type, dates and recurrence,
+ * and where its description is in a separate description heap, e.g. {@code data/tasks.heap.3}. Records are
+ * in list order. Marking or unmarking a task rewrites the status byte of its record, adding tasks to the end
+ * of the list appends records and descriptions, and deleting tasks only marks their records as tombstones.
+ * Once tombstones outnumber the tasks, a background thread copies the live records into new files, while
+ * the list keeps being saved to the old ones; the changes made meanwhile are carried over before the new
+ * files take their place. Adding tasks anywhere but at the end, e.g. by undoing a delete, rewrites both files.
+ * <p>
+ * New heaps get a new number, and are complete before the records file that names them is moved into place,
+ * so a crash leaves either the old or the new pair of files.
+ * <p>
+ * As a {@link TaskListener}, the file records every change to the list it loaded. Changes are buffered
+ * until {@link #flush()} writes them, which is how the list is saved.
+ */
+public class RecordFile implements TaskListener {
+
+    /** Size in bytes of the record of each task. */
+    static final int RECORD_SIZE = 48;
+
+    /** Tombstones needed before a compaction starts, so that small files are not compacted over and over. */
+    static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private static final int MAGIC = 0x43425246; // "CBRF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;   // Magic, version and number of the heap
+
+    // Layout of a record; the byte after the frequency and the last four bytes are unused
+    private static final int FLAGS = 0;
+    private static final int TYPE = 1;
+    private static final int FREQUENCY = 2;
+    private static final int COUNT = 4;
+    private static final int FIRST_DATE = 8;
+    private static final int SECOND_DATE = 16;
+    private static final int UNTIL = 24;
+    private static final int DESCRIPTION_OFFSET = 32;
+    private static final int DESCRIPTION_LENGTH = 40;
+
+    private static final byte DONE = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte NOT_RECURRING = -1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /** Records copied at a time while compacting. */
+    private static final int COPY_CHUNK = 4096;
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "record-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path tasksFile;
+    private final Path recordsFile;
+    private TaskList tasks;
+
+    // Changes since the last flush, only used by the thread that changes the list
+    private final List<TaskChange> pending = new ArrayList<>();
+    private int pendingSize = 0;        // Number of tasks after the pending changes
+    private boolean needsRewrite = false;
+
+    // State of the files, guarded by this since a finishing compaction changes it too
+    private int[] records = new int[16]; // Record number of each task, in list order and so ascending
+    private int size = 0;
+    private int recordCount = 0;         // Records in the file, tombstones included
+    private long heapSize = 0;
+    private long heapNumber = 0;
+    private long nextHeapNumber = 1;
+    private int layout = 0;              // Changed by every rewrite, which makes a running compaction give up
+    private BitSet touched;              // Records written while a compaction copies, or null if none is running
+    private CompletableFuture<Void> compaction = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructs a RecordFile with the given files. Nothing is read until {@link #load()}.
+     *
+     * @param tasksFile   Plain task file that a new record file starts from, if it exists.
+     * @param recordsFile File of records; the description heaps are kept next to it.
+     */
+    public RecordFile(Path tasksFile, Path recordsFile) {
+        this.tasksFile = tasksFile;
+        this.recordsFile = recordsFile;
+    }
+
+    /**
+     * Returns the record file that belongs to a task file, e.g. {@code data/tasks.records} for {@code data/tasks.txt}.
+     *
+     * @param tasksFile Path to the plain task file.
+     */
+    public static RecordFile forTasksFile(Path tasksFile) {
+        String name = tasksFile.getFileName().toString();
+        String base = name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+        return new RecordFile(tasksFile, tasksFile.resolveSibling(base + ".records"));
+    }
+
+    /**
+     * Reads the live records into a task list and starts recording its changes. If there is no record
+     * file yet, the list starts from the plain task file, and the record file is written on the next flush.
+     *
+     * @return The loaded task list.
+     * @throws ChatBotException If the files cannot be read or contain invalid records.
+     */
+    public TaskList load() throws ChatBotException {
+        ArrayList<Task> loaded = new ArrayList<>();
+        boolean exists = Files.exists(recordsFile);
+        if (exists) {
+            try {
+                readRecords(loaded);
+            } catch (IOException | RuntimeException e) {
+                throw new ChatBotException("Failed to load the task records: " + e.getMessage());
+            }
+        }
+
+        tasks = new TaskList(loaded);
+        pendingSize = loaded.size();
+        tasks.addListener(this);
+        if (!exists) {
+            if (Files.exists(tasksFile)) {
+                tasks.addTasks(new Storage(tasksFile.toString()).load());
+            }
+            needsRewrite = true;
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes the changes recorded since the last flush: one status byte for each marked or unmarked task,
+     * one for each deleted task, and the records and descriptions of tasks added to the end of the list.
+     * Starts a compaction in the background once tombstones outnumber the tasks.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() && !needsRewrite) {
+            return;
+        }
+
+        try {
+            if (needsRewrite || !Files.exists(recordsFile)) {
+                rewrite(tasks.getTasks());
+            } else {
+                writePending();
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving tasks to the task records: " + e.getMessage());
+            needsRewrite = true; // The files may hold part of the changes, so write them anew next time
+            pending.clear();
+            return;
+        }
+        pending.clear();
+        needsRewrite = false;
+        startCompactionIfWorthwhile();
+    }
+
+    /**
+     * Returns the number of bytes of the record file and its description heap, tombstones included.
+     */
+    public synchronized long getLiveBytes() {
+        return HEADER_SIZE + (long) recordCount * RECORD_SIZE + heapSize;
+    }
+
+    /**
+     * Waits for a running compaction, if any, to finish.
+     */
+    void awaitCompaction() {
+        CompletableFuture<Void> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        running.join();
+    }
+
+    /**
+     * Returns the number of records in the file, tombstones included.
+     */
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Records each batch of changes in order. Tasks added anywhere but at the end make the next
+     * flush rewrite the files instead.
+     */
+    @Override
+    public void tasksChanged(List<TaskChange> changes) {
+        for (TaskChange change : changes) {
+            if (change instanceof TaskChange.Added added && added.position() != pendingSize) {
+                needsRewrite = true;
+            }
+            if (change instanceof TaskChange.Added added) {
+                pendingSize += added.tasks().size();
+            } else if (change instanceof TaskChange.Removed removed) {
+                pendingSize -= removed.tasks().size();
+            }
+            if (!needsRewrite) {
+                pending.add(change);
+            }
+        }
+        if (needsRewrite) {
+            pending.clear();
+        }
+    }
+
+    // Changes always arrive through tasksChanged, which knows their positions; without one, rewrite
+    @Override
+    public void taskAdded(Task task) {
+        needsRewrite = true;
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        needsRewrite = true;
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        needsRewrite = true;
+    }
+
+    private void readRecords(List<Task> loaded) throws IOException, ChatBotException {
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(recordsFile));
+        if (file.getInt() != MAGIC || file.getInt() != VERSION) {
+            throw new ChatBotException("OOPS!!! " + recordsFile + " is not a task record file.");
+        }
+        heapNumber = file.getLong();
+        nextHeapNumber = heapNumber + 1;
+        byte[] heap = Files.readAllBytes(heapFile(heapNumber));
+
+        // A record cut short by a crash is ignored, and overwritten by the next append
+        recordCount = (file.limit() - HEADER_SIZE) / RECORD_SIZE;
+        heapSize = heap.length;
+        for (int record = 0; record < recordCount; record++) {
+            int base = HEADER_SIZE + record * RECORD_SIZE;
+            if ((file.get(base + FLAGS) & TOMBSTONE) == 0) {
+                loaded.add(decode(file, base, heap));
+                addRecord(record);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes in place. Runs of added tasks are appended with one write to each file.
+     */
+    private void writePending() throws IOException {
+        try (FileChannel recordChannel = FileChannel.open(recordsFile, StandardOpenOption.WRITE);
+                FileChannel heapChannel = FileChannel.open(heapFile(heapNumber), StandardOpenOption.WRITE)) {
+            for (TaskChange change : pending) {
+                if (change instanceof TaskChange.Added added) {
+                    append(added.tasks(), recordChannel, heapChannel);
+                } else if (change instanceof TaskChange.Removed removed) {
+                    for (int i = 0; i < removed.tasks().size(); i++) {
+                        writeFlags(recordChannel, records[removed.position() + i], TOMBSTONE);
+                    }
+                    System.arraycopy(records, removed.position() + removed.tasks().size(), records,
+                            removed.position(), size - removed.position() - removed.tasks().size());
+                    size -= removed.tasks().size();
+                } else if (change instanceof TaskChange.Updated updated) {
+                    writeFlags(recordChannel, records[updated.position()], updated.task().isDone() ? DONE : 0);
+                }
+            }
+        }
+    }
+
+    private void append(List<Task> added, FileChannel recordChannel, FileChannel heapChannel) throws IOException {
+        ByteBuffer newRecords = ByteBuffer.allocate(added.size() * RECORD_SIZE);
+        ByteArrayOutputStream descriptions = new ByteArrayOutputStream();
+        for (Task task : added) {
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            encode(task, heapSize + descriptions.size(), description.length, newRecords);
+            descriptions.write(description);
+        }
+
+        // Descriptions first, so that a record never points past the end of the heap
+        writeFully(heapChannel, ByteBuffer.wrap(descriptions.toByteArray()), heapSize);
+        writeFully(recordChannel, newRecords.flip(), HEADER_SIZE + (long) recordCount * RECORD_SIZE);
+        heapSize += descriptions.size();
+        for (int i = 0; i < added.size(); i++) {
+            addRecord(recordCount++);
+        }
+    }
+
+    private void writeFlags(FileChannel recordChannel, int record, byte flags) throws IOException {
+        writeFully(recordChannel, ByteBuffer.wrap(new byte[]{flags}),
+                HEADER_SIZE + (long) record * RECORD_SIZE + FLAGS);
+        if (touched != null) {
+            touched.set(record);
+        }
+    }
+
+    /**
+     * Writes every task to a new heap and record file, which then replace the old ones.
+     */
+    private void rewrite(List<Task> all) throws IOException {
+        long newHeapNumber = nextHeapNumber++;
+        Path temporary = recordsFile.resolveSibling(recordsFile.getFileName() + ".tmp");
+        ByteBuffer newRecords = ByteBuffer.allocate(HEADER_SIZE + all.size() * RECORD_SIZE);
+        newRecords.putInt(MAGIC).putInt(VERSION).putLong(newHeapNumber);
+        ByteArrayOutputStream descriptions = new ByteArrayOutputStream();
+        for (Task task : all) {
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            encode(task, descriptions.size(), description.length, newRecords);
+            descriptions.write(description);
+        }
+
+        Files.createDirectories(recordsFile.toAbsolutePath().getParent());
+        Files.write(heapFile(newHeapNumber), descriptions.toByteArray());
+        Files.write(temporary, Arrays.copyOf(newRecords.array(), newRecords.position()));
+        Files.move(temporary, recordsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(heapFile(heapNumber));
+
+        heapNumber = newHeapNumber;
+        heapSize = descriptions.size();
+        recordCount = 0;
+        size = 0;
+        for (int i = 0; i < all.size(); i++) {
+            addRecord(recordCount++);
+        }
+        layout++;
+    }
+
+    private void startCompactionIfWorthwhile() {
+        int tombstones = recordCount - size;
+        if (!compaction.isDone() || tombstones < MIN_TOMBSTONES_TO_COMPACT || tombstones <= size) {
+            return;
+        }
+        int[] snapshot = Arrays.copyOf(records, size);
+        int snapshotCount = recordCount;
+        long oldHeapNumber = heapNumber;
+        long newHeapNumber = nextHeapNumber++;
+        int snapshotLayout = layout;
+        touched = new BitSet();
+        compaction = CompletableFuture.runAsync(
+                () -> compact(snapshot, snapshotCount, oldHeapNumber, newHeapNumber, snapshotLayout), COMPACTOR);
+    }
+
+    /**
+     * Copies the records that were live when the compaction started into new files, without holding the lock,
+     * then brings the copies up to date with the changes made since and moves them into place.
+     */
+    private void compact(int[] snapshot, int snapshotCount, long oldHeapNumber, long newHeapNumber,
+            int snapshotLayout) {
+        Path temporary = recordsFile.resolveSibling(recordsFile.getFileName() + ".compacting");
+        Path newHeap = heapFile(newHeapNumber);
+        boolean isDone = false;
+        FileChannel[] old = openSnapshot(oldHeapNumber, snapshotLayout);
+        if (old == null) {
+            return;
+        }
+        try (FileChannel oldRecords = old[0]; FileChannel oldHeap = old[1];
+                FileChannel newRecords = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                FileChannel newHeapChannel = FileChannel.open(newHeap, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(newHeapNumber);
+            writeFully(newRecords, header.flip(), 0);
+            long[] heapEnd = {0};
+            for (int from = 0; from < snapshot.length; from += COPY_CHUNK) {
+                copyRecords(snapshot, from, Math.min(snapshot.length, from + COPY_CHUNK), oldRecords, oldHeap,
+                        newRecords, newHeapChannel, from, heapEnd);
+            }
+
+            synchronized (this) {
+                if (layout != snapshotLayout) {
+                    return; // The files were rewritten meanwhile
+                }
+                catchUp(snapshot, snapshotCount, oldRecords, oldHeap, newRecords, newHeapChannel, heapEnd[0]);
+                Files.move(temporary, recordsFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                heapNumber = newHeapNumber;
+                isDone = true;
+                Files.deleteIfExists(heapFile(oldHeapNumber));
+            }
+        } catch (IOException e) {
+            System.err.println("Error compacting the task records: " + e.getMessage()); // The old files still hold
+        } finally {
+            synchronized (this) {
+                touched = null;
+            }
+            if (!isDone) {
+                deleteQuietly(temporary);
+                deleteQuietly(newHeap);
+            }
+        }
+    }
+
+    /**
+     * Opens the record file and heap of a compaction's snapshot, under the lock so that they are not replaced
+     * in between. Open files stay readable after a rewrite replaces or deletes them.
+     *
+     * @return The record file and heap, or {@code null} if the compaction should not go on.
+     */
+    private synchronized FileChannel[] openSnapshot(long oldHeapNumber, int snapshotLayout) {
+        if (layout != snapshotLayout) {
+            touched = null;
+            return null; // The files were rewritten before the compaction got to run
+        }
+        FileChannel oldRecords = null;
+        try {
+            oldRecords = FileChannel.open(recordsFile, StandardOpenOption.READ);
+            return new FileChannel[]{oldRecords, FileChannel.open(heapFile(oldHeapNumber), StandardOpenOption.READ)};
+        } catch (IOException e) {
+            touched = null;
+            closeQuietly(oldRecords);
+            System.err.println("Error compacting the task records: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copies the records {@code snapshot[from]} to {@code snapshot[to - 1]} and their descriptions,
+     * which are in the same order in the heap, with one read and one write to each file.
+     */
+    private static void copyRecords(int[] snapshot, int from, int to, FileChannel oldRecords, FileChannel oldHeap,
+            FileChannel newRecords, FileChannel newHeap, int firstNewRecord, long[] heapEnd) throws IOException {
+        int firstRecord = snapshot[from];
+        ByteBuffer old = ByteBuffer.allocate((snapshot[to - 1] - firstRecord + 1) * RECORD_SIZE);
+        readFully(oldRecords, old, HEADER_SIZE + (long) firstRecord * RECORD_SIZE);
+
+        int lastBase = (snapshot[to - 1] - firstRecord) * RECORD_SIZE;
+        long heapStart = old.getLong(DESCRIPTION_OFFSET);
+        long heapStop = old.getLong(lastBase + DESCRIPTION_OFFSET) + old.getInt(lastBase + DESCRIPTION_LENGTH);
+        ByteBuffer descriptions = ByteBuffer.allocate(Math.toIntExact(heapStop - heapStart));
+        readFully(oldHeap, descriptions, heapStart);
+
+        ByteBuffer copied = ByteBuffer.allocate((to - from) * RECORD_SIZE);
+        ByteArrayOutputStream copiedDescriptions = new ByteArrayOutputStream();
+        for (int i = from; i < to; i++) {
+            int base = (snapshot[i] - firstRecord) * RECORD_SIZE;
+            int offset = Math.toIntExact(old.getLong(base + DESCRIPTION_OFFSET) - heapStart);
+            int length = old.getInt(base + DESCRIPTION_LENGTH);
+            int newBase = copied.position();
+            copied.put(old.array(), base, RECORD_SIZE);
+            copied.putLong(newBase + DESCRIPTION_OFFSET, heapEnd[0] + copiedDescriptions.size());
+            copiedDescriptions.write(descriptions.array(), offset, length);
+        }
+        writeFully(newHeap, ByteBuffer.wrap(copiedDescriptions.toByteArray()), heapEnd[0]);
+        writeFully(newRecords, copied.flip(), HEADER_SIZE + (long) firstNewRecord * RECORD_SIZE);
+        heapEnd[0] += copiedDescriptions.size();
+    }
+
+    /**
+     * Carries the changes made since the compaction started over to the copies: status bytes written
+     * since, and records appended since. Then renumbers the tasks' records. Runs with the lock held.
+     */
+    private void catchUp(int[] snapshot, int snapshotCount, FileChannel oldRecords, FileChannel oldHeap,
+            FileChannel newRecords, FileChannel newHeap, long heapEnd) throws IOException {
+        ByteBuffer flags = ByteBuffer.allocate(1);
+        for (int record = touched.nextSetBit(0); record >= 0 && record < snapshotCount;
+                record = touched.nextSetBit(record + 1)) {
+            int index = Arrays.binarySearch(snapshot, record);
+            if (index >= 0) {
+                readFully(oldRecords, flags.clear(), HEADER_SIZE + (long) record * RECORD_SIZE + FLAGS);
+                writeFully(newRecords, flags.flip(), HEADER_SIZE + (long) index * RECORD_SIZE + FLAGS);
+            }
+        }
+
+        // Appended records are in the old files only; tombstones among them are left behind
+        int newCount = snapshot.length;
+        int[] appendedIndex = new int[recordCount - snapshotCount];
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (int old = snapshotCount; old < recordCount; old++) {
+            readFully(oldRecords, record.clear(), HEADER_SIZE + (long) old * RECORD_SIZE);
+            if ((record.get(FLAGS) & TOMBSTONE) != 0) {
+                continue;
+            }
+            ByteBuffer description = ByteBuffer.allocate(record.getInt(DESCRIPTION_LENGTH));
+            readFully(oldHeap, description, record.getLong(DESCRIPTION_OFFSET));
+            writeFully(newHeap, description.flip(), heapEnd);
+            record.putLong(DESCRIPTION_OFFSET, heapEnd);
+            writeFully(newRecords, record.flip(), HEADER_SIZE + (long) newCount * RECORD_SIZE);
+            heapEnd += description.limit();
+            appendedIndex[old - snapshotCount] = newCount++;
+        }
+
+        for (int i = 0; i < size; i++) {
+            int old = records[i];
+            records[i] = old < snapshotCount ? Arrays.binarySearch(snapshot, old) : appendedIndex[old - snapshotCount];
+        }
+        recordCount = newCount;
+        heapSize = heapEnd;
+    }
+
+    private void addRecord(int record) {
+        if (size == records.length) {
+            records = Arrays.copyOf(records, size * 2);
+        }
+        records[size++] = record;
+    }
+
+    private Path heapFile(long number) {
+        String name = recordsFile.getFileName().toString();
+        String base = name.endsWith(".records") ? name.substring(0, name.length() - 8) : name;
+        return recordsFile.resolveSibling(base + ".heap." + number);
+    }
+
+    private static void encode(Task task, long descriptionOffset, int descriptionLength, ByteBuffer out) {
+        Recurrence recurrence = task instanceof Event event ? event.getRecurrence()
+                : task instanceof Deadline deadline ? deadline.getRecurrence() : null;
+        out.put(task.isDone() ? DONE : 0);
+        out.put(task instanceof Event ? EVENT : task instanceof Deadline ? DEADLINE : TODO);
+        out.put(recurrence == null ? NOT_RECURRING : (byte) recurrence.getFrequency().ordinal());
+        out.put((byte) 0);
+        out.putInt(recurrence == null ? 0 : recurrence.getCount());
+        out.putLong(task instanceof Event event ? TaskCache.toMinutes(event.getFrom())
+                : task instanceof Deadline deadline ? TaskCache.toMinutes(deadline.getBy()) : NO_DATE);
+        out.putLong(task instanceof Event event ? TaskCache.toMinutes(event.getTo()) : NO_DATE);
+        out.putLong(recurrence == null || recurrence.getUntil() == null ? NO_DATE
+                : TaskCache.toMinutes(recurrence.getUntil()));
+        out.putLong(descriptionOffset);
+        out.putInt(descriptionLength);
+        out.putInt(0);
+    }
+
+    private static Task decode(ByteBuffer file, int base, byte[] heap) throws ChatBotException {
+        String description = new String(heap, Math.toIntExact(file.getLong(base + DESCRIPTION_OFFSET)),
+                file.getInt(base + DESCRIPTION_LENGTH), StandardCharsets.UTF_8);
+        Recurrence recurrence = null;
+        byte frequency = file.get(base + FREQUENCY);
+        if (frequency != NOT_RECURRING) {
+            long until = file.getLong(base + UNTIL);
+            recurrence = new Recurrence(Recurrence.Frequency.values()[frequency],
+                    until == NO_DATE ? null : TaskCache.fromMinutes(until), file.getInt(base + COUNT));
+        }
+
+        Task task = switch (file.get(base + TYPE)) {
+            case TODO -> new Todo(description);
+            case DEADLINE -> new Deadline(description, TaskCache.fromMinutes(file.getLong(base + FIRST_DATE)),
+                    recurrence);
+            case EVENT -> new Event(description, TaskCache.fromMinutes(file.getLong(base + FIRST_DATE)),
+                    TaskCache.fromMinutes(file.getLong(base + SECOND_DATE)), recurrence);
+            default -> throw new ChatBotException("OOPS!!! There is an unknown task type in the task records.");
+        };
+        if ((file.get(base + FLAGS) & DONE) != 0) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Task records end unexpectedly");
+            }
+            position += read;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Nothing was written through it
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left for the next compaction to overwrite
+        }
+    }
+}
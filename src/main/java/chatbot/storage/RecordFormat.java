@@ -0,0 +1,61 @@
+package chatbot.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+
+/**
+ * A file format that tasks are imported from and exported to one record at a time.
+ * <p>
+ * Reading is split in two so that imports can be parallelized: {@link #readRecord} cuts the raw text
+ * of the next record out of the file sequentially, and {@link #parse} turns it into a task without
+ * touching any shared state, so many records can be parsed at once on different threads.
+ */
+interface RecordFormat {
+
+    /**
+     * Reads the raw text of the next record.
+     *
+     * @param reader Reader positioned after the previous record.
+     * @return Text of the record, or {@code null} at the end of the file.
+     * @throws IOException If reading fails.
+     */
+    String readRecord(BufferedReader reader) throws IOException;
+
+    /**
+     * Converts the raw text of a record into a task. Must be safe to call from several threads at once.
+     *
+     * @param record Text returned by {@link #readRecord}.
+     * @return The task described by the record.
+     * @throws ChatBotException If the record does not describe a task this chatbot supports.
+     */
+    Task parse(String record) throws ChatBotException;
+
+    /**
+     * Writes whatever comes before the first record.
+     *
+     * @param out Destination file.
+     * @throws IOException If writing fails.
+     */
+    void writeHeader(Writer out) throws IOException;
+
+    /**
+     * Writes one task as a record.
+     *
+     * @param task Task to write.
+     * @param out  Destination file.
+     * @throws IOException If writing fails.
+     */
+    void write(Task task, Writer out) throws IOException;
+
+    /**
+     * Writes whatever comes after the last record.
+     *
+     * @param out Destination file.
+     * @throws IOException If writing fails.
+     */
+    void writeFooter(Writer out) throws IOException;
+}
@@ -1,13 +1,23 @@
 package chatbot.storage;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Checksum;
 
 import chatbot.exception.ChatBotException;
 import chatbot.task.Deadline;
@@ -18,11 +28,37 @@ import chatbot.task.Todo;
 
 /**
  * Handles the saving and loading of tasks to and from hard drive.
- * Tasks are stored in a text file
+ * Tasks are stored in a text file, with a pre-parsed {@link TaskCache} next to it
+ * so that an unchanged file is not parsed again on the next start.
+ * <p>
+ * A file ending in {@value #COMPRESSED_EXTENSION} is compressed as it is written and decompressed as it is read,
+ * in blocks that are decompressed and parsed in parallel (see {@link BlockGzip}).
  */
 public class Storage {
 
+    /** Extension of task files that are stored compressed, e.g. {@code data/tasks.txt.gz}. */
+    public static final String COMPRESSED_EXTENSION = ".gz";
+
+    /** Position of the status icon in a stored task line, e.g. the X in {@code [T][X] read book}. */
+    private static final int STATUS_POSITION = 4;
+
     private final String filePath;
+    private final boolean isCompressed;
+    private long knownChecksum = -1; // CRC-32C of the file when it was last saved or loaded, -1 if unknown
+
+    /**
+     * Represents what reloading a task file changed in its task list.
+     *
+     * @param added   Number of tasks added.
+     * @param removed Number of tasks removed.
+     * @param updated Number of tasks marked or unmarked in place, or replaced by an edited version.
+     */
+    public record Reload(int added, int removed, int updated) {
+        /** Returns whether the task list was left as it was. */
+        public boolean isEmpty() {
+            return added == 0 && removed == 0 && updated == 0;
+        }
+    }
 
     /**
      * Constructs a Storage object with the given file path.
@@ -32,6 +68,7 @@ public class Storage {
      */
     public Storage(String filePath) {
         this.filePath = filePath;
+        this.isCompressed = filePath.endsWith(COMPRESSED_EXTENSION);
         Path path = Paths.get(filePath);
 
         try {
@@ -59,9 +96,20 @@ public class Storage {
      */
     public void saveToStorage(TaskList tasks) {
         File file = new File(this.filePath);
+        Checksum checksum = TaskCache.newChecksum(); // Of the bytes written, so the cache can vouch for the file
 
         // Overwrite file content on each save instead of appending
-        try (FileWriter writer = new FileWriter(file, false)) {
+        OutputStream out;
+        try {
+            out = new CheckedOutputStream(new FileOutputStream(file, false), checksum);
+        } catch (IOException e) {
+            System.err.println("Error saving tasks to storage: " + e.getMessage());
+            return;
+        }
+        if (isCompressed) {
+            out = BlockGzip.newOutputStream(out);
+        }
+        try (Writer writer = new OutputStreamWriter(out, Charset.defaultCharset())) {
             for (Task task : tasks.getTasks()) {
                 if (task != null) {
                     writer.write(task + System.lineSeparator());
@@ -69,12 +117,16 @@ public class Storage {
             }
         } catch (IOException e) {
             System.err.println("Error saving tasks to storage: " + e.getMessage());
+            return;
         }
+        knownChecksum = checksum.getValue();
+        TaskCache.forTasksFile(file.toPath()).write(tasks.getTasks(), knownChecksum);
     }
 
     /**
      * Loads tasks from the storage file and reconstructs them into memory.
-     * Recognizes tasks based on their prefixes:
+     * If the file is unchanged since it was last saved or loaded, the tasks are read from its cache instead.
+     * Otherwise, tasks are recognized based on their prefixes:
      * <ul>
      *     <li>[T] → {@link Todo}</li>
      *     <li>[D] → {@link Deadline}</li>
@@ -86,34 +138,183 @@ public class Storage {
      *                          or if an I/O error occurs.
      */
     public ArrayList<Task> load() throws ChatBotException {
-        ArrayList<Task> tasks = new ArrayList<>();
+        File file = new File(this.filePath);
+        TaskCache cache = TaskCache.forTasksFile(file.toPath());
+        ArrayList<Task> tasks = cache.read();
+        if (tasks != null) {
+            knownChecksum = cache.getVerifiedChecksum();
+            return tasks;
+        }
 
+        tasks = new ArrayList<>();
         try {
-            File file = new File(this.filePath);
-            try (Scanner reader = new Scanner(file)) { // Auto-close scanner
-                while (reader.hasNextLine()) {
-                    String line = reader.nextLine().trim();
+            if (isCompressed) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                    tasks.addAll(BlockGzip.readLines(in, Charset.defaultCharset(), Storage::parseTask));
+                }
+            } else {
+                try (Scanner reader = new Scanner(file)) { // Auto-close scanner
+                    while (reader.hasNextLine()) {
+                        String line = reader.nextLine().trim();
 
-                    if (line.isEmpty()) {
-                        continue; // Skip empty lines
-                    }
+                        if (line.isEmpty()) {
+                            continue; // Skip empty lines
+                        }
 
-                    // Determine task type based on prefix
-                    if (line.startsWith("[T]")) {
-                        tasks.add(Todo.convertToTodo(line));
-                    } else if (line.startsWith("[D]")) {
-                        tasks.add(Deadline.convertToDeadline(line));
-                    } else if (line.startsWith("[E]")) {
-                        tasks.add(Event.convertToEvent(line));
-                    } else {
-                        throw new ChatBotException("OOPS!! Data file has unknown line: " + line);
+                        tasks.add(parseTask(line));
                     }
                 }
             }
+            knownChecksum = TaskCache.checksumOf(file.toPath());
+            cache.write(tasks, knownChecksum);
         } catch (IOException | ChatBotException e) {
             throw new ChatBotException("Failed to load tasks: " + e.getMessage());
         }
 
         return tasks;
     }
+
+    /**
+     * Brings a task list that was loaded from this file up to date with changes made to the file by
+     * another program, such as an editor or a sync tool.
+     * <p>
+     * The lines of the file are compared with the stored form of the tasks in the list, and only the
+     * lines that differ are parsed and applied, in one batch: a line whose status icon alone changed
+     * marks or unmarks the task in place, and other changed lines replace their tasks. If the file has
+     * the checksum it had when it was last saved or loaded, it is not parsed. The checksum rather than the
+     * size and modification time decides this, since an edit of the same size within one tick of a coarse
+     * file system clock leaves both unchanged. A file that has gone missing is left to be written again
+     * on the next save.
+     *
+     * @param tasks The task list that was loaded from and saved to this file.
+     * @return What changed in the task list.
+     * @throws ChatBotException If the file cannot be read or has a line that is not a task.
+     *                          The task list is then left as it was.
+     */
+    public Reload reload(TaskList tasks) throws ChatBotException {
+        Path path = Paths.get(this.filePath);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return new Reload(0, 0, 0);
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not read " + this.filePath + ": " + e.getMessage());
+        }
+        Checksum checksum = TaskCache.newChecksum();
+        checksum.update(bytes, 0, bytes.length);
+        if (checksum.getValue() == knownChecksum) {
+            return new Reload(0, 0, 0); // Last written or read by this program
+        }
+
+        List<String> lines = new ArrayList<>();
+        String text;
+        try {
+            text = new String(isCompressed ? BlockGzip.inflate(bytes) : bytes, Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not read " + this.filePath + ": " + e.getMessage());
+        }
+        for (String line : text.split("\\R")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                lines.add(trimmed);
+            }
+        }
+        List<String> current = new ArrayList<>(tasks.getTotalTasks());
+        for (Task task : tasks.getTasks()) {
+            current.add(task.toString().trim());
+        }
+        List<LineDiff.Edit> edits = LineDiff.diff(current, lines);
+
+        // Parse every changed line before touching the list, so that a bad line changes nothing
+        List<List<Task>> replacements = new ArrayList<>(edits.size());
+        for (LineDiff.Edit edit : edits) {
+            List<Task> replacement = new ArrayList<>(edit.inserted().size());
+            for (int i = 0; i < edit.inserted().size(); i++) {
+                String line = edit.inserted().get(i);
+                boolean isStatusChange = i < edit.deleted() && isStatusChange(current.get(edit.position() + i), line);
+                try {
+                    replacement.add(isStatusChange ? null : parseTask(line));
+                } catch (ChatBotException e) {
+                    throw new ChatBotException("OOPS!!! " + this.filePath + " was changed, but could not be reloaded: "
+                            + e.getMessage());
+                }
+            }
+            replacements.add(replacement);
+        }
+
+        int added = 0;
+        int removed = 0;
+        int updated = 0;
+        tasks.beginBatch();
+        try {
+            // Last edit first, so that the positions of the earlier edits still hold
+            for (int e = edits.size() - 1; e >= 0; e--) {
+                LineDiff.Edit edit = edits.get(e);
+                List<Task> replacement = replacements.get(e);
+                int paired = Math.min(edit.deleted(), replacement.size());
+                for (int i = paired - 1; i >= 0; i--) {
+                    int position = edit.position() + i;
+                    Task task = replacement.get(i);
+                    if (task == null && edit.inserted().get(i).charAt(STATUS_POSITION) == 'X') {
+                        tasks.markTask(position);
+                    } else if (task == null) {
+                        tasks.unmarkTask(position);
+                    } else {
+                        tasks.removeRange(position, position + 1);
+                        tasks.insertTasks(position, List.of(task));
+                    }
+                }
+                int unpaired = edit.position() + paired;
+                if (edit.deleted() > paired) {
+                    tasks.removeRange(unpaired, edit.position() + edit.deleted());
+                }
+                if (replacement.size() > paired) {
+                    tasks.insertTasks(unpaired, replacement.subList(paired, replacement.size()));
+                }
+                updated += paired;
+                removed += edit.deleted() - paired;
+                added += replacement.size() - paired;
+            }
+        } finally {
+            tasks.endBatch();
+        }
+
+        knownChecksum = checksum.getValue();
+        TaskCache.forTasksFile(path).write(tasks.getTasks(), knownChecksum);
+        return new Reload(added, removed, updated);
+    }
+
+    /**
+     * Returns whether two stored task lines differ only in their status icon.
+     */
+    private static boolean isStatusChange(String before, String after) {
+        return before.length() == after.length() && before.length() > STATUS_POSITION
+                && before.regionMatches(0, after, 0, STATUS_POSITION)
+                && before.regionMatches(STATUS_POSITION + 1, after, STATUS_POSITION + 1,
+                        before.length() - STATUS_POSITION - 1)
+                && before.charAt(STATUS_POSITION) != after.charAt(STATUS_POSITION)
+                && "X ".indexOf(before.charAt(STATUS_POSITION)) >= 0
+                && "X ".indexOf(after.charAt(STATUS_POSITION)) >= 0;
+    }
+
+    /**
+     * Reconstructs a task from one non-empty line of a data file, choosing the task type by its prefix.
+     *
+     * @param line Stored form of the task, as produced by its {@code toString()}.
+     * @return The reconstructed task.
+     * @throws ChatBotException If the line is not a valid stored task.
+     */
+    public static Task parseTask(String line) throws ChatBotException {
+        // Determine task type based on prefix
+        if (line.startsWith("[T]")) {
+            return Todo.convertToTodo(line);
+        } else if (line.startsWith("[D]")) {
+            return Deadline.convertToDeadline(line);
+        } else if (line.startsWith("[E]")) {
+            return Event.convertToEvent(line);
+        } else {
+            throw new ChatBotException("OOPS!! Data file has unknown line: " + line);
+        }
+    }
 }
\ No newline at end of file
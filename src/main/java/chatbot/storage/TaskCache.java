@@ -0,0 +1,271 @@
+package chatbot.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.Todo;
+
+/**
+ * A pre-parsed image of a task file, kept next to it (e.g. {@code data/tasks.cache} for {@code data/tasks.txt})
+ * so that starting up with an unchanged task file does not parse it again.
+ * <p>
+ * The image records the size, modification time and CRC-32C checksum of the task file it was made from,
+ * and is only used when all three still match. It is laid out in columns rather than per task: the
+ * types, statuses, description lengths, descriptions and dates of all tasks each follow one another,
+ * so reading it back is a few bulk reads and no text parsing. The image holds exactly what parsing
+ * the task file gives back, i.e. descriptions without surrounding spaces, encoded in the same charset
+ * as the file, and times to the minute.
+ */
+class TaskCache {
+
+    private static final int MAGIC = 0x43425443; // "CBTC"
+    private static final int VERSION = 1;
+
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte NOT_RECURRING = -1;
+    private static final long NO_UNTIL = Long.MIN_VALUE;
+
+    private final Path tasksFile;
+    private final Path cacheFile;
+    private long verifiedChecksum = -1; // Of the task file, once read() found the image current
+
+    private TaskCache(Path tasksFile, Path cacheFile) {
+        this.tasksFile = tasksFile;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Returns the cache that belongs to a task file.
+     *
+     * @param tasksFile Path to the task file.
+     */
+    static TaskCache forTasksFile(Path tasksFile) {
+        String fileName = tasksFile.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        String base = extension > 0 ? fileName.substring(0, extension) : fileName;
+        return new TaskCache(tasksFile, tasksFile.resolveSibling(base + ".cache"));
+    }
+
+    /**
+     * Returns a checksum that starts empty, for the bytes of a task file.
+     */
+    static Checksum newChecksum() {
+        return new CRC32C();
+    }
+
+    /**
+     * Returns the tasks in the image, if the task file has not changed since the image was written.
+     *
+     * @return The tasks in file order, or {@code null} if there is no usable image.
+     */
+    ArrayList<Task> read() {
+        try {
+            ByteBuffer image = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+            if (image.getInt() != MAGIC || image.getInt() != VERSION
+                    || !readCharsetName(image).equals(Charset.defaultCharset().name())
+                    || image.getLong() != Files.size(tasksFile)
+                    || image.getLong() != Files.getLastModifiedTime(tasksFile).toMillis()) {
+                return null;
+            }
+            long checksum = checksumOf(tasksFile);
+            if (image.getLong() != checksum) {
+                return null;
+            }
+            ArrayList<Task> tasks = readTasks(image);
+            verifiedChecksum = checksum;
+            return tasks;
+        } catch (IOException | RuntimeException e) {
+            return null; // Missing, truncated or corrupt images are simply rebuilt from the task file
+        }
+    }
+
+    /**
+     * Returns the checksum of the task file that {@link #read()} last found the image current for,
+     * so that the file need not be read again to learn it.
+     *
+     * @return The checksum, or -1 if no image has been read.
+     */
+    long getVerifiedChecksum() {
+        return verifiedChecksum;
+    }
+
+    /**
+     * Writes an image of the given tasks, which have just been written to the task file.
+     * Failing to write the image is not an error; the next start then parses the task file.
+     *
+     * @param tasks    The tasks, in the order they appear in the file.
+     * @param checksum Checksum of the bytes written to the task file.
+     */
+    void write(List<Task> tasks, long checksum) {
+        Path temporary = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                byte[] charsetName = Charset.defaultCharset().name().getBytes(StandardCharsets.US_ASCII);
+                out.writeShort(charsetName.length);
+                out.write(charsetName);
+                out.writeLong(Files.size(tasksFile));
+                out.writeLong(Files.getLastModifiedTime(tasksFile).toMillis());
+                out.writeLong(checksum);
+                writeTasks(tasks, out);
+            }
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(cacheFile); // Never leave an image behind that might be mistaken as current
+            } catch (IOException ignored) {
+                // The checksum still guards against using it
+            }
+        }
+    }
+
+    /**
+     * Returns the checksum of a whole file.
+     *
+     * @param file File to read.
+     * @throws IOException If the file cannot be read.
+     */
+    static long checksumOf(Path file) throws IOException {
+        Checksum checksum = newChecksum();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    private static void writeTasks(List<Task> tasks, DataOutputStream out) throws IOException {
+        int n = tasks.size();
+        byte[][] descriptions = new byte[n][];
+        out.writeInt(n);
+        for (Task task : tasks) {
+            out.writeByte(task instanceof Event ? EVENT : task instanceof Deadline ? DEADLINE : TODO);
+        }
+        for (Task task : tasks) {
+            out.writeBoolean(task.isDone());
+        }
+        for (int i = 0; i < n; i++) {
+            descriptions[i] = tasks.get(i).getDescription().trim().getBytes(Charset.defaultCharset());
+            out.writeInt(descriptions[i].length);
+        }
+        for (byte[] description : descriptions) {
+            out.write(description);
+        }
+
+        // Dates and recurrences of the deadlines and events only, in task order
+        for (Task task : tasks) {
+            if (task instanceof Event event) {
+                out.writeLong(toMinutes(event.getFrom()));
+                out.writeLong(toMinutes(event.getTo()));
+            } else if (task instanceof Deadline deadline) {
+                out.writeLong(toMinutes(deadline.getBy()));
+            }
+        }
+        for (Task task : tasks) {
+            Recurrence recurrence = task instanceof Event event ? event.getRecurrence()
+                    : task instanceof Deadline deadline ? deadline.getRecurrence() : null;
+            if (task instanceof Event || task instanceof Deadline) {
+                out.writeByte(recurrence == null ? NOT_RECURRING : recurrence.getFrequency().ordinal());
+            }
+            if (recurrence != null) {
+                out.writeLong(recurrence.getUntil() == null ? NO_UNTIL : toMinutes(recurrence.getUntil()));
+                out.writeInt(recurrence.getCount());
+            }
+        }
+    }
+
+    private static ArrayList<Task> readTasks(ByteBuffer image) {
+        int n = image.getInt();
+        byte[] types = new byte[n];
+        byte[] done = new byte[n];
+        int[] lengths = new int[n];
+        image.get(types);
+        image.get(done);
+        image.asIntBuffer().get(lengths);
+        image.position(image.position() + n * Integer.BYTES);
+
+        String[] descriptions = new String[n];
+        for (int i = 0; i < n; i++) {
+            descriptions[i] = new String(image.array(), image.position(), lengths[i], Charset.defaultCharset());
+            image.position(image.position() + lengths[i]);
+        }
+
+        LocalDateTime[] firstDates = new LocalDateTime[n];
+        LocalDateTime[] secondDates = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            if (types[i] != TODO) {
+                firstDates[i] = fromMinutes(image.getLong());
+            }
+            if (types[i] == EVENT) {
+                secondDates[i] = fromMinutes(image.getLong());
+            }
+        }
+
+        Recurrence.Frequency[] frequencies = Recurrence.Frequency.values();
+        ArrayList<Task> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Recurrence recurrence = null;
+            if (types[i] != TODO) {
+                byte frequency = image.get();
+                if (frequency != NOT_RECURRING) {
+                    long until = image.getLong();
+                    int count = image.getInt();
+                    recurrence = new Recurrence(frequencies[frequency], until == NO_UNTIL ? null : fromMinutes(until),
+                            count);
+                }
+            }
+
+            Task task = switch (types[i]) {
+                case TODO -> new Todo(descriptions[i]);
+                case DEADLINE -> new Deadline(descriptions[i], firstDates[i], recurrence);
+                case EVENT -> new Event(descriptions[i], firstDates[i], secondDates[i], recurrence);
+                default -> throw new IllegalArgumentException("Unknown task type " + types[i]);
+            };
+            if (done[i] != 0) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static String readCharsetName(ByteBuffer image) {
+        int length = image.getShort();
+        String name = new String(image.array(), image.position(), length, StandardCharsets.US_ASCII);
+        image.position(image.position() + length);
+        return name;
+    }
+
+    static long toMinutes(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.MINUTES).toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,90 @@
+package chatbot.storage;
+
+import java.time.LocalDateTime;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.DateParser;
+import chatbot.task.Task;
+
+/**
+ * Represents one change to a task list, as recorded in a {@link TaskLog}.
+ * Every task gets an id when it is added, which later records of the same task refer to.
+ */
+public sealed interface TaskEvent {
+
+    /** Returns the id of the task the change was made to. */
+    long taskId();
+
+    /** Returns when the change was made. */
+    LocalDateTime at();
+
+    /**
+     * Represents a task being added to the list, normally at the end.
+     *
+     * @param task     The task as it was when added.
+     * @param position Position the task was inserted at, e.g. when a deletion was undone,
+     *                 or {@code -1} if it was added to the end.
+     */
+    record TaskAdded(long taskId, LocalDateTime at, Task task, int position) implements TaskEvent {
+    }
+
+    /**
+     * Represents a task being marked as done or not done.
+     *
+     * @param isDone Whether the task was marked as done rather than as not done.
+     */
+    record TaskMarked(long taskId, LocalDateTime at, boolean isDone) implements TaskEvent {
+    }
+
+    /**
+     * Represents a task being deleted from the list.
+     */
+    record TaskDeleted(long taskId, LocalDateTime at) implements TaskEvent {
+    }
+
+    /**
+     * Returns the line that stores this change in the log, e.g.
+     * {@code added 7 2025-12-01T10:00 [T][ ] read book} or {@code marked 7 2025-12-02T09:30 done}.
+     * A task inserted before the end has its position before it, e.g. {@code added 7 2025-12-01T10:00 @2 [T]...}.
+     */
+    default String toRecord() {
+        String head = taskId() + " " + at() + " ";
+        if (this instanceof TaskAdded added) {
+            return "added " + head + (added.position() < 0 ? "" : "@" + added.position() + " ") + added.task();
+        } else if (this instanceof TaskMarked marked) {
+            return "marked " + head + (marked.isDone() ? "done" : "undone");
+        }
+        return "deleted " + head.trim();
+    }
+
+    /**
+     * Converts a line written by {@link #toRecord()} back into a TaskEvent.
+     *
+     * @param record Stored line.
+     * @return The recorded change.
+     * @throws ChatBotException If the line is not a valid record.
+     */
+    static TaskEvent parse(String record) throws ChatBotException {
+        String[] parts = record.split(" ", 4);
+        if (parts.length < 3) {
+            throw new ChatBotException("OOPS!! This line is not a task log record: " + record);
+        }
+
+        try {
+            long taskId = Long.parseLong(parts[1]);
+            LocalDateTime at = DateParser.parse(parts[2]);
+            String rest = parts.length == 4 ? parts[3] : "";
+            return switch (parts[0]) {
+                case "added" -> rest.startsWith("@")
+                        ? new TaskAdded(taskId, at, Storage.parseTask(rest.substring(rest.indexOf(' ') + 1)),
+                                Integer.parseInt(rest.substring(1, rest.indexOf(' '))))
+                        : new TaskAdded(taskId, at, Storage.parseTask(rest), -1);
+                case "marked" -> new TaskMarked(taskId, at, rest.equals("done"));
+                case "deleted" -> new TaskDeleted(taskId, at);
+                default -> throw new ChatBotException("OOPS!! This line is not a task log record: " + record);
+            };
+        } catch (RuntimeException e) {
+            throw new ChatBotException("OOPS!! This line is not a task log record: " + record);
+        }
+    }
+}
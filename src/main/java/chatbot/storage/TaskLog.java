@@ -0,0 +1,460 @@
+package chatbot.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+import chatbot.task.TaskChange;
+import chatbot.task.TaskList;
+import chatbot.task.TaskListener;
+
+/**
+ * Stores a task list as an append-only log of {@link TaskEvent}s, such as {@code data/tasks.log}
+ * for {@code data/tasks.txt}, instead of rewriting the whole list on every save.
+ * <p>
+ * The log is the source of truth. Every {@value #SNAPSHOT_INTERVAL} records, the whole list is
+ * written to a snapshot file together with the log position it covers, so that loading only has to
+ * replay the records after it. The snapshot and that tail of the log are read in parallel. Only the
+ * latest snapshot is kept, so a task's history and the list at an earlier time are rebuilt from the log.
+ * <p>
+ * As a {@link TaskListener}, the log records every change to the list it loaded. Records are buffered
+ * until {@link #flush()} appends them, which is how the list is saved.
+ */
+public class TaskLog implements TaskListener {
+
+    /** Number of records appended between snapshots, which bounds the records replayed on loading. */
+    static final int SNAPSHOT_INTERVAL = 1000;
+
+    private final Path tasksFile;
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final Clock clock;
+
+    private final Map<Task, Long> ids = new IdentityHashMap<>();
+    private final List<String> pending = new ArrayList<>();
+    private long nextId = 1;
+    private long recordsSinceSnapshot = 0;
+    private SnapshotHeader snapshot; // Latest snapshot, or null if there is none
+    private TaskList tasks;
+
+    /**
+     * The first line of a snapshot file.
+     *
+     * @param offset  Length of the log when the snapshot was taken; later records are not included.
+     * @param nextId  Id the next added task gets.
+     * @param takenAt Time the snapshot was taken, no earlier than any record it includes.
+     */
+    private record SnapshotHeader(long offset, long nextId, LocalDateTime takenAt) {
+    }
+
+    /**
+     * Constructs a TaskLog with the given files. Nothing is read until {@link #load()}.
+     *
+     * @param tasksFile    Plain task file that a new log starts from, if it exists.
+     * @param logFile      Log of changes.
+     * @param snapshotFile Latest snapshot.
+     * @param clock        Clock that timestamps the changes.
+     */
+    public TaskLog(Path tasksFile, Path logFile, Path snapshotFile, Clock clock) {
+        this.tasksFile = tasksFile;
+        this.logFile = logFile;
+        this.snapshotFile = snapshotFile;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the log that belongs to a task file, e.g. {@code data/tasks.log} and {@code data/tasks.snapshot}
+     * for {@code data/tasks.txt}.
+     *
+     * @param tasksFile Path to the plain task file.
+     * @param clock     Clock that timestamps the changes.
+     */
+    public static TaskLog forTasksFile(Path tasksFile, Clock clock) {
+        String name = tasksFile.getFileName().toString();
+        String base = name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+        return new TaskLog(tasksFile, tasksFile.resolveSibling(base + ".log"),
+                tasksFile.resolveSibling(base + ".snapshot"), clock);
+    }
+
+    /**
+     * Rebuilds the task list from the latest snapshot and the log records after it, and starts
+     * recording its changes. If there is no log yet, the list starts from the plain task file,
+     * and each of its tasks is recorded as added now.
+     *
+     * @return The loaded task list.
+     * @throws ChatBotException If the files cannot be read or contain invalid records.
+     */
+    public TaskList load() throws ChatBotException {
+        LinkedHashMap<Long, Task> live;
+        if (Files.exists(logFile)) {
+            repairTail();
+            snapshot = readSnapshotHeader();
+            long offset = snapshot == null ? 0 : snapshot.offset();
+
+            // The snapshot and the tail of the log are independent until the tail is applied
+            CompletableFuture<LinkedHashMap<Long, Task>> snapshotTasks = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readSnapshotTasks();
+                } catch (ChatBotException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            List<TaskEvent> tail = readLog(offset, null);
+            live = join(snapshotTasks);
+            apply(live, tail);
+            recordsSinceSnapshot = tail.size();
+        } else {
+            live = new LinkedHashMap<>();
+        }
+
+        tasks = new TaskList(new ArrayList<>(live.values()));
+        for (Map.Entry<Long, Task> entry : live.entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+        }
+        tasks.addListener(this);
+
+        if (!Files.exists(logFile) && Files.exists(tasksFile)) {
+            tasks.addTasks(new Storage(tasksFile.toString()).load()); // Recorded as added by the listener
+            flush();
+        }
+        return tasks;
+    }
+
+    /**
+     * Appends the changes recorded since the last flush to the log, and takes a snapshot
+     * once {@value #SNAPSHOT_INTERVAL} records have been appended since the previous one.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(logFile.toAbsolutePath().getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String record : pending) {
+                    out.write(record);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving tasks to the task log: " + e.getMessage());
+            return; // Keep the records to retry on the next flush
+        }
+        recordsSinceSnapshot += pending.size();
+        pending.clear();
+
+        if (recordsSinceSnapshot >= SNAPSHOT_INTERVAL) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Returns whether there are changes that have not been appended to the log yet.
+     */
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Returns every recorded change to a task in the loaded list, oldest first.
+     *
+     * @param task Task in the list.
+     * @return Changes to the task, starting with it being added.
+     * @throws ChatBotException If the task is not in the list or the log cannot be read.
+     */
+    public List<TaskEvent> getHistory(Task task) throws ChatBotException {
+        Long id = ids.get(task);
+        if (id == null) {
+            throw new ChatBotException("OOPS!!! That task is not in the task log.");
+        }
+        flush();
+
+        // Only records of this task are parsed; the id is the second field of every record
+        String idField = " " + id + " ";
+        List<TaskEvent> history = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int idStart = line.indexOf(' ');
+                if (idStart >= 0 && line.startsWith(idField, idStart)) {
+                    history.add(TaskEvent.parse(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not read the task log: " + e.getMessage());
+        }
+        return history;
+    }
+
+    /**
+     * Rebuilds the task list as it was at the given time, replaying from the latest snapshot
+     * if it was taken by then, and from the start of the log otherwise.
+     *
+     * @param at Time to rebuild the list at.
+     * @return A new task list with copies of the tasks as they were then.
+     * @throws ChatBotException If the log cannot be read.
+     */
+    public TaskList getTasksAt(LocalDateTime at) throws ChatBotException {
+        flush();
+        LinkedHashMap<Long, Task> live = new LinkedHashMap<>();
+        long offset = 0;
+        if (snapshot != null && !snapshot.takenAt().isAfter(at)) {
+            live = readSnapshotTasks();
+            offset = snapshot.offset();
+        }
+        apply(live, readLog(offset, at));
+        return new TaskList(new ArrayList<>(live.values()));
+    }
+
+    /**
+     * Returns the number of bytes holding the current state: the snapshot and the log records after it.
+     */
+    public long getLiveBytes() {
+        try {
+            long logBytes = Files.exists(logFile) ? Files.size(logFile) : 0;
+            if (snapshot == null) {
+                return logBytes;
+            }
+            return Files.size(snapshotFile) + logBytes - snapshot.offset();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        logAdded(List.of(task), -1);
+    }
+
+    @Override
+    public void tasksAdded(List<Task> added) {
+        logAdded(added, -1);
+    }
+
+    /**
+     * Records each batch of changes in order, using the positions the list reports for added tasks.
+     */
+    @Override
+    public void tasksChanged(List<TaskChange> changes) {
+        for (TaskChange change : changes) {
+            if (change instanceof TaskChange.Added added) {
+                // Tasks are almost always added to the end, which is recorded without a position
+                boolean isAppended = added.position() == ids.size();
+                logAdded(added.tasks(), isAppended ? -1 : added.position());
+            } else if (change instanceof TaskChange.Removed removed) {
+                for (Task task : removed.tasks()) {
+                    taskRemoved(task);
+                }
+            } else if (change instanceof TaskChange.Updated updated) {
+                taskUpdated(updated.task());
+            }
+        }
+    }
+
+    private void logAdded(List<Task> added, int position) {
+        for (Task task : added) {
+            long id = nextId++;
+            ids.put(task, id);
+            pending.add(new TaskEvent.TaskAdded(id, now(), task, position).toRecord());
+            if (position >= 0) {
+                position++;
+            }
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        Long id = ids.remove(task);
+        if (id != null) {
+            pending.add(new TaskEvent.TaskDeleted(id, now()).toRecord());
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        Long id = ids.get(task);
+        if (id != null) {
+            pending.add(new TaskEvent.TaskMarked(id, now(), task.isDone()).toRecord());
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Applies recorded changes, in order, to tasks keyed by id in list order.
+     */
+    private void apply(LinkedHashMap<Long, Task> live, List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            if (event instanceof TaskEvent.TaskAdded added && added.position() >= 0
+                    && added.position() < live.size()) {
+                insert(live, added.position(), added.taskId(), added.task());
+                nextId = Math.max(nextId, added.taskId() + 1);
+            } else if (event instanceof TaskEvent.TaskAdded added) {
+                live.put(added.taskId(), added.task());
+                nextId = Math.max(nextId, added.taskId() + 1);
+            } else if (event instanceof TaskEvent.TaskMarked marked && live.containsKey(marked.taskId())) {
+                if (marked.isDone()) {
+                    live.get(marked.taskId()).markAsDone();
+                } else {
+                    live.get(marked.taskId()).markAsUndone();
+                }
+            } else if (event instanceof TaskEvent.TaskDeleted) {
+                live.remove(event.taskId());
+            }
+        }
+    }
+
+    /**
+     * Inserts a task before the given position. The map is rebuilt, which is fine since insertions
+     * only come from undoing deletions.
+     */
+    private static void insert(LinkedHashMap<Long, Task> live, int position, long taskId, Task task) {
+        List<Map.Entry<Long, Task>> entries = new ArrayList<>(live.entrySet());
+        live.clear();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i == position) {
+                live.put(taskId, task);
+            }
+            live.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    /**
+     * Reads the records from the given byte offset of the log, stopping at the first one after {@code until}.
+     */
+    private List<TaskEvent> readLog(long offset, LocalDateTime until) throws ChatBotException {
+        List<TaskEvent> events = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            channel.position(offset);
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                TaskEvent event = TaskEvent.parse(line);
+                if (until != null && event.at().isAfter(until)) {
+                    break;
+                }
+                events.add(event);
+            }
+        } catch (NoSuchFileException e) {
+            return events;
+        } catch (IOException e) {
+            throw new ChatBotException("Failed to load the task log: " + e.getMessage());
+        }
+        return events;
+    }
+
+    private SnapshotHeader readSnapshotHeader() {
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String[] header = reader.readLine().split(" ");
+            SnapshotHeader read = new SnapshotHeader(Long.parseLong(header[1]), Long.parseLong(header[2]),
+                    LocalDateTime.parse(header[3]));
+            return read.offset() <= Files.size(logFile) ? read : null;
+        } catch (IOException | RuntimeException e) {
+            return null; // Without a usable snapshot, the whole log is replayed
+        }
+    }
+
+    private LinkedHashMap<Long, Task> readSnapshotTasks() throws ChatBotException {
+        LinkedHashMap<Long, Task> live = new LinkedHashMap<>();
+        if (snapshot == null) {
+            return live;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            reader.readLine(); // Header
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int space = line.indexOf(' ');
+                live.put(Long.parseLong(line.substring(0, space)), Storage.parseTask(line.substring(space + 1)));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ChatBotException("Failed to load the task snapshot: " + e.getMessage());
+        }
+        nextId = Math.max(nextId, snapshot.nextId());
+        return live;
+    }
+
+    /**
+     * Writes the whole list to a new snapshot file, then moves it over the previous one,
+     * so a crash while writing leaves the previous snapshot in place.
+     */
+    private void writeSnapshot() {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            SnapshotHeader header = new SnapshotHeader(Files.size(logFile), nextId, now());
+            try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                out.write("snapshot " + header.offset() + " " + header.nextId() + " " + header.takenAt());
+                out.write('\n');
+                for (Task task : tasks.getTasks()) {
+                    out.write(ids.get(task) + " " + task);
+                    out.write('\n');
+                }
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshot = header;
+            recordsSinceSnapshot = 0;
+        } catch (IOException e) {
+            System.err.println("Error writing task snapshot: " + e.getMessage()); // The log alone is still complete
+        }
+    }
+
+    /**
+     * Cuts off a partly written last record, e.g. after a crash during a flush,
+     * so that the next record is not appended to it.
+     */
+    private void repairTail() throws ChatBotException {
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            while (end > 0) {
+                lastByte.clear();
+                channel.read(lastByte, end - 1);
+                if (lastByte.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+        } catch (IOException e) {
+            throw new ChatBotException("Failed to load the task log: " + e.getMessage());
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws ChatBotException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ChatBotException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
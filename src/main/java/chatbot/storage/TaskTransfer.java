@@ -0,0 +1,173 @@
+package chatbot.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+
+/**
+ * Imports tasks from and exports tasks to CSV ({@code .csv}) and iCalendar ({@code .ics}) files.
+ * <p>
+ * Both directions stream the file. An import reads raw records on the calling thread and hands them
+ * to the common fork/join pool in batches, so records are parsed in parallel while the next batch is
+ * being read. Only a bounded number of batches are in flight at once, so a fast disk cannot pile up
+ * unparsed text in memory. Parsed batches are collected in file order.
+ * <p>
+ * Files ending in an extra {@code .gz}, e.g. {@code tasks.csv.gz}, are compressed and decompressed as they stream.
+ */
+public class TaskTransfer {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final int MAX_BATCHES_IN_FLIGHT = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+    /**
+     * Represents the result of an import.
+     *
+     * @param tasks   Tasks read from the file, in file order.
+     * @param skipped Number of records that could not be converted into tasks.
+     */
+    public record Imported(List<Task> tasks, int skipped) {
+    }
+
+    private record Batch(List<Task> tasks, int skipped) {
+    }
+
+    private TaskTransfer() {
+    }
+
+    /**
+     * Reads every task in a CSV or iCalendar file. Records that cannot be converted into a task,
+     * e.g. events repeating every other week, are skipped and counted.
+     *
+     * @param file File ending in {@code .csv} or {@code .ics}, optionally followed by {@code .gz}.
+     * @return The tasks read, in file order, and the number of skipped records.
+     * @throws ChatBotException If the file type is not supported or the file cannot be read.
+     */
+    public static Imported importFrom(Path file) throws ChatBotException {
+        RecordFormat format = formatOf(file);
+        List<Task> tasks = new ArrayList<>();
+        int skipped = 0;
+
+        Deque<CompletableFuture<Batch>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openForReading(file),
+                StandardCharsets.UTF_8))) {
+            List<String> records = new ArrayList<>(BATCH_SIZE);
+            for (String record = format.readRecord(reader); record != null; record = format.readRecord(reader)) {
+                records.add(record);
+                if (records.size() == BATCH_SIZE) {
+                    List<String> batch = records;
+                    inFlight.add(CompletableFuture.supplyAsync(() -> parseBatch(format, batch)));
+                    records = new ArrayList<>(BATCH_SIZE);
+                }
+                if (inFlight.size() > MAX_BATCHES_IN_FLIGHT) {
+                    skipped += collect(inFlight.remove(), tasks);
+                }
+            }
+            inFlight.add(CompletableFuture.completedFuture(parseBatch(format, records)));
+        } catch (NoSuchFileException e) {
+            throw new ChatBotException("OOPS!!! There is no file called " + file + ".");
+        } catch (IOException e) {
+            inFlight.forEach(batch -> batch.cancel(false));
+            throw new ChatBotException("OOPS!!! Could not read " + file + ": " + e.getMessage());
+        }
+
+        while (!inFlight.isEmpty()) {
+            skipped += collect(inFlight.remove(), tasks);
+        }
+        return new Imported(tasks, skipped);
+    }
+
+    /**
+     * Writes every task in the list to a CSV or iCalendar file, replacing the file if it exists.
+     *
+     * @param file  File ending in {@code .csv} or {@code .ics}, optionally followed by {@code .gz}.
+     * @param tasks Tasks to write.
+     * @throws ChatBotException If the file type is not supported or the file cannot be written.
+     */
+    public static void exportTo(Path file, TaskList tasks) throws ChatBotException {
+        RecordFormat format = formatOf(file);
+        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(openForWriting(file),
+                StandardCharsets.UTF_8))) {
+            format.writeHeader(out);
+            for (Task task : tasks.getTasks()) {
+                format.write(task, out);
+            }
+            format.writeFooter(out);
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isCompressed(Path file) {
+        return file.getFileName() != null
+                && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(Storage.COMPRESSED_EXTENSION);
+    }
+
+    private static InputStream openForReading(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return isCompressed(file) ? new GZIPInputStream(in, 1 << 16) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static OutputStream openForWriting(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return isCompressed(file) ? BlockGzip.newOutputStream(out) : out;
+    }
+
+    private static RecordFormat formatOf(Path file) throws ChatBotException {
+        String name = file.getFileName() == null ? "" : file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (isCompressed(file)) {
+            name = name.substring(0, name.length() - Storage.COMPRESSED_EXTENSION.length());
+        }
+        if (name.endsWith(".csv")) {
+            return new CsvFormat();
+        } else if (name.endsWith(".ics")) {
+            return new IcsFormat();
+        }
+        throw new ChatBotException(
+                "OOPS!!! Only .csv and .ics files, optionally gzipped, can be imported and exported.");
+    }
+
+    private static Batch parseBatch(RecordFormat format, List<String> records) {
+        List<Task> tasks = new ArrayList<>(records.size());
+        int skipped = 0;
+        for (String record : records) {
+            try {
+                tasks.add(format.parse(record));
+            } catch (ChatBotException | DateTimeException | IllegalArgumentException e) {
+                skipped++;
+            }
+        }
+        return new Batch(tasks, skipped);
+    }
+
+    private static int collect(CompletableFuture<Batch> future, List<Task> tasks) {
+        Batch batch = future.join();
+        tasks.addAll(batch.tasks());
+        return batch.skipped();
+    }
+}
@@ -0,0 +1,402 @@
+package chatbot.storage;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+import chatbot.task.TaskChange;
+import chatbot.task.TaskList;
+import chatbot.task.TaskListener;
+
+/**
+ * Manages the named task lists in a data directory, such as {@code tasks} and {@code work},
+ * each stored in its own file ({@code data/work.txt}) with its own archive.
+ * <p>
+ * A list is only loaded when it is first used. Loaded lists are kept in least-recently-used order,
+ * and once their estimated memory use exceeds the budget, the least recently used lists are saved
+ * if needed and dropped from memory, except for the list in use. Every list tracks whether it changed
+ * since it was last saved, so saving only ever rewrites the files of lists that actually changed.
+ * <p>
+ * Once {@link #watchForExternalEdits()} is called, task files that other programs change are noted,
+ * and {@link #reloadExternalEdits()} merges those changes into the loaded lists.
+ */
+public class Workspace {
+
+    /**
+     * Ways of storing each list.
+     */
+    public enum Format {
+        /** A task file, e.g. {@code data/work.txt}, rewritten whenever the list changes. */
+        TEXT,
+        /** A compressed task file, e.g. {@code data/work.txt.gz}, rewritten whenever the list changes. */
+        COMPRESSED,
+        /** A {@link TaskLog} that changes are appended to, e.g. {@code data/work.log}. */
+        EVENT_LOG,
+        /** A {@link RecordFile} of fixed-width records updated in place, e.g. {@code data/work.records}. */
+        RECORDS
+    }
+
+    /** Rough number of bytes a task takes in memory for every byte of its stored line. */
+    private static final int MEMORY_PER_STORED_BYTE = 8;
+
+    /** Rough number of bytes of stored lines for every byte of a compressed task file. */
+    private static final int STORED_BYTES_PER_COMPRESSED_BYTE = 6;
+
+    private static final String FILE_EXTENSION = ".txt";
+    private static final String COMPRESSED_FILE_EXTENSION = FILE_EXTENSION + Storage.COMPRESSED_EXTENSION;
+    private static final String NAME_PATTERN = "[A-Za-z0-9_-]{1,64}";
+
+    private final Path directory;
+    private final long memoryBudget;
+    private final Format format;
+    private final String fileExtension;
+    private final Consumer<NamedList> onLoad;
+    private final Consumer<NamedList> onEvict;
+    private final LinkedHashMap<String, NamedList> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private NamedList current;
+    private FileWatcher watcher; // Null until watching for external edits
+    private boolean isArchivePartitioned = false;
+
+    /**
+     * Represents a task list that is loaded in memory, together with its storage and archive.
+     * The list is saved either by rewriting its task file, by appending its changes to its {@link TaskLog}
+     * for event-sourced lists, or by writing its changes in place to its {@link RecordFile}.
+     */
+    public static final class NamedList implements TaskListener {
+        private final String name;
+        private final Path file;
+        private final Storage storage;    // Null for lists saved as a log or records
+        private final TaskLog log;        // Null unless the list is event-sourced
+        private final RecordFile records; // Null unless the list is saved as records
+        private final Archive archive;
+        private final TaskList tasks;
+        private boolean isDirty = false;
+        private long estimatedBytes;
+
+        private NamedList(String name, Path file, TaskList tasks, Storage storage, TaskLog log, RecordFile records,
+                Archive archive) {
+            this.name = name;
+            this.file = file;
+            this.storage = storage;
+            this.log = log;
+            this.records = records;
+            this.archive = archive;
+            this.tasks = tasks;
+            this.tasks.addListener(this);
+            this.estimatedBytes = estimateBytes();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public TaskList getTasks() {
+            return tasks;
+        }
+
+        public Archive getArchive() {
+            return archive;
+        }
+
+        /**
+         * Returns the log of changes to the list.
+         *
+         * @return The task log, or {@code null} if the list is saved as a plain task file.
+         */
+        public TaskLog getLog() {
+            return log;
+        }
+
+        /**
+         * Writes the list to its file if it changed since it was last saved.
+         */
+        public void save() {
+            if (!isDirty) {
+                return;
+            }
+            if (log != null) {
+                log.flush();
+            } else if (records != null) {
+                records.flush();
+            } else {
+                storage.saveToStorage(tasks);
+            }
+            isDirty = false;
+            estimatedBytes = estimateBytes();
+        }
+
+        /**
+         * Merges changes that another program made to the task file into the list.
+         * Where the list and its file differ, the file wins, so the list should be saved before the file
+         * can change underneath it.
+         *
+         * @return What changed in the list.
+         * @throws ChatBotException If the file cannot be reloaded; the list is then left as it was.
+         */
+        private Storage.Reload reload() throws ChatBotException {
+            Storage.Reload reload = storage.reload(tasks);
+            isDirty = false; // The list now matches its file
+            estimatedBytes = estimateBytes();
+            return reload;
+        }
+
+        private long estimateBytes() {
+            try {
+                long storedBytes = log != null ? log.getLiveBytes() : records != null ? records.getLiveBytes()
+                        : Files.exists(file) ? Files.size(file) : 0;
+                if (file.toString().endsWith(Storage.COMPRESSED_EXTENSION)) {
+                    storedBytes *= STORED_BYTES_PER_COMPRESSED_BYTE;
+                }
+                return storedBytes * MEMORY_PER_STORED_BYTE;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public void taskAdded(Task task) {
+            isDirty = true;
+        }
+
+        @Override
+        public void tasksChanged(List<TaskChange> changes) {
+            isDirty = true;
+        }
+
+        @Override
+        public void taskRemoved(Task task) {
+            isDirty = true;
+        }
+
+        @Override
+        public void taskUpdated(Task task) {
+            isDirty = true;
+        }
+    }
+
+    /**
+     * Constructs a Workspace over the lists stored in the given directory. No list is loaded yet.
+     *
+     * @param directory    Directory holding one file per list.
+     * @param memoryBudget Estimated bytes the loaded lists may use before least recently used ones are dropped.
+     * @param format       How lists are stored.
+     * @param onLoad       Called after a list is loaded, e.g. to schedule its reminders.
+     * @param onEvict      Called before a list is dropped from memory, e.g. to cancel its reminders.
+     */
+    public Workspace(Path directory, long memoryBudget, Format format, Consumer<NamedList> onLoad,
+            Consumer<NamedList> onEvict) {
+        this.directory = directory;
+        this.memoryBudget = memoryBudget;
+        this.format = format;
+        this.fileExtension = format == Format.COMPRESSED ? COMPRESSED_FILE_EXTENSION : FILE_EXTENSION;
+        this.onLoad = onLoad;
+        this.onEvict = onEvict;
+    }
+
+    /**
+     * Switches to the named list, loading it if it is not in memory and creating it if it does not exist.
+     * Other lists may be dropped from memory afterwards to stay within the memory budget.
+     * A task file that only exists in the other of the plain and compressed forms is converted: its tasks and
+     * archive are read from the old files and written to new ones, and the old files are left as they are.
+     *
+     * @param name Name of the list.
+     * @return The list now in use.
+     * @throws ChatBotException If the name is invalid or the list file cannot be loaded.
+     */
+    public NamedList use(String name) throws ChatBotException {
+        if (!name.matches(NAME_PATTERN)) {
+            throw new ChatBotException("OOPS!!! List names can only have letters, digits, - and _.");
+        }
+
+        NamedList list = loaded.get(name); // Also marks the list as most recently used
+        if (list == null) {
+            Path file = directory.resolve(name + fileExtension);
+            Path otherForm = directory.resolve(name + (fileExtension.equals(FILE_EXTENSION)
+                    ? COMPRESSED_FILE_EXTENSION : FILE_EXTENSION));
+            if (format == Format.EVENT_LOG) {
+                TaskLog log = TaskLog.forTasksFile(file, Clock.systemDefaultZone());
+                list = new NamedList(name, file, log.load(), null, log, null, archiveFor(file));
+            } else if (format == Format.RECORDS) {
+                RecordFile records = RecordFile.forTasksFile(file);
+                list = new NamedList(name, file, records.load(), null, null, records, archiveFor(file));
+            } else if (!Files.exists(file) && Files.exists(otherForm)) {
+                list = convert(name, otherForm, file);
+            } else {
+                Storage storage = new Storage(file.toString()); // Remembers the file it loaded, for reloads
+                list = new NamedList(name, file, new TaskList(storage.load()), storage, null, null, archiveFor(file));
+            }
+            add(list);
+        }
+        current = list;
+        evictOverBudget();
+        return list;
+    }
+
+    /**
+     * Switches to an empty list under the given name, e.g. after its file failed to load.
+     * The task file is overwritten with the list's contents on the next save, even for lists kept as logs
+     * or records, so that a log or record file that failed to load is left as it is.
+     *
+     * @param name Name of the list.
+     * @return The list now in use.
+     */
+    public NamedList useEmpty(String name) {
+        Path file = directory.resolve(name + fileExtension);
+        NamedList list = new NamedList(name, file, new TaskList(), new Storage(file.toString()), null, null,
+                archiveFor(file));
+        add(list);
+        current = list;
+        return list;
+    }
+
+    /**
+     * Splits the archive of every list used from now on into one file per month (see {@link PartitionedArchive}),
+     * so that looking up archived tasks in a date range only reads the months it overlaps.
+     * Archives kept in a single file are split when first used.
+     */
+    public void partitionArchivesByMonth() {
+        isArchivePartitioned = true;
+    }
+
+    /** Returns the list in use. */
+    public NamedList getCurrent() {
+        return current;
+    }
+
+    /** Returns the names of the lists currently held in memory. */
+    public Set<String> getLoadedNames() {
+        return Collections.unmodifiableSet(loaded.keySet());
+    }
+
+    /**
+     * Returns the names of every list in the directory, loaded or not, in alphabetical order.
+     *
+     * @throws ChatBotException If the directory cannot be read.
+     */
+    public List<String> getNames() throws ChatBotException {
+        TreeSet<String> names = new TreeSet<>(loaded.keySet());
+        // Event-sourced lists and lists of records may only have a log or records file
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{txt,txt.gz,log,records}")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.endsWith(COMPRESSED_FILE_EXTENSION)
+                        ? fileName.substring(0, fileName.length() - COMPRESSED_FILE_EXTENSION.length())
+                        : fileName.substring(0, fileName.lastIndexOf('.'));
+                if (name.matches(NAME_PATTERN)) { // Skips archives such as tasks.archive.txt
+                    names.add(name);
+                }
+            }
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not read the list directory: " + e.getMessage());
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Saves every loaded list that changed since it was last saved. Unchanged lists are not written.
+     */
+    public void saveDirty() {
+        for (NamedList list : loaded.values()) {
+            list.save();
+        }
+    }
+
+    /**
+     * Starts noting task files in the directory that other programs change. Lists saved as {@link TaskLog}s
+     * or {@link RecordFile}s are not watched, since only this program writes their files.
+     *
+     * @throws ChatBotException If the directory cannot be watched.
+     */
+    public void watchForExternalEdits() throws ChatBotException {
+        if (format == Format.EVENT_LOG || format == Format.RECORDS || watcher != null) {
+            return;
+        }
+        try {
+            watcher = new FileWatcher(directory);
+        } catch (IOException e) {
+            throw new ChatBotException("OOPS!!! Could not watch " + directory + " for changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Merges the changes that other programs made to the files of loaded lists since this was last called.
+     * Lists that are not loaded need nothing, since they are read from their files when next used.
+     *
+     * @return What changed in each list that changed, by list name.
+     * @throws ChatBotException If a changed file cannot be reloaded. Lists after it are reloaded next time.
+     */
+    public Map<String, Storage.Reload> reloadExternalEdits() throws ChatBotException {
+        Map<String, Storage.Reload> reloads = new LinkedHashMap<>();
+        if (watcher == null) {
+            return reloads;
+        }
+
+        boolean hasOverflowed = watcher.takeOverflow();
+        for (NamedList list : loaded.values()) {
+            if (list.storage == null || !watcher.takeChanged(list.file) && !hasOverflowed) {
+                continue;
+            }
+            Storage.Reload reload = list.reload();
+            if (!reload.isEmpty()) {
+                reloads.put(list.name, reload);
+            }
+        }
+        return reloads;
+    }
+
+    /**
+     * Loads a list from its file in the other form and copies its archive, to be saved in this form.
+     */
+    private NamedList convert(String name, Path oldFile, Path file) throws ChatBotException {
+        TaskList tasks = new TaskList(new Storage(oldFile.toString()).load());
+        NamedList list = new NamedList(name, file, tasks, new Storage(file.toString()), null, null, archiveFor(file));
+        list.getArchive().append(archiveFor(oldFile).getTasks().getTasks());
+        list.isDirty = true;
+        list.save(); // Before the new, still empty task file could be mistaken for the list
+        return list;
+    }
+
+    private Archive archiveFor(Path file) {
+        return Archive.forTasksFile(file.toString(), isArchivePartitioned);
+    }
+
+    private void add(NamedList list) {
+        loaded.put(list.name, list);
+        onLoad.accept(list);
+    }
+
+    /**
+     * Drops least recently used lists, other than the one in use, until the loaded lists fit the budget.
+     */
+    private void evictOverBudget() {
+        long total = 0;
+        for (NamedList list : loaded.values()) {
+            total += list.estimatedBytes;
+        }
+
+        Iterator<Map.Entry<String, NamedList>> eldestFirst = loaded.entrySet().iterator();
+        while (total > memoryBudget && eldestFirst.hasNext()) {
+            NamedList list = eldestFirst.next().getValue();
+            if (list == current) {
+                continue;
+            }
+            list.save();
+            onEvict.accept(list);
+            eldestFirst.remove();
+            total -= list.estimatedBytes;
+        }
+    }
+}
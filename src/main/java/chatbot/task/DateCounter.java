@@ -0,0 +1,93 @@
+package chatbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Counts dates and answers "how many dates are before time t" for a few moving times t, such as now
+ * and now plus 24 hours, without scanning.
+ * <p>
+ * Each {@link Cursor} remembers the time it was last asked about and the number of dates before it.
+ * Adding or removing a date adjusts every cursor in O(1). When a cursor is asked about a later time,
+ * only the dates between the old and new time are visited. Every date is crossed at most once for
+ * each direction a cursor moves, so frequent polling with a steadily advancing clock is O(1) amortized.
+ */
+class DateCounter {
+
+    /**
+     * Represents a moving time and the number of counted dates strictly before it.
+     */
+    final class Cursor {
+        private LocalDateTime time = LocalDateTime.MIN;
+        private int countBefore = 0;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves this cursor to the given time and returns the number of counted dates strictly before it.
+         *
+         * @param newTime Time to move to.
+         */
+        int countBefore(LocalDateTime newTime) {
+            if (newTime.isAfter(time)) {
+                for (int count : counts.subMap(time, true, newTime, false).values()) {
+                    countBefore += count;
+                }
+            } else if (newTime.isBefore(time)) {
+                for (int count : counts.subMap(newTime, true, time, false).values()) {
+                    countBefore -= count;
+                }
+            }
+            time = newTime;
+            return countBefore;
+        }
+    }
+
+    private final TreeMap<LocalDateTime, Integer> counts = new TreeMap<>();
+    private final List<Cursor> cursors = new ArrayList<>();
+
+    /**
+     * Creates a cursor over this counter, starting before every date.
+     */
+    Cursor newCursor() {
+        Cursor cursor = new Cursor();
+        cursors.add(cursor);
+        return cursor;
+    }
+
+    /**
+     * Counts one more occurrence of the given date.
+     */
+    void add(LocalDateTime date) {
+        counts.merge(date, 1, Integer::sum);
+        for (Cursor cursor : cursors) {
+            if (date.isBefore(cursor.time)) {
+                cursor.countBefore++;
+            }
+        }
+    }
+
+    /**
+     * Counts one less occurrence of the given date. Does nothing if the date is not counted.
+     */
+    void remove(LocalDateTime date) {
+        Integer count = counts.get(date);
+        if (count == null) {
+            return;
+        }
+
+        if (count == 1) {
+            counts.remove(date);
+        } else {
+            counts.put(date, count - 1);
+        }
+        for (Cursor cursor : cursors) {
+            if (date.isBefore(cursor.time)) {
+                cursor.countBefore--;
+            }
+        }
+    }
+}
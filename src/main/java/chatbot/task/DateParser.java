@@ -0,0 +1,353 @@
+package chatbot.task;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import chatbot.exception.ChatBotException;
+
+/**
+ * Parses the dates typed by the user and the dates stored in data files.
+ * <p>
+ * Recognizes, ignoring case:
+ * <ul>
+ *     <li>{@code d/M/yyyy HHmm}, e.g. {@code 2/12/2025 1800}</li>
+ *     <li>ISO dates, e.g. {@code 2025-12-02T18:00}, {@code 2025-12-02 18:00:30} or {@code 2025-12-02}</li>
+ *     <li>the stored form {@code MMM d yyyy, HH:mm}, e.g. {@code Dec 2 2025, 18:00}</li>
+ *     <li>{@code today}, {@code tomorrow}, a weekday such as {@code fri} (today or the coming Friday)
+ *     or {@code next fri} (the coming Friday, never today), e.g. {@code tomorrow 5pm} or {@code next mon 0900}</li>
+ * </ul>
+ * Times may be written as {@code 1800}, {@code 18:00}, {@code 6pm} or {@code 6:30pm}, and a date without
+ * a time means the start of that day.
+ * <p>
+ * These shapes are read character by character, without the general {@link DateTimeFormatter} machinery,
+ * since loading a data file parses a date or two on every line. Only unusual ISO forms, such as ones
+ * with fractions of a second, and month names in another locale fall back to a formatter.
+ */
+public final class DateParser {
+
+    private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june", "july",
+        "august", "september", "october", "november", "december"};
+    private static final String[] WEEKDAYS = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday",
+        "sunday"};
+
+    // Month names in the default locale, as written by task toString() methods
+    private static final DateTimeFormatter STORED_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
+    private static final DateTimeFormatter[] FALLBACK_FORMATS = {DateTimeFormatter.ISO_LOCAL_DATE_TIME, STORED_FORMAT};
+
+    private static final String FORMATS_HINT = "Try d/M/yyyy HHmm, 2025-12-02T18:00, Dec 2 2025, 18:00, "
+            + "or today, tomorrow or next mon with a time like 5pm or 0900.";
+
+    private final String text;
+    private int pos = 0;
+
+    private DateParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a date in any of the recognized forms, reading {@code today} and weekdays by the system clock.
+     *
+     * @param text The date, e.g. {@code 2/12/2025 1800} or {@code tomorrow 5pm}.
+     * @return The parsed date and time.
+     * @throws ChatBotException If the text is not a date in a recognized form.
+     */
+    public static LocalDateTime parse(String text) throws ChatBotException {
+        return parse(text, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Parses a date in any of the recognized forms.
+     *
+     * @param text  The date, e.g. {@code 2/12/2025 1800} or {@code tomorrow 5pm}.
+     * @param clock Clock that {@code today}, {@code tomorrow} and weekdays are counted from.
+     * @return The parsed date and time.
+     * @throws ChatBotException If the text is not a date in a recognized form, or names a day that does not exist.
+     */
+    public static LocalDateTime parse(String text, Clock clock) throws ChatBotException {
+        String trimmed = text.trim();
+        LocalDateTime parsed;
+        try {
+            parsed = new DateParser(trimmed).parseAbsolute();
+            if (parsed == null) {
+                parsed = new DateParser(trimmed.toLowerCase(Locale.ROOT)).parseRelative(LocalDate.now(clock));
+            }
+            if (parsed == null) {
+                parsed = parseWithFormatters(trimmed);
+            }
+        } catch (DateTimeException e) {
+            // The right shape, but e.g. the 31st of February or hour 25
+            throw new ChatBotException("OOPS!!! There is no such date as \"" + trimmed + "\".");
+        }
+
+        if (parsed == null) {
+            throw new ChatBotException("OOPS!!! I don't understand the date \"" + trimmed + "\". " + FORMATS_HINT);
+        }
+        return parsed;
+    }
+
+    /**
+     * Reads a date written with digits or a month name, or returns null if the text has another shape.
+     */
+    private LocalDateTime parseAbsolute() {
+        if (pos == text.length()) {
+            return null;
+        }
+        if (Character.isLetter(text.charAt(pos))) {
+            return parseMonthFirst();
+        }
+
+        int first = readNumber(4);
+        if (first < 0 || pos == text.length()) {
+            return null;
+        }
+        if (text.charAt(pos) == '/') {
+            return parseSlashed(first);
+        }
+        if (text.charAt(pos) == '-' && pos == 4) {
+            return parseIso(first);
+        }
+        return null;
+    }
+
+    /**
+     * Reads {@code d/M/yyyy} and an optional time, the day having been read already.
+     */
+    private LocalDateTime parseSlashed(int day) {
+        pos++;
+        int month = readNumber(2);
+        if (month < 0 || !skip('/')) {
+            return null;
+        }
+        int year = readFixedNumber(4);
+        if (year < 0) {
+            return null;
+        }
+        return atTimeOrStartOfDay(LocalDate.of(year, month, day));
+    }
+
+    /**
+     * Reads {@code yyyy-MM-dd}, optionally followed by {@code T} or a space and {@code HH:mm[:ss]},
+     * the year having been read already.
+     */
+    private LocalDateTime parseIso(int year) {
+        pos++;
+        int month = readFixedNumber(2);
+        if (month < 0 || !skip('-')) {
+            return null;
+        }
+        int day = readFixedNumber(2);
+        if (day < 0) {
+            return null;
+        }
+        LocalDate date = LocalDate.of(year, month, day);
+        if (pos == text.length()) {
+            return date.atStartOfDay();
+        }
+        if (text.charAt(pos) != 'T' && text.charAt(pos) != ' ') {
+            return null;
+        }
+
+        pos++;
+        int hour = readFixedNumber(2);
+        if (hour < 0 || !skip(':')) {
+            return null;
+        }
+        int minute = readFixedNumber(2);
+        int second = 0;
+        if (minute >= 0 && skip(':')) {
+            second = readFixedNumber(2);
+        }
+        if (minute < 0 || second < 0 || pos != text.length()) {
+            return null; // Fractions of a second are left to the ISO formatter
+        }
+        return date.atTime(hour, minute, second);
+    }
+
+    /**
+     * Reads {@code MMM d yyyy}, as in the stored form {@code Dec 2 2025, 18:00}, and an optional time.
+     */
+    private LocalDateTime parseMonthFirst() {
+        int month = readName(MONTHS);
+        if (month < 0 || !skip(' ')) {
+            return null;
+        }
+        int day = readNumber(2);
+        if (day < 0 || !skip(' ')) {
+            return null;
+        }
+        int year = readFixedNumber(4);
+        if (year < 0) {
+            return null;
+        }
+        skip(',');
+        return atTimeOrStartOfDay(LocalDate.of(year, month + 1, day));
+    }
+
+    /**
+     * Reads {@code today}, {@code tomorrow}, {@code [next] weekday} or a time on its own meaning today,
+     * each optionally followed by a time. The text must be in lower case.
+     */
+    private LocalDateTime parseRelative(LocalDate today) {
+        if (pos == text.length()) {
+            return null;
+        }
+        if (isDigit(text.charAt(pos))) {
+            int minuteOfDay = readTime();
+            return minuteOfDay < 0 ? null : today.atStartOfDay().plusMinutes(minuteOfDay);
+        }
+
+        LocalDate date;
+        if (skipWord("today")) {
+            date = today;
+        } else if (skipWord("tomorrow")) {
+            date = today.plusDays(1);
+        } else {
+            boolean isNext = skipWord("next ");
+            int weekday = readName(WEEKDAYS);
+            if (weekday < 0) {
+                return null;
+            }
+            int daysAhead = DayOfWeek.of(weekday + 1).getValue() - today.getDayOfWeek().getValue();
+            if (daysAhead < 0 || daysAhead == 0 && isNext) {
+                daysAhead += 7;
+            }
+            date = today.plusDays(daysAhead);
+        }
+        return atTimeOrStartOfDay(date);
+    }
+
+    /**
+     * Reads an optional space and time up to the end of the text.
+     */
+    private LocalDateTime atTimeOrStartOfDay(LocalDate date) {
+        if (pos == text.length()) {
+            return date.atStartOfDay();
+        }
+        if (!skip(' ')) {
+            return null;
+        }
+        int minuteOfDay = readTime();
+        return minuteOfDay < 0 ? null : date.atTime(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Reads a time up to the end of the text, as {@code HHmm}, {@code H:mm}, {@code Ham} or {@code H:mmpm}.
+     *
+     * @return The minute of the day, or -1 if the rest of the text is not a valid time.
+     */
+    private int readTime() {
+        int start = pos;
+        int hour = readNumber(4);
+        if (hour < 0) {
+            return -1;
+        }
+
+        int minute = 0;
+        if (pos - start == 4) {
+            minute = hour % 100;
+            hour /= 100;
+        } else if (pos - start > 2) {
+            return -1;
+        } else if (skip(':')) {
+            minute = readFixedNumber(2);
+        }
+
+        if (skipWord("am") || skipWord("AM")) {
+            hour = hour == 12 ? 0 : hour > 12 ? -1 : hour;
+        } else if (skipWord("pm") || skipWord("PM")) {
+            hour = hour == 12 ? 12 : hour > 12 ? -1 : hour + 12;
+        }
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || pos != text.length()) {
+            return -1;
+        }
+        return hour * 60 + minute;
+    }
+
+    /**
+     * Reads between one and {@code maxDigits} digits.
+     *
+     * @return The number read, or -1 if there is no digit.
+     */
+    private int readNumber(int maxDigits) {
+        int start = pos;
+        int value = 0;
+        while (pos < text.length() && pos - start < maxDigits && isDigit(text.charAt(pos))) {
+            value = value * 10 + text.charAt(pos) - '0';
+            pos++;
+        }
+        return pos == start ? -1 : value;
+    }
+
+    /**
+     * Reads exactly {@code digits} digits.
+     *
+     * @return The number read, or -1 if there are fewer digits.
+     */
+    private int readFixedNumber(int digits) {
+        int start = pos;
+        int value = readNumber(digits);
+        return pos - start == digits ? value : -1;
+    }
+
+    /**
+     * Reads a name that is at least three letters long and starts one of the given names, ignoring case.
+     *
+     * @return Index of the matching name, or -1 if there is none.
+     */
+    private int readName(String[] names) {
+        int start = pos;
+        while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        int length = pos - start;
+        if (length >= 3) {
+            for (int i = 0; i < names.length; i++) {
+                if (length <= names[i].length() && names[i].regionMatches(true, 0, text, start, length)) {
+                    return i;
+                }
+            }
+        }
+        pos = start;
+        return -1;
+    }
+
+    private boolean skip(char expected) {
+        if (pos < text.length() && text.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean skipWord(String word) {
+        if (text.startsWith(word, pos)) {
+            pos += word.length();
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parses the rarer forms with formatters, or returns null if none of them fits.
+     */
+    private static LocalDateTime parseWithFormatters(String text) {
+        for (DateTimeFormatter formatter : FALLBACK_FORMATS) {
+            try {
+                return LocalDateTime.parse(text, formatter);
+            } catch (DateTimeParseException e) {
+                // Try the next form
+            }
+        }
+        return null;
+    }
+}
@@ -14,19 +14,37 @@ import chatbot.exception.ChatBotException;
 public class Deadline extends Task {
 
     protected LocalDateTime by; // Deadline date and time
+    protected Recurrence recurrence; // How the deadline repeats, or null for a one-off deadline
 
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
 
     /**
      * Constructs a Deadline task with the given description and deadline datetime string.
      *
      * @param description Description of the deadline task.
-     * @param by Deadline string in {@code d/M/yyyy HHmm} format.
+     * @param by Deadline string in any form {@link DateParser} recognizes, e.g. {@code d/M/yyyy HHmm}.
+     * @throws ChatBotException If the deadline is not a valid date.
      */
-    public Deadline(String description, String by) {
+    public Deadline(String description, String by) throws ChatBotException {
         super(description);
-        this.by = LocalDateTime.parse(by, INPUT_FORMAT);
+        this.by = DateParser.parse(by);
+    }
+
+    /**
+     * Constructs a repeating Deadline task from a deadline datetime string.
+     *
+     * @param description Description of the deadline task.
+     * @param by First deadline in any form {@link DateParser} recognizes, e.g. {@code d/M/yyyy HHmm}.
+     * @param recurrence How the deadline repeats, or {@code null} for a one-off deadline.
+     * @throws ChatBotException If the deadline is not a valid date or the recurrence ends before it.
+     */
+    public Deadline(String description, String by, Recurrence recurrence) throws ChatBotException {
+        this(description, by);
+        this.recurrence = recurrence;
+
+        if (recurrence != null && recurrence.endsBefore(this.by)) {
+            throw new ChatBotException("OOPS!!! A repeating deadline cannot stop before its first deadline.");
+        }
     }
 
     /**
@@ -40,6 +58,18 @@ public class Deadline extends Task {
         this.by = by;
     }
 
+    /**
+     * Constructs a repeating Deadline task with the given description and first deadline.
+     *
+     * @param description Description of the deadline task.
+     * @param by First deadline as a {@link LocalDateTime}.
+     * @param recurrence How the deadline repeats, or {@code null} for a one-off deadline.
+     */
+    public Deadline(String description, LocalDateTime by, Recurrence recurrence) {
+        this(description, by);
+        this.recurrence = recurrence;
+    }
+
     /**
      * Converts a serialized string back into a {@link Deadline} object.
      * The string must match the format produced by {@link #toString()}.
@@ -49,8 +79,8 @@ public class Deadline extends Task {
      * @throws ChatBotException If the string does not match the expected format.
      */
     public static Deadline convertToDeadline(String deadline) throws ChatBotException {
-        // Regex matches: [D][ ] description (by: Dec 2 2025, 18:00)
-        String regex = "^\\[D]\\[([ X])]\\s+(.*?)\\s+\\(by:\\s+(.+)\\)$";
+        // Regex matches: [D][ ] description (by: Dec 2 2025, 18:00) with an optional ", every week" suffix
+        String regex = "^\\[D]\\[([ X])]\\s+(.*?)\\s+\\(by:\\s+(.+?)(?:, (every .+))?\\)$";
         Pattern pattern = Pattern.compile(regex);
         Matcher matcher = pattern.matcher(deadline);
 
@@ -64,8 +94,9 @@ public class Deadline extends Task {
         String description = matcher.group(2).trim();     // Extract description
         String byString = matcher.group(3).trim();        // Extract date string
 
-        LocalDateTime byDate = LocalDateTime.parse(byString, OUTPUT_FORMAT); // Parse to LocalDateTime
-        Deadline deadlineObject = new Deadline(description, byDate);
+        LocalDateTime byDate = DateParser.parse(byString); // Parse to LocalDateTime
+        Recurrence recurrence = matcher.group(4) == null ? null : Recurrence.convertToRecurrence(matcher.group(4));
+        Deadline deadlineObject = new Deadline(description, byDate, recurrence);
 
         if (isDone) {
             deadlineObject.markAsDone(); // Restore completion status
@@ -74,15 +105,47 @@ public class Deadline extends Task {
         return deadlineObject;
     }
 
+    /**
+     * Returns the deadline of the task.
+     *
+     * @return Deadline date and time.
+     */
+    public LocalDateTime getBy() {
+        return this.by;
+    }
+
+    /**
+     * Returns how the deadline repeats.
+     *
+     * @return The recurrence, or {@code null} for a one-off deadline.
+     */
+    public Recurrence getRecurrence() {
+        return this.recurrence;
+    }
+
+    /**
+     * Returns a one-off copy of this deadline for a single occurrence, with the same completion status.
+     *
+     * @param occurrenceBy Deadline of the occurrence.
+     * @return A non-repeating deadline due at {@code occurrenceBy}.
+     */
+    public Deadline getOccurrence(LocalDateTime occurrenceBy) {
+        Deadline occurrence = new Deadline(this.description, occurrenceBy);
+        occurrence.isDone = this.isDone;
+        return occurrence;
+    }
+
     /**
      * Returns the string representation of the deadline task in the format:
      * [D][ ] description (by: Dec 2 2025, 18:00)
+     * [D][ ] description (by: Dec 2 2025, 18:00, every week until Dec 30 2025, 18:00)
      *
      * @return String representation of the deadline task.
      */
     @Override
     public String toString() {
         String formattedBy = this.by.format(OUTPUT_FORMAT);
-        return "[D]" + super.toString() + " (by: " + formattedBy + ")";
+        String repeats = this.recurrence == null ? "" : ", " + this.recurrence;
+        return "[D]" + super.toString() + " (by: " + formattedBy + repeats + ")";
     }
 }
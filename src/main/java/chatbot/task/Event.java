@@ -1,8 +1,14 @@
 package chatbot.task;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,8 +26,8 @@ public class Event extends Task {
     /** End time of the event. */
     protected LocalDateTime to;
 
-    /** Formatter for parsing user input dates. */
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy HHmm");
+    /** How the event repeats, or null for a one-off event. */
+    protected Recurrence recurrence;
 
     /** Formatter for displaying dates in task output. */
     private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
@@ -30,14 +36,14 @@ public class Event extends Task {
      * Constructs an Event task with the given description and time range.
      *
      * @param description Description of the event.
-     * @param from Start time in {@code d/M/yyyy HHmm} format.
-     * @param to End time in {@code d/M/yyyy HHmm} format.
-     * @throws ChatBotException If the start time is after the end time.
+     * @param from Start time in any form {@link DateParser} recognizes, e.g. {@code d/M/yyyy HHmm}.
+     * @param to End time in any form {@link DateParser} recognizes.
+     * @throws ChatBotException If a time is not a valid date or the start time is after the end time.
      */
     public Event(String description, String from, String to) throws ChatBotException {
         super(description);
-        this.from = LocalDateTime.parse(from, INPUT_FORMAT);
-        this.to = LocalDateTime.parse(to, INPUT_FORMAT);
+        this.from = DateParser.parse(from);
+        this.to = DateParser.parse(to);
 
         if (this.from.isAfter(this.to)) {
             throw new ChatBotException(
@@ -46,6 +52,24 @@ public class Event extends Task {
         }
     }
 
+    /**
+     * Constructs a repeating Event task from start and end time strings.
+     *
+     * @param description Description of the event.
+     * @param from Start time of the first occurrence in any form {@link DateParser} recognizes.
+     * @param to End time of the first occurrence in any form {@link DateParser} recognizes.
+     * @param recurrence How the event repeats, or {@code null} for a one-off event.
+     * @throws ChatBotException If the event ends before it starts or the recurrence stops before it starts.
+     */
+    public Event(String description, String from, String to, Recurrence recurrence) throws ChatBotException {
+        this(description, from, to);
+        this.recurrence = recurrence;
+
+        if (recurrence != null && recurrence.endsBefore(this.from)) {
+            throw new ChatBotException("OOPS!!! A repeating event cannot stop before it first starts.");
+        }
+    }
+
     /**
      * Constructs an Event task with the given description and time range.
      *
@@ -59,6 +83,19 @@ public class Event extends Task {
         this.to = to;
     }
 
+    /**
+     * Constructs a repeating Event task with the given description and first time range.
+     *
+     * @param description Description of the event.
+     * @param from Start time of the first occurrence.
+     * @param to End time of the first occurrence.
+     * @param recurrence How the event repeats, or {@code null} for a one-off event.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to, Recurrence recurrence) {
+        this(description, from, to);
+        this.recurrence = recurrence;
+    }
+
     /**
      * Converts a serialized event string back into an {@link Event}.
      *
@@ -67,7 +104,7 @@ public class Event extends Task {
      * @throws ChatBotException If the string does not match the expected format.
      */
     public static Event convertToEvent(String event) throws ChatBotException {
-        String regex = "^\\[E]\\[([ X])]\\s+(.*?)\\s+\\(from:\\s+(.+?)\\s+to:\\s+(.+)\\)$";
+        String regex = "^\\[E]\\[([ X])]\\s+(.*?)\\s+\\(from:\\s+(.+?)\\s+to:\\s+(.+?)(?:, (every .+))?\\)$";
         Matcher matcher = Pattern.compile(regex).matcher(event);
 
         if (!matcher.matches()) {
@@ -79,10 +116,11 @@ public class Event extends Task {
         String fromString = matcher.group(3).trim();
         String toString = matcher.group(4).trim();
 
-        LocalDateTime fromDate = LocalDateTime.parse(fromString, OUTPUT_FORMAT);
-        LocalDateTime toDate = LocalDateTime.parse(toString, OUTPUT_FORMAT);
+        LocalDateTime fromDate = DateParser.parse(fromString);
+        LocalDateTime toDate = DateParser.parse(toString);
 
-        Event eventObject = new Event(description, fromDate, toDate);
+        Recurrence recurrence = matcher.group(5) == null ? null : Recurrence.convertToRecurrence(matcher.group(5));
+        Event eventObject = new Event(description, fromDate, toDate, recurrence);
         if (isDone) {
             eventObject.markAsDone();
         }
@@ -108,6 +146,87 @@ public class Event extends Task {
         return this.to;
     }
 
+    /**
+     * Returns how the event repeats.
+     *
+     * @return The recurrence, or {@code null} for a one-off event.
+     */
+    public Recurrence getRecurrence() {
+        return this.recurrence;
+    }
+
+    /**
+     * Returns a one-off copy of this event for a single occurrence, with the same length and completion status.
+     *
+     * @param occurrenceFrom Start time of the occurrence.
+     * @return A non-repeating event starting at {@code occurrenceFrom}.
+     */
+    public Event getOccurrence(LocalDateTime occurrenceFrom) {
+        Duration length = Duration.between(this.from, this.to);
+        Event occurrence = new Event(this.description, occurrenceFrom, occurrenceFrom.plus(length));
+        occurrence.isDone = this.isDone;
+        return occurrence;
+    }
+
+    /**
+     * Returns the occurrences of this event starting at or after {@code earliest}, in start order, computed lazily.
+     * A one-off event yields itself if it starts at or after {@code earliest}.
+     *
+     * @param earliest Earliest start time to return.
+     * @return Iterator over one-off copies of the matching occurrences.
+     */
+    public Iterator<Event> occurrencesFrom(LocalDateTime earliest) {
+        if (this.recurrence == null) {
+            return (this.from.isBefore(earliest) ? List.<Event>of() : List.of(this)).iterator();
+        }
+
+        Iterator<LocalDateTime> starts = this.recurrence.occurrencesFrom(this.from, earliest);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return starts.hasNext();
+            }
+
+            @Override
+            public Event next() {
+                return getOccurrence(starts.next());
+            }
+        };
+    }
+
+    /**
+     * Merges event iterators that are each in start order into a single iterator in start order.
+     * Only the next event of every source is held at a time, so unbounded recurring series can be merged.
+     *
+     * @param sources Iterators of events, each sorted by start time.
+     * @return Iterator over the events of all sources, sorted by start time.
+     */
+    public static Iterator<Event> mergeByStart(List<Iterator<Event>> sources) {
+        PriorityQueue<Map.Entry<Event, Iterator<Event>>> heads =
+                new PriorityQueue<>(Comparator.comparing(head -> head.getKey().getFrom()));
+        for (Iterator<Event> source : sources) {
+            if (source.hasNext()) {
+                heads.add(Map.entry(source.next(), source));
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Event next() {
+                Map.Entry<Event, Iterator<Event>> head = heads.remove();
+                if (head.getValue().hasNext()) {
+                    heads.add(Map.entry(head.getValue().next(), head.getValue()));
+                }
+                return head.getKey();
+            }
+        };
+    }
+
     /**
      * Merges overlapping events from a sorted task list into continuous time ranges.
      * <p>Assumes the given task list contains only {@link Event} objects, sorted by start time.</p>
@@ -149,6 +268,46 @@ public class Event extends Task {
         return merged;
     }
 
+    /**
+     * Returns whether this event overlaps the given event.
+     * Events that only touch, e.g. one ending at 10:00 and the next starting at 10:00, do not overlap.
+     *
+     * @param other Event to compare with.
+     * @return {@code true} if the two events share some period of time.
+     */
+    public boolean overlaps(Event other) {
+        return this.from.isBefore(other.to) && other.from.isBefore(this.to);
+    }
+
+    /**
+     * Finds every pair of overlapping events in a single sweep over events sorted by start time.
+     * Events that are still running are kept in a heap ordered by end time, so each new event is
+     * only compared with the events it actually overlaps. Runs in O(n log n + k) for k pairs.
+     *
+     * @param sorted Events sorted by start time.
+     * @return Overlapping pairs, each with the earlier-starting event first.
+     */
+    public static ArrayList<Event[]> findOverlappingPairs(List<Event> sorted) {
+        ArrayList<Event[]> pairs = new ArrayList<>();
+        PriorityQueue<Event> running = new PriorityQueue<>(Comparator.comparing(Event::getTo));
+
+        for (Event event : sorted) {
+            // Drop events that ended before this one started
+            while (!running.isEmpty() && !running.peek().getTo().isAfter(event.getFrom())) {
+                running.poll();
+            }
+            for (Event other : running) {
+                if (other.overlaps(event)) { // Only fails for zero-length events starting with another
+                    pairs.add(new Event[]{other, event});
+                }
+            }
+            if (event.getTo().isAfter(event.getFrom())) {
+                running.add(event);
+            }
+        }
+        return pairs;
+    }
+
     /**
      * Returns the string representation of the event.
      * Example:
@@ -162,6 +321,7 @@ public class Event extends Task {
     public String toString() {
         String formattedFrom = this.from.format(OUTPUT_FORMAT);
         String formattedTo = this.to.format(OUTPUT_FORMAT);
-        return "[E]" + super.toString() + " (from: " + formattedFrom + " to: " + formattedTo + ")";
+        String repeats = this.recurrence == null ? "" : ", " + this.recurrence;
+        return "[E]" + super.toString() + " (from: " + formattedFrom + " to: " + formattedTo + repeats + ")";
     }
 }
@@ -0,0 +1,188 @@
+package chatbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An interval tree over events, used to find the events that overlap a time range.
+ * <p>
+ * Implemented as a treap ordered by start time, where every node also records the latest
+ * end time in its subtree. Subtrees that end before the queried range, or start after it,
+ * are skipped entirely, so an overlap query runs in O(log n + k) for k overlapping events.
+ */
+class EventIntervalTree {
+
+    private static final class Node {
+        private final Event event;
+        private final long seq;      // Tie-breaker for events with the same start time
+        private final int priority;  // Random heap priority that keeps the treap balanced
+        private LocalDateTime maxTo;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, long seq, int priority) {
+            this.event = event;
+            this.seq = seq;
+            this.priority = priority;
+            this.maxTo = event.getTo();
+        }
+    }
+
+    private final Map<Event, Node> nodes = new IdentityHashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    private long nextSeq = 0;
+
+    /**
+     * Adds an event to the tree.
+     *
+     * @param event Event to add.
+     */
+    void add(Event event) {
+        Node node = new Node(event, nextSeq++, random.nextInt());
+        nodes.put(event, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an event from the tree. Does nothing if the event is not in the tree.
+     *
+     * @param event Event to remove.
+     */
+    void remove(Event event) {
+        Node node = nodes.remove(event);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Returns the events that overlap the half-open range {@code [from, to)}, ordered by start time.
+     * Events that merely touch the range at an endpoint do not overlap it.
+     *
+     * @param from Start of the range.
+     * @param to   End of the range.
+     */
+    List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        collectOverlapping(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * Returns every event in the tree, ordered by start time.
+     */
+    List<Event> inStartOrder() {
+        List<Event> result = new ArrayList<>(nodes.size());
+        collectInOrder(root, result);
+        return result;
+    }
+
+    private static int compare(Node a, Node b) {
+        int byStart = a.event.getFrom().compareTo(b.event.getFrom());
+        return byStart != 0 ? byStart : Long.compare(a.seq, b.seq);
+    }
+
+    private static Node insert(Node subtree, Node node) {
+        if (subtree == null) {
+            return node;
+        }
+
+        if (compare(node, subtree) < 0) {
+            subtree.left = insert(subtree.left, node);
+            if (subtree.left.priority > subtree.priority) {
+                subtree = rotateRight(subtree);
+            }
+        } else {
+            subtree.right = insert(subtree.right, node);
+            if (subtree.right.priority > subtree.priority) {
+                subtree = rotateLeft(subtree);
+            }
+        }
+        update(subtree);
+        return subtree;
+    }
+
+    private static Node delete(Node subtree, Node node) {
+        if (subtree == null) {
+            return null;
+        }
+
+        if (subtree == node) {
+            // Rotate the node down until it has at most one child, then splice it out
+            if (subtree.left == null) {
+                return subtree.right;
+            } else if (subtree.right == null) {
+                return subtree.left;
+            } else if (subtree.left.priority > subtree.right.priority) {
+                subtree = rotateRight(subtree);
+                subtree.right = delete(subtree.right, node);
+            } else {
+                subtree = rotateLeft(subtree);
+                subtree.left = delete(subtree.left, node);
+            }
+        } else if (compare(node, subtree) < 0) {
+            subtree.left = delete(subtree.left, node);
+        } else {
+            subtree.right = delete(subtree.right, node);
+        }
+        update(subtree);
+        return subtree;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        LocalDateTime maxTo = node.event.getTo();
+        if (node.left != null && node.left.maxTo.isAfter(maxTo)) {
+            maxTo = node.left.maxTo;
+        }
+        if (node.right != null && node.right.maxTo.isAfter(maxTo)) {
+            maxTo = node.right.maxTo;
+        }
+        node.maxTo = maxTo;
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Event> result) {
+        if (node == null || !node.maxTo.isAfter(from)) {
+            return; // Everything in this subtree ends before the range starts
+        }
+
+        collectOverlapping(node.left, from, to, result);
+        if (!node.event.getFrom().isBefore(to)) {
+            return; // This event and everything to its right start after the range ends
+        }
+        if (node.event.getTo().isAfter(from)) {
+            result.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static void collectInOrder(Node node, List<Event> result) {
+        if (node != null) {
+            collectInOrder(node.left, result);
+            result.add(node.event);
+            collectInOrder(node.right, result);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package chatbot.task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps repeating deadlines and events ordered by their next occurrence at or after a moving time,
+ * so that lookups near that time only visit the series with an occurrence in the window they ask about.
+ * <p>
+ * Like a {@link DateCounter.Cursor}, the queue remembers the time it was last asked about. Moving it to
+ * a later time re-keys only the series whose next occurrence was passed, finding each new occurrence
+ * directly rather than stepping through the skipped ones, so a steadily advancing clock re-keys each
+ * series at most once per occurrence. Moving it to an earlier time re-keys every series.
+ * A series with no occurrences left at the queue's time is left out of the order.
+ */
+class OccurrenceQueue {
+    private final Set<Task> series = new HashSet<>();
+    private final TreeMap<LocalDateTime, Set<Task>> byNext = new TreeMap<>();
+    private final Map<Task, LocalDateTime> nextOf = new HashMap<>();
+    private LocalDateTime time = LocalDateTime.MIN;
+
+    /**
+     * Adds a repeating deadline or event. Does nothing if it is already queued.
+     */
+    void add(Task task) {
+        if (series.add(task)) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Removes a repeating deadline or event. Does nothing if it is not queued.
+     */
+    void remove(Task task) {
+        series.remove(task);
+        LocalDateTime next = nextOf.remove(task);
+        if (next != null) {
+            Set<Task> bucket = byNext.get(next);
+            bucket.remove(task);
+            if (bucket.isEmpty()) {
+                byNext.remove(next);
+            }
+        }
+    }
+
+    /**
+     * Moves the queue to the given time and returns the queued series keyed by their next occurrence
+     * at or after it, earliest first. The map must not be changed, and is only valid until the queue changes.
+     *
+     * @param newTime Earliest occurrence to key the series by.
+     */
+    NavigableMap<LocalDateTime, Set<Task>> from(LocalDateTime newTime) {
+        if (newTime.isBefore(time)) {
+            time = newTime;
+            byNext.clear();
+            nextOf.clear();
+            for (Task task : series) {
+                schedule(task);
+            }
+        } else if (newTime.isAfter(time)) {
+            time = newTime;
+            while (!byNext.isEmpty() && byNext.firstKey().isBefore(time)) {
+                for (Task task : byNext.pollFirstEntry().getValue()) {
+                    nextOf.remove(task);
+                    schedule(task);
+                }
+            }
+        }
+        return byNext;
+    }
+
+    private void schedule(Task task) {
+        Iterator<LocalDateTime> dates = TaskIndex.recurrenceOf(task).occurrencesFrom(TaskIndex.dateOf(task), time);
+        if (dates.hasNext()) {
+            LocalDateTime next = dates.next();
+            nextOf.put(task, next);
+            byNext.computeIfAbsent(next, k -> new HashSet<>()).add(task);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package chatbot.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Scans a range of tasks for those matching a predicate on the fork/join pool, splitting ranges
+ * larger than {@value #THRESHOLD} tasks in half so that every core scans part of the list.
+ * The halves' matches are joined left before right, so the result keeps list order.
+ * <p>
+ * The predicate is tested from several threads at once, so it must not change anything; the list
+ * must not change during the scan either. The scan checks every {@value #CHECK_INTERVAL} tasks
+ * whether it was cancelled, and then stops with a {@link CancellationException}.
+ */
+class ParallelScan extends RecursiveTask<ArrayList<Task>> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Tasks at most in a range that is scanned on one thread rather than split. */
+    static final int THRESHOLD = 2048;
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final List<Task> tasks;
+    private final int from;
+    private final int to;
+    private final Predicate<Task> predicate;
+    private final BooleanSupplier isCancelled;
+
+    /**
+     * Constructs a scan of the tasks from position {@code from} up to but not including {@code to}.
+     *
+     * @param tasks       Tasks to scan.
+     * @param from        First position to scan.
+     * @param to          Position after the last one to scan.
+     * @param predicate   Test of the tasks to keep.
+     * @param isCancelled Whether the scan should stop, e.g. because the user moved on.
+     */
+    ParallelScan(List<Task> tasks, int from, int to, Predicate<Task> predicate, BooleanSupplier isCancelled) {
+        this.tasks = tasks;
+        this.from = from;
+        this.to = to;
+        this.predicate = predicate;
+        this.isCancelled = isCancelled;
+    }
+
+    @Override
+    protected ArrayList<Task> compute() {
+        if (to - from > THRESHOLD) {
+            int middle = (from + to) >>> 1;
+            ParallelScan right = new ParallelScan(tasks, middle, to, predicate, isCancelled);
+            right.fork();
+            ArrayList<Task> matches = new ParallelScan(tasks, from, middle, predicate, isCancelled).compute();
+            matches.addAll(right.join());
+            return matches;
+        }
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if ((i - from) % CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                throw new CancellationException("The scan was cancelled");
+            }
+            Task task = tasks.get(i);
+            if (predicate.test(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,251 @@
+package chatbot.task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import chatbot.exception.ChatBotException;
+
+/**
+ * Represents how a {@link Deadline} or {@link Event} repeats: daily, weekly or monthly,
+ * optionally ending at an until date or after a number of occurrences.
+ * <p>
+ * A recurring task is stored as a single record. Occurrences are never materialized up front;
+ * they are computed on demand, and {@link #occurrencesFrom} jumps straight to the first
+ * occurrence of interest instead of stepping through every earlier one.
+ */
+public class Recurrence {
+
+    /**
+     * Represents how often a task repeats.
+     */
+    public enum Frequency {
+        DAILY("day", ChronoUnit.DAYS),
+        WEEKLY("week", ChronoUnit.WEEKS),
+        MONTHLY("month", ChronoUnit.MONTHS);
+
+        private final String unitName;
+        private final ChronoUnit unit;
+
+        Frequency(String unitName, ChronoUnit unit) {
+            this.unitName = unitName;
+            this.unit = unit;
+        }
+    }
+
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
+
+    // User input, e.g. "weekly", "weekly /until 31/12/2025 2359" or "daily /count 5"
+    private static final Pattern INPUT_PATTERN =
+            Pattern.compile("^(daily|weekly|monthly)(?: /until (.+)| /count (\\d{1,9}))?$");
+    // Stored form produced by toString(), e.g. "every week until Dec 31 2025, 23:59" or "every day, 5 times"
+    private static final Pattern STORED_PATTERN =
+            Pattern.compile("^every (day|week|month)(?: until (.+)|, (\\d+) times)?$");
+
+    private final Frequency frequency;
+    private final LocalDateTime until; // Last allowed occurrence time, or null
+    private final int count;           // Maximum number of occurrences, or 0 for no limit
+
+    /**
+     * Constructs a Recurrence.
+     *
+     * @param frequency How often the task repeats.
+     * @param until     Latest time an occurrence may start, or {@code null} for no end date.
+     * @param count     Maximum number of occurrences, or {@code 0} for no limit.
+     */
+    public Recurrence(Frequency frequency, LocalDateTime until, int count) {
+        this.frequency = frequency;
+        this.until = until;
+        this.count = count;
+    }
+
+    /**
+     * Returns how often the task repeats.
+     *
+     * @return Frequency of the occurrences.
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the latest time an occurrence may start.
+     *
+     * @return Until date, or {@code null} for no end date.
+     */
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    /**
+     * Returns the maximum number of occurrences.
+     *
+     * @return Occurrence limit, or {@code 0} for no limit.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Parses a recurrence typed by the user, such as {@code weekly /until 31/12/2025 2359}.
+     *
+     * @param spec Text following {@code /every}.
+     * @return The parsed recurrence.
+     * @throws ChatBotException If the text is not a valid recurrence.
+     */
+    public static Recurrence parse(String spec) throws ChatBotException {
+        Matcher matcher = INPUT_PATTERN.matcher(spec.trim());
+        if (!matcher.matches()) {
+            throw new ChatBotException(
+                    "OOPS!!! Use /every daily|weekly|monthly, optionally with /until DATE or /count N.");
+        }
+
+        Frequency frequency = Frequency.valueOf(matcher.group(1).toUpperCase());
+        int count = matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3));
+        if (matcher.group(3) != null && count <= 0) {
+            throw new ChatBotException("OOPS!!! A task must repeat at least once.");
+        }
+
+        LocalDateTime until = null;
+        if (matcher.group(2) != null) {
+            until = DateParser.parse(matcher.group(2));
+        }
+        return new Recurrence(frequency, until, count);
+    }
+
+    /**
+     * Converts the stored form produced by {@link #toString()} back into a Recurrence.
+     *
+     * @param text Stored recurrence, e.g. {@code every week until Dec 31 2025, 23:59}.
+     * @return The reconstructed recurrence.
+     * @throws ChatBotException If the text does not match the stored format.
+     */
+    public static Recurrence convertToRecurrence(String text) throws ChatBotException {
+        Matcher matcher = STORED_PATTERN.matcher(text.trim());
+        if (!matcher.matches()) {
+            throw new ChatBotException("OOPS!! This string cannot be converted to a Recurrence.");
+        }
+
+        Frequency frequency = switch (matcher.group(1)) {
+            case "day" -> Frequency.DAILY;
+            case "week" -> Frequency.WEEKLY;
+            default -> Frequency.MONTHLY;
+        };
+        LocalDateTime until = matcher.group(2) == null ? null : DateParser.parse(matcher.group(2));
+        int count = matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3));
+        return new Recurrence(frequency, until, count);
+    }
+
+    /**
+     * Returns the start of the n-th occurrence (zero-based), ignoring the until date and count.
+     * Monthly occurrences are always computed from the first one, so a series starting on
+     * the 31st falls back to the last day of shorter months without drifting.
+     *
+     * @param first Start of the first occurrence.
+     * @param n     Zero-based occurrence number.
+     */
+    public LocalDateTime getOccurrence(LocalDateTime first, long n) {
+        return first.plus(n, frequency.unit);
+    }
+
+    /**
+     * Returns whether the n-th occurrence, starting at the given time, is still part of the series.
+     */
+    private boolean isInSeries(long n, LocalDateTime start) {
+        return (count == 0 || n < count) && (until == null || !start.isAfter(until));
+    }
+
+    /**
+     * Returns whether the series is invalid because it ends before its first occurrence.
+     *
+     * @param first Start of the first occurrence.
+     */
+    public boolean endsBefore(LocalDateTime first) {
+        return until != null && until.isBefore(first);
+    }
+
+    /**
+     * Returns the starts of the occurrences at or after {@code from}, in order, computed lazily.
+     * The first returned occurrence is found directly rather than by stepping from {@code first}.
+     *
+     * @param first Start of the first occurrence of the series.
+     * @param from  Earliest start to return.
+     */
+    public Iterator<LocalDateTime> occurrencesFrom(LocalDateTime first, LocalDateTime from) {
+        long start = 0;
+        if (from.isAfter(first)) {
+            start = frequency.unit.between(first, from);
+            while (getOccurrence(first, start).isBefore(from)) {
+                start++;
+            }
+        }
+        long firstIndex = start;
+
+        return new Iterator<>() {
+            private long n = firstIndex;
+
+            @Override
+            public boolean hasNext() {
+                return isInSeries(n, getOccurrence(first, n));
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getOccurrence(first, n++);
+            }
+        };
+    }
+
+    /**
+     * Returns the start of the latest occurrence strictly before {@code before}, or {@code null} if there is none.
+     *
+     * @param first  Start of the first occurrence of the series.
+     * @param before Exclusive upper bound.
+     */
+    public LocalDateTime getLastOccurrenceBefore(LocalDateTime first, LocalDateTime before) {
+        if (!first.isBefore(before)) {
+            return null;
+        }
+
+        long n = frequency.unit.between(first, before);
+        while (n > 0 && !getOccurrence(first, n).isBefore(before)) {
+            n--;
+        }
+
+        // Clamp to the last occurrence of the series
+        if (count != 0) {
+            n = Math.min(n, count - 1);
+        }
+        if (until != null) {
+            long last = Math.max(0, frequency.unit.between(first, until));
+            while (last > 0 && getOccurrence(first, last).isAfter(until)) {
+                last--;
+            }
+            n = Math.min(n, last);
+        }
+        return getOccurrence(first, n);
+    }
+
+    /**
+     * Returns the stored form of the recurrence, e.g. {@code every week until Dec 31 2025, 23:59}
+     * or {@code every day, 5 times}.
+     */
+    @Override
+    public String toString() {
+        String text = "every " + frequency.unitName;
+        if (until != null) {
+            text += " until " + until.format(OUTPUT_FORMAT);
+        }
+        if (count != 0) {
+            text += ", " + count + " times";
+        }
+        return text;
+    }
+}
@@ -1,5 +1,7 @@
 package chatbot.task;
 
+import java.util.Set;
+
 /**
  * Represents a generic task.
  * A task has a description and a completion status (done or not done).
@@ -34,6 +36,33 @@ public class Task {
         return isDone ? "X" : " "; // Mark done task with "X"
     }
 
+    /**
+     * Returns the description of the task.
+     *
+     * @return Description text.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Returns whether the task is completed.
+     *
+     * @return {@code true} if the task is done.
+     */
+    public boolean isDone() {
+        return this.isDone;
+    }
+
+    /**
+     * Returns the distinct lower-case words of the description, split the same way searches split them.
+     *
+     * @return Words of the description.
+     */
+    public Set<String> getWords() {
+        return TaskIndex.wordsOf(this.description);
+    }
+
     /**
      * Marks the task as completed.
      */
@@ -57,7 +86,7 @@ public class Task {
      */
     @Override
     public String toString() {
-        // Use getStatusIcon() to show completion status
-        return String.format("[%s] %s", this.getStatusIcon(), this.description);
+        // Concatenated rather than formatted, as every listing, search and save calls this once per task
+        return "[" + this.getStatusIcon() + "] " + this.description;
     }
 }
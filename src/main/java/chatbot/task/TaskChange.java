@@ -0,0 +1,131 @@
+package chatbot.task;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Represents one change to a {@link TaskList}, as delivered to {@link TaskListener#tasksChanged(List)}
+ * and to the subscribers of {@link TaskList#changes()}.
+ * <p>
+ * Changes are delivered in batches. The position of each change refers to the list as it was after
+ * the changes before it in the same batch, so applying a batch in order to a copy of the list, with
+ * {@link #applyTo(List)}, keeps the copy in step at a cost proportional to the changes alone.
+ */
+public sealed interface TaskChange {
+
+    /**
+     * Tasks were inserted, the first of them ending up at {@code position}.
+     *
+     * @param position Position of the first added task.
+     * @param tasks    The added tasks, in list order.
+     */
+    record Added(int position, List<Task> tasks) implements TaskChange {
+        @Override
+        public void applyTo(List<Task> copy) {
+            copy.addAll(position, tasks);
+        }
+    }
+
+    /**
+     * A run of tasks starting at {@code position} was removed.
+     *
+     * @param position Position the first removed task was at.
+     * @param tasks    The removed tasks, in list order.
+     */
+    record Removed(int position, List<Task> tasks) implements TaskChange {
+        @Override
+        public void applyTo(List<Task> copy) {
+            copy.subList(position, position + tasks.size()).clear();
+        }
+    }
+
+    /**
+     * The task at {@code position} was marked or unmarked.
+     *
+     * @param position Position of the task.
+     * @param task     The updated task.
+     */
+    record Updated(int position, Task task) implements TaskChange {
+        @Override
+        public void applyTo(List<Task> copy) {
+            copy.set(position, task);
+        }
+    }
+
+    /**
+     * Applies this change to a copy of the list the change was made to.
+     *
+     * @param copy List holding the same tasks, in the same order, as the changed list did before this change.
+     */
+    void applyTo(List<Task> copy);
+
+    /**
+     * Appends a change to a batch, merging it into the last change when the two touch the same run of tasks:
+     * tasks added one after another become a single addition, and tasks deleted one after another from
+     * the same place become a single removal.
+     *
+     * @param batch  Changes so far, in order.
+     * @param change Change that followed them.
+     */
+    static void append(List<TaskChange> batch, TaskChange change) {
+        TaskChange last = batch.isEmpty() ? null : batch.get(batch.size() - 1);
+        TaskChange merged = null;
+        if (last instanceof Added before && change instanceof Added after
+                && after.position() == before.position() + before.tasks().size()) {
+            merged = new Added(before.position(), concat(before.tasks(), after.tasks()));
+        } else if (last instanceof Removed before && change instanceof Removed after) {
+            if (after.position() == before.position()) {
+                merged = new Removed(before.position(), concat(before.tasks(), after.tasks()));
+            } else if (after.position() + after.tasks().size() == before.position()) {
+                merged = new Removed(after.position(), concat(after.tasks(), before.tasks()));
+            }
+        } else if (last instanceof Updated before && change instanceof Updated after
+                && after.position() == before.position()) {
+            merged = after;
+        }
+
+        if (merged == null) {
+            batch.add(change);
+        } else {
+            batch.set(batch.size() - 1, merged);
+        }
+    }
+
+    /**
+     * Joins two runs of tasks. A run that is already the result of merging is only ever seen by
+     * the batch being built, so it is grown in place, keeping a batch of k single additions O(k).
+     */
+    private static List<Task> concat(List<Task> first, List<Task> second) {
+        if (first instanceof MergedRun run) {
+            run.append(second);
+            return run;
+        }
+        MergedRun joined = new MergedRun();
+        joined.append(first);
+        joined.append(second);
+        return joined;
+    }
+
+    /**
+     * Tasks gathered by merging changes. Listeners can read the run but not change it.
+     */
+    final class MergedRun extends AbstractList<Task> implements RandomAccess {
+        private final List<Task> tasks = new ArrayList<>();
+
+        private void append(List<Task> run) {
+            tasks.addAll(run);
+        }
+
+        @Override
+        public Task get(int index) {
+            return tasks.get(index);
+        }
+
+        @Override
+        public int size() {
+            return tasks.size();
+        }
+    }
+}
@@ -0,0 +1,581 @@
+package chatbot.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Secondary indexes over the tasks of a {@link TaskList}.
+ * Keeps tasks bucketed by type, completion status, date and description words
+ * so that queries can start from a small candidate set instead of scanning every task.
+ * Undone deadlines and events are also kept in date order to answer upcoming and overdue lookups.
+ * <p>
+ * The index is kept up to date by {@link TaskList} on every add, delete, mark and unmark.
+ */
+class TaskIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long ORDER_GAP = 1 << 16;
+
+    /**
+     * Position key of each task, used to return query results in list order. Appended tasks get keys
+     * {@value #ORDER_GAP} apart, so a task inserted between two others can usually take a key in between.
+     */
+    private final Map<Task, Long> order = new IdentityHashMap<>();
+    private long nextOrder = 0;
+
+    private final Map<Class<? extends Task>, Set<Task>> byType = new HashMap<>();
+    private final Set<Task> done = new HashSet<>();
+    private final Set<Task> undone = new HashSet<>();
+    private final TreeMap<LocalDateTime, Set<Task>> byDate = new TreeMap<>();
+    private final WordIndex byWord = new WordIndex();
+
+    /** Undone deadlines keyed by due time, and undone events keyed by start time. */
+    private final TreeMap<LocalDateTime, Set<Task>> pendingDeadlines = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Set<Task>> pendingEvents = new TreeMap<>();
+
+    /** Every one-off event, indexed by its time range for overlap lookups. */
+    private final EventIntervalTree events = new EventIntervalTree();
+
+    /**
+     * Repeating deadlines and events. They stay out of the date-keyed indexes above,
+     * and their occurrences are expanded only for the time window a lookup asks for.
+     */
+    private final Set<Task> recurring = new HashSet<>();
+
+    /** Undone repeating deadlines and events by their next occurrence, for upcoming lookups and the summary. */
+    private final OccurrenceQueue pendingSeries = new OccurrenceQueue();
+
+    /**
+     * Undone repeating deadlines keyed by their first due time. One is overdue from the moment that time passes,
+     * so the overdue ones are those before now.
+     */
+    private final TreeMap<LocalDateTime, Set<Task>> pendingSeriesDeadlines = new TreeMap<>();
+
+    /**
+     * Undone deadlines by due time (the first occurrence for repeating ones) and undone one-off events
+     * by start time, with cursors at now and at the ends of the summary windows.
+     */
+    private final DateCounter deadlineCounter = new DateCounter();
+    private final DateCounter.Cursor overdueCursor = deadlineCounter.newCursor();
+    private final DateCounter eventCounter = new DateCounter();
+    private final DateCounter.Cursor nowCursor = eventCounter.newCursor();
+    private final DateCounter.Cursor nextDayCursor = eventCounter.newCursor();
+    private final DateCounter.Cursor nextWeekCursor = eventCounter.newCursor();
+
+    /**
+     * Adds a task to every index.
+     *
+     * @param task Task that was appended to the list.
+     */
+    void add(Task task) {
+        order.put(task, nextOrder);
+        nextOrder += ORDER_GAP;
+        addToIndexes(task);
+    }
+
+    /**
+     * Adds a run of tasks that was inserted into the middle of the list to every index.
+     * The tasks get position keys spread evenly between those of their neighbours.
+     *
+     * @param tasks    Tasks of the list, already including the inserted tasks.
+     * @param position Position of the first inserted task in the list.
+     * @param count    Number of tasks inserted there.
+     */
+    void insert(List<Task> tasks, int position, int count) {
+        int end = position + count;
+        if (end == tasks.size()) {
+            for (int i = position; i < end; i++) {
+                add(tasks.get(i));
+            }
+            return;
+        }
+
+        // Only the neighbours of the run have keys yet, so the keys are spaced out between them
+        long next = orderOf(tasks.get(end));
+        long previous = position == 0 ? next - (count + 1) * ORDER_GAP : orderOf(tasks.get(position - 1));
+        long step = (next - previous) / (count + 1);
+        if (step < 1) {
+            // No keys left in between, so spread out the keys of the whole list again
+            nextOrder = 0;
+            for (Task listed : tasks) {
+                order.put(listed, nextOrder);
+                nextOrder += ORDER_GAP;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                order.put(tasks.get(position + i), previous + (i + 1) * step);
+            }
+        }
+        for (int i = position; i < end; i++) {
+            addToIndexes(tasks.get(i));
+        }
+    }
+
+    private void addToIndexes(Task task) {
+        byType.computeIfAbsent(task.getClass(), k -> new HashSet<>()).add(task);
+        (task.isDone ? done : undone).add(task);
+
+        byWord.add(task, wordsOf(task.description));
+
+        if (!task.isDone) {
+            count(task, true);
+        }
+
+        LocalDateTime date = dateOf(task);
+        if (recurrenceOf(task) != null) {
+            recurring.add(task);
+            if (!task.isDone) {
+                addPending(task);
+            }
+        } else if (date != null) {
+            byDate.computeIfAbsent(date, k -> new HashSet<>()).add(task);
+            if (!task.isDone) {
+                addPending(task);
+            }
+            if (task instanceof Event) {
+                events.add((Event) task);
+            }
+        }
+    }
+
+    /**
+     * Removes a task from every index.
+     *
+     * @param task Task that was deleted from the list.
+     */
+    void remove(Task task) {
+        order.remove(task);
+        removeFrom(byType, task.getClass(), task);
+        done.remove(task);
+        undone.remove(task);
+
+        byWord.remove(task, wordsOf(task.description));
+
+        if (!task.isDone) {
+            count(task, false);
+        }
+
+        LocalDateTime date = dateOf(task);
+        if (recurrenceOf(task) != null) {
+            recurring.remove(task);
+            removePending(task);
+        } else if (date != null) {
+            removeFrom(byDate, date, task);
+            removePending(task);
+            if (task instanceof Event) {
+                events.remove((Event) task);
+            }
+        }
+    }
+
+    /**
+     * Moves a task between the done and undone buckets after its status changed.
+     *
+     * @param task Task whose completion status was updated.
+     */
+    void updateStatus(Task task) {
+        if (task.isDone) {
+            if (undone.remove(task)) {
+                count(task, false);
+            }
+            done.add(task);
+            removePending(task);
+        } else if (done.remove(task)) {
+            undone.add(task);
+            count(task, true);
+            addPending(task);
+        }
+    }
+
+    /**
+     * Returns the counts of the indexed tasks at the given time.
+     * Type and status counts are bucket sizes. Overdue deadlines and one-off events in the next 24 hours
+     * and 7 days are read from moving cursors, which only visit the dates crossed since the previous call.
+     * Occurrences of repeating events are expanded only for the series with an occurrence in the next 7 days.
+     *
+     * @param now Current time.
+     */
+    TaskSummary summarize(LocalDateTime now) {
+        LocalDateTime nextDay = now.plusDays(1);
+        LocalDateTime nextWeek = now.plusWeeks(1);
+        int startedBeforeNow = nowCursor.countBefore(now);
+        int eventsInNextDay = nextDayCursor.countBefore(nextDay) - startedBeforeNow;
+        int eventsInNextWeek = nextWeekCursor.countBefore(nextWeek) - startedBeforeNow;
+
+        for (Set<Task> bucket : pendingSeries.from(now).headMap(nextWeek, false).values()) {
+            for (Task task : bucket) {
+                if (!(task instanceof Event)) {
+                    continue;
+                }
+                Iterator<LocalDateTime> starts = recurrenceOf(task).occurrencesFrom(dateOf(task), now);
+                while (starts.hasNext()) {
+                    LocalDateTime start = starts.next();
+                    if (!start.isBefore(nextWeek)) {
+                        break;
+                    }
+                    eventsInNextWeek++;
+                    eventsInNextDay += start.isBefore(nextDay) ? 1 : 0;
+                }
+            }
+        }
+
+        return new TaskSummary(withType(Todo.class).size(), withType(Deadline.class).size(),
+                withType(Event.class).size(), done.size(), overdueCursor.countBefore(now),
+                eventsInNextDay, eventsInNextWeek);
+    }
+
+    /** Returns the position key of a task; smaller keys come earlier in the list. */
+    long orderOf(Task task) {
+        return order.get(task);
+    }
+
+    /** Returns all indexed tasks of the given type. */
+    Set<Task> withType(Class<? extends Task> type) {
+        return byType.getOrDefault(type, Collections.emptySet());
+    }
+
+    /** Returns all indexed tasks with the given completion status. */
+    Set<Task> withStatus(boolean isDone) {
+        return isDone ? done : undone;
+    }
+
+    /** Returns all indexed tasks whose description contains the given (lower-case) word. */
+    Set<Task> withWord(String word) {
+        return byWord.withWord(word);
+    }
+
+    /**
+     * Returns the tasks with a word starting with the given (lower-case) prefix.
+     * Tasks where the prefix is a whole word come first, then tasks whose matching word is
+     * closest in length to the prefix, then list order.
+     */
+    List<Task> withPrefix(String prefix) {
+        Map<Task, Integer> extraLetters = new IdentityHashMap<>();
+        for (Map.Entry<String, Set<Task>> entry : byWord.withPrefix(prefix).entrySet()) {
+            int extra = entry.getKey().length() - prefix.length();
+            for (Task task : entry.getValue()) {
+                extraLetters.merge(task, extra, Math::min);
+            }
+        }
+        return ranked(extraLetters);
+    }
+
+    /**
+     * Returns the tasks with a word within the given edit distance of a (lower-case) term,
+     * closest matches first, then list order.
+     */
+    List<Task> withSimilarWord(String term, int maxDistance) {
+        Map<Task, Integer> distances = new IdentityHashMap<>();
+        for (Map.Entry<String, Integer> entry : byWord.similarWords(term, maxDistance).entrySet()) {
+            for (Task task : byWord.withWord(entry.getKey())) {
+                distances.merge(task, entry.getValue(), Math::min);
+            }
+        }
+        return ranked(distances);
+    }
+
+    private List<Task> ranked(Map<Task, Integer> scores) {
+        List<Task> result = new ArrayList<>(scores.keySet());
+        result.sort(Comparator.<Task>comparingInt(scores::get).thenComparingLong(this::orderOf));
+        return result;
+    }
+
+    /**
+     * Returns the dated tasks whose date lies in the given range, keyed by date.
+     * Either bound may be {@code null} to leave that side open.
+     */
+    NavigableMap<LocalDateTime, Set<Task>> withDateBetween(LocalDateTime after, LocalDateTime before) {
+        if (after != null && before != null) {
+            return after.isBefore(before)
+                    ? byDate.subMap(after, false, before, false)
+                    : Collections.emptyNavigableMap();
+        } else if (after != null) {
+            return byDate.tailMap(after, false);
+        } else if (before != null) {
+            return byDate.headMap(before, false);
+        }
+        return byDate;
+    }
+
+    /** Returns every repeating deadline and event. */
+    Set<Task> recurringTasks() {
+        return recurring;
+    }
+
+    /**
+     * Returns the events overlapping the half-open range {@code [from, to)}, ordered by start time.
+     * One-off events are found in O(log n + k); occurrences of repeating events are expanded only
+     * within the range and returned as one-off copies.
+     */
+    List<Event> eventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = events.overlapping(from, to);
+        int oneOffCount = result.size();
+        for (Task task : recurring) {
+            if (!(task instanceof Event)) {
+                continue;
+            }
+
+            // An occurrence still running at "from" started less than one event length before it
+            Event series = (Event) task;
+            LocalDateTime earliest = from.minus(Duration.between(series.getFrom(), series.getTo())).plusNanos(1);
+            Iterator<Event> occurrences = series.occurrencesFrom(earliest);
+            while (occurrences.hasNext()) {
+                Event occurrence = occurrences.next();
+                if (!occurrence.getFrom().isBefore(to)) {
+                    break;
+                }
+                if (occurrence.getTo().isAfter(from)) {
+                    result.add(occurrence);
+                }
+            }
+        }
+        if (result.size() > oneOffCount) {
+            result.sort(Comparator.comparing(Event::getFrom));
+        }
+        return result;
+    }
+
+    /**
+     * Returns every one-off event ordered by start time, without sorting.
+     */
+    List<Event> eventsInStartOrder() {
+        return events.inStartOrder();
+    }
+
+    /**
+     * Returns the earliest undone deadlines and events at or after the given time, in date order.
+     * Runs in O(log n + limit<sup>2</sup> log limit), as at most {@code limit} repeating series are expanded,
+     * once the series whose next occurrence passed since the previous call are re-keyed.
+     *
+     * @param from  Earliest due or start time to include.
+     * @param limit Maximum number of tasks to return.
+     */
+    List<Task> upcoming(LocalDateTime from, int limit) {
+        List<Task> result = new ArrayList<>();
+        Iterator<Map.Entry<LocalDateTime, Set<Task>>> deadlines = pendingDeadlines.tailMap(from, true)
+                .entrySet().iterator();
+        Iterator<Map.Entry<LocalDateTime, Set<Task>>> events = pendingEvents.tailMap(from, true)
+                .entrySet().iterator();
+        Map.Entry<LocalDateTime, Set<Task>> nextDeadline = deadlines.hasNext() ? deadlines.next() : null;
+        Map.Entry<LocalDateTime, Set<Task>> nextEvent = events.hasNext() ? events.next() : null;
+
+        // Merge the two date-ordered indexes until enough tasks are collected
+        while (result.size() < limit && (nextDeadline != null || nextEvent != null)) {
+            if (nextEvent == null || (nextDeadline != null && !nextDeadline.getKey().isAfter(nextEvent.getKey()))) {
+                addInOrder(result, nextDeadline.getValue(), limit);
+                nextDeadline = deadlines.hasNext() ? deadlines.next() : null;
+            } else {
+                addInOrder(result, nextEvent.getValue(), limit);
+                nextEvent = events.hasNext() ? events.next() : null;
+            }
+        }
+
+        // Once "limit" series have an occurrence by some date, later series cannot make the cut,
+        // and each series contributes at most "limit" occurrences, expanded from "from" onwards
+        Map<Task, Long> seriesOrder = new IdentityHashMap<>();
+        int seriesCount = 0;
+        for (Set<Task> bucket : pendingSeries.from(from).values()) {
+            if (seriesCount >= limit) {
+                break;
+            }
+            for (Task series : bucket) {
+                seriesCount++;
+                Iterator<LocalDateTime> dates = recurrenceOf(series).occurrencesFrom(dateOf(series), from);
+                for (int i = 0; i < limit && dates.hasNext(); i++) {
+                    Task occurrence = occurrenceOf(series, dates.next());
+                    seriesOrder.put(occurrence, orderOf(series));
+                    result.add(occurrence);
+                }
+            }
+        }
+        return mergeOccurrences(result, seriesOrder, limit);
+    }
+
+    /**
+     * Returns the undone deadlines due strictly before the given time, in date order.
+     * Runs in O(log n + k log k) for k overdue deadlines, or O(log n + k) if none of them repeat.
+     *
+     * @param now Current time.
+     */
+    List<Task> overdue(LocalDateTime now) {
+        List<Task> result = new ArrayList<>();
+        for (Set<Task> bucket : pendingDeadlines.headMap(now, false).values()) {
+            addInOrder(result, bucket, Integer.MAX_VALUE);
+        }
+
+        // An undone repeating deadline is overdue from its latest past occurrence
+        Map<Task, Long> seriesOrder = new IdentityHashMap<>();
+        for (Set<Task> bucket : pendingSeriesDeadlines.headMap(now, false).values()) {
+            for (Task series : bucket) {
+                LocalDateTime last = recurrenceOf(series).getLastOccurrenceBefore(dateOf(series), now);
+                Task occurrence = occurrenceOf(series, last);
+                seriesOrder.put(occurrence, orderOf(series));
+                result.add(occurrence);
+            }
+        }
+        return mergeOccurrences(result, seriesOrder, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sorts one-off tasks and occurrences of repeating tasks together by date, breaking ties by list order.
+     * Returns the list unchanged if it holds no occurrences, since one-off tasks are already in order.
+     */
+    private List<Task> mergeOccurrences(List<Task> tasks, Map<Task, Long> seriesOrder, int limit) {
+        if (seriesOrder.isEmpty()) {
+            return tasks;
+        }
+
+        tasks.sort(Comparator.comparing(TaskIndex::dateOf)
+                .thenComparingLong(task -> seriesOrder.containsKey(task) ? seriesOrder.get(task) : orderOf(task)));
+        return tasks.size() > limit ? new ArrayList<>(tasks.subList(0, limit)) : tasks;
+    }
+
+    private void addInOrder(List<Task> result, Set<Task> bucket, int limit) {
+        List<Task> sameTime = new ArrayList<>(bucket);
+        sameTime.sort(Comparator.comparingLong(this::orderOf));
+        for (Task task : sameTime) {
+            if (result.size() >= limit) {
+                return;
+            }
+            result.add(task);
+        }
+    }
+
+    /**
+     * Adds an undone task to, or removes it from, the summary counters.
+     * A repeating deadline is overdue as soon as its first occurrence has passed, so it is counted by that date.
+     */
+    private void count(Task task, boolean isAdded) {
+        LocalDateTime date = dateOf(task);
+        DateCounter counter;
+        if (task instanceof Deadline) {
+            counter = deadlineCounter;
+        } else if (task instanceof Event && recurrenceOf(task) == null) {
+            counter = eventCounter;
+        } else {
+            return;
+        }
+
+        if (isAdded) {
+            counter.add(date);
+        } else {
+            counter.remove(date);
+        }
+    }
+
+    private void addPending(Task task) {
+        if (recurrenceOf(task) != null) {
+            pendingSeries.add(task);
+            if (task instanceof Deadline) {
+                pendingSeriesDeadlines.computeIfAbsent(dateOf(task), k -> new HashSet<>()).add(task);
+            }
+        } else if (task instanceof Deadline) {
+            pendingDeadlines.computeIfAbsent(((Deadline) task).getBy(), k -> new HashSet<>()).add(task);
+        } else if (task instanceof Event) {
+            pendingEvents.computeIfAbsent(((Event) task).getFrom(), k -> new HashSet<>()).add(task);
+        }
+    }
+
+    private void removePending(Task task) {
+        if (recurrenceOf(task) != null) {
+            pendingSeries.remove(task);
+            if (task instanceof Deadline) {
+                removeFrom(pendingSeriesDeadlines, dateOf(task), task);
+            }
+        } else if (task instanceof Deadline) {
+            removeFrom(pendingDeadlines, ((Deadline) task).getBy(), task);
+        } else if (task instanceof Event) {
+            removeFrom(pendingEvents, ((Event) task).getFrom(), task);
+        }
+    }
+
+    /**
+     * Returns the date a task is indexed under: the deadline of a {@link Deadline}
+     * or the start of an {@link Event}. Todos have no date.
+     */
+    static LocalDateTime dateOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy();
+        } else if (task instanceof Event) {
+            return ((Event) task).getFrom();
+        }
+        return null;
+    }
+
+    /**
+     * Returns how a deadline or event repeats, or {@code null} for one-off tasks and todos.
+     */
+    static Recurrence recurrenceOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getRecurrence();
+        } else if (task instanceof Event) {
+            return ((Event) task).getRecurrence();
+        }
+        return null;
+    }
+
+    /**
+     * Returns a one-off copy of a repeating deadline or event for the occurrence at the given date.
+     */
+    static Task occurrenceOf(Task series, LocalDateTime date) {
+        return series instanceof Deadline
+                ? ((Deadline) series).getOccurrence(date)
+                : ((Event) series).getOccurrence(date);
+    }
+
+    /**
+     * Returns whether a task has a date, or for a repeating task an occurrence, strictly between the bounds.
+     * Either bound may be {@code null} to leave that side open.
+     */
+    static boolean hasDateBetween(Task task, LocalDateTime after, LocalDateTime before) {
+        LocalDateTime date = dateOf(task);
+        if (date == null) {
+            return false;
+        }
+
+        Recurrence recurrence = recurrenceOf(task);
+        if (recurrence != null) {
+            Iterator<LocalDateTime> dates = recurrence.occurrencesFrom(date,
+                    after == null ? date : after.plusNanos(1));
+            date = dates.hasNext() ? dates.next() : null;
+            if (date == null) {
+                return false;
+            }
+        }
+        return (after == null || date.isAfter(after)) && (before == null || date.isBefore(before));
+    }
+
+    /** Splits a description into the lower-case words it is indexed under. */
+    static Set<String> wordsOf(String description) {
+        Set<String> words = new HashSet<>();
+        for (String word : WORD_SEPARATOR.split(description.toLowerCase())) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Task>> index, K key, Task task) {
+        Set<Task> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(task);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package chatbot.task;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
@@ -12,14 +22,36 @@ import java.util.stream.Stream;
 public class TaskList {
 
     private final ArrayList<Task> tasks; // Internal storage for tasks
+    private final TaskIndex index;       // Secondary indexes, null for derived views
+    private final List<TaskListener> listeners = new ArrayList<>();
+    private final List<TaskChange> pendingChanges = new ArrayList<>(); // Changes not yet delivered
+    private int batchDepth = 0;
+    private ArrayList<JournalEntry> journal; // Changes made in the open transaction, null if none is open
+    private SubmissionPublisher<List<TaskChange>> publisher; // Created when first asked for
 
     /**
      * Constructs a TaskList with a predefined list of tasks.
+     * The tasks are indexed so that queries do not need to scan the whole list.
      *
      * @param tasks An {@link ArrayList} of tasks to initialize the list.
      */
     public TaskList(ArrayList<Task> tasks) {
+        this(tasks, true);
+    }
+
+    /**
+     * Constructs a TaskList, optionally without indexes.
+     * Derived views such as filter and sort results are short-lived and are not indexed.
+     */
+    private TaskList(ArrayList<Task> tasks, boolean isIndexed) {
         this.tasks = tasks;
+        this.index = isIndexed ? new TaskIndex() : null;
+
+        if (isIndexed) {
+            for (Task task : tasks) {
+                this.index.add(task);
+            }
+        }
     }
 
     /**
@@ -36,6 +68,72 @@ public class TaskList {
      */
     public void addTask(Task task) {
         this.tasks.add(task);
+        if (this.index != null) {
+            this.index.add(task);
+        }
+        this.record(new TaskChange.Added(this.tasks.size() - 1, List.of(task)));
+    }
+
+    /**
+     * Adds many tasks to the end of the task list in one step.
+     * The list grows once, and listeners are told about the whole batch at once,
+     * so e.g. a named list is only marked for saving once rather than for every task.
+     *
+     * @param added Tasks to be added, in order.
+     */
+    public void addTasks(List<Task> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        int position = this.tasks.size();
+        this.tasks.ensureCapacity(position + added.size());
+        this.tasks.addAll(added);
+        if (this.index != null) {
+            for (Task task : added) {
+                this.index.add(task);
+            }
+        }
+        this.record(new TaskChange.Added(position, added));
+    }
+
+    /**
+     * Inserts tasks into the task list, starting at the given position.
+     *
+     * @param position Position the first task ends up at, from 0 up to the number of tasks.
+     * @param inserted Tasks to be inserted, in order.
+     */
+    public void insertTasks(int position, List<Task> inserted) {
+        if (position == this.tasks.size()) {
+            addTasks(inserted);
+            return;
+        }
+
+        this.tasks.addAll(position, inserted);
+        if (this.index != null) {
+            this.index.insert(this.tasks, position, inserted.size());
+        }
+        this.record(new TaskChange.Added(position, inserted));
+    }
+
+    /**
+     * Removes the tasks between two positions. Only the removed tasks are looked at,
+     * so removing the last k tasks takes time proportional to k rather than to the list.
+     *
+     * @param from First position to remove.
+     * @param to   Position after the last one to remove.
+     * @return The removed tasks, in list order.
+     */
+    public List<Task> removeRange(int from, int to) {
+        List<Task> range = this.tasks.subList(from, to);
+        List<Task> removed = new ArrayList<>(range);
+        range.clear();
+        if (this.index != null) {
+            for (Task task : removed) {
+                this.index.remove(task);
+            }
+        }
+        this.record(new TaskChange.Removed(from, removed));
+        return removed;
     }
 
     /**
@@ -44,7 +142,263 @@ public class TaskList {
      * @param task The {@link Task} to be removed.
      */
     public void deleteTask(Task task) {
-        this.tasks.remove(task);
+        int position = this.tasks.indexOf(task);
+        if (position >= 0) {
+            this.removeRange(position, position + 1);
+        }
+    }
+
+    /**
+     * Removes every task matching the predicate in a single pass over the list.
+     * Listeners are told about all the removals in one batch.
+     *
+     * @param predicate A {@link Predicate} selecting the tasks to remove.
+     * @return The removed tasks, in list order.
+     */
+    public List<Task> removeTasks(Predicate<Task> predicate) {
+        List<Task> removed = new ArrayList<>();
+        int size = this.tasks.size();
+        int kept = 0;
+
+        this.beginBatch();
+        try {
+            for (int i = 0; i < size; i++) {
+                Task task = this.tasks.get(i);
+                if (!predicate.test(task)) {
+                    this.tasks.set(kept++, task);
+                    continue;
+                }
+                removed.add(task);
+                if (this.index != null) {
+                    this.index.remove(task);
+                }
+                // Everything before this task has been kept or removed already, so it now sits at kept
+                this.record(new TaskChange.Removed(kept, List.of(task)));
+            }
+            this.tasks.subList(kept, size).clear();
+        } finally {
+            this.endBatch();
+        }
+        return removed;
+    }
+
+    /**
+     * Marks a task in the list as done.
+     *
+     * @param task The {@link Task} to be marked.
+     */
+    public void markTask(Task task) {
+        this.markTask(this.tasks.indexOf(task));
+    }
+
+    /**
+     * Marks the task at a position as done.
+     *
+     * @param position Zero-based position of the task.
+     */
+    public void markTask(int position) {
+        Task task = this.tasks.get(position);
+        boolean wasDone = task.isDone();
+        task.markAsDone();
+        this.updated(position, task, wasDone);
+    }
+
+    /**
+     * Marks a task in the list as not done.
+     *
+     * @param task The {@link Task} to be unmarked.
+     */
+    public void unmarkTask(Task task) {
+        this.unmarkTask(this.tasks.indexOf(task));
+    }
+
+    /**
+     * Marks the task at a position as not done.
+     *
+     * @param position Zero-based position of the task.
+     */
+    public void unmarkTask(int position) {
+        Task task = this.tasks.get(position);
+        boolean wasDone = task.isDone();
+        task.markAsUndone();
+        this.updated(position, task, wasDone);
+    }
+
+    private void updated(int position, Task task, boolean wasDone) {
+        if (this.index != null) {
+            this.index.updateStatus(task);
+        }
+        this.record(new TaskChange.Updated(position, task), wasDone);
+    }
+
+    /**
+     * Registers a listener to be notified whenever tasks are added, removed, marked or unmarked.
+     *
+     * @param listener The {@link TaskListener} to register.
+     */
+    public void addListener(TaskListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying a listener registered with {@link #addListener(TaskListener)}.
+     *
+     * @param listener The {@link TaskListener} to unregister.
+     */
+    public void removeListener(TaskListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns a stream of the changes made to this list from now on, one item per batch of changes.
+     * Items are delivered asynchronously, in order, to each subscriber as it requests them;
+     * a subscriber that falls far behind slows down changes to the list rather than missing any.
+     *
+     * @return Publisher of change batches.
+     */
+    public Flow.Publisher<List<TaskChange>> changes() {
+        if (this.publisher == null) {
+            this.publisher = new SubmissionPublisher<>();
+        }
+        return this.publisher;
+    }
+
+    /**
+     * Starts a batch of changes. Listeners and subscribers are not told about changes made until the matching
+     * {@link #endBatch()}, and then hear about them all at once, with runs of additions or removals merged.
+     * The indexes used by queries are still kept up to date after every change.
+     * Batches may be nested; only the outermost one delivers the changes.
+     */
+    public void beginBatch() {
+        this.batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started by {@link #beginBatch()}, delivering them if it was the outermost batch.
+     * Should be called from a {@code finally} block, so that a failed bulk operation still reports
+     * the changes it did make.
+     */
+    public void endBatch() {
+        assert this.batchDepth > 0 : "endBatch without beginBatch";
+        this.batchDepth--;
+        if (this.batchDepth == 0) {
+            this.deliverChanges();
+        }
+    }
+
+    /**
+     * Opens a transaction, a batch of changes that is either committed, delivering the changes all at once,
+     * or rolled back, putting the list back as it was without listeners ever hearing of the changes.
+     * Rolling back reverses the changes one by one, so it takes time proportional to the changes, not the list.
+     * Transactions cannot be opened inside a batch or another transaction.
+     */
+    public void beginTransaction() {
+        assert this.journal == null && this.batchDepth == 0 : "beginTransaction inside a batch";
+        this.journal = new ArrayList<>();
+        this.beginBatch();
+    }
+
+    /**
+     * Returns whether a transaction is open.
+     */
+    public boolean isInTransaction() {
+        return this.journal != null;
+    }
+
+    /**
+     * Returns the number of changes made in the open transaction, or 0 if none is open.
+     * The number can be passed to {@link #rollbackTo(int)} to undo only the changes made after it.
+     */
+    public int getUncommittedChanges() {
+        return this.journal == null ? 0 : this.journal.size();
+    }
+
+    /**
+     * Closes the open transaction, delivering its changes to listeners and subscribers in one batch.
+     */
+    public void commitTransaction() {
+        assert this.journal != null : "commitTransaction without beginTransaction";
+        this.journal = null;
+        this.endBatch();
+    }
+
+    /**
+     * Reverses the changes made in the open transaction after it had the given number of changes, newest first,
+     * and leaves the transaction open. Listeners hear of the changes and their reversals on commit.
+     *
+     * @param savepoint Number of changes to keep, as returned by {@link #getUncommittedChanges()} earlier.
+     */
+    public void rollbackTo(int savepoint) {
+        assert this.journal != null : "rollbackTo without beginTransaction";
+        ArrayList<JournalEntry> entries = this.journal;
+        this.journal = null; // Reversals are not journaled themselves
+        try {
+            for (int i = entries.size() - 1; i >= savepoint; i--) {
+                this.revert(entries.get(i));
+            }
+        } finally {
+            entries.subList(savepoint, entries.size()).clear();
+            this.journal = entries;
+        }
+    }
+
+    /**
+     * Reverses every change made in the open transaction and closes it.
+     * The list is then as it was when the transaction began, so listeners are told nothing.
+     */
+    public void rollbackTransaction() {
+        this.rollbackTo(0);
+        this.journal = null;
+        this.pendingChanges.clear();
+        this.batchDepth--;
+    }
+
+    private void revert(JournalEntry entry) {
+        if (entry.change() instanceof TaskChange.Added added) {
+            this.removeRange(added.position(), added.position() + added.tasks().size());
+        } else if (entry.change() instanceof TaskChange.Removed removed) {
+            this.insertTasks(removed.position(), removed.tasks());
+        } else if (entry.change() instanceof TaskChange.Updated updated) {
+            if (entry.wasDone()) {
+                this.markTask(updated.position());
+            } else {
+                this.unmarkTask(updated.position());
+            }
+        }
+    }
+
+    private void record(TaskChange change) {
+        this.record(change, false);
+    }
+
+    private void record(TaskChange change, boolean wasDone) {
+        if (this.journal != null) {
+            this.journal.add(new JournalEntry(change, wasDone));
+        }
+        TaskChange.append(this.pendingChanges, change);
+        if (this.batchDepth == 0) {
+            this.deliverChanges();
+        }
+    }
+
+    /**
+     * A change made in a transaction, with whether the task was done before for a change of status.
+     */
+    private record JournalEntry(TaskChange change, boolean wasDone) {
+    }
+
+    private void deliverChanges() {
+        if (this.pendingChanges.isEmpty()) {
+            return;
+        }
+        List<TaskChange> changes = List.copyOf(this.pendingChanges);
+        this.pendingChanges.clear();
+        for (TaskListener listener : this.listeners) {
+            listener.tasksChanged(changes);
+        }
+        if (this.publisher != null && this.publisher.hasSubscribers()) {
+            this.publisher.submit(changes);
+        }
     }
 
     /**
@@ -87,13 +441,171 @@ public class TaskList {
         // Filter tasks using the provided predicate
         Stream<Task> filteredStream = this.tasks.stream().filter(predicate);
         ArrayList<Task> filteredTasks = new ArrayList<>(filteredStream.toList());
-        return new TaskList(filteredTasks);
+        return new TaskList(filteredTasks, false);
     }
 
+    /**
+     * Returns the tasks whose full text, as listed, contains a match of the pattern, in list order.
+     * The list is split into ranges that are scanned in parallel on the common fork/join pool, so a search
+     * that no index can answer uses every core. The list must not change until the search returns.
+     *
+     * @param pattern     Pattern to look for, compiled once for the whole search.
+     * @param isCancelled Checked while scanning; once it returns {@code true} the search stops.
+     * @return A new {@link TaskList} with the matching tasks.
+     * @throws CancellationException If the search was cancelled before it finished.
+     */
+    public TaskList findMatching(Pattern pattern, BooleanSupplier isCancelled) {
+        ParallelScan scan = new ParallelScan(this.tasks, 0, this.tasks.size(),
+                task -> pattern.matcher(task.toString()).find(), isCancelled);
+        return new TaskList(ForkJoinPool.commonPool().invoke(scan), false);
+    }
+
+    /**
+     * Returns a new {@link TaskList} with the tasks ordered by the given comparator.
+     *
+     * @param comparator A {@link Comparator} defining the order.
+     * @return A new {@link TaskList} with the sorted tasks.
+     */
     public TaskList sort(Comparator<Task> comparator) {
         Stream<Task> sortedStream = this.tasks.stream().sorted(comparator);
         ArrayList<Task> sortedTasks = new ArrayList<>(sortedStream.toList());
-        return new TaskList(sortedTasks);
+        return new TaskList(sortedTasks, false);
+    }
+
+    /**
+     * Returns a new {@link TaskList} containing the tasks that match the given query.
+     * Indexed lists answer from the most selective index; other lists fall back to {@link #filter}.
+     *
+     * @param query The {@link TaskQuery} to execute.
+     * @return A new {@link TaskList} with the matching tasks.
+     */
+    public TaskList query(TaskQuery query) {
+        if (this.index != null && query.isIndexable()) {
+            return new TaskList(query.execute(this.index), false);
+        }
+
+        TaskList matches = this.filter(query::matches);
+        TaskQuery.SortKey sortKey = query.getSortKey();
+        return sortKey == null ? matches : matches.sort(TaskQuery.comparatorFor(sortKey));
+    }
+
+    /**
+     * Returns the tasks with a description word starting with the given prefix, ignoring case.
+     * Tasks where the prefix is a whole word come first, then closer matches, then list order.
+     *
+     * @param prefix Start of the word to look for.
+     * @return A new {@link TaskList} with the matching tasks, best matches first.
+     */
+    public TaskList findByPrefix(String prefix) {
+        return new TaskList(new ArrayList<>(this.getIndex().withPrefix(prefix.toLowerCase())), false);
+    }
+
+    /**
+     * Returns the tasks with a description word that is spelled like the given word, ignoring case.
+     * Up to one typo is tolerated in words of up to four letters and two in longer words.
+     * A typo is one inserted, deleted or substituted letter.
+     *
+     * @param word Word to look for.
+     * @return A new {@link TaskList} with the matching tasks, closest matches first.
+     */
+    public TaskList findSimilar(String word) {
+        String term = word.toLowerCase();
+        int maxDistance = term.length() <= 1 ? 0 : term.length() <= 4 ? 1 : 2;
+        return new TaskList(new ArrayList<>(this.getIndex().withSimilarWord(term, maxDistance)), false);
+    }
+
+    /**
+     * Returns the earliest undone deadlines and events due or starting at or after the given time.
+     * Repeating tasks contribute their next occurrences as one-off copies.
+     *
+     * @param from  The reference time, usually now.
+     * @param limit Maximum number of tasks to return.
+     * @return A new {@link TaskList} of at most {@code limit} tasks in date order.
+     */
+    public TaskList getUpcoming(LocalDateTime from, int limit) {
+        return new TaskList(new ArrayList<>(this.getIndex().upcoming(from, limit)), false);
+    }
+
+    /**
+     * Returns the undone deadlines that are due before the given time.
+     * A repeating deadline is listed once, at its latest occurrence before {@code now}.
+     *
+     * @param now The reference time, usually now.
+     * @return A new {@link TaskList} of overdue deadlines in date order.
+     */
+    public TaskList getOverdue(LocalDateTime now) {
+        return new TaskList(new ArrayList<>(this.getIndex().overdue(now)), false);
+    }
+
+    /**
+     * Returns counts of the tasks in the list by type and status, along with overdue deadlines
+     * and upcoming events. Indexed lists keep these counts up to date on every change.
+     *
+     * @param now The reference time, usually now.
+     * @return Summary of the list at {@code now}.
+     */
+    public TaskSummary getSummary(LocalDateTime now) {
+        return this.getIndex().summarize(now);
+    }
+
+    /**
+     * Returns the events in the list that overlap the given event, ordered by start time.
+     * Occurrences of repeating events are returned as one-off copies.
+     *
+     * @param event The event to check, which need not be in the list.
+     * @return Overlapping events other than {@code event} itself.
+     */
+    public List<Event> getConflicts(Event event) {
+        List<Event> overlapping = this.getIndex().eventsOverlapping(event.getFrom(), event.getTo());
+        overlapping.removeIf(other -> other == event);
+        return overlapping;
+    }
+
+    /**
+     * Returns every pair of overlapping one-off events in the list, found in one sweep over the events by start time.
+     *
+     * @return Overlapping pairs, each with the earlier-starting event first.
+     */
+    public List<Event[]> getConflictingPairs() {
+        return Event.findOverlappingPairs(this.getIndex().eventsInStartOrder());
+    }
+
+    /**
+     * Returns the events, including every occurrence of repeating events, that start after the given time.
+     * Occurrences are generated lazily while the caller iterates, so repeating events without an end are safe.
+     *
+     * @param reference The exclusive lower bound on start times, usually now.
+     * @return Iterator over the events in start order.
+     */
+    public Iterator<Event> getEventsStartingAfter(LocalDateTime reference) {
+        TaskIndex index = this.getIndex();
+        List<Iterator<Event>> sources = new ArrayList<>();
+
+        List<Event> oneOff = index.eventsInStartOrder();
+        oneOff.removeIf(event -> !event.getFrom().isAfter(reference));
+        sources.add(oneOff.iterator());
+        for (Task task : index.recurringTasks()) {
+            if (task instanceof Event) {
+                sources.add(((Event) task).occurrencesFrom(reference.plusNanos(1)));
+            }
+        }
+        return Event.mergeByStart(sources);
+    }
+
+    /**
+     * Returns the indexes of this list. Unindexed views get a temporary index built on demand,
+     * which costs no more than the sort a scan would need.
+     */
+    private TaskIndex getIndex() {
+        if (this.index != null) {
+            return this.index;
+        }
+
+        TaskIndex temporary = new TaskIndex();
+        for (Task task : this.tasks) {
+            temporary.add(task);
+        }
+        return temporary;
     }
 
     /**
@@ -109,16 +621,30 @@ public class TaskList {
     @Override
     public String toString() {
         StringBuilder tasksString = new StringBuilder();
+        try {
+            this.appendTo(tasksString, 0, this.getTotalTasks());
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws
+        }
+        return tasksString.toString();
+    }
 
-        for (int i = 0; i < this.getTotalTasks(); i++) {
-            Task currentTask = this.tasks.get(i);
-            tasksString.append(String.format("%d.%s", i + 1, currentTask.toString()));
-
-            if (i < this.tasks.size() - 1) {
-                tasksString.append("\n"); // Add newline except for last task
+    /**
+     * Writes the tasks at positions {@code from} (inclusive) to {@code to} (exclusive), one per line
+     * and numbered by their position in the list, in the same format as {@link #toString()}.
+     * Each line is written as soon as it is formatted, so the whole listing is never held in memory.
+     *
+     * @param out  Destination of the listing.
+     * @param from Zero-based position of the first task to write.
+     * @param to   Zero-based position after the last task to write.
+     * @throws IOException If writing to {@code out} fails.
+     */
+    public void appendTo(Appendable out, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.append('\n'); // Newline between tasks, not after the last
             }
+            out.append(Integer.toString(i + 1)).append('.').append(this.tasks.get(i).toString());
         }
-
-        return tasksString.toString();
     }
 }
@@ -0,0 +1,68 @@
+package chatbot.task;
+
+import java.util.List;
+
+/**
+ * Receives notifications about changes to a {@link TaskList}.
+ * Lets derived state such as reminders follow the list without rescanning it.
+ * <p>
+ * Every change is first passed to {@link #tasksChanged(List)}, which calls the other methods by default.
+ * Listeners that need positions, or want to handle a batch of changes at once, override it instead.
+ */
+public interface TaskListener {
+
+    /**
+     * Called after a task has been added to the list.
+     *
+     * @param task The added task.
+     */
+    void taskAdded(Task task);
+
+    /**
+     * Called after several tasks have been added to the list at once, e.g. by an import.
+     * Calls {@link #taskAdded(Task)} for each task unless overridden to handle the whole batch together.
+     *
+     * @param tasks The added tasks, in list order.
+     */
+    default void tasksAdded(List<Task> tasks) {
+        for (Task task : tasks) {
+            taskAdded(task);
+        }
+    }
+
+    /**
+     * Called after a task has been removed from the list.
+     *
+     * @param task The removed task.
+     */
+    void taskRemoved(Task task);
+
+    /**
+     * Called after a task in the list has been marked or unmarked.
+     *
+     * @param task The updated task.
+     */
+    void taskUpdated(Task task);
+
+    /**
+     * Called once for each batch of changes, in the order they were made.
+     * A single command produces a batch of one change; {@link TaskList#beginBatch()} groups more.
+     * Calls {@link #tasksAdded(List)}, {@link #taskRemoved(Task)} and {@link #taskUpdated(Task)}
+     * for each change unless overridden.
+     *
+     * @param changes The changes, in order.
+     */
+    default void tasksChanged(List<TaskChange> changes) {
+        for (TaskChange change : changes) {
+            if (change instanceof TaskChange.Added added) {
+                tasksAdded(added.tasks());
+            } else if (change instanceof TaskChange.Removed removed) {
+                for (Task task : removed.tasks()) {
+                    taskRemoved(task);
+                }
+            } else if (change instanceof TaskChange.Updated updated) {
+                taskUpdated(updated.task());
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package chatbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents a structured query over a {@link TaskList}, such as
+ * {@code list /type D /done no /before 1/1/2026 0000 /match report /sort date}.
+ * <p>
+ * A query is built once from its filters and then executed with {@link TaskList#query(TaskQuery)}.
+ * Execution picks the most selective index (type bucket, completion status, date range or word)
+ * as the candidate set and only checks the remaining filters on those candidates.
+ * Lists without indexes fall back to a {@link TaskList#filter} scan.
+ */
+public class TaskQuery {
+
+    /**
+     * Represents the keys a query result can be sorted by.
+     */
+    public enum SortKey {
+        DATE,        // Deadline or event start, undated tasks last
+        DESCRIPTION, // Alphabetical by description
+        TYPE,        // Todos, then deadlines, then events
+        STATUS       // Undone tasks before done tasks
+    }
+
+    private Class<? extends Task> type;
+    private Boolean isDone;
+    private LocalDateTime after;
+    private LocalDateTime before;
+    private final List<String> words = new ArrayList<>();
+    private SortKey sortKey;
+
+    /**
+     * Restricts the query to tasks of the given type.
+     *
+     * @param type Task class, e.g. {@code Deadline.class}.
+     * @return This query.
+     */
+    public TaskQuery ofType(Class<? extends Task> type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Restricts the query to tasks with the given completion status.
+     *
+     * @param isDone Whether matching tasks must be done.
+     * @return This query.
+     */
+    public TaskQuery withStatus(boolean isDone) {
+        this.isDone = isDone;
+        return this;
+    }
+
+    /**
+     * Restricts the query to dated tasks strictly after the given time.
+     * A repeating task matches if any of its occurrences falls in the date range.
+     *
+     * @param after Exclusive lower bound on the deadline or event start.
+     * @return This query.
+     */
+    public TaskQuery after(LocalDateTime after) {
+        this.after = after;
+        return this;
+    }
+
+    /**
+     * Restricts the query to dated tasks strictly before the given time.
+     *
+     * @param before Exclusive upper bound on the deadline or event start.
+     * @return This query.
+     */
+    public TaskQuery before(LocalDateTime before) {
+        this.before = before;
+        return this;
+    }
+
+    /**
+     * Restricts the query to tasks whose description contains the given word (case-insensitive).
+     * Calling this more than once requires every word to be present.
+     *
+     * @param word Whole word to match.
+     * @return This query.
+     */
+    public TaskQuery matching(String word) {
+        this.words.addAll(TaskIndex.wordsOf(word));
+        return this;
+    }
+
+    /**
+     * Returns whether a value holds a word that {@link #matching(String)} can look for, i.e. any letters or digits.
+     * Punctuation is not indexed, so a value without a word adds no filter at all.
+     *
+     * @param value Value to be matched.
+     * @return Whether the value holds at least one word.
+     */
+    public static boolean hasWord(String value) {
+        return !TaskIndex.wordsOf(value).isEmpty();
+    }
+
+    /**
+     * Sorts the query result by the given key instead of list order.
+     *
+     * @param sortKey Key to sort by.
+     * @return This query.
+     */
+    public TaskQuery sortedBy(SortKey sortKey) {
+        this.sortKey = sortKey;
+        return this;
+    }
+
+    /**
+     * Returns the exclusive lower bound on dates, e.g. to pick which stored tasks are worth reading.
+     *
+     * @return The bound, or {@code null} if the query has none.
+     */
+    public LocalDateTime getAfter() {
+        return after;
+    }
+
+    /**
+     * Returns the exclusive upper bound on dates.
+     *
+     * @return The bound, or {@code null} if the query has none.
+     */
+    public LocalDateTime getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns whether the given task satisfies every filter of this query.
+     *
+     * @param task Task to test.
+     * @return {@code true} if the task matches.
+     */
+    public boolean matches(Task task) {
+        if (type != null && task.getClass() != type) {
+            return false;
+        }
+        if (isDone != null && task.isDone != isDone) {
+            return false;
+        }
+        if ((after != null || before != null) && !TaskIndex.hasDateBetween(task, after, before)) {
+            return false;
+        }
+        if (!words.isEmpty() && !TaskIndex.wordsOf(task.description).containsAll(words)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Executes this query against the given indexes.
+     * The smallest available candidate set drives the query; all filters are then
+     * re-checked on the candidates only.
+     *
+     * @param index Indexes of the list being queried.
+     * @return Matching tasks in list order, or in {@link #sortKey} order if one was set.
+     */
+    ArrayList<Task> execute(TaskIndex index) {
+        Collection<Task> candidates = null;
+
+        for (String word : words) {
+            candidates = smaller(candidates, index.withWord(word));
+        }
+        if (type != null) {
+            candidates = smaller(candidates, index.withType(type));
+        }
+        if (isDone != null) {
+            candidates = smaller(candidates, index.withStatus(isDone));
+        }
+        if (after != null || before != null) {
+            candidates = smaller(candidates, collectDateRange(index, candidates));
+        }
+        assert candidates != null : "execute() requires at least one indexed filter";
+
+        ArrayList<Task> result = new ArrayList<>();
+        for (Task task : candidates) {
+            if (matches(task)) {
+                result.add(task);
+            }
+        }
+
+        Comparator<Task> listOrder = Comparator.comparingLong(index::orderOf);
+        result.sort(sortKey == null ? listOrder : comparatorFor(sortKey).thenComparing(listOrder));
+        return result;
+    }
+
+    /**
+     * Returns whether this query has at least one filter that an index can serve.
+     */
+    boolean isIndexable() {
+        return type != null || isDone != null || after != null || before != null || !words.isEmpty();
+    }
+
+    /**
+     * Returns the sort key of this query, or {@code null} to keep list order.
+     */
+    SortKey getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * Collects the tasks in the query's date range, giving up as soon as the range
+     * holds more tasks than the current best candidate set.
+     *
+     * @return The tasks in range, or {@code null} if the range is not the most selective choice.
+     */
+    private Collection<Task> collectDateRange(TaskIndex index, Collection<Task> best) {
+        int limit = best == null ? Integer.MAX_VALUE : best.size();
+        List<Task> inRange = new ArrayList<>();
+
+        for (Set<Task> bucket : index.withDateBetween(after, before).values()) {
+            if (inRange.size() + bucket.size() > limit) {
+                return null;
+            }
+            inRange.addAll(bucket);
+        }
+
+        // Repeating tasks are not keyed by date, so they are all candidates and checked by matches()
+        if (inRange.size() + index.recurringTasks().size() > limit) {
+            return null;
+        }
+        inRange.addAll(index.recurringTasks());
+        return inRange;
+    }
+
+    private static Collection<Task> smaller(Collection<Task> current, Collection<Task> other) {
+        if (other == null) {
+            return current;
+        }
+        return current == null || other.size() < current.size() ? other : current;
+    }
+
+    /**
+     * Returns the comparator that orders tasks by the given key.
+     */
+    static Comparator<Task> comparatorFor(SortKey sortKey) {
+        return switch (sortKey) {
+            case DATE -> Comparator.comparing(TaskIndex::dateOf, Comparator.nullsLast(Comparator.naturalOrder()));
+            case DESCRIPTION -> Comparator.comparing(task -> task.description.toLowerCase());
+            case TYPE -> Comparator.comparingInt(TaskQuery::typeRank);
+            case STATUS -> Comparator.comparing(task -> task.isDone);
+        };
+    }
+
+    private static int typeRank(Task task) {
+        if (task instanceof Todo) {
+            return 0;
+        } else if (task instanceof Deadline) {
+            return 1;
+        }
+        return 2;
+    }
+}
@@ -0,0 +1,76 @@
+package chatbot.task;
+
+/**
+ * Represents counts of the tasks in a {@link TaskList} at a point in time,
+ * as returned by {@link TaskList#getSummary(java.time.LocalDateTime)}.
+ */
+public class TaskSummary {
+
+    private final int todos;
+    private final int deadlines;
+    private final int events;
+    private final int done;
+    private final int overdue;
+    private final int eventsInNextDay;
+    private final int eventsInNextWeek;
+
+    /**
+     * Constructs a TaskSummary.
+     *
+     * @param todos            Number of todos.
+     * @param deadlines        Number of deadlines.
+     * @param events           Number of events.
+     * @param done             Number of tasks marked as done.
+     * @param overdue          Number of undone deadlines that are past due.
+     * @param eventsInNextDay  Number of undone event occurrences starting in the next 24 hours.
+     * @param eventsInNextWeek Number of undone event occurrences starting in the next 7 days.
+     */
+    public TaskSummary(int todos, int deadlines, int events, int done, int overdue,
+            int eventsInNextDay, int eventsInNextWeek) {
+        this.todos = todos;
+        this.deadlines = deadlines;
+        this.events = events;
+        this.done = done;
+        this.overdue = overdue;
+        this.eventsInNextDay = eventsInNextDay;
+        this.eventsInNextWeek = eventsInNextWeek;
+    }
+
+    /** Returns the number of tasks of every type. */
+    public int getTotal() {
+        return todos + deadlines + events;
+    }
+
+    public int getTodos() {
+        return todos;
+    }
+
+    public int getDeadlines() {
+        return deadlines;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    /** Returns the number of tasks not marked as done. */
+    public int getUndone() {
+        return getTotal() - done;
+    }
+
+    public int getOverdue() {
+        return overdue;
+    }
+
+    public int getEventsInNextDay() {
+        return eventsInNextDay;
+    }
+
+    public int getEventsInNextWeek() {
+        return eventsInNextWeek;
+    }
+}
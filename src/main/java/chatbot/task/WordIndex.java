@@ -0,0 +1,161 @@
+package chatbot.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An index from description words to tasks that also answers prefix and typo-tolerant lookups.
+ * <p>
+ * Words are kept sorted, so the words starting with a prefix form one contiguous range.
+ * Every distinct word is also indexed under its trigrams. A word within edit distance k of a term
+ * shares all but at most 3k of the term's trigrams, so a fuzzy lookup only counts shared trigrams
+ * and computes edit distances for the few best-sharing words, never for the whole vocabulary.
+ */
+class WordIndex {
+
+    /** Most words whose edit distance is computed for a single fuzzy lookup. */
+    private static final int MAX_FUZZY_CANDIDATES = 256;
+
+    /** Pads words so that their first and last letters also start and end trigrams. */
+    private static final String PADDING = "\0\0";
+
+    private final TreeMap<String, Set<Task>> byWord = new TreeMap<>();
+    private final Map<String, Set<String>> byTrigram = new HashMap<>();
+
+    /**
+     * Indexes a task under each of its words.
+     */
+    void add(Task task, Set<String> words) {
+        for (String word : words) {
+            Set<Task> bucket = byWord.get(word);
+            if (bucket == null) {
+                // First task with this word, so the word joins the vocabulary
+                bucket = new HashSet<>();
+                byWord.put(word, bucket);
+                for (String trigram : trigramsOf(word)) {
+                    byTrigram.computeIfAbsent(trigram, k -> new HashSet<>()).add(word);
+                }
+            }
+            bucket.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from under each of its words.
+     */
+    void remove(Task task, Set<String> words) {
+        for (String word : words) {
+            Set<Task> bucket = byWord.get(word);
+            if (bucket == null || !bucket.remove(task) || !bucket.isEmpty()) {
+                continue;
+            }
+
+            // Last task with this word, so the word leaves the vocabulary
+            byWord.remove(word);
+            for (String trigram : trigramsOf(word)) {
+                Set<String> similar = byTrigram.get(trigram);
+                similar.remove(word);
+                if (similar.isEmpty()) {
+                    byTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /** Returns the tasks whose description contains the given (lower-case) word. */
+    Set<Task> withWord(String word) {
+        return byWord.getOrDefault(word, Collections.emptySet());
+    }
+
+    /** Returns the tasks of every word starting with the given (lower-case) prefix, keyed by word. */
+    SortedMap<String, Set<Task>> withPrefix(String prefix) {
+        return byWord.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    /**
+     * Returns the indexed words within the given edit distance of a term, each with its distance.
+     * Candidates are first narrowed by length and by the number of trigrams they share with the term,
+     * and at most {@value #MAX_FUZZY_CANDIDATES} of them, those sharing the most trigrams, are compared.
+     *
+     * @param term        Lower-case word to look up.
+     * @param maxDistance Largest number of single-letter insertions, deletions or substitutions allowed.
+     */
+    Map<String, Integer> similarWords(String term, int maxDistance) {
+        Set<String> termTrigrams = trigramsOf(term);
+        int neededShared = Math.max(1, termTrigrams.size() - 3 * maxDistance);
+
+        Map<String, Integer> sharedCounts = new HashMap<>();
+        for (String trigram : termTrigrams) {
+            for (String word : byTrigram.getOrDefault(trigram, Collections.emptySet())) {
+                if (Math.abs(word.length() - term.length()) <= maxDistance) {
+                    sharedCounts.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : sharedCounts.entrySet()) {
+            if (entry.getValue() >= neededShared) {
+                candidates.add(entry.getKey());
+            }
+        }
+        if (candidates.size() > MAX_FUZZY_CANDIDATES) {
+            candidates.sort((a, b) -> sharedCounts.get(b) - sharedCounts.get(a));
+            candidates = candidates.subList(0, MAX_FUZZY_CANDIDATES);
+        }
+
+        Map<String, Integer> similar = new HashMap<>();
+        for (String word : candidates) {
+            int distance = editDistance(term, word, maxDistance);
+            if (distance <= maxDistance) {
+                similar.put(word, distance);
+            }
+        }
+        return similar;
+    }
+
+    private static Set<String> trigramsOf(String word) {
+        String padded = PADDING + word + PADDING;
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words, or {@code max + 1} as soon as it is known to exceed max.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1; // Every later row is at least as large
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
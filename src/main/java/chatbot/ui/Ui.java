@@ -1,8 +1,17 @@
 package chatbot.ui;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
 import chatbot.command.Parser;
+import chatbot.storage.TaskEvent;
+import chatbot.task.Event;
 import chatbot.task.Task;
 import chatbot.task.TaskList;
+import chatbot.task.TaskSummary;
 
 /**
  * Handles all interactions with the user by printing messages to the console.
@@ -11,6 +20,8 @@ import chatbot.task.TaskList;
  */
 public class Ui {
 
+    private static final DateTimeFormatter HISTORY_FORMAT = DateTimeFormatter.ofPattern("MMM d yyyy, HH:mm");
+
     /**
      * Displays a farewell message and ends the chatbot conversation.
      */
@@ -30,6 +41,46 @@ public class Ui {
         return tasks.toString();
     }
 
+    /**
+     * Writes all tasks in the task list to the given output, one task at a time.
+     *
+     * @param tasks The current task list.
+     * @param out   Destination of the listing.
+     * @throws IOException If writing to {@code out} fails.
+     */
+    public void writeTaskList(TaskList tasks, Appendable out) throws IOException {
+        if (tasks.getTotalTasks() == 0) {
+            out.append("You have no tasks currently. Add one now!");
+            return;
+        }
+        tasks.appendTo(out, 0, tasks.getTotalTasks());
+    }
+
+    /**
+     * Displays one page of the task list, numbered by position in the full list.
+     *
+     * @param tasks The current task list.
+     * @param page  One-based page number, within the number of pages.
+     * @param size  Number of tasks per page.
+     */
+    public String showPage(TaskList tasks, int page, int size) {
+        if (tasks.getTotalTasks() == 0) {
+            return "You have no tasks currently. Add one now!";
+        }
+
+        int from = (page - 1) * size;
+        int to = Math.min(from + size, tasks.getTotalTasks());
+        int totalPages = (tasks.getTotalTasks() + size - 1) / size;
+        StringBuilder message = new StringBuilder();
+        message.append("Page ").append(page).append(" of ").append(totalPages).append(":\n");
+        try {
+            tasks.appendTo(message, from, to);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws
+        }
+        return message.toString();
+    }
+
     /**
      * Displays a confirmation that a task has been marked as done.
      *
@@ -93,6 +144,310 @@ public class Ui {
         return message.toString();
     }
 
+    /**
+     * Displays tasks that match a structured list query.
+     *
+     * @param tasks TaskList containing matching tasks.
+     */
+    public String showQueryResult(TaskList tasks) {
+        if (tasks.getTotalTasks() == 0) {
+            return "No tasks match your query.";
+        }
+        return "Here are the tasks matching your query:\n" + tasks;
+    }
+
+    /**
+     * Displays the next undone deadlines and events.
+     *
+     * @param tasks TaskList of upcoming tasks in date order.
+     */
+    public String showUpcoming(TaskList tasks) {
+        if (tasks.getTotalTasks() == 0) {
+            return "Nothing coming up. Enjoy the free time!";
+        }
+        return "Here is what's coming up next:\n" + tasks;
+    }
+
+    /**
+     * Displays the undone deadlines that are past due.
+     *
+     * @param tasks TaskList of overdue deadlines in date order.
+     */
+    public String showOverdue(TaskList tasks) {
+        if (tasks.getTotalTasks() == 0) {
+            return "No overdue deadlines. Well done!";
+        }
+        return "These deadlines are overdue:\n" + tasks;
+    }
+
+    /**
+     * Displays a confirmation that done tasks were moved to the archive.
+     *
+     * @param archivedCount  Number of tasks archived.
+     * @param remainingTasks Number of tasks left in the list.
+     */
+    public String showArchived(int archivedCount, int remainingTasks) {
+        if (archivedCount == 0) {
+            return "There are no done tasks to archive.";
+        }
+        return "Archived " + archivedCount + " done task(s). Now you have " + remainingTasks
+                + " task(s) in the list.";
+    }
+
+    /**
+     * Displays all archived tasks.
+     *
+     * @param archived Tasks in the archive, oldest first.
+     */
+    public String showArchivedTasks(TaskList archived) {
+        if (archived.getTotalTasks() == 0) {
+            return "Your archive is empty.";
+        }
+        return "Here are your archived tasks:\n" + archived;
+    }
+
+    /**
+     * Displays a confirmation that a command was undone.
+     *
+     * @param command Input of the undone command.
+     */
+    public String showUndone(String command) {
+        return "Undone: " + command;
+    }
+
+    /**
+     * Displays a confirmation that an undone command was redone.
+     *
+     * @param command Input of the redone command.
+     */
+    public String showRedone(String command) {
+        return "Redone: " + command;
+    }
+
+    /**
+     * Displays a confirmation that a transaction was opened.
+     */
+    public String showTransactionBegun() {
+        return "Transaction started. Your changes will be saved together when you commit, or discarded if you "
+                + "roll back.";
+    }
+
+    /**
+     * Displays a confirmation that the changes made in a transaction were saved.
+     *
+     * @param changes Number of changes made to the task list.
+     */
+    public String showCommitted(int changes) {
+        return "Committed " + changes + " change(s) to your list.";
+    }
+
+    /**
+     * Displays a confirmation that the changes made in a transaction were discarded.
+     *
+     * @param changes Number of changes that were undone.
+     */
+    public String showRolledBack(int changes) {
+        return "Rolled back " + changes + " change(s). Your list is as it was before the transaction.";
+    }
+
+    /**
+     * Displays why a message of several commands was not applied.
+     *
+     * @param command The command that failed.
+     * @param error   Message of the error it failed with.
+     */
+    public String showCommandsNotApplied(String command, String error) {
+        return error + "\nNone of the commands in your message were applied, as \"" + command + "\" failed.";
+    }
+
+    /**
+     * Displays the recorded changes to a task, oldest first.
+     *
+     * @param taskNumber Number of the task in the list.
+     * @param history    Changes to the task, starting with it being added.
+     */
+    public String showHistory(int taskNumber, List<TaskEvent> history) {
+        StringBuilder message = new StringBuilder("Here is the history of task " + taskNumber + ":");
+        for (TaskEvent event : history) {
+            message.append("\n").append(event.at().format(HISTORY_FORMAT)).append(": ");
+            if (event instanceof TaskEvent.TaskAdded added) {
+                message.append("added ").append(added.task());
+            } else if (event instanceof TaskEvent.TaskMarked marked) {
+                message.append(marked.isDone() ? "marked as done" : "marked as not done");
+            } else {
+                message.append("deleted");
+            }
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays the tasks as they were at an earlier time.
+     *
+     * @param at    Time the list was rebuilt at.
+     * @param tasks Tasks in the list at that time.
+     */
+    public String showTasksAt(LocalDateTime at, TaskList tasks) {
+        if (tasks.getTotalTasks() == 0) {
+            return "Your list was empty on " + at.format(HISTORY_FORMAT) + ".";
+        }
+        return "Here are the tasks in your list on " + at.format(HISTORY_FORMAT) + ":\n" + tasks;
+    }
+
+    /**
+     * Displays how many tasks were imported from a file.
+     *
+     * @param importedCount Number of tasks added.
+     * @param skippedCount  Number of records that could not be converted into tasks.
+     * @param totalTasks    Number of tasks in the list afterwards.
+     */
+    public String showImported(int importedCount, int skippedCount, int totalTasks) {
+        String message = "Imported " + importedCount + " task(s). Now you have " + totalTasks + " task(s) in the list.";
+        if (skippedCount > 0) {
+            message += "\nSkipped " + skippedCount + " entry(s) that could not be turned into tasks.";
+        }
+        return message;
+    }
+
+    /**
+     * Displays a confirmation that the tasks were written to a file.
+     *
+     * @param exportedCount Number of tasks written.
+     * @param file          Name of the file.
+     */
+    public String showExported(int exportedCount, String file) {
+        return "Exported " + exportedCount + " task(s) to " + file + ".";
+    }
+
+    /**
+     * Displays a confirmation that the given list is now in use.
+     *
+     * @param name       Name of the list.
+     * @param totalTasks Number of tasks in the list.
+     */
+    public String showListSwitched(String name, int totalTasks) {
+        return "Now using the list \"" + name + "\" with " + totalTasks + " task(s).";
+    }
+
+    /**
+     * Displays what changed in a list after its file was edited by another program.
+     *
+     * @param name    Name of the list.
+     * @param added   Number of tasks added.
+     * @param removed Number of tasks removed.
+     * @param updated Number of tasks changed.
+     */
+    public String showReloaded(String name, int added, int removed, int updated) {
+        return "The file of the list \"" + name + "\" was changed elsewhere, so I reloaded it: " + added
+                + " task(s) added, " + removed + " removed and " + updated + " changed.";
+    }
+
+    /**
+     * Displays the named task lists, marking the one in use and the ones held in memory.
+     *
+     * @param names   Names of every list, in display order.
+     * @param current Name of the list in use.
+     * @param loaded  Names of the lists held in memory.
+     */
+    public String showLists(List<String> names, String current, Set<String> loaded) {
+        StringBuilder message = new StringBuilder("Here are your lists:");
+        for (String name : names) {
+            message.append("\n").append(name.equals(current) ? "* " : "  ").append(name);
+            if (loaded.contains(name)) {
+                message.append(" (loaded)");
+            }
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays the matching tasks of the task list followed by the matching archived tasks.
+     *
+     * @param tasks    Matching tasks in the list.
+     * @param archived Matching tasks in the archive.
+     */
+    public String showFindAllResult(TaskList tasks, TaskList archived) {
+        StringBuilder message = new StringBuilder();
+        message.append("Here are the matching tasks in your list:\n");
+        message.append(tasks);
+        if (archived.getTotalTasks() > 0) {
+            message.append("\nAnd in your archive:\n");
+            message.append(archived);
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays task counts by type and status, overdue deadlines, and events coming up soon.
+     *
+     * @param summary Counts of the current task list.
+     */
+    public String showSummary(TaskSummary summary) {
+        return "Here is a summary of your tasks:\n"
+                + "Total: " + summary.getTotal() + " (" + summary.getTodos() + " todo(s), "
+                + summary.getDeadlines() + " deadline(s), " + summary.getEvents() + " event(s))\n"
+                + "Done: " + summary.getDone() + ", not done: " + summary.getUndone() + "\n"
+                + "Overdue deadlines: " + summary.getOverdue() + "\n"
+                + "Events in the next 24 hours: " + summary.getEventsInNextDay()
+                + ", next 7 days: " + summary.getEventsInNextWeek();
+    }
+
+    /**
+     * Displays a warning listing the existing events that a newly added event overlaps.
+     *
+     * @param conflicts Overlapping events, ordered by start time.
+     */
+    public String showConflictWarning(List<Event> conflicts) {
+        StringBuilder message = new StringBuilder();
+        message.append("Heads up! It clashes with:");
+        for (Event event : conflicts) {
+            message.append("\n").append(event);
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays why an event was not added because it overlaps existing events.
+     *
+     * @param conflicts Overlapping events, ordered by start time.
+     */
+    public String showConflictRejection(List<Event> conflicts) {
+        StringBuilder message = new StringBuilder();
+        message.append("OOPS!!! This event was not added because it clashes with:");
+        for (Event event : conflicts) {
+            message.append("\n").append(event);
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays every pair of overlapping events.
+     *
+     * @param pairs Overlapping pairs, each with the earlier-starting event first.
+     */
+    public String showConflicts(List<Event[]> pairs) {
+        if (pairs.isEmpty()) {
+            return "None of your events clash.";
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append("These events clash:");
+        for (int i = 0; i < pairs.size(); i++) {
+            message.append('\n').append(i + 1).append('.').append(pairs.get(i)[0])
+                    .append("\n  and ").append(pairs.get(i)[1]);
+        }
+        return message.toString();
+    }
+
+    /**
+     * Displays a reminder for a deadline that is now due or an event that is starting.
+     *
+     * @param task The task the reminder is for.
+     */
+    public String showReminder(Task task) {
+        return "Reminder! This is happening now:\n" + task;
+    }
+
     /**
      * Displays an error message if there was an error loading saved tasks.
      *
@@ -0,0 +1,153 @@
+package chatbot.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+import chatbot.ui.Ui;
+
+/**
+ * Checks how many bytes parsing and executing each command allocates on a list of {@value #LIST_SIZE} tasks,
+ * so that changes such as compiling a pattern per command or formatting each task show up as a failure.
+ * <p>
+ * Each command runs {@value #WARMUP_RUNS} times before it is measured, and the least of {@value #MEASURED_RUNS}
+ * runs is compared with its budget, which leaves out the compiler's own work and allocations it later removes.
+ * Budgets leave a quarter to a half of headroom over what the commands allocate today; an unknown command has
+ * more, as the stack trace of its exception grows with the depth of the test runner's stack.
+ */
+public class AllocationBudgetTest {
+    private static final int LIST_SIZE = 1000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 50;
+
+    /** Commands that cannot run against a task list alone, since they read or write files or are run by ChatBot. */
+    private static final Set<CommandType> UNBUDGETED = EnumSet.of(CommandType.ARCHIVE_TASKS,
+            CommandType.LIST_ARCHIVED, CommandType.SHOW_HISTORY, CommandType.LIST_AT, CommandType.IMPORT_TASKS,
+            CommandType.EXPORT_TASKS, CommandType.USE_LIST, CommandType.SHOW_LISTS, CommandType.BEGIN,
+            CommandType.COMMIT, CommandType.ROLLBACK);
+
+    /**
+     * A command with its allocation budget, the commands run before it and those that undo it afterwards,
+     * so that every run sees the same list.
+     */
+    private record Budget(String input, long maxBytes, List<String> setup, List<String> restore) {
+        Budget(String input, long maxBytes) {
+            this(input, maxBytes, List.of(), List.of());
+        }
+    }
+
+    private static final List<Budget> BUDGETS = List.of(
+            new Budget("bye", 4_500),
+            new Budget("list", 950_000),
+            new Budget("list /page 3", 27_000),
+            new Budget("list /type D /done no /match report", 160_000),
+            new Budget("mark 5", 6_500, List.of(), List.of("undo")),
+            new Budget("unmark 6", 7_000, List.of(), List.of("undo")),
+            new Budget("delete 7", 9_500, List.of(), List.of("undo")),
+            new Budget("todo read book", 14_500, List.of(), List.of("undo")),
+            new Budget("deadline return book /by 2/1/2100 0900", 17_000, List.of(), List.of("undo")),
+            new Budget("event exam /from 3/1/2100 0900 /to 3/1/2100 1100", 14_500, List.of(), List.of("undo")),
+            new Budget("find report", 1_150_000),
+            new Budget("free /duration 2", 10_000),
+            new Budget("upcoming", 15_000),
+            new Budget("overdue", 6_500),
+            new Budget("conflicts", 120_000),
+            new Budget("summary", 6_000),
+            new Budget("undo", 9_000, List.of("todo read book"), List.of()),
+            new Budget("redo", 12_500, List.of("todo read book", "undo"), List.of("undo")),
+            new Budget("what", 12_000)); // Rejected as unknown
+
+    @Test
+    public void handleInput_everyCommandType_withinAllocationBudget() throws Exception {
+        TaskList tasks = createTasks();
+        UndoHistory history = new UndoHistory();
+        Ui ui = new Ui();
+        List<String> failures = new ArrayList<>();
+
+        for (Budget budget : BUDGETS) {
+            long allocated = measure(budget, tasks, history, ui);
+            if (allocated > budget.maxBytes()) {
+                failures.add(budget.input() + " allocated " + allocated + " bytes, over its budget of "
+                        + budget.maxBytes());
+            }
+        }
+
+        assertEquals(LIST_SIZE, tasks.getTotalTasks());
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    @Test
+    public void budgets_everyCommandType_budgetedOrExcluded() {
+        Set<CommandType> uncovered = EnumSet.allOf(CommandType.class);
+        uncovered.removeAll(UNBUDGETED);
+        for (Budget budget : BUDGETS) {
+            uncovered.remove(new Parser(budget.input()).getCommandType());
+        }
+
+        assertTrue(uncovered.isEmpty(), "No allocation budget for " + uncovered);
+    }
+
+    /**
+     * Returns the fewest bytes the command allocated over the measured runs, on the current thread.
+     */
+    private static long measure(Budget budget, TaskList tasks, UndoHistory history, Ui ui) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long fewest = Long.MAX_VALUE;
+
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            for (String input : budget.setup()) {
+                new Parser(input, history).handleInput(tasks, ui);
+            }
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            try {
+                new Parser(budget.input(), history).handleInput(tasks, ui);
+            } catch (ChatBotException e) {
+                // Rejected commands are measured too
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            for (String input : budget.restore()) {
+                new Parser(input, history).handleInput(tasks, ui);
+            }
+            if (run >= WARMUP_RUNS) {
+                fewest = Math.min(fewest, allocated);
+            }
+        }
+        return fewest;
+    }
+
+    /**
+     * Returns a list of todos, deadlines and events a few hours apart from the year 2100, so none are overdue,
+     * with some of the events clashing with the one before.
+     */
+    private static TaskList createTasks() {
+        TaskList tasks = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2100, 1, 1, 8, 0);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            LocalDateTime date = start.plusHours(5L * i);
+            String description = (i % 4 == 0 ? "report " : "review ") + i;
+            tasks.addTask(switch (i % 3) {
+                case 0 -> new Todo(description);
+                case 1 -> new Deadline(description, date);
+                default -> new Event(description, i % 10 == 2 ? date.minusHours(16) : date, date.plusHours(2));
+            });
+        }
+        return tasks;
+    }
+}
@@ -1,6 +1,7 @@
 package chatbot.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.ArrayList;
@@ -8,6 +9,11 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import chatbot.exception.ChatBotException;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+import chatbot.ui.Ui;
+
 public class ParserTest {
     @Test
     public void getArguments_eventMissingArguments_emptyArray() {
@@ -19,4 +25,30 @@ public class ParserTest {
             fail();
         }
     }
+
+    @Test
+    public void splitCommands_semicolonsAndLineBreaks_trimmedCommandsInOrder() {
+        assertEquals(List.of(" todo read book "), Parser.splitCommands(" todo read book "));
+        assertEquals(List.of("todo a", "event b /from 2/1/2100 0900 /to 2/1/2100 1000", "mark 1"),
+                Parser.splitCommands("todo a; event b /from 2/1/2100 0900 /to 2/1/2100 1000\r\n\nmark 1;"));
+    }
+
+    @Test
+    public void splitCommands_escapedSemicolonsAndRegexSearch_keptInCommand() {
+        assertEquals(List.of("todo buy milk; eggs", "mark 1"), Parser.splitCommands("todo buy milk\\; eggs; mark 1"));
+        assertEquals(List.of("todo a", "find /regex a;b\\;c", "mark 1"),
+                Parser.splitCommands("todo a; find /regex a;b\\;c\nmark 1"));
+        assertEquals(List.of("find /regexp", "list"), Parser.splitCommands("find /regexp; list"));
+    }
+
+    @Test
+    public void handleInput_listMatchWithoutWord_rejectedRatherThanListingEverything() throws Exception {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("learn c"));
+        tasks.addTask(new Todo("read book"));
+
+        assertThrows(ChatBotException.class, () -> new Parser("list /match !!!").handleInput(tasks, new Ui()));
+        assertEquals(new Parser("list /match c").handleInput(tasks, new Ui()),
+                new Parser("list /match c++").handleInput(tasks, new Ui()));
+    }
 }
@@ -0,0 +1,62 @@
+package chatbot.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.TaskList;
+import chatbot.task.TaskQuery;
+import chatbot.ui.Ui;
+
+public class UndoHistoryTest {
+    private static String run(String input, TaskList tasks, UndoHistory history) throws ChatBotException {
+        return new Parser(input, history).handleInput(tasks, new Ui());
+    }
+
+    @Test
+    public void undoAndRedo_addDeleteAndMark_listRestoredInOrder() throws Exception {
+        TaskList tasks = new TaskList();
+        UndoHistory history = new UndoHistory();
+        run("todo read book", tasks, history);
+        run("todo buy book", tasks, history);
+        run("todo return book", tasks, history);
+        run("mark 3", tasks, history);
+        run("delete 2", tasks, history);
+
+        assertEquals("Undone: delete 2", run("undo", tasks, history));
+        assertEquals("1.[T][ ] read book\n2.[T][ ] buy book\n3.[T][X] return book", tasks.toString());
+        // The reinserted task is back in its place in the indexes too
+        assertEquals("1.[T][ ] read book\n2.[T][ ] buy book",
+                tasks.query(new TaskQuery().matching("book").withStatus(false)).toString());
+
+        run("undo", tasks, history);
+        assertEquals("Redone: mark 3", run("redo", tasks, history));
+        run("undo", tasks, history);
+        run("undo", tasks, history);
+        assertEquals("1.[T][ ] read book\n2.[T][ ] buy book", tasks.toString());
+
+        run("todo sell book", tasks, history);
+        assertThrows(ChatBotException.class, () -> run("redo", tasks, history));
+    }
+
+    @Test
+    public void undo_moreCommandsThanCapacity_onlyNewestUndone() throws Exception {
+        TaskList tasks = new TaskList();
+        UndoHistory history = new UndoHistory(3);
+        for (int i = 1; i <= 5; i++) {
+            run("todo task " + i, tasks, history);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            run("undo", tasks, history);
+        }
+        assertThrows(ChatBotException.class, () -> run("undo", tasks, history));
+        assertEquals("1.[T][ ] task 1\n2.[T][ ] task 2", tasks.toString());
+        for (int i = 0; i < 3; i++) {
+            run("redo", tasks, history);
+        }
+        assertEquals(5, tasks.getTotalTasks());
+    }
+}
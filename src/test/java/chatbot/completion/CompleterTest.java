@@ -0,0 +1,32 @@
+package chatbot.completion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Todo;
+
+public class CompleterTest {
+    @Test
+    public void suggest_commandsFlagsNumbersAndWords_completesLastWord() {
+        Completer completer = new Completer();
+        for (int i = 1; i <= 12; i++) {
+            completer.taskAdded(new Todo("task " + i));
+        }
+        Todo report = new Todo("write Report");
+        completer.taskAdded(report);
+        completer.taskAdded(new Todo("read reports"));
+
+        assertEquals(List.of("undo", "unmark", "upcoming", "use"), completer.suggest("u", 5));
+        assertEquals(List.of("archive"), completer.suggest("ar", 5));
+        assertEquals(List.of("/from"), completer.suggest("event party /f", 5));
+        assertEquals(List.of("/all", "/regex"), completer.suggest("find /", 5));
+        assertEquals(List.of("1", "10", "11"), completer.suggest("delete 1", 3));
+        assertEquals(List.of("report", "reports"), completer.suggest("find Rep", 5));
+
+        completer.taskRemoved(report);
+        assertEquals(List.of("reports"), completer.suggest("find rep", 5));
+    }
+}
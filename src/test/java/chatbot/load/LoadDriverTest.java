@@ -0,0 +1,36 @@
+package chatbot.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class LoadDriverTest {
+    @Test
+    public void replay_secondRun_responsesMatchRecordedOnes() throws Exception {
+        Path directory = Files.createTempDirectory("load");
+        new WorkloadGenerator(7, WorkloadGenerator.DEFAULT_MIX).generate(directory.resolve("tasks.txt"),
+                directory.resolve("input.txt"), 50, 200);
+
+        LoadDriver.Result recorded = LoadDriver.replay(directory, 0, false);
+        LoadDriver.Result checked = LoadDriver.replay(directory, 20, false);
+
+        assertEquals(0, recorded.checked());
+        assertTrue(Files.exists(directory.resolve("EXPECTED.TXT")));
+        assertEquals(201 - checked.unchecked(), checked.checked());
+        assertEquals(181, checked.commands());
+        assertTrue(checked.mismatches().isEmpty(), String.join("\n", checked.mismatches()));
+    }
+
+    @Test
+    public void percentileOf_sortedValues_nearestRank() {
+        long[] values = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        assertEquals(5, LoadDriver.percentileOf(values, 50));
+        assertEquals(10, LoadDriver.percentileOf(values, 99));
+        assertEquals(1, LoadDriver.percentileOf(values, 0));
+    }
+}
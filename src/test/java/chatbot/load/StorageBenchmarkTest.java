@@ -0,0 +1,33 @@
+package chatbot.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class StorageBenchmarkTest {
+    @Test
+    public void measure_plainAndCompressed_compressedFileSmaller() throws Exception {
+        Path directory = Files.createTempDirectory("benchmark");
+
+        List<StorageBenchmark.Measurement> measurements = StorageBenchmark.measure(directory, 2000, 1, 3);
+
+        assertEquals(StorageBenchmark.FILE_NAMES, measurements.stream()
+                .map(StorageBenchmark.Measurement::fileName).toList());
+        assertTrue(measurements.get(1).bytes() < measurements.get(0).bytes());
+        String report = StorageBenchmark.report(measurements, 2000, 1, new double[]{100});
+        assertTrue(report.startsWith("Saved and loaded 2000 task(s), fastest of 1 run(s)"), report);
+        assertTrue(report.contains("Modelled load over 100 Mb/s: tasks.txt "), report);
+    }
+
+    @Test
+    public void loadNanosOver_oneMegabyteAt8MegabitsPerSecond_oneSecondAdded() {
+        StorageBenchmark.Measurement measurement = new StorageBenchmark.Measurement("tasks.txt", 1_000_000, 0, 5);
+
+        assertEquals(1_000_000_005L, measurement.loadNanosOver(8));
+    }
+}
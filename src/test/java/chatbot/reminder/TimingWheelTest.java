@@ -0,0 +1,46 @@
+package chatbot.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+    @Test
+    public void advanceTo_timersAcrossLevels_expireAtTheirDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000);
+        wheel.schedule(1_005, "seconds");
+        wheel.schedule(1_000 + 3 * 64 + 7, "minutes");
+        wheel.schedule(1_000 + 5 * 64 * 64 + 11, "hours");
+        wheel.schedule(1_000 + 40L * 64 * 64 * 64 * 64 * 64, "decades");
+
+        assertTrue(wheel.advanceTo(1_004).isEmpty());
+        assertEquals(List.of("seconds"), wheel.advanceTo(1_005));
+        assertTrue(wheel.advanceTo(1_000 + 3 * 64 + 6).isEmpty());
+        assertEquals(List.of("minutes"), wheel.advanceTo(1_000 + 3 * 64 + 7));
+        assertTrue(wheel.advanceTo(1_000 + 5 * 64 * 64 + 10).isEmpty());
+        assertEquals(List.of("hours"), wheel.advanceTo(1_000 + 5 * 64 * 64 + 11));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void cancel_pendingTimer_neverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timer<String> cancelled = wheel.schedule(100, "cancelled");
+        wheel.schedule(100, "kept");
+        wheel.cancel(cancelled);
+
+        assertEquals(List.of("kept"), wheel.advanceTo(200));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void schedule_deadlineInThePast_expiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule(10, "late");
+
+        assertEquals(List.of("late"), wheel.advanceTo(500));
+    }
+}
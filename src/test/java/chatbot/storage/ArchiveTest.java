@@ -0,0 +1,44 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Deadline;
+import chatbot.task.Task;
+import chatbot.task.Todo;
+
+public class ArchiveTest {
+    @Test
+    public void append_thenLoadInNewArchive_tasksKeptInOrder() throws Exception {
+        Path file = Files.createTempDirectory("archive").resolve("tasks.archive.txt");
+        Task todo = new Todo("pack book");
+        todo.markAsDone();
+
+        new Archive(file.toString()).append(List.of(todo));
+        new Archive(file.toString()).append(List.of(new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0))));
+
+        assertEquals("1.[T][X] pack book\n2.[D][ ] return book (by: Nov 1 2025, 09:00)",
+                new Archive(file.toString()).getTasks().toString());
+    }
+
+    @Test
+    public void isStale_doneAndUndoneTasks_onlyDoneTasksEndedBeforeCutoff() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 12, 1, 0, 0);
+        Deadline old = new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0));
+        Todo todo = new Todo("pack book");
+
+        assertFalse(Archive.isStale(old, cutoff));
+        old.markAsDone();
+        todo.markAsDone();
+        assertTrue(Archive.isStale(old, cutoff));
+        assertFalse(Archive.isStale(todo, cutoff));
+    }
+}
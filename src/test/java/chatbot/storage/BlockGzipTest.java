@@ -0,0 +1,78 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class BlockGzipTest {
+    @Test
+    public void readLines_manyBlocksAndAppendedBlocks_linesInOrder() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add("[T][ ] task number " + i);
+        }
+        lines.add("x".repeat(3 * BlockGzip.BLOCK_SIZE)); // Longer than a block
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (OutputStream out = BlockGzip.newOutputStream(file)) {
+            out.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = BlockGzip.newOutputStream(file)) { // Appending adds blocks
+            out.write("appended\n".getBytes(StandardCharsets.UTF_8));
+        }
+        lines.add("appended");
+
+        assertEquals(lines, BlockGzip.readLines(new ByteArrayInputStream(file.toByteArray()), StandardCharsets.UTF_8,
+                line -> line));
+        // Any gzip reader sees the same text
+        String text = new String(new GZIPInputStream(new ByteArrayInputStream(file.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(String.join("\n", lines) + "\n", text);
+    }
+
+    @Test
+    public void readLines_plainGzipOrEmptyFile_readAsWell() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(file)) {
+            out.write("a\n\n b \n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of("a", "b"), BlockGzip.readLines(new ByteArrayInputStream(file.toByteArray()),
+                StandardCharsets.UTF_8, line -> line));
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        BlockGzip.newOutputStream(empty).close();
+        assertEquals(List.of(), BlockGzip.readLines(new ByteArrayInputStream(empty.toByteArray()),
+                StandardCharsets.UTF_8, line -> line));
+        assertEquals(0, BlockGzip.inflate(empty.toByteArray()).length);
+    }
+
+    @Test
+    public void readLines_corruptSizeFields_rejectedWithoutAllocatingThem() throws Exception {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        try (OutputStream out = BlockGzip.newOutputStream(file)) {
+            out.write("[T][ ] read book\n".getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] memberSize = file.toByteArray();
+        ByteBuffer.wrap(memberSize).order(ByteOrder.LITTLE_ENDIAN).putInt(16, Integer.MAX_VALUE);
+        byte[] textSize = file.toByteArray();
+        ByteBuffer.wrap(textSize).order(ByteOrder.LITTLE_ENDIAN).putInt(textSize.length - 4, Integer.MAX_VALUE);
+
+        for (byte[] corrupt : List.of(memberSize, textSize)) {
+            IOException e = assertThrows(IOException.class, () -> BlockGzip.readLines(
+                    new ByteArrayInputStream(corrupt), StandardCharsets.UTF_8, line -> line));
+            assertEquals("Corrupt block in compressed file", e.getMessage());
+        }
+    }
+}
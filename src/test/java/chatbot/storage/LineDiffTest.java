@@ -0,0 +1,50 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LineDiffTest {
+    @Test
+    public void diff_smallEdits_onlyChangedLinesReported() {
+        List<String> before = List.of("a", "b", "c", "d", "e");
+        List<String> after = List.of("a", "B", "c", "e", "f");
+
+        assertEquals(List.of(new LineDiff.Edit(1, 1, List.of("B")), new LineDiff.Edit(3, 1, List.of()),
+                new LineDiff.Edit(5, 0, List.of("f"))), LineDiff.diff(before, after));
+        assertEquals(List.of(), LineDiff.diff(before, before));
+    }
+
+    @Test
+    public void diff_randomEdits_applyingEditsGivesNewVersion() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> before = new ArrayList<>();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                before.add("line " + random.nextInt(8));
+            }
+            List<String> after = new ArrayList<>(before);
+            for (int i = random.nextInt(6); i > 0; i--) {
+                int position = random.nextInt(after.size() + 1);
+                if (random.nextBoolean() && position < after.size()) {
+                    after.remove(position);
+                } else {
+                    after.add(position, "line " + random.nextInt(8));
+                }
+            }
+
+            List<String> applied = new ArrayList<>(before);
+            List<LineDiff.Edit> edits = LineDiff.diff(before, after);
+            for (int e = edits.size() - 1; e >= 0; e--) {
+                LineDiff.Edit edit = edits.get(e);
+                applied.subList(edit.position(), edit.position() + edit.deleted()).clear();
+                applied.addAll(edit.position(), edit.inserted());
+            }
+            assertEquals(after, applied);
+        }
+    }
+}
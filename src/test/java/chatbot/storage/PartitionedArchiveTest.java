@@ -0,0 +1,54 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Todo;
+
+public class PartitionedArchiveTest {
+    @Test
+    public void getTasksBetween_oneMonth_onlyOverlappingSegmentsRead() throws Exception {
+        Path file = Files.createTempDirectory("archive").resolve("tasks.archive.txt");
+        new PartitionedArchive(file.toString()).append(List.of(
+                new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0)),
+                new Event("exam", LocalDateTime.of(2025, 12, 3, 14, 0), LocalDateTime.of(2025, 12, 3, 16, 0)),
+                new Todo("pack book"),
+                new Deadline("pay rent", LocalDateTime.of(2025, 1, 1, 9, 0),
+                        new Recurrence(Recurrence.Frequency.MONTHLY, null, 0))));
+
+        PartitionedArchive archive = new PartitionedArchive(file.toString());
+        String tasks = archive.getTasksBetween(LocalDateTime.of(2025, 11, 30, 0, 0),
+                LocalDateTime.of(2025, 12, 31, 0, 0)).toString();
+
+        assertTrue(tasks.contains("exam") && tasks.contains("pay rent"));
+        assertFalse(tasks.contains("return book") || tasks.contains("pack book"));
+        assertEquals(List.of("2025-12", "recurring"), archive.getLoadedSegments());
+        assertEquals(4, archive.getTasks().getTotalTasks());
+    }
+
+    @Test
+    public void append_singleArchiveFileExists_fileSplitIntoSegments() throws Exception {
+        Path file = Files.createTempDirectory("archive").resolve("tasks.archive.txt");
+        new Archive(file.toString()).append(List.of(new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0))));
+
+        new PartitionedArchive(file.toString()).append(List.of(new Todo("pack book")));
+
+        assertFalse(Files.exists(file));
+        assertEquals("2025-11 | 2025-11-01T09:00 | 2025-11-01T09:00 | 1" + System.lineSeparator()
+                        + "undated | - | - | 1" + System.lineSeparator(),
+                Files.readString(file.resolveSibling("tasks.archive").resolve(PartitionedArchive.MANIFEST)));
+        assertEquals("1.[D][ ] return book (by: Nov 1 2025, 09:00)\n2.[T][ ] pack book",
+                new PartitionedArchive(file.toString()).getTasks().toString());
+    }
+}
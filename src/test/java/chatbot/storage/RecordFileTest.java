@@ -0,0 +1,94 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+
+public class RecordFileTest {
+    @Test
+    public void flush_markDeleteAndAppend_onlyChangedBytesWritten() throws Exception {
+        Path tasksFile = Files.createTempDirectory("records").resolve("tasks.txt");
+        Files.writeString(tasksFile, "[T][ ] read book\n[T][ ] buy milk\n");
+        RecordFile records = RecordFile.forTasksFile(tasksFile);
+        TaskList tasks = records.load();
+        tasks.addTask(new Deadline("return book", LocalDateTime.of(2025, 12, 2, 18, 0),
+                new Recurrence(Recurrence.Frequency.WEEKLY, LocalDateTime.of(2026, 1, 31, 18, 0), 0)));
+        records.flush();
+
+        Path recordsFile = tasksFile.resolveSibling("tasks.records");
+        byte[] before = Files.readAllBytes(recordsFile);
+        tasks.markTask(1);
+        records.flush();
+        byte[] after = Files.readAllBytes(recordsFile);
+        int changedBytes = 0;
+        for (int i = 0; i < before.length; i++) {
+            changedBytes += before[i] == after[i] ? 0 : 1;
+        }
+        assertEquals(before.length, after.length);
+        assertEquals(1, changedBytes);
+
+        tasks.removeRange(0, 1);
+        tasks.addTask(new Event("café meetup", LocalDateTime.of(2025, 12, 5, 19, 0),
+                LocalDateTime.of(2025, 12, 5, 21, 0), null));
+        tasks.unmarkTask(0);
+        tasks.markTask(2);
+        records.flush();
+        assertEquals(tasks.toString(), RecordFile.forTasksFile(tasksFile).load().toString());
+        assertEquals(4, records.getRecordCount()); // The deleted task is a tombstone
+    }
+
+    @Test
+    public void flush_mostlyTombstones_compactedWhileSavingContinues() throws Exception {
+        Path tasksFile = Files.createTempDirectory("records").resolve("tasks.txt");
+        RecordFile records = RecordFile.forTasksFile(tasksFile);
+        TaskList tasks = records.load();
+        for (int i = 0; i < 3 * RecordFile.MIN_TOMBSTONES_TO_COMPACT; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        records.flush();
+
+        tasks.removeTasks(task -> !task.getDescription().endsWith("7"));
+        records.flush(); // Starts a compaction
+        tasks.markTask(0);
+        tasks.addTask(new Todo("added while compacting"));
+        tasks.removeRange(1, 2);
+        records.flush();
+        records.awaitCompaction();
+        tasks.markTask(tasks.getTotalTasks() - 1);
+        records.flush();
+
+        assertEquals(tasks.getTotalTasks() + 1, records.getRecordCount()); // Deleted after the compaction began
+        assertEquals(tasks.toString(), RecordFile.forTasksFile(tasksFile).load().toString());
+        try (var files = Files.list(tasksFile.getParent())) {
+            assertEquals(List.of("tasks.heap.2", "tasks.records"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    public void flush_insertedInMiddle_filesRewritten() throws Exception {
+        Path tasksFile = Files.createTempDirectory("records").resolve("tasks.txt");
+        RecordFile records = RecordFile.forTasksFile(tasksFile);
+        TaskList tasks = records.load();
+        tasks.addTask(new Todo("read book"));
+        tasks.addTask(new Todo("buy milk"));
+        records.flush();
+
+        tasks.insertTasks(1, List.of(new Todo("call mum")));
+        tasks.removeRange(0, 1);
+        records.flush();
+        assertEquals("1.[T][ ] call mum\n2.[T][ ] buy milk", RecordFile.forTasksFile(tasksFile).load().toString());
+        assertEquals(2, records.getRecordCount());
+    }
+}
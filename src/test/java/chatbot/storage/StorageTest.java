@@ -0,0 +1,84 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.exception.ChatBotException;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+
+public class StorageTest {
+    @Test
+    public void reload_fileEditedElsewhere_onlyChangedTasksReplaced() throws Exception {
+        Path file = Files.createTempDirectory("reload").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("read book"));
+        tasks.addTask(new Todo("buy milk"));
+        tasks.addTask(new Todo("call mum"));
+        storage.saveToStorage(tasks);
+        assertEquals(new Storage.Reload(0, 0, 0), storage.reload(tasks)); // Our own save
+        Task readBook = tasks.getSpecificTask(0);
+
+        Files.writeString(file, "[T][X] read book\n[T][ ] call mum\n[T][ ] walk dog\n");
+        assertEquals(new Storage.Reload(1, 1, 1), storage.reload(tasks));
+        assertEquals("1.[T][X] read book\n2.[T][ ] call mum\n3.[T][ ] walk dog", tasks.toString());
+        assertSame(readBook, tasks.getSpecificTask(0)); // Marked in place
+        assertEquals(tasks.toString(), new TaskList(storage.load()).toString()); // Cache rebuilt for the new file
+    }
+
+    @Test
+    public void reload_sameSizeEditWithinOneClockTick_changeApplied() throws Exception {
+        Path file = Files.createTempDirectory("reload").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("read book"));
+        storage.saveToStorage(tasks);
+        FileTime saved = Files.getLastModifiedTime(file);
+
+        Files.writeString(file, Files.readString(file).replace("[ ] read", "[X] lend"));
+        Files.setLastModifiedTime(file, saved); // As if made within the same tick of a coarse clock
+        assertEquals(new Storage.Reload(0, 0, 1), storage.reload(tasks));
+        assertEquals("1.[T][X] lend book", tasks.toString());
+    }
+
+    @Test
+    public void load_compressedFile_sameTasksAsPlainFile() throws Exception {
+        Path directory = Files.createTempDirectory("compressed");
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 10_000; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        tasks.markTask(9_999);
+        Storage compressed = new Storage(directory.resolve("tasks.txt.gz").toString());
+        compressed.saveToStorage(tasks);
+        Files.delete(directory.resolve("tasks.txt.cache")); // Parse the file itself
+
+        assertEquals(tasks.toString(), new TaskList(compressed.load()).toString());
+        assertEquals(tasks.toString(), new TaskList(compressed.load()).toString()); // From the cache
+        Files.writeString(directory.resolve("tasks.txt"), "[T][ ] task 0\n");
+        assertEquals(new Storage.Reload(0, 9_999, 0), new Storage(directory.resolve("tasks.txt").toString())
+                .reload(tasks));
+    }
+
+    @Test
+    public void reload_invalidLine_listUnchanged() throws Exception {
+        Path file = Files.createTempDirectory("reload").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("read book"));
+        storage.saveToStorage(tasks);
+
+        Files.writeString(file, "[T][X] read book\nnot a task\n");
+        assertThrows(ChatBotException.class, () -> storage.reload(tasks));
+        assertEquals("1.[T][ ] read book", tasks.toString());
+    }
+}
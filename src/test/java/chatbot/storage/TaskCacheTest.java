@@ -0,0 +1,65 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+
+public class TaskCacheTest {
+    @Test
+    public void load_unchangedFile_sameTasksAsParsing() throws Exception {
+        Path file = Files.createTempDirectory("cache").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("  read book "));
+        tasks.addTask(new Deadline("return book", LocalDateTime.of(2025, 12, 2, 18, 0, 30),
+                new Recurrence(Recurrence.Frequency.WEEKLY, LocalDateTime.of(2026, 1, 31, 18, 0), 0)));
+        tasks.addTask(new Event("café meetup", LocalDateTime.of(1969, 7, 20, 20, 17),
+                LocalDateTime.of(1969, 7, 21, 2, 56), new Recurrence(Recurrence.Frequency.MONTHLY, null, 3)));
+        tasks.markTask(2);
+        storage.saveToStorage(tasks);
+
+        TaskCache cache = TaskCache.forTasksFile(file);
+        TaskList parsed = new TaskList();
+        for (String line : Files.readAllLines(file)) {
+            parsed.addTask(Storage.parseTask(line.trim()));
+        }
+        assertEquals(parsed.toString(), new TaskList(cache.read()).toString());
+        assertEquals(parsed.toString(), new TaskList(storage.load()).toString());
+    }
+
+    @Test
+    public void read_fileChangedOrImageCorrupt_fileParsedAgain() throws Exception {
+        Path file = Files.createTempDirectory("cache").resolve("tasks.txt");
+        Storage storage = new Storage(file.toString());
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("read book"));
+        storage.saveToStorage(tasks);
+        TaskCache cache = TaskCache.forTasksFile(file);
+
+        // Same size and modification time, different content: only the checksum notices
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, Files.readString(file).replace("read", "lend"));
+        Files.setLastModifiedTime(file, modified);
+        assertNull(cache.read());
+        assertEquals("1.[T][ ] lend book", new TaskList(storage.load()).toString());
+        assertEquals("1.[T][ ] lend book", new TaskList(cache.read()).toString()); // Rebuilt by the load
+
+        Path image = file.resolveSibling("tasks.cache");
+        Files.write(image, Arrays.copyOf(Files.readAllBytes(image), 40));
+        assertNull(cache.read());
+        assertEquals("1.[T][ ] lend book", new TaskList(storage.load()).toString());
+    }
+}
@@ -0,0 +1,98 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+
+public class TaskLogTest {
+    /** A clock that only moves when told to. */
+    private static class StepClock extends Clock {
+        private LocalDateTime now = LocalDateTime.of(2025, 12, 1, 9, 0);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    private static TaskLog logIn(Path directory, Clock clock) {
+        return TaskLog.forTasksFile(directory.resolve("tasks.txt"), clock);
+    }
+
+    @Test
+    public void load_existingTaskFile_tasksRecordedAndHistoryKept() throws Exception {
+        Path directory = Files.createTempDirectory("log");
+        Files.writeString(directory.resolve("tasks.txt"), "[T][ ] read book\n[T][X] water plants\n");
+        StepClock clock = new StepClock();
+
+        TaskLog log = logIn(directory, clock);
+        TaskList tasks = log.load();
+        clock.now = clock.now.plusHours(1);
+        Task book = tasks.getSpecificTask(0);
+        tasks.markTask(book);
+        clock.now = clock.now.plusHours(1);
+        tasks.deleteTask(tasks.getSpecificTask(1));
+        tasks.addTask(new Todo("call mum"));
+        log.flush();
+
+        assertEquals(2, log.getHistory(book).size());
+        assertTrue(log.getHistory(book).get(1) instanceof TaskEvent.TaskMarked);
+        assertEquals("1.[T][X] read book\n2.[T][ ] call mum", logIn(directory, clock).load().toString());
+        assertEquals("1.[T][ ] read book\n2.[T][X] water plants",
+                log.getTasksAt(LocalDateTime.of(2025, 12, 1, 9, 30)).toString());
+        assertEquals("1.[T][X] read book\n2.[T][X] water plants",
+                log.getTasksAt(LocalDateTime.of(2025, 12, 1, 10, 30)).toString());
+    }
+
+    @Test
+    public void load_manyChangesAndTornLastRecord_snapshotPlusTailRestoresList() throws Exception {
+        Path directory = Files.createTempDirectory("log");
+        StepClock clock = new StepClock();
+        TaskLog log = logIn(directory, clock);
+        TaskList tasks = log.load();
+
+        for (int i = 0; i < TaskLog.SNAPSHOT_INTERVAL + 200; i++) {
+            clock.now = clock.now.plusMinutes(1);
+            tasks.addTask(new Todo("task " + i));
+            if (i % 3 == 0) {
+                tasks.markTask(tasks.getSpecificTask(tasks.getTotalTasks() - 1));
+            }
+            if (i % 5 == 0) {
+                tasks.deleteTask(tasks.getSpecificTask(0));
+            }
+            log.flush();
+        }
+        assertTrue(Files.exists(directory.resolve("tasks.snapshot")));
+        Files.writeString(directory.resolve("tasks.log"), "added 99999 2026-01", StandardOpenOption.APPEND);
+
+        TaskLog reloaded = logIn(directory, clock);
+        assertEquals(tasks.toString(), reloaded.load().toString());
+        assertEquals(tasks.toString(), reloaded.getTasksAt(clock.now).toString());
+        assertEquals(List.of(), logIn(directory, clock).getTasksAt(LocalDateTime.of(2025, 1, 1, 0, 0)).getTasks());
+    }
+}
@@ -0,0 +1,107 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Deadline;
+import chatbot.task.Event;
+import chatbot.task.Recurrence;
+import chatbot.task.Task;
+import chatbot.task.TaskList;
+import chatbot.task.Todo;
+
+public class TaskTransferTest {
+    private static TaskList sampleTasks() {
+        Task todo = new Todo("buy milk, eggs and \"good\" bread; quickly");
+        todo.markAsDone();
+        Task attended = new Event("dentist", LocalDateTime.of(2025, 11, 3, 9, 0), LocalDateTime.of(2025, 11, 3, 10, 0));
+        attended.markAsDone();
+        return new TaskList(new ArrayList<>(List.of(todo, attended,
+                new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0),
+                        new Recurrence(Recurrence.Frequency.WEEKLY, LocalDateTime.of(2025, 12, 31, 23, 59), 0)),
+                new Event("project meeting with a very long description that has to be folded over several lines",
+                        LocalDateTime.of(2025, 12, 2, 16, 0), LocalDateTime.of(2025, 12, 2, 18, 0),
+                        new Recurrence(Recurrence.Frequency.DAILY, null, 5)))));
+    }
+
+    @Test
+    public void exportThenImport_csvAndIcs_sameTasks() throws Exception {
+        Path directory = Files.createTempDirectory("transfer");
+        TaskList tasks = sampleTasks();
+
+        for (String name : List.of("tasks.csv", "tasks.ics")) {
+            TaskTransfer.exportTo(directory.resolve(name), tasks);
+            TaskTransfer.Imported imported = TaskTransfer.importFrom(directory.resolve(name));
+
+            assertEquals(0, imported.skipped());
+            assertEquals(tasks.toString(), new TaskList(new ArrayList<>(imported.tasks())).toString());
+        }
+    }
+
+    @Test
+    public void importFrom_icsWithZonesFoldsAndUnsupportedRules_convertibleEntriesKept() throws Exception {
+        Path file = Files.createTempDirectory("transfer").resolve("calendar.ics");
+        Files.writeString(file, String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "SUMMARY:Team sync\\, weekly",
+                "DTSTART:20251201T100000",
+                "DURATION:PT1H",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO;COUNT=3",
+                "BEGIN:VALARM",
+                "SUMMARY:not the event summary",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "SUMMARY:Every other week",
+                "DTSTART:20251201T100000",
+                "RRULE:FREQ=WEEKLY;INTERVAL=2",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "SUMMARY:Submit rep",
+                " ort",
+                "DUE;VALUE=DATE:20251205",
+                "STATUS:COMPLETED",
+                "END:VTODO",
+                "BEGIN:VEVENT",
+                "SUMMARY:Holiday",
+                "DTSTART;VALUE=DATE:20251225",
+                "END:VEVENT",
+                "END:VCALENDAR"));
+
+        TaskTransfer.Imported imported = TaskTransfer.importFrom(file);
+
+        assertEquals(1, imported.skipped());
+        assertEquals("1.[E][ ] Team sync, weekly (from: Dec 1 2025, 10:00 to: Dec 1 2025, 11:00, every week, 3 times)\n"
+                + "2.[D][X] Submit report (by: Dec 5 2025, 00:00)\n"
+                + "3.[E][ ] Holiday (from: Dec 25 2025, 00:00 to: Dec 26 2025, 00:00)",
+                new TaskList(new ArrayList<>(imported.tasks())).toString());
+    }
+
+    @Test
+    public void importFrom_manyCsvRows_parsedInParallelInFileOrder() throws Exception {
+        Path file = Files.createTempDirectory("transfer").resolve("many.csv");
+        StringBuilder csv = new StringBuilder("type,description,done,start,end,repeats\n");
+        for (int i = 0; i < 10000; i++) {
+            csv.append(i % 100 == 0 ? "X,bad row,no,,,\n" : "D,task " + i + ",no,2025-12-02T16:00,,\n");
+        }
+        Files.writeString(file, csv);
+
+        TaskTransfer.Imported imported = TaskTransfer.importFrom(file);
+        TaskList tasks = new TaskList();
+        tasks.addTasks(imported.tasks());
+
+        assertEquals(100, imported.skipped());
+        assertEquals(9900, tasks.getTotalTasks());
+        assertEquals("task 1", tasks.getSpecificTask(0).getDescription());
+        assertEquals("task 9999", tasks.getSpecificTask(9899).getDescription());
+        assertEquals(9900, tasks.getUpcoming(LocalDateTime.of(2025, 1, 1, 0, 0), 10000).getTotalTasks());
+    }
+}
@@ -0,0 +1,59 @@
+package chatbot.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.task.Todo;
+
+public class WorkspaceTest {
+    @Test
+    public void saveDirty_changeInOneList_onlyThatListWritten() throws Exception {
+        Path directory = Files.createTempDirectory("workspace");
+        Files.writeString(directory.resolve("home.txt"), "[T][ ] water plants\n");
+        Workspace workspace = new Workspace(directory, Long.MAX_VALUE, Workspace.Format.TEXT, list -> { },
+                list -> { });
+
+        workspace.use("home");
+        workspace.use("work").getTasks().addTask(new Todo("write report"));
+        Files.writeString(directory.resolve("home.txt"), "changed elsewhere\n");
+        workspace.saveDirty();
+
+        assertEquals("changed elsewhere\n", Files.readString(directory.resolve("home.txt")));
+        assertEquals("[T][ ] write report" + System.lineSeparator(),
+                Files.readString(directory.resolve("work.txt")));
+        assertEquals(List.of("home", "work"), workspace.getNames());
+    }
+
+    @Test
+    public void use_overBudget_leastRecentlyUsedListSavedAndEvicted() throws Exception {
+        Path directory = Files.createTempDirectory("workspace");
+        for (String name : List.of("a", "b", "c")) {
+            Files.writeString(directory.resolve(name + ".txt"), "[T][ ] task in " + name + "\n");
+        }
+        List<String> evicted = new ArrayList<>();
+        // Each list is estimated at well over 100 bytes, so only two fit
+        Workspace workspace = new Workspace(directory, 400, Workspace.Format.TEXT, list -> { },
+                list -> evicted.add(list.getName()));
+
+        workspace.use("a").getTasks().addTask(new Todo("unsaved"));
+        workspace.use("b");
+        workspace.use("a");
+        workspace.use("c");
+
+        assertEquals(List.of("b"), evicted);
+        assertEquals(Set.of("a", "c"), workspace.getLoadedNames());
+
+        // Reloading b drops a, the least recently used, whose change is saved first
+        assertEquals(1, workspace.use("b").getTasks().getTotalTasks());
+        assertEquals(List.of("b", "a"), evicted);
+        assertTrue(Files.readString(directory.resolve("a.txt")).contains("unsaved"));
+    }
+}
@@ -0,0 +1,49 @@
+package chatbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import chatbot.exception.ChatBotException;
+
+public class DateParserTest {
+    // Wednesday, 3 December 2025, 10:00
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-12-03T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    public void parse_everyForm_sameDateAsFormatters() throws Exception {
+        LocalDateTime expected = LocalDateTime.of(2025, 12, 2, 18, 0);
+
+        assertEquals(expected, DateParser.parse("2/12/2025 1800", CLOCK));
+        assertEquals(expected, DateParser.parse("02/12/2025 18:00", CLOCK));
+        assertEquals(expected, DateParser.parse(" 2025-12-02T18:00 ", CLOCK));
+        assertEquals(expected, DateParser.parse("2025-12-02 18:00:00", CLOCK));
+        assertEquals(expected, DateParser.parse("Dec 2 2025, 18:00", CLOCK));
+        assertEquals(expected, DateParser.parse("december 2 2025 6pm", CLOCK));
+        assertEquals(expected.withNano(500_000_000), DateParser.parse("2025-12-02T18:00:00.5", CLOCK));
+        assertEquals(expected.toLocalDate().atStartOfDay(), DateParser.parse("2025-12-02", CLOCK));
+    }
+
+    @Test
+    public void parse_relativeDays_countedFromClock() throws Exception {
+        assertEquals(LocalDateTime.of(2025, 12, 3, 0, 0), DateParser.parse("today", CLOCK));
+        assertEquals(LocalDateTime.of(2025, 12, 4, 17, 0), DateParser.parse("Tomorrow 5pm", CLOCK));
+        assertEquals(LocalDateTime.of(2025, 12, 3, 0, 30), DateParser.parse("12:30am", CLOCK));
+        assertEquals(LocalDateTime.of(2025, 12, 8, 9, 0), DateParser.parse("next mon 0900", CLOCK));
+        assertEquals(LocalDateTime.of(2025, 12, 3, 12, 15), DateParser.parse("wed 12:15pm", CLOCK));
+        assertEquals(LocalDateTime.of(2025, 12, 10, 12, 15), DateParser.parse("next wednesday 12:15pm", CLOCK));
+    }
+
+    @Test
+    public void parse_invalidDates_chatBotExceptionThrown() {
+        for (String text : new String[]{"31/2/2025 1000", "2/12/2025 2460", "next", "monday 13pm", "tomorrowish", ""}) {
+            assertThrows(ChatBotException.class, () -> DateParser.parse(text, CLOCK));
+        }
+    }
+}
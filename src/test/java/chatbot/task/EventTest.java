@@ -3,6 +3,9 @@ package chatbot.task;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 public class EventTest {
@@ -16,4 +19,22 @@ public class EventTest {
             assertEquals("OOPS!! This string cannot be converted to an Event object.", e.getMessage());
         }
     }
+
+    @Test
+    public void getConflicts_overlappingAndTouchingEvents_onlyOverlapsReported() throws Exception {
+        TaskList tasks = new TaskList();
+        Event morning = new Event("standup", "1/12/2025 0900", "1/12/2025 1000");
+        Event workshop = new Event("workshop", "1/12/2025 0930", "1/12/2025 1200");
+        Event lunch = new Event("lunch", "1/12/2025 1200", "1/12/2025 1300");
+        tasks.addTask(morning);
+        tasks.addTask(workshop);
+        tasks.addTask(lunch);
+
+        Event review = new Event("review", "1/12/2025 1100", "1/12/2025 1230");
+        assertEquals(List.of(workshop, lunch), tasks.getConflicts(review));
+
+        List<Event[]> pairs = tasks.getConflictingPairs();
+        assertEquals(1, pairs.size());
+        assertEquals(List.of(morning, workshop), List.of(pairs.get(0)));
+    }
 }
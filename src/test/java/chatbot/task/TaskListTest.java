@@ -0,0 +1,359 @@
+package chatbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskListTest {
+    private TaskList createTasks() {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Todo("write report"));
+        tasks.addTask(new Deadline("submit report", LocalDateTime.of(2025, 12, 2, 18, 0)));
+        tasks.addTask(new Deadline("return book", LocalDateTime.of(2025, 11, 1, 9, 0)));
+        tasks.addTask(new Event("report review", LocalDateTime.of(2025, 12, 1, 10, 0),
+                LocalDateTime.of(2025, 12, 1, 11, 0)));
+        tasks.addTask(new Deadline("file report", LocalDateTime.of(2026, 2, 1, 9, 0)));
+        return tasks;
+    }
+
+    @Test
+    public void query_typeStatusDateAndWord_matchingTasksInListOrder() {
+        TaskList tasks = createTasks();
+        tasks.markTask(tasks.getSpecificTask(2));
+
+        TaskQuery query = new TaskQuery().ofType(Deadline.class).withStatus(false)
+                .before(LocalDateTime.of(2026, 1, 1, 0, 0)).matching("report");
+
+        assertEquals("1.[D][ ] submit report (by: Dec 2 2025, 18:00)", tasks.query(query).toString());
+    }
+
+    @Test
+    public void query_sortByDate_sameResultAsFilterScan() {
+        TaskList tasks = createTasks();
+        TaskQuery query = new TaskQuery().matching("REPORT").sortedBy(TaskQuery.SortKey.DATE);
+
+        TaskList unindexed = tasks.filter(task -> true);
+        assertEquals(unindexed.query(query).toString(), tasks.query(query).toString());
+        assertEquals("1.[E][ ] report review (from: Dec 1 2025, 10:00 to: Dec 1 2025, 11:00)\n"
+                + "2.[D][ ] submit report (by: Dec 2 2025, 18:00)\n"
+                + "3.[D][ ] file report (by: Feb 1 2026, 09:00)\n"
+                + "4.[T][ ] write report", tasks.query(query).toString());
+    }
+
+    @Test
+    public void query_afterDeleteAndUnmark_indexesUpdated() {
+        TaskList tasks = createTasks();
+        tasks.markTask(tasks.getSpecificTask(0));
+        tasks.unmarkTask(tasks.getSpecificTask(0));
+        tasks.deleteTask(tasks.getSpecificTask(1));
+
+        TaskList undone = tasks.query(new TaskQuery().withStatus(false).matching("report"));
+        assertEquals(new ArrayList<>(tasks.filter(task -> task.description.contains("report")).getTasks()),
+                undone.getTasks());
+    }
+
+    @Test
+    public void insertTasks_runMidList_indexedInListOrder() {
+        TaskList tasks = createTasks();
+        String before = tasks.toString();
+
+        tasks.insertTasks(1, tasks.removeRange(1, 4));
+
+        assertEquals(before, tasks.toString());
+        TaskList matches = tasks.query(new TaskQuery().matching("report"));
+        assertEquals(new ArrayList<>(tasks.filter(task -> task.description.contains("report")).getTasks()),
+                matches.getTasks());
+    }
+
+    @Test
+    public void getUpcomingAndOverdue_mixedTasks_undoneTasksInDateOrder() {
+        TaskList tasks = createTasks();
+        LocalDateTime now = LocalDateTime.of(2025, 11, 15, 0, 0);
+
+        assertEquals("1.[D][ ] return book (by: Nov 1 2025, 09:00)", tasks.getOverdue(now).toString());
+        assertEquals("1.[E][ ] report review (from: Dec 1 2025, 10:00 to: Dec 1 2025, 11:00)\n"
+                + "2.[D][ ] submit report (by: Dec 2 2025, 18:00)", tasks.getUpcoming(now, 2).toString());
+
+        tasks.markTask(tasks.getSpecificTask(3));
+        tasks.markTask(tasks.getSpecificTask(2));
+        assertEquals(0, tasks.getOverdue(now).getTotalTasks());
+        assertEquals("1.[D][ ] submit report (by: Dec 2 2025, 18:00)\n"
+                + "2.[D][ ] file report (by: Feb 1 2026, 09:00)", tasks.getUpcoming(now, 5).toString());
+    }
+
+    @Test
+    public void recurringTasks_upcomingOverdueAndStorage_occurrencesExpandedLazily() throws Exception {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Deadline("timesheet", "5/12/2025 1700", Recurrence.parse("weekly")));
+        tasks.addTask(new Event("gym", "1/12/2025 0700", "1/12/2025 0800", Recurrence.parse("daily /count 3")));
+        LocalDateTime now = LocalDateTime.of(2025, 12, 20, 12, 0);
+
+        assertEquals("1.[D][ ] timesheet (by: Dec 19 2025, 17:00)", tasks.getOverdue(now).toString());
+        assertEquals("1.[D][ ] timesheet (by: Dec 26 2025, 17:00)\n"
+                + "2.[D][ ] timesheet (by: Jan 2 2026, 17:00)", tasks.getUpcoming(now, 2).toString());
+        assertEquals(1, tasks.getConflicts(new Event("swim", "3/12/2025 0730", "3/12/2025 0830")).size());
+        assertEquals(0, tasks.getConflicts(new Event("swim", "4/12/2025 0730", "4/12/2025 0830")).size());
+
+        Task stored = tasks.getSpecificTask(1);
+        assertEquals("[E][ ] gym (from: Dec 1 2025, 07:00 to: Dec 1 2025, 08:00, every day, 3 times)",
+                stored.toString());
+        assertEquals(stored.toString(), Event.convertToEvent(stored.toString()).toString());
+    }
+
+    @Test
+    public void recurringTasks_clockMovingBothWaysAndMarked_seriesKeptInOccurrenceOrder() throws Exception {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new Deadline("timesheet", "5/12/2025 1700", Recurrence.parse("weekly")));
+        tasks.addTask(new Event("gym", "1/12/2025 0700", "1/12/2025 0800", Recurrence.parse("daily /count 3")));
+        tasks.addTask(new Event("standup", "1/12/2025 0900", "1/12/2025 0915", Recurrence.parse("daily")));
+        tasks.addTask(new Deadline("rent", "1/1/2026 0000", Recurrence.parse("monthly")));
+        LocalDateTime now = LocalDateTime.of(2025, 12, 20, 12, 0);
+
+        assertEquals("1.[E][ ] standup (from: Dec 21 2025, 09:00 to: Dec 21 2025, 09:15)\n"
+                + "2.[E][ ] standup (from: Dec 22 2025, 09:00 to: Dec 22 2025, 09:15)", tasks.getUpcoming(now, 2)
+                .toString());
+        assertEquals(7, tasks.getSummary(now).getEventsInNextWeek());
+        assertEquals("1.[D][ ] timesheet (by: Dec 19 2025, 17:00)", tasks.getOverdue(now).toString());
+
+        assertEquals("1.[E][ ] gym (from: Dec 2 2025, 07:00 to: Dec 2 2025, 08:00)\n"
+                + "2.[E][ ] standup (from: Dec 2 2025, 09:00 to: Dec 2 2025, 09:15)",
+                tasks.getUpcoming(LocalDateTime.of(2025, 12, 1, 12, 0), 2).toString());
+        assertEquals(9, tasks.getSummary(LocalDateTime.of(2025, 12, 1, 12, 0)).getEventsInNextWeek());
+
+        tasks.markTask(tasks.getSpecificTask(2));
+        LocalDateTime nextYear = LocalDateTime.of(2026, 1, 1, 12, 0);
+        assertEquals("1.[D][ ] timesheet (by: Jan 2 2026, 17:00)\n"
+                + "2.[D][ ] timesheet (by: Jan 9 2026, 17:00)", tasks.getUpcoming(nextYear, 2).toString());
+        assertEquals(0, tasks.getSummary(nextYear).getEventsInNextWeek());
+        assertEquals("1.[D][ ] timesheet (by: Dec 26 2025, 17:00)\n"
+                + "2.[D][ ] rent (by: Jan 1 2026, 00:00)", tasks.getOverdue(nextYear).toString());
+
+        tasks.unmarkTask(tasks.getSpecificTask(2));
+        assertEquals(7, tasks.getSummary(nextYear).getEventsInNextWeek());
+    }
+
+    @Test
+    public void appendTo_range_numberedByPositionInFullList() throws Exception {
+        TaskList tasks = createTasks();
+        StringBuilder out = new StringBuilder();
+        tasks.appendTo(out, 2, 4);
+
+        assertEquals("3.[D][ ] return book (by: Nov 1 2025, 09:00)\n"
+                + "4.[E][ ] report review (from: Dec 1 2025, 10:00 to: Dec 1 2025, 11:00)", out.toString());
+    }
+
+    @Test
+    public void getSummary_changesAndMovingClock_countsKeptUpToDate() {
+        TaskList tasks = createTasks();
+        LocalDateTime now = LocalDateTime.of(2025, 11, 30, 12, 0);
+
+        TaskSummary summary = tasks.getSummary(now);
+        assertEquals(5, summary.getTotal());
+        assertEquals(3, summary.getDeadlines());
+        assertEquals(1, summary.getOverdue());
+        assertEquals(1, summary.getEventsInNextDay());
+
+        tasks.markTask(tasks.getSpecificTask(2));
+        tasks.deleteTask(tasks.getSpecificTask(3));
+        summary = tasks.getSummary(now.plusDays(3));
+        assertEquals(1, summary.getDone());
+        assertEquals(1, summary.getOverdue());
+        assertEquals(0, summary.getEventsInNextWeek());
+    }
+
+    @Test
+    public void findSimilarAndByPrefix_typosAndPrefixes_rankedMatches() {
+        TaskList tasks = createTasks();
+        tasks.addTask(new Todo("read reports"));
+        tasks.addTask(new Todo("repair bike"));
+
+        assertEquals("1.[T][ ] write report\n"
+                + "2.[D][ ] submit report (by: Dec 2 2025, 18:00)\n"
+                + "3.[E][ ] report review (from: Dec 1 2025, 10:00 to: Dec 1 2025, 11:00)\n"
+                + "4.[D][ ] file report (by: Feb 1 2026, 09:00)\n"
+                + "5.[T][ ] read reports", tasks.findSimilar("REPORTT").toString());
+        assertEquals("1.[T][ ] repair bike", tasks.findByPrefix("repa").toString());
+        assertEquals(6, tasks.findByPrefix("rep").getTotalTasks());
+    }
+
+    @Test
+    public void changes_batchedRemovalsAndSubscriber_copyKeptInStep() throws Exception {
+        TaskList tasks = createTasks();
+        List<List<TaskChange>> batches = new ArrayList<>();
+        tasks.addListener(new TaskListener() {
+            @Override
+            public void taskAdded(Task task) {
+            }
+
+            @Override
+            public void taskRemoved(Task task) {
+            }
+
+            @Override
+            public void taskUpdated(Task task) {
+            }
+
+            @Override
+            public void tasksChanged(List<TaskChange> changes) {
+                batches.add(changes);
+            }
+        });
+        BlockingQueue<List<TaskChange>> published = new LinkedBlockingQueue<>();
+        tasks.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<TaskChange> changes) {
+                published.add(changes);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        List<Task> copy = new ArrayList<>(tasks.getTasks());
+
+        tasks.markTask(3);
+        tasks.removeTasks(task -> task.description.contains("report"));
+        tasks.beginBatch();
+        tasks.addTask(new Todo("a"));
+        tasks.addTask(new Todo("b"));
+        tasks.insertTasks(0, List.of(new Todo("c")));
+        tasks.endBatch();
+
+        assertEquals(3, batches.size());
+        assertEquals(List.of(new TaskChange.Removed(0, List.of(copy.get(0), copy.get(1))),
+                new TaskChange.Removed(1, List.of(copy.get(3), copy.get(4)))), batches.get(1));
+        assertEquals(2, batches.get(2).size());
+        assertEquals(new TaskChange.Added(1, List.of(tasks.getSpecificTask(2), tasks.getSpecificTask(3))),
+                batches.get(2).get(0));
+        List<Task> merged = ((TaskChange.Added) batches.get(2).get(0)).tasks();
+        assertThrows(UnsupportedOperationException.class, () -> merged.add(new Todo("d")));
+
+        for (int i = 0; i < batches.size(); i++) {
+            List<TaskChange> batch = published.poll(5, TimeUnit.SECONDS);
+            assertEquals(batches.get(i), batch);
+            for (TaskChange change : batch) {
+                change.applyTo(copy);
+            }
+        }
+        assertEquals(tasks.getTasks(), copy);
+        assertEquals("1.[T][ ] c\n2.[D][ ] return book (by: Nov 1 2025, 09:00)\n3.[T][ ] a\n4.[T][ ] b",
+                tasks.toString());
+    }
+
+    @Test
+    public void rollbackTransaction_mixedChanges_listAndIndexesRestoredWithoutTellingListeners() {
+        TaskList tasks = createTasks();
+        tasks.markTask(2);
+        String before = tasks.toString();
+        List<List<TaskChange>> batches = recordBatches(tasks);
+
+        tasks.beginTransaction();
+        tasks.markTask(0);
+        tasks.unmarkTask(2);
+        tasks.removeTasks(task -> task.description.contains("report"));
+        tasks.addTask(new Todo("report draft"));
+        tasks.insertTasks(0, List.of(new Todo("a"), new Todo("b")));
+        assertEquals(8, tasks.getUncommittedChanges());
+        tasks.rollbackTransaction();
+
+        assertEquals(before, tasks.toString());
+        assertEquals(List.of(), batches);
+        assertFalse(tasks.isInTransaction());
+        assertEquals(4, tasks.findByPrefix("report").getTotalTasks());
+        assertEquals(1, tasks.getOverdue(LocalDateTime.of(2025, 12, 31, 0, 0)).getTotalTasks());
+    }
+
+    @Test
+    public void commitTransaction_partlyRolledBack_keptChangesDeliveredInOneBatch() {
+        TaskList tasks = createTasks();
+        List<List<TaskChange>> batches = recordBatches(tasks);
+
+        tasks.beginTransaction();
+        tasks.addTask(new Todo("a"));
+        int savepoint = tasks.getUncommittedChanges();
+        tasks.addTask(new Todo("b"));
+        tasks.deleteTask(tasks.getSpecificTask(0));
+        tasks.rollbackTo(savepoint);
+        tasks.markTask(5);
+        assertEquals(List.of(), batches);
+        tasks.commitTransaction();
+
+        assertEquals(1, batches.size());
+        assertEquals("[T][X] a", tasks.getSpecificTask(5).toString());
+        assertEquals(6, tasks.getTotalTasks());
+        assertEquals("write report", tasks.getSpecificTask(0).description);
+    }
+
+    /**
+     * Returns the batches of changes delivered to listeners of the list from now on.
+     */
+    private static List<List<TaskChange>> recordBatches(TaskList tasks) {
+        List<List<TaskChange>> batches = new ArrayList<>();
+        tasks.addListener(new TaskListener() {
+            @Override
+            public void taskAdded(Task task) {
+            }
+
+            @Override
+            public void taskRemoved(Task task) {
+            }
+
+            @Override
+            public void taskUpdated(Task task) {
+            }
+
+            @Override
+            public void tasksChanged(List<TaskChange> changes) {
+                batches.add(changes);
+            }
+        });
+        return batches;
+    }
+
+    @Test
+    public void findMatching_listSplitIntoRanges_matchesInListOrder() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5 * ParallelScan.THRESHOLD; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+
+        TaskList matches = tasks.findMatching(Pattern.compile("task \\d*7$"), () -> false);
+
+        assertEquals(tasks.filter(task -> task.toString().endsWith("7")).toString(), matches.toString());
+        assertEquals(1024, matches.getTotalTasks());
+    }
+
+    @Test
+    public void findMatching_cancelledWhileScanning_searchStops() {
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 4 * ParallelScan.THRESHOLD; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThrows(CancellationException.class,
+                () -> tasks.findMatching(Pattern.compile("task"), () -> checks.incrementAndGet() > 3));
+    }
+}